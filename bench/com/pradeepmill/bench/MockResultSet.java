@@ -0,0 +1,111 @@
+package com.pradeepmill.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory ResultSet over fixed rows, so DAO mapping code can be measured
+ * without a database. Supports the getters the DAOs use, by column label or
+ * index, plus getMetaData, wasNull and beforeFirst (to reuse the same rows
+ * in every benchmark invocation).
+ */
+public final class MockResultSet implements InvocationHandler {
+
+    private final String[] columns;
+    private final List<Object[]> rows;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private int cursor = -1;
+    private boolean lastWasNull;
+
+    private MockResultSet(String[] columns, List<Object[]> rows) {
+        this.columns = columns;
+        this.rows = rows;
+        for (int i = 0; i < columns.length; i++) {
+            columnIndex.put(columns[i], i);
+        }
+    }
+
+    public static ResultSet create(String[] columns, List<Object[]> rows) {
+        return (ResultSet) Proxy.newProxyInstance(MockResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, new MockResultSet(columns, rows));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "next":
+                return ++cursor < rows.size();
+            case "beforeFirst":
+                cursor = -1;
+                return null;
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            case "wasNull":
+                return lastWasNull;
+            case "findColumn":
+                return column(args[0]) + 1;
+            case "getMetaData":
+                return metaData();
+            default:
+                break;
+        }
+        if (!name.startsWith("get") || args == null || args.length != 1) {
+            throw new SQLException("MockResultSet does not support " + name);
+        }
+
+        Object value = rows.get(cursor)[column(args[0])];
+        lastWasNull = value == null;
+        Class<?> type = method.getReturnType();
+        if (type == int.class) {
+            return value == null ? 0 : ((Number) value).intValue();
+        } else if (type == long.class) {
+            return value == null ? 0L : ((Number) value).longValue();
+        } else if (type == double.class) {
+            return value == null ? 0.0 : ((Number) value).doubleValue();
+        } else if (type == boolean.class) {
+            return value != null && (Boolean) value;
+        } else if (type == String.class) {
+            return value == null ? null : value.toString();
+        } else if (type == BigDecimal.class && value instanceof Number && !(value instanceof BigDecimal)) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return value;
+    }
+
+    private int column(Object key) throws SQLException {
+        if (key instanceof Integer) {
+            return (Integer) key - 1;
+        }
+        Integer index = columnIndex.get(key);
+        if (index == null) {
+            throw new SQLException("Column not found: " + key);
+        }
+        return index;
+    }
+
+    private ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(MockResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return columns.length;
+                    case "getColumnName":
+                    case "getColumnLabel":
+                        return columns[(Integer) args[0] - 1];
+                    default:
+                        throw new SQLException("MockResultSet metadata does not support " + method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,59 @@
+package com.pradeepmill.bench;
+
+import com.pradeepmill.models.StockInventory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Stock status and reorder calculations over a large inventory list, as
+ * done by the inventory screens and alerts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockInventoryBenchmark {
+
+    @Param({"100000"})
+    public int items;
+
+    private List<StockInventory> inventory;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        inventory = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            StockInventory stock = new StockInventory();
+            stock.setProductId(i);
+            stock.setMinimumLevel(500);
+            stock.setMaximumLevel(i % 10 == 0 ? 0 : 5000);
+            stock.setCurrentQuantity(random.nextInt(6000) - 200);
+            inventory.add(stock);
+        }
+    }
+
+    @Benchmark
+    public void stockStatus(Blackhole blackhole) {
+        for (StockInventory stock : inventory) {
+            blackhole.consume(stock.getStockStatus());
+        }
+    }
+
+    @Benchmark
+    public double reorderQuantity() {
+        double total = 0;
+        for (StockInventory stock : inventory) {
+            if (stock.needsReorder()) {
+                total += stock.getReorderQuantity();
+            }
+        }
+        return total;
+    }
+}
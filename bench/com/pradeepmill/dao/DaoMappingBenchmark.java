@@ -0,0 +1,197 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.bench.MockResultSet;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ResultSet to model mapping for each DAO, over in-memory result sets of
+ * the same shape as the real queries. Scores are per result set of
+ * {@code rows} rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoMappingBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private final SupplierDAO supplierDAO = new SupplierDAO();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final MachineDAO machineDAO = new MachineDAO();
+    private final StaffDAO staffDAO = new StaffDAO();
+    private final StockInventoryDAO stockDAO = new StockInventoryDAO();
+    private final PurchaseOrderDAO purchaseOrderDAO = new PurchaseOrderDAO();
+    private final SalesOrderDAO salesOrderDAO = new SalesOrderDAO();
+    private final ProductionRecordDAO productionDAO = new ProductionRecordDAO();
+    private final ReportDAO reportDAO = new ReportDAO();
+
+    private ResultSet customers;
+    private ResultSet suppliers;
+    private ResultSet products;
+    private ResultSet machines;
+    private ResultSet staff;
+    private ResultSet stock;
+    private ResultSet purchaseOrders;
+    private ResultSet salesOrders;
+    private ResultSet productionRecords;
+    private ResultSet reportRows;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Date date = Date.valueOf("2024-03-15");
+        Timestamp timestamp = Timestamp.valueOf("2024-03-15 10:30:00");
+
+        List<Object[]> customerRows = new ArrayList<>();
+        List<Object[]> supplierRows = new ArrayList<>();
+        List<Object[]> productRows = new ArrayList<>();
+        List<Object[]> machineRows = new ArrayList<>();
+        List<Object[]> staffRows = new ArrayList<>();
+        List<Object[]> stockRows = new ArrayList<>();
+        List<Object[]> purchaseRows = new ArrayList<>();
+        List<Object[]> saleRows = new ArrayList<>();
+        List<Object[]> productionRows = new ArrayList<>();
+        List<Object[]> summaryRows = new ArrayList<>();
+        for (int i = 1; i <= rows; i++) {
+            customerRows.add(new Object[] {i, "Customer " + i, "Contact " + i, "0771234567", "Polonnaruwa",
+                "customer" + i + "@example.com", "Retail", 50000.0, "Active", date, timestamp, timestamp});
+            supplierRows.add(new Object[] {i, "Supplier " + i, "Contact " + i, "0771234567", "Ampara",
+                "supplier" + i + "@example.com", 100000.0, "Active", date, timestamp, timestamp});
+            productRows.add(new Object[] {i, "Product " + i, "Finished_Rice", "A", 210.0, "kg",
+                "Description " + i, "Active", timestamp, timestamp});
+            machineRows.add(new Object[] {i, "Machine " + i, "Polisher", "Mill floor 1", date, 800.0,
+                "Active", timestamp, timestamp});
+            staffRows.add(new Object[] {i, "Employee " + i, "Machine Operator", "0771234567", "Kandy", date,
+                55000.0, "Active", timestamp, timestamp});
+            stockRows.add(new Object[] {i, i, random.nextInt(2000) * 1.0, 500.0, 5000.0, timestamp,
+                "Product " + i, "Finished_Rice", 210.0, "kg"});
+            purchaseRows.add(new Object[] {i, "PO202403150001", i, "Supplier " + i, date, 1500.0, 180000.0,
+                90000.0, "Partial", null, "admin", timestamp, timestamp});
+            saleRows.add(new Object[] {i, "SO202403150001", i, "Customer " + i, date, 50.0, 10500.0,
+                10500.0, "Paid", null, "admin", timestamp, timestamp});
+            productionRows.add(new Object[] {i, "PRD202403150001", date, 1, "Samba Paddy", 5, "Samba Rice",
+                1000.0, 660.0, 66.0, 30.0, 3, "Polisher 1", 7, "Operator 7", null, timestamp, timestamp});
+            summaryRows.add(new Object[] {i, "Customer " + i, "0771234567", "Polonnaruwa", "Retail",
+                12L, BigDecimal.valueOf(125000.50), BigDecimal.valueOf(2500.25), date});
+        }
+
+        customers = MockResultSet.create(new String[] {"customer_id", "customer_name", "contact_person", "phone",
+            "address", "email", "customer_type", "credit_limit", "status", "registration_date", "created_at", "updated_at"}, customerRows);
+        suppliers = MockResultSet.create(new String[] {"supplier_id", "supplier_name", "contact_person", "phone",
+            "address", "email", "credit_limit", "status", "registration_date", "created_at", "updated_at"}, supplierRows);
+        products = MockResultSet.create(new String[] {"product_id", "product_name", "product_type", "grade",
+            "unit_price", "unit", "description", "status", "created_at", "updated_at"}, productRows);
+        machines = MockResultSet.create(new String[] {"machine_id", "machine_name", "machine_type", "location",
+            "installation_date", "capacity_per_hour", "status", "created_at", "updated_at"}, machineRows);
+        staff = MockResultSet.create(new String[] {"staff_id", "employee_name", "position", "phone", "address",
+            "hire_date", "monthly_salary", "status", "created_at", "updated_at"}, staffRows);
+        stock = MockResultSet.create(new String[] {"stock_id", "product_id", "current_quantity", "minimum_level",
+            "maximum_level", "last_updated", "product_name", "product_type", "unit_price", "unit"}, stockRows);
+        purchaseOrders = MockResultSet.create(new String[] {"purchase_id", "purchase_number", "supplier_id",
+            "supplier_name", "purchase_date", "total_quantity", "total_amount", "paid_amount", "payment_status",
+            "notes", "created_by", "created_at", "updated_at"}, purchaseRows);
+        salesOrders = MockResultSet.create(new String[] {"sale_id", "sale_number", "customer_id", "customer_name",
+            "sale_date", "total_quantity", "total_amount", "paid_amount", "payment_status", "notes", "created_by",
+            "created_at", "updated_at"}, saleRows);
+        productionRecords = MockResultSet.create(new String[] {"production_id", "production_number",
+            "production_date", "raw_product_id", "raw_product_name", "finished_product_id", "finished_product_name",
+            "input_quantity", "output_quantity", "conversion_rate", "waste_quantity", "machine_id", "machine_name",
+            "operator_id", "operator_name", "notes", "created_at", "updated_at"}, productionRows);
+        reportRows = MockResultSet.create(new String[] {"customer_id", "customer_name", "phone", "address",
+            "customer_type", "total_orders", "total_purchases", "outstanding_balance", "last_purchase_date"}, summaryRows);
+    }
+
+    @Benchmark
+    public void customers(Blackhole blackhole) throws SQLException {
+        customers.beforeFirst();
+        while (customers.next()) {
+            blackhole.consume(customerDAO.mapResultSetToCustomer(customers));
+        }
+    }
+
+    @Benchmark
+    public void suppliers(Blackhole blackhole) throws SQLException {
+        suppliers.beforeFirst();
+        while (suppliers.next()) {
+            blackhole.consume(supplierDAO.mapResultSetToSupplier(suppliers));
+        }
+    }
+
+    @Benchmark
+    public void products(Blackhole blackhole) throws SQLException {
+        products.beforeFirst();
+        while (products.next()) {
+            blackhole.consume(productDAO.mapResultSetToProduct(products));
+        }
+    }
+
+    @Benchmark
+    public void machines(Blackhole blackhole) throws SQLException {
+        machines.beforeFirst();
+        while (machines.next()) {
+            blackhole.consume(machineDAO.mapResultSetToMachine(machines));
+        }
+    }
+
+    @Benchmark
+    public void staff(Blackhole blackhole) throws SQLException {
+        staff.beforeFirst();
+        while (staff.next()) {
+            blackhole.consume(staffDAO.mapResultSetToStaff(staff));
+        }
+    }
+
+    @Benchmark
+    public void stock(Blackhole blackhole) throws SQLException {
+        stock.beforeFirst();
+        while (stock.next()) {
+            blackhole.consume(stockDAO.mapResultSetToStockInventory(stock));
+        }
+    }
+
+    @Benchmark
+    public void purchaseOrders(Blackhole blackhole) throws SQLException {
+        purchaseOrders.beforeFirst();
+        while (purchaseOrders.next()) {
+            blackhole.consume(purchaseOrderDAO.mapResultSetToPurchaseOrder(purchaseOrders));
+        }
+    }
+
+    @Benchmark
+    public void salesOrders(Blackhole blackhole) throws SQLException {
+        salesOrders.beforeFirst();
+        while (salesOrders.next()) {
+            blackhole.consume(salesOrderDAO.mapResultSetToSalesOrder(salesOrders));
+        }
+    }
+
+    @Benchmark
+    public void productionRecords(Blackhole blackhole) throws SQLException {
+        productionRecords.beforeFirst();
+        while (productionRecords.next()) {
+            blackhole.consume(productionDAO.mapResultSetToProductionRecord(productionRecords));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reportRows() throws SQLException {
+        reportRows.beforeFirst();
+        return reportDAO.mapRows(reportRows);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.*;
+import com.pradeepmill.models.StockInventory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Dashboard metric aggregation with DAOs that answer from memory, so the
+ * score is the service's own overhead on top of its queries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardBenchmark {
+
+    @Param({"50"})
+    public int alertItems;
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setUp() {
+        List<StockInventory> lowStock = new ArrayList<>();
+        List<StockInventory> outOfStock = new ArrayList<>();
+        for (int i = 0; i < alertItems; i++) {
+            lowStock.add(new StockInventory());
+            if (i % 5 == 0) {
+                outOfStock.add(new StockInventory());
+            }
+        }
+
+        dashboardService = new DashboardService(
+            new SupplierDAO() {
+                @Override
+                public int getTotalSupplierCount() { return 2000; }
+            },
+            new CustomerDAO() {
+                @Override
+                public int getTotalCustomerCount() { return 50000; }
+            },
+            new ProductDAO() {
+                @Override
+                public int getTotalProductCount() { return 12; }
+            },
+            new StaffDAO() {
+                @Override
+                public int getTotalStaffCount() { return 150; }
+
+                @Override
+                public double getTotalMonthlySalaryExpense() { return 8_250_000.0; }
+            },
+            new StockInventoryDAO() {
+                @Override
+                public double getTotalStockValue() { return 45_000_000.0; }
+
+                @Override
+                public List<StockInventory> getLowStockItems() { return new ArrayList<>(lowStock); }
+
+                @Override
+                public List<StockInventory> getOutOfStockItems() { return new ArrayList<>(outOfStock); }
+            },
+            new ReportDAO());
+    }
+
+    @Benchmark
+    public Map<String, Object> allDashboardMetrics() {
+        return dashboardService.getAllDashboardMetrics();
+    }
+}
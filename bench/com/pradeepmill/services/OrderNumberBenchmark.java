@@ -0,0 +1,45 @@
+package com.pradeepmill.services;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Purchase, sale and production number generation, which runs once per
+ * transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderNumberBenchmark {
+
+    private TransactionService transactionService;
+
+    @Setup
+    public void setUp() {
+        transactionService = new TransactionService();
+    }
+
+    @Benchmark
+    public String purchaseNumber() {
+        return transactionService.generatePurchaseNumber();
+    }
+
+    @Benchmark
+    public String saleNumber() {
+        return transactionService.generateSaleNumber();
+    }
+
+    @Benchmark
+    public String productionNumber() {
+        return transactionService.generateProductionNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String saleNumberContended() {
+        return transactionService.generateSaleNumber();
+    }
+}
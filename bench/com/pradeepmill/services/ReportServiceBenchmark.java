@@ -0,0 +1,86 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.ReportDAO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Report row post-processing: currency formatting, number conversion of the
+ * mixed BigDecimal/Double/Long/String values JDBC hands back, and the whole
+ * customer details report over rows supplied without a database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private Object[] values;
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        values = new Object[rows];
+        List<Map<String, Object>> template = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            switch (i % 4) {
+                case 0: values[i] = BigDecimal.valueOf(i * 125.25); break;
+                case 1: values[i] = i * 99.5; break;
+                case 2: values[i] = (long) i * 1000; break;
+                default: values[i] = String.valueOf(i * 10.5); break;
+            }
+
+            Map<String, Object> row = new HashMap<>();
+            row.put("customer_id", i);
+            row.put("customer_name", "Customer " + i);
+            row.put("total_orders", 12L);
+            row.put("total_purchases", BigDecimal.valueOf(125000.50 + i));
+            row.put("outstanding_balance", BigDecimal.valueOf(i % 3 == 0 ? 0 : 2500.25));
+            template.add(row);
+        }
+
+        // The report adds columns to its rows, so hand out fresh copies each time
+        reportService = new ReportService(new ReportDAO() {
+            @Override
+            public List<Map<String, Object>> getCustomerDetailsReport() {
+                List<Map<String, Object>> copy = new ArrayList<>(template.size());
+                for (Map<String, Object> row : template) {
+                    copy.add(new HashMap<>(row));
+                }
+                return copy;
+            }
+        });
+    }
+
+    @Benchmark
+    public void formatCurrency(Blackhole blackhole) {
+        for (Object value : values) {
+            blackhole.consume(reportService.formatCurrency(value));
+        }
+    }
+
+    @Benchmark
+    public double convertToDouble() {
+        double sum = 0;
+        for (Object value : values) {
+            sum += reportService.convertToDouble(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> customerDetailsReport() {
+        return reportService.generateCustomerDetailsReport();
+    }
+}
@@ -0,0 +1,17 @@
+-- Indexes for the receivables and payables aging report.
+--
+-- ReportDAO.getReceivablesAging / getPayablesAging sum the outstanding
+-- amount of every open order per party in one pass. With these indexes the
+-- pass reads only the open orders, from the index alone, instead of
+-- scanning the whole order table. The drill-down to a party's orders in one
+-- bucket, and the outstanding order lookups of bulk payments, use the same
+-- index prefix.
+--
+-- Install (optional, the report works without it):
+--   mysql -u root -p pradeep_rice_mill < db/aging_indexes.sql
+
+ALTER TABLE sales_orders
+  ADD INDEX idx_sales_orders_aging (payment_status, customer_id, sale_date, total_amount, paid_amount);
+
+ALTER TABLE purchase_orders
+  ADD INDEX idx_purchase_orders_aging (payment_status, supplier_id, purchase_date, total_amount, paid_amount);
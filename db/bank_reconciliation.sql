@@ -0,0 +1,37 @@
+-- Bank statement reconciliation.
+--
+-- Every imported statement line is kept in bank_statement_lines with the
+-- outcome of matching it: receipts matched to a sale are posted as
+-- payments on the sale (and the customer ledger), payments out matched to
+-- a payment record are marked reconciled, and everything else is kept with
+-- its mismatch status for review. line_key is the bank's transaction id
+-- (OFX FITID) or a hash of the line, so importing the same statement again
+-- skips lines already posted or reconciled and re-checks the rest.
+--
+-- Install:
+--   mysql -u root -p pradeep_rice_mill < db/bank_reconciliation.sql
+--
+-- Without this table statements can be checked but not posted.
+
+CREATE TABLE IF NOT EXISTS bank_statement_lines (
+    line_id INT AUTO_INCREMENT PRIMARY KEY,
+    line_key VARCHAR(64) NOT NULL,
+    source_file VARCHAR(255) NULL,
+    line_number INT NOT NULL,
+    transaction_date DATE NOT NULL,
+    amount DECIMAL(14,2) NOT NULL,          -- positive money in, negative money out
+    description VARCHAR(255) NULL,
+    reference_number VARCHAR(50) NULL,
+    status VARCHAR(20) NOT NULL,
+    match_method VARCHAR(20) NULL,
+    payment_id INT NULL,
+    sale_id INT NULL,
+    purchase_id INT NULL,
+    customer_id INT NULL,
+    supplier_id INT NULL,
+    note VARCHAR(255) NULL,
+    imported_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_bank_statement_lines_key (line_key),
+    KEY idx_bank_statement_lines_payment (payment_id),
+    KEY idx_bank_statement_lines_status (status, transaction_date)
+);
@@ -0,0 +1,77 @@
+-- Customer receivables ledger.
+--
+-- Every sale, payment and correction is an entry in customer_ledger_entries
+-- with the customer's balance after it, and customer_balances holds the
+-- current balance per customer. Both are written in the same transaction as
+-- the sale or payment (SalesOrderDAO, CustomerLedgerDAO and the post_sale
+-- procedure), so a balance is a primary key lookup and a customer's history
+-- is an index range scan instead of an aggregation over all their orders.
+--
+-- Install before db/posting_procedures.sql (MySQL 8.0 or later, the
+-- backfill uses a window function):
+--   mysql -u root -p pradeep_rice_mill < db/customer_ledger.sql
+--
+-- Existing sales are backfilled as one Sale entry each plus one Payment
+-- entry for any amount already paid, dated on the sale date. Running the
+-- script again does not duplicate entries; it recalculates the running
+-- and current balances from the entries.
+
+CREATE TABLE IF NOT EXISTS customer_ledger_entries (
+    entry_id INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    sale_id INT NULL,
+    entry_type ENUM('Sale', 'Payment', 'Adjustment') NOT NULL,
+    amount DECIMAL(14,2) NOT NULL,          -- positive increases what the customer owes
+    balance_after DECIMAL(14,2) NOT NULL,
+    payment_method VARCHAR(30) NULL,
+    reference_number VARCHAR(50) NULL,
+    entry_date DATE NOT NULL,
+    notes TEXT NULL,
+    created_by VARCHAR(50) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    KEY idx_ledger_customer_entry (customer_id, entry_id),
+    KEY idx_ledger_sale (sale_id),
+    CONSTRAINT fk_ledger_customer FOREIGN KEY (customer_id) REFERENCES customers (customer_id),
+    CONSTRAINT fk_ledger_sale FOREIGN KEY (sale_id) REFERENCES sales_orders (sale_id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS customer_balances (
+    customer_id INT NOT NULL PRIMARY KEY,
+    balance DECIMAL(14,2) NOT NULL DEFAULT 0,
+    last_entry_id INT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_balance_customer FOREIGN KEY (customer_id) REFERENCES customers (customer_id)
+);
+
+START TRANSACTION;
+
+-- Backfill from existing sales, oldest first, only into an empty ledger
+INSERT INTO customer_ledger_entries (customer_id, sale_id, entry_type, amount, balance_after, entry_date, notes, created_by)
+SELECT customer_id, sale_id, entry_type, amount, 0, sale_date, notes, created_by
+  FROM (SELECT customer_id, sale_id, 'Sale' AS entry_type, total_amount AS amount, sale_date,
+               CONCAT('Sale ', sale_number) AS notes, created_by, 1 AS seq
+          FROM sales_orders
+        UNION ALL
+        SELECT customer_id, sale_id, 'Payment', -paid_amount, sale_date,
+               CONCAT('Paid on sale ', sale_number, ' before the ledger'), created_by, 2
+          FROM sales_orders
+         WHERE paid_amount > 0) e
+ WHERE NOT EXISTS (SELECT 1 FROM customer_ledger_entries)
+ ORDER BY sale_date, sale_id, seq;
+
+-- Running balance of every entry
+UPDATE customer_ledger_entries e
+  JOIN (SELECT entry_id, SUM(amount) OVER (PARTITION BY customer_id ORDER BY entry_id) AS running
+          FROM customer_ledger_entries) r
+    ON r.entry_id = e.entry_id
+   SET e.balance_after = r.running;
+
+-- Current balance of every customer, including those without entries
+INSERT INTO customer_balances (customer_id, balance, last_entry_id)
+SELECT c.customer_id, COALESCE(SUM(e.amount), 0), MAX(e.entry_id)
+  FROM customers c
+  LEFT JOIN customer_ledger_entries e ON e.customer_id = c.customer_id
+ GROUP BY c.customer_id
+ON DUPLICATE KEY UPDATE balance = VALUES(balance), last_entry_id = VALUES(last_entry_id);
+
+COMMIT;
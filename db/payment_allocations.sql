@@ -0,0 +1,31 @@
+-- Bulk payment allocations.
+--
+-- One row per lump-sum payment that PaymentAllocationService spread over a
+-- customer's or supplier's outstanding orders. The unique key on the party
+-- and reference number makes saving the same payment twice a no-op: the
+-- second attempt finds the first allocation instead of paying the orders
+-- again.
+--
+-- Install:
+--   mysql -u root -p pradeep_rice_mill < db/payment_allocations.sql
+--
+-- Without this table the service still refuses a reference number that is
+-- already on the party's payment records or ledger, but two saves running
+-- at the same moment are not guarded against.
+
+CREATE TABLE IF NOT EXISTS payment_allocations (
+    allocation_id INT AUTO_INCREMENT PRIMARY KEY,
+    party_type ENUM('Customer', 'Supplier') NOT NULL,
+    party_id INT NOT NULL,
+    reference_number VARCHAR(50) NOT NULL,
+    payment_amount DECIMAL(14,2) NOT NULL,
+    allocated_amount DECIMAL(14,2) NOT NULL,
+    unallocated_amount DECIMAL(14,2) NOT NULL,
+    order_count INT NOT NULL,
+    strategy VARCHAR(20) NOT NULL,
+    payment_method VARCHAR(30) NULL,
+    payment_date DATE NOT NULL,
+    created_by VARCHAR(50) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_payment_allocations_reference (party_type, party_id, reference_number)
+);
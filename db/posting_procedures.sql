@@ -0,0 +1,334 @@
+-- Server-side posting of sales, purchases and production runs.
+--
+-- Each procedure validates the header and lines, allocates the document
+-- number, inserts the header and items, applies guarded stock updates and
+-- commits, all in one call. TransactionService uses them when started with
+-- -Dpradeepmill.posting.procedures=true and falls back to client-side
+-- posting if they are not installed.
+--
+-- Install (MySQL 8.0 or later, JSON_TABLE is required):
+--   mysql -u root -p pradeep_rice_mill < db/posting_procedures.sql
+-- Re-run it after upgrading: the application calls the procedures with the
+-- parameters defined here (post_production takes the waste quantity).
+--
+-- Lines are passed as a JSON array:
+--   [{"product_id": 12, "quantity": 50.0, "unit_price": 210.0}, ...]
+-- A unit_price of 0 or a missing unit_price uses the product's price.
+-- Validation failures are raised as SQLSTATE 45000 with a readable message.
+-- post_sale also posts the sale to the customer ledger if db/customer_ledger.sql
+-- is installed.
+
+CREATE TABLE IF NOT EXISTS document_sequences (
+    sequence_key VARCHAR(20) NOT NULL PRIMARY KEY,
+    last_value INT NOT NULL
+);
+
+DELIMITER $$
+
+-- Next number for a prefix and day, e.g. SO202410190007. The first number of
+-- a day continues after p_floor so it never repeats a number already saved
+-- by client-side posting. The sequence row stays locked until commit.
+DROP PROCEDURE IF EXISTS allocate_document_number$$
+CREATE PROCEDURE allocate_document_number(
+    IN p_key VARCHAR(20),
+    IN p_floor INT,
+    OUT p_number VARCHAR(30))
+BEGIN
+    DECLARE v_value INT;
+
+    INSERT INTO document_sequences (sequence_key, last_value)
+    VALUES (p_key, p_floor + 1)
+    ON DUPLICATE KEY UPDATE last_value = last_value + 1;
+
+    SELECT last_value INTO v_value FROM document_sequences WHERE sequence_key = p_key;
+    SET p_number = CONCAT(p_key, LPAD(v_value, GREATEST(4, LENGTH(v_value)), '0'));
+END$$
+
+-- Parse the JSON lines into tmp_posting_lines, resolving default prices,
+-- and return the number of lines and distinct products
+DROP PROCEDURE IF EXISTS load_posting_lines$$
+CREATE PROCEDURE load_posting_lines(
+    IN p_lines JSON,
+    OUT p_line_count INT,
+    OUT p_product_count INT)
+BEGIN
+    DECLARE v_message VARCHAR(255);
+    DECLARE v_product_id INT DEFAULT NULL;
+
+    DROP TEMPORARY TABLE IF EXISTS tmp_posting_lines;
+    CREATE TEMPORARY TABLE tmp_posting_lines (
+        line_no INT NOT NULL,
+        product_id INT,
+        quantity DOUBLE,
+        unit_price DOUBLE,
+        known_product TINYINT NOT NULL
+    );
+
+    INSERT INTO tmp_posting_lines (line_no, product_id, quantity, unit_price, known_product)
+    SELECT j.line_no, j.product_id, j.quantity,
+           IF(j.unit_price > 0, j.unit_price, p.unit_price),
+           p.product_id IS NOT NULL
+      FROM JSON_TABLE(p_lines, '$[*]' COLUMNS (
+               line_no FOR ORDINALITY,
+               product_id INT PATH '$.product_id',
+               quantity DOUBLE PATH '$.quantity',
+               unit_price DOUBLE PATH '$.unit_price' DEFAULT '0' ON EMPTY)) j
+      LEFT JOIN products p ON p.product_id = j.product_id AND p.status = 'Active';
+
+    SELECT COUNT(*), COUNT(DISTINCT product_id) INTO p_line_count, p_product_count FROM tmp_posting_lines;
+    IF p_line_count = 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'No items to post';
+    END IF;
+
+    SELECT product_id INTO v_product_id FROM tmp_posting_lines WHERE known_product = 0 ORDER BY line_no LIMIT 1;
+    IF v_product_id IS NOT NULL THEN
+        SET v_message = CONCAT('Product not found or inactive: ', v_product_id);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_message;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM tmp_posting_lines WHERE quantity IS NULL OR quantity <= 0) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Item quantities must be greater than zero';
+    END IF;
+END$$
+
+-- Post a sale: stock is reduced only where enough is on hand
+DROP PROCEDURE IF EXISTS post_sale$$
+CREATE PROCEDURE post_sale(
+    IN p_customer_id INT,
+    IN p_lines JSON,
+    IN p_notes TEXT,
+    IN p_created_by VARCHAR(50),
+    OUT p_sale_id INT,
+    OUT p_sale_number VARCHAR(30),
+    OUT p_total_amount DOUBLE)
+BEGIN
+    DECLARE v_message VARCHAR(255);
+    DECLARE v_line_count INT;
+    DECLARE v_product_count INT;
+    DECLARE v_total_quantity DOUBLE;
+    DECLARE v_key VARCHAR(20);
+    DECLARE v_floor INT DEFAULT 0;
+    DECLARE v_product_name VARCHAR(100) DEFAULT NULL;
+    DECLARE v_required DOUBLE;
+    DECLARE v_available DOUBLE;
+    DECLARE v_balance DECIMAL(14,2);
+
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    START TRANSACTION;
+
+    IF NOT EXISTS (SELECT 1 FROM customers WHERE customer_id = p_customer_id AND status = 'Active') THEN
+        SET v_message = CONCAT('Customer not found or inactive: ', p_customer_id);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_message;
+    END IF;
+
+    CALL load_posting_lines(p_lines, v_line_count, v_product_count);
+
+    -- Guarded stock reduction; a product without enough stock is not updated
+    UPDATE stock_inventory si
+      JOIN (SELECT product_id, SUM(quantity) AS quantity FROM tmp_posting_lines GROUP BY product_id) l
+        ON l.product_id = si.product_id
+       SET si.current_quantity = si.current_quantity - l.quantity,
+           si.last_updated = CURRENT_TIMESTAMP
+     WHERE si.current_quantity >= l.quantity;
+
+    IF ROW_COUNT() <> v_product_count THEN
+        SELECT p.product_name, l.quantity, COALESCE(si.current_quantity, 0)
+          INTO v_product_name, v_required, v_available
+          FROM (SELECT product_id, SUM(quantity) AS quantity FROM tmp_posting_lines GROUP BY product_id) l
+          JOIN products p ON p.product_id = l.product_id
+          LEFT JOIN stock_inventory si ON si.product_id = l.product_id
+         WHERE COALESCE(si.current_quantity, 0) < l.quantity
+         LIMIT 1;
+        SET v_message = CONCAT('Insufficient stock for ', COALESCE(v_product_name, 'an item'),
+                               '. Required: ', COALESCE(v_required, 0), ', Available: ', COALESCE(v_available, 0));
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_message;
+    END IF;
+
+    SET v_key = CONCAT('SO', DATE_FORMAT(CURDATE(), '%Y%m%d'));
+    IF NOT EXISTS (SELECT 1 FROM document_sequences WHERE sequence_key = v_key) THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(sale_number, LENGTH(v_key) + 1) AS UNSIGNED)), 0)
+          INTO v_floor FROM sales_orders WHERE sale_number LIKE CONCAT(v_key, '%');
+    END IF;
+    CALL allocate_document_number(v_key, v_floor, p_sale_number);
+
+    SELECT SUM(quantity), SUM(quantity * unit_price) INTO v_total_quantity, p_total_amount FROM tmp_posting_lines;
+
+    INSERT INTO sales_orders (sale_number, customer_id, sale_date, total_quantity, total_amount,
+                              paid_amount, payment_status, notes, created_by)
+    VALUES (p_sale_number, p_customer_id, CURDATE(), v_total_quantity, p_total_amount,
+            0, 'Pending', p_notes, p_created_by);
+    SET p_sale_id = LAST_INSERT_ID();
+
+    INSERT INTO sales_items (sale_id, product_id, quantity, unit_price, total_price)
+    SELECT p_sale_id, product_id, quantity, unit_price, quantity * unit_price
+      FROM tmp_posting_lines ORDER BY line_no;
+
+    -- Post the sale to the customer's ledger when db/customer_ledger.sql is installed
+    IF EXISTS (SELECT 1 FROM information_schema.tables
+                WHERE table_schema = DATABASE() AND table_name = 'customer_balances') THEN
+        INSERT INTO customer_balances (customer_id, balance) VALUES (p_customer_id, 0)
+            ON DUPLICATE KEY UPDATE customer_id = customer_id;
+        SELECT balance + ROUND(p_total_amount, 2) INTO v_balance
+          FROM customer_balances WHERE customer_id = p_customer_id FOR UPDATE;
+        INSERT INTO customer_ledger_entries (customer_id, sale_id, entry_type, amount, balance_after,
+                                             entry_date, notes, created_by)
+        VALUES (p_customer_id, p_sale_id, 'Sale', ROUND(p_total_amount, 2), v_balance,
+                CURDATE(), CONCAT('Sale ', p_sale_number), p_created_by);
+        UPDATE customer_balances SET balance = v_balance, last_entry_id = LAST_INSERT_ID()
+         WHERE customer_id = p_customer_id;
+    END IF;
+
+    COMMIT;
+    DROP TEMPORARY TABLE IF EXISTS tmp_posting_lines;
+END$$
+
+-- Post a purchase: stock is increased for every purchased product
+DROP PROCEDURE IF EXISTS post_purchase$$
+CREATE PROCEDURE post_purchase(
+    IN p_supplier_id INT,
+    IN p_lines JSON,
+    IN p_notes TEXT,
+    IN p_created_by VARCHAR(50),
+    OUT p_purchase_id INT,
+    OUT p_purchase_number VARCHAR(30),
+    OUT p_total_amount DOUBLE)
+BEGIN
+    DECLARE v_message VARCHAR(255);
+    DECLARE v_line_count INT;
+    DECLARE v_product_count INT;
+    DECLARE v_total_quantity DOUBLE;
+    DECLARE v_key VARCHAR(20);
+    DECLARE v_floor INT DEFAULT 0;
+
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    START TRANSACTION;
+
+    IF NOT EXISTS (SELECT 1 FROM suppliers WHERE supplier_id = p_supplier_id AND status = 'Active') THEN
+        SET v_message = CONCAT('Supplier not found or inactive: ', p_supplier_id);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_message;
+    END IF;
+
+    CALL load_posting_lines(p_lines, v_line_count, v_product_count);
+
+    UPDATE stock_inventory si
+      JOIN (SELECT product_id, SUM(quantity) AS quantity FROM tmp_posting_lines GROUP BY product_id) l
+        ON l.product_id = si.product_id
+       SET si.current_quantity = si.current_quantity + l.quantity,
+           si.last_updated = CURRENT_TIMESTAMP;
+
+    IF ROW_COUNT() <> v_product_count THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Stock record missing for a purchased product';
+    END IF;
+
+    SET v_key = CONCAT('PO', DATE_FORMAT(CURDATE(), '%Y%m%d'));
+    IF NOT EXISTS (SELECT 1 FROM document_sequences WHERE sequence_key = v_key) THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(purchase_number, LENGTH(v_key) + 1) AS UNSIGNED)), 0)
+          INTO v_floor FROM purchase_orders WHERE purchase_number LIKE CONCAT(v_key, '%');
+    END IF;
+    CALL allocate_document_number(v_key, v_floor, p_purchase_number);
+
+    SELECT SUM(quantity), SUM(quantity * unit_price) INTO v_total_quantity, p_total_amount FROM tmp_posting_lines;
+
+    INSERT INTO purchase_orders (purchase_number, supplier_id, purchase_date, total_quantity, total_amount,
+                                 paid_amount, payment_status, notes, created_by)
+    VALUES (p_purchase_number, p_supplier_id, CURDATE(), v_total_quantity, p_total_amount,
+            0, 'Pending', p_notes, p_created_by);
+    SET p_purchase_id = LAST_INSERT_ID();
+
+    INSERT INTO purchase_items (purchase_id, product_id, quantity, unit_price, total_price)
+    SELECT p_purchase_id, product_id, quantity, unit_price, quantity * unit_price
+      FROM tmp_posting_lines ORDER BY line_no;
+
+    COMMIT;
+    DROP TEMPORARY TABLE IF EXISTS tmp_posting_lines;
+END$$
+
+-- Post a production run: raw stock is reduced only if enough is on hand,
+-- finished stock is increased
+DROP PROCEDURE IF EXISTS post_production$$
+CREATE PROCEDURE post_production(
+    IN p_raw_product_id INT,
+    IN p_finished_product_id INT,
+    IN p_input_quantity DOUBLE,
+    IN p_output_quantity DOUBLE,
+    IN p_waste_quantity DOUBLE,
+    IN p_machine_id INT,
+    IN p_operator_id INT,
+    IN p_notes TEXT,
+    OUT p_production_id INT,
+    OUT p_production_number VARCHAR(30))
+BEGIN
+    DECLARE v_message VARCHAR(255);
+    DECLARE v_key VARCHAR(20);
+    DECLARE v_floor INT DEFAULT 0;
+    DECLARE v_available DOUBLE DEFAULT 0;
+
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    START TRANSACTION;
+
+    IF p_input_quantity IS NULL OR p_input_quantity <= 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Input quantity must be greater than zero';
+    END IF;
+    IF p_output_quantity IS NULL OR p_output_quantity < 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Output quantity cannot be negative';
+    END IF;
+    IF p_waste_quantity IS NULL OR p_waste_quantity < 0 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Waste quantity cannot be negative';
+    END IF;
+
+    UPDATE stock_inventory
+       SET current_quantity = current_quantity - p_input_quantity,
+           last_updated = CURRENT_TIMESTAMP
+     WHERE product_id = p_raw_product_id AND current_quantity >= p_input_quantity;
+
+    IF ROW_COUNT() = 0 THEN
+        SELECT COALESCE(MAX(current_quantity), 0) INTO v_available
+          FROM stock_inventory WHERE product_id = p_raw_product_id;
+        SET v_message = CONCAT('Insufficient raw material stock. Required: ', p_input_quantity,
+                               ', Available: ', v_available);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = v_message;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM stock_inventory WHERE product_id = p_finished_product_id) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Failed to increase finished product stock';
+    END IF;
+
+    UPDATE stock_inventory
+       SET current_quantity = current_quantity + p_output_quantity,
+           last_updated = CURRENT_TIMESTAMP
+     WHERE product_id = p_finished_product_id;
+
+    SET v_key = CONCAT('PRD', DATE_FORMAT(CURDATE(), '%Y%m%d'));
+    IF NOT EXISTS (SELECT 1 FROM document_sequences WHERE sequence_key = v_key) THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(production_number, LENGTH(v_key) + 1) AS UNSIGNED)), 0)
+          INTO v_floor FROM production_records WHERE production_number LIKE CONCAT(v_key, '%');
+    END IF;
+    CALL allocate_document_number(v_key, v_floor, p_production_number);
+
+    INSERT INTO production_records (production_number, production_date, raw_product_id, finished_product_id,
+                                    input_quantity, output_quantity, conversion_rate, waste_quantity,
+                                    machine_id, operator_id, notes)
+    VALUES (p_production_number, CURDATE(), p_raw_product_id, p_finished_product_id,
+            p_input_quantity, p_output_quantity, p_output_quantity / p_input_quantity * 100, p_waste_quantity,
+            NULLIF(p_machine_id, 0), NULLIF(p_operator_id, 0), p_notes);
+    SET p_production_id = LAST_INSERT_ID();
+
+    COMMIT;
+END$$
+
+DELIMITER ;
@@ -0,0 +1,46 @@
+-- Production yield statistics.
+--
+-- production_yield_stats holds running statistics of every production run
+-- per machine, per raw -> finished product pair, per operator and for the
+-- whole mill, each for its lifetime and per week, day and shift. Each run
+-- adds one sample of conversion rate (output / input %), waste (waste /
+-- input %) and output per run to the rows it belongs to, using Welford's
+-- update for the mean and the sum of squared differences (the *_m2
+-- columns), so a row holds the exact mean and variance of its runs without
+-- rescanning them. Rows are updated in the same transaction as the run
+-- (ProductionRecordDAO, DataImportService); runs posted by the
+-- post_production procedure are added right after it commits.
+--
+-- Install with:
+--   mysql -u root -p pradeep_rice_mill < db/production_yield.sql
+-- then fill the table from the existing runs with
+--   ant rebuild-yield-stats
+-- (or the Rebuild button of Production Records > Yield Analytics). The
+-- rebuild recomputes every row from production_records and can be run at
+-- any time, e.g. nightly, to correct drift.
+--
+-- Shifts follow the hour a run was recorded (created_at): 1 = 06:00-13:59,
+-- 2 = 14:00-21:59, 3 = 22:00-05:59. Weeks start on Monday. Runs without
+-- input are left out.
+
+CREATE TABLE IF NOT EXISTS production_yield_stats (
+    dimension ENUM('All', 'Machine', 'Product', 'Operator') NOT NULL,
+    dimension_id INT NOT NULL,                  -- machine, operator or raw product id; 0 for All
+    finished_product_id INT NOT NULL DEFAULT 0, -- finished product of a Product pair, else 0
+    period ENUM('Lifetime', 'Week', 'Day', 'Shift') NOT NULL,
+    period_start DATE NOT NULL,                 -- 1000-01-01 for Lifetime, Monday of the week, the day
+    shift TINYINT NOT NULL DEFAULT 0,           -- 1-3 for Shift rows, else 0
+    runs INT NOT NULL,
+    total_input DECIMAL(16,2) NOT NULL,
+    total_output DECIMAL(16,2) NOT NULL,
+    total_waste DECIMAL(16,2) NOT NULL,
+    conversion_mean DOUBLE NOT NULL,
+    conversion_m2 DOUBLE NOT NULL,
+    waste_mean DOUBLE NOT NULL,
+    waste_m2 DOUBLE NOT NULL,
+    output_mean DOUBLE NOT NULL,
+    output_m2 DOUBLE NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (dimension, dimension_id, finished_product_id, period, period_start, shift),
+    KEY idx_yield_period (dimension, period, period_start)
+);
@@ -0,0 +1,9 @@
+-- Absent days of each salary payment.
+--
+-- The monthly salary entry deducts pay for absent days. With this column
+-- SalaryPaymentDAO.savePayrollRun stores them with the payment, so a saved
+-- month shows the days its deductions were calculated from. Without it the
+-- days are used for the calculation only.
+
+ALTER TABLE salary_payments
+  ADD COLUMN absent_days DECIMAL(5,1) NOT NULL DEFAULT 0 AFTER overtime_amount;
@@ -0,0 +1,21 @@
+-- One salary payment per staff member per month.
+--
+-- Lets SalaryPaymentDAO.savePayrollRun save a whole month with multi-row
+-- INSERT ... ON DUPLICATE KEY UPDATE statements. Without the key it falls
+-- back to inserting new payments and updating edited ones separately.
+-- The key also lets its FOR UPDATE lock only the (staff_id, payment_month)
+-- rows being saved instead of scanning the table.
+--
+-- Duplicate payments for the same staff member and month are removed first,
+-- keeping the most recent one. Review them before running this:
+--   SELECT staff_id, payment_month, COUNT(*) FROM salary_payments
+--   GROUP BY staff_id, payment_month HAVING COUNT(*) > 1;
+
+DELETE older FROM salary_payments older
+  JOIN salary_payments newer
+    ON newer.staff_id = older.staff_id
+   AND newer.payment_month = older.payment_month
+   AND newer.payment_id > older.payment_id;
+
+ALTER TABLE salary_payments
+  ADD UNIQUE KEY uk_salary_payments_staff_month (staff_id, payment_month);
@@ -0,0 +1,4 @@
+@echo off
+rem Pradeep Rice Mill Management System launcher (generated by ant runtime-launcher)
+set APP_HOME=%~dp0
+"%APP_HOME%bin\javaw.exe" @JVM_OPTIONS@ -XX:SharedArchiveFile="%APP_HOME%app\@CDS_ARCHIVE@" -Xshare:auto -cp "%APP_HOME%app\@DRIVER_JAR@" -m @MAIN_MODULE@/@MAIN_CLASS@ %*
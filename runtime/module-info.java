@@ -0,0 +1,12 @@
+/*
+ * Module descriptor used only by the runtime image build (ant runtime-image).
+ * The NetBeans project itself still compiles src/ on the class path; the MySQL
+ * driver is loaded by name at run time, so it stays on the class path of the
+ * launcher instead of being linked into the image.
+ */
+module com.pradeepmill {
+    requires java.desktop;
+    requires java.management;
+    requires java.sql;
+    requires jdk.jfr;
+}
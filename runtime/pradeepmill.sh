@@ -0,0 +1,4 @@
+#!/bin/sh
+# Pradeep Rice Mill Management System launcher (generated by ant runtime-launcher)
+APP_HOME=$(cd "$(dirname "$0")" && pwd)
+exec "$APP_HOME/bin/java" @JVM_OPTIONS@ -XX:SharedArchiveFile="$APP_HOME/app/@CDS_ARCHIVE@" -Xshare:auto -cp "$APP_HOME/app/@DRIVER_JAR@" -m @MAIN_MODULE@/@MAIN_CLASS@ "$@"
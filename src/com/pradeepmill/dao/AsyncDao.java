@@ -0,0 +1,174 @@
+package com.pradeepmill.dao;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs DAO calls off the calling thread and returns CompletableFutures, so
+ * the independent queries behind one screen overlap instead of running one
+ * after another. Calls run on virtual threads when the JVM has them and on
+ * a cached pool of daemon threads otherwise; the connection pool still
+ * limits how many queries reach the database at once.
+ *
+ * Every call has a timeout (-Dpradeepmill.dao.timeoutMs, default 10 seconds).
+ * A timed out or cancelled call stops waiting but the query itself runs to
+ * completion and returns its connection to the pool.
+ *
+ * Fan-out/fan-in with a Scope:
+ *   try (AsyncDao.Scope scope = AsyncDao.open()) {
+ *       CompletableFuture<List<Customer>> customers = scope.fork(customerDAO::getAllActiveCustomers);
+ *       CompletableFuture<List<Product>> products = scope.fork(productDAO::getAllActiveProducts);
+ *       scope.join();
+ *       ... customers.join(), products.join() ...
+ *   }
+ */
+public final class AsyncDao {
+
+    private static final long DEFAULT_TIMEOUT_MS = Long.getLong("pradeepmill.dao.timeoutMs", 10_000L);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService executor = createExecutor();
+
+    private AsyncDao() {
+    }
+
+    /**
+     * Run a DAO call asynchronously with the default timeout
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return supply(call, DEFAULT_TIMEOUT_MS);
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> call, long timeoutMillis) {
+        return CompletableFuture.supplyAsync(call, executor).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static CompletableFuture<Void> run(Runnable call) {
+        return CompletableFuture.runAsync(call, executor).orTimeout(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Completes when all the given calls have completed (exceptionally if any failed)
+    public static CompletableFuture<Void> allOf(CompletableFuture<?>... calls) {
+        return CompletableFuture.allOf(calls);
+    }
+
+    /**
+     * Start a scope whose calls must all finish within the default timeout
+     */
+    public static Scope open() {
+        return new Scope(DEFAULT_TIMEOUT_MS);
+    }
+
+    public static Scope open(long timeoutMillis) {
+        return new Scope(timeoutMillis);
+    }
+
+    // The original failure behind a CompletionException or ExecutionException
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * A group of calls started together and waited for together. If one call
+     * fails the others are cancelled, and closing the scope cancels anything
+     * still running, so no call outlives the screen that started it.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final long deadline;
+        private final List<CompletableFuture<?>> calls = new ArrayList<>();
+
+        private Scope(long timeoutMillis) {
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        }
+
+        public synchronized <T> CompletableFuture<T> fork(Supplier<T> call) {
+            long remaining = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            CompletableFuture<T> future = supply(call, remaining);
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    cancelAll();
+                }
+            });
+            calls.add(future);
+            return future;
+        }
+
+        /**
+         * Wait for every forked call. Rethrows the first real failure (a
+         * timeout arrives as a CompletionException around a TimeoutException).
+         */
+        public void join() {
+            List<CompletableFuture<?>> started;
+            synchronized (this) {
+                started = new ArrayList<>(calls);
+            }
+            try {
+                CompletableFuture.allOf(started.toArray(new CompletableFuture<?>[0])).join();
+                return;
+            } catch (CompletionException | CancellationException e) {
+                // Find the call that failed rather than one cancelled because of it
+            }
+
+            for (CompletableFuture<?> call : started) {
+                if (call.isCompletedExceptionally() && !call.isCancelled()) {
+                    try {
+                        call.join();
+                    } catch (CompletionException e) {
+                        Throwable cause = unwrap(e);
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        throw new CompletionException(cause instanceof TimeoutException
+                            ? "DAO call timed out" : cause.getMessage(), cause);
+                    }
+                }
+            }
+            throw new CancellationException("DAO calls were cancelled");
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private synchronized void cancelAll() {
+            for (CompletableFuture<?> call : calls) {
+                if (!call.isDone()) {
+                    call.cancel(false);
+                }
+            }
+        }
+    }
+
+    // Virtual thread per call on Java 21+, otherwise cached daemon threads
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "dao-async-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.BankStatementLine;
+import com.pradeepmill.models.PaymentRecord;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imported bank statement lines (db/bank_reconciliation.sql) and the
+ * payment records they are reconciled against.
+ */
+public class BankReconciliationDAO {
+
+    private static final Logger LOG = Logger.getLogger(BankReconciliationDAO.class);
+
+    // Whether db/bank_reconciliation.sql has been applied; checked once
+    private static volatile Boolean tableInstalled;
+
+    private static final String SETTLED = "status IN ('" + BankStatementLine.STATUS_POSTED + "', '"
+        + BankStatementLine.STATUS_RECONCILED + "')";
+
+    /*
+     * Upsert of a line imported before. A posted or reconciled line keeps
+     * what is stored; status is assigned last so the others still see the
+     * stored status.
+     */
+    private static final String[] KEEP_SETTLED_LINE = {
+        keepSettled("source_file"), keepSettled("line_number"), keepSettled("match_method"),
+        keepSettled("payment_id"), keepSettled("sale_id"), keepSettled("purchase_id"),
+        keepSettled("customer_id"), keepSettled("supplier_id"), keepSettled("note"), keepSettled("status")
+    };
+
+    /**
+     * Supplier payment records not yet reconciled with a statement line,
+     * read as a stream. All records if the table is not installed.
+     */
+    public List<PaymentRecord> getUnreconciledPaymentRecords() {
+        List<PaymentRecord> records = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String sql = "SELECT pr.payment_id, pr.purchase_id, pr.payment_amount, pr.payment_method, " +
+                         "pr.reference_number, pr.payment_date FROM payment_records pr" +
+                         (isInstalled(conn)
+                             ? " WHERE NOT EXISTS (SELECT 1 FROM bank_statement_lines b " +
+                               "WHERE b.payment_id = pr.payment_id AND b.status = 'Reconciled')"
+                             : "");
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        PaymentRecord record = new PaymentRecord(rs.getInt("purchase_id"), rs.getDouble("payment_amount"),
+                            rs.getString("payment_method"), rs.getDate("payment_date"));
+                        record.setPaymentId(rs.getInt("payment_id"));
+                        record.setReferenceNumber(rs.getString("reference_number"));
+                        records.add(record);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error loading unreconciled payment records", e);
+        }
+        return records;
+    }
+
+    // Keys of statement lines already posted or reconciled
+    public Set<String> getSettledLineKeys() {
+        Set<String> keys = new HashSet<>();
+        String sql = "SELECT line_key FROM bank_statement_lines WHERE status IN ('Posted', 'Reconciled')";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!isInstalled(conn)) {
+                return keys;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        keys.add(rs.getString(1));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error loading settled statement lines", e);
+        }
+        return keys;
+    }
+
+    /**
+     * Keys of the given statement lines that are already posted or
+     * reconciled, locking the stored lines until the caller's transaction
+     * ends so the same receipt cannot be posted twice concurrently
+     */
+    public Set<String> lockSettledLineKeys(Connection conn, Collection<String> lineKeys) throws SQLException {
+        Set<String> settled = new HashSet<>();
+        if (lineKeys.isEmpty()) {
+            return settled;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT line_key, status FROM bank_statement_lines WHERE line_key IN (");
+        for (int i = 0; i < lineKeys.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY line_key FOR UPDATE");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String lineKey : lineKeys) {
+                pstmt.setString(index++, lineKey);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String status = rs.getString("status");
+                    if (BankStatementLine.STATUS_POSTED.equals(status) || BankStatementLine.STATUS_RECONCILED.equals(status)) {
+                        settled.add(rs.getString("line_key"));
+                    }
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Save statement lines inside the caller's transaction as multi-row
+     * upserts: a line imported before gets its new status and matches,
+     * unless it is already posted or reconciled, which is kept as stored.
+     */
+    public void saveLines(Connection conn, List<BankStatementLine> lines) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("bank_statement_lines",
+            "line_key", "source_file", "line_number", "transaction_date", "amount", "description", "reference_number",
+            "status", "match_method", "payment_id", "sale_id", "purchase_id", "customer_id", "supplier_id", "note")
+            .onDuplicateKeyUpdateWith(KEEP_SETTLED_LINE);
+        for (BankStatementLine line : lines) {
+            writer.addRow(line.getLineKey(), truncate(line.getSourceFile(), 255), line.getLineNumber(),
+                new java.sql.Date(line.getTransactionDate().getTime()), line.getAmount(),
+                truncate(line.getDescription(), 255), truncate(line.getReferenceNumber(), 50),
+                line.getStatus(), line.getMatchMethod(),
+                idOrNull(line.getPaymentId()), idOrNull(line.getSaleId()), idOrNull(line.getPurchaseId()),
+                idOrNull(line.getCustomerId()), idOrNull(line.getSupplierId()), truncate(line.getNote(), 255));
+        }
+        writer.flush(conn);
+    }
+
+    // Whether the bank_statement_lines table exists; false if the database cannot be reached
+    public static boolean isInstalled() {
+        Boolean known = tableInstalled;
+        if (known != null) {
+            return known;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return isInstalled(conn);
+        } catch (SQLException e) {
+            LOG.error("Could not check for bank reconciliation", e);
+            return false;
+        }
+    }
+
+    // Whether the bank_statement_lines table exists; checked once
+    public static boolean isInstalled(Connection conn) throws SQLException {
+        Boolean known = tableInstalled;
+        if (known != null) {
+            return known;
+        }
+
+        boolean found;
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "bank_statement_lines", new String[] {"TABLE"})) {
+            found = rs.next();
+        }
+        if (!found) {
+            LOG.warn("bank_statement_lines is not installed; statements can be checked but not posted. "
+                + "Apply db/bank_reconciliation.sql to enable posting.");
+        }
+        tableInstalled = found;
+        return found;
+    }
+
+    private static String keepSettled(String column) {
+        return column + " = IF(" + SETTLED + ", " + column + ", VALUES(" + column + "))";
+    }
+
+    private static Integer idOrNull(int id) {
+        return id > 0 ? id : null;
+    }
+
+    private static String truncate(String value, int length) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+}
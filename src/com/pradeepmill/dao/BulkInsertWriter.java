@@ -0,0 +1,175 @@
+package com.pradeepmill.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers rows for one table and writes them as multi-row
+ * INSERT ... VALUES (...), (...), ... statements, one round trip per chunk
+ * instead of one per row. Used for order items, salary runs, imports and the
+ * data generator.
+ *
+ * Chunk size defaults to -Dpradeepmill.bulkInsert.chunkSize (500 rows) and is
+ * capped so a statement never has more than 65,535 parameters. Generated keys
+ * are returned for every row in insertion order (InnoDB hands out consecutive
+ * ids for a single multi-row INSERT).
+ *
+ * Not thread-safe; the caller owns the connection and its transaction.
+ */
+public class BulkInsertWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = Integer.getInteger("pradeepmill.bulkInsert.chunkSize", 500);
+
+    // MySQL limit on placeholders in one prepared statement
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final String table;
+    private final String[] columns;
+    private final List<Object[]> rows = new ArrayList<>();
+    private int chunkSize;
+    private boolean generatedKeys = true;
+    private String upsertClause;
+    private long rowsWritten;
+
+    // SQL for a full chunk, built once
+    private String fullChunkSql;
+
+    public BulkInsertWriter(String table, String... columns) {
+        this.table = table;
+        this.columns = columns;
+        setChunkSize(DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkInsertWriter setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_PARAMETERS / columns.length));
+        this.fullChunkSql = null;
+        return this;
+    }
+
+    // Skip generated key retrieval for tables whose ids are not needed
+    public BulkInsertWriter withoutGeneratedKeys() {
+        this.generatedKeys = false;
+        return this;
+    }
+
+    /**
+     * Turn the inserts into upserts: rows whose unique key already exists
+     * get the given columns overwritten. Generated keys and the row count
+     * check are not available for upserts.
+     */
+    public BulkInsertWriter onDuplicateKeyUpdate(String... updateColumns) {
+        String[] assignments = new String[updateColumns.length];
+        for (int i = 0; i < updateColumns.length; i++) {
+            assignments[i] = updateColumns[i] + " = VALUES(" + updateColumns[i] + ")";
+        }
+        return onDuplicateKeyUpdateWith(assignments);
+    }
+
+    /**
+     * Upsert with explicit assignments such as "runs = runs + VALUES(runs)".
+     * MySQL applies them left to right, so an assignment that reads another
+     * column sees that column's new value if it was assigned earlier.
+     */
+    public BulkInsertWriter onDuplicateKeyUpdateWith(String... assignments) {
+        this.upsertClause = " ON DUPLICATE KEY UPDATE " + String.join(", ", assignments);
+        this.generatedKeys = false;
+        this.fullChunkSql = null;
+        return this;
+    }
+
+    public void addRow(Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values for " + table + ", got " + values.length);
+        }
+        rows.add(values);
+    }
+
+    public int pendingRows() {
+        return rows.size();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Write the buffered rows and return their generated ids in the order the
+     * rows were added (all zero when generated keys are off). Throws if any
+     * chunk inserts fewer rows than it was given (plain inserts only).
+     */
+    public int[] flush(Connection conn) throws SQLException {
+        int[] ids = new int[rows.size()];
+        int written = 0;
+        while (written < rows.size()) {
+            int count = Math.min(chunkSize, rows.size() - written);
+            try (PreparedStatement pstmt = generatedKeys
+                    ? conn.prepareStatement(insertSql(count), Statement.RETURN_GENERATED_KEYS)
+                    : conn.prepareStatement(insertSql(count))) {
+                int index = 1;
+                for (int row = written; row < written + count; row++) {
+                    for (Object value : rows.get(row)) {
+                        pstmt.setObject(index++, value);
+                    }
+                }
+
+                int inserted = pstmt.executeUpdate();
+                if (upsertClause == null && inserted != count) {
+                    throw new SQLException("Inserted " + inserted + " of " + count + " rows into " + table);
+                }
+
+                if (generatedKeys) {
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        for (int row = written; row < written + count && keys.next(); row++) {
+                            ids[row] = keys.getInt(1);
+                        }
+                    }
+                }
+            }
+            written += count;
+        }
+        rowsWritten += rows.size();
+        rows.clear();
+        return ids;
+    }
+
+    // Drop buffered rows without writing them
+    public void clear() {
+        rows.clear();
+    }
+
+    private String insertSql(int rowCount) {
+        if (rowCount == chunkSize && fullChunkSql != null) {
+            return fullChunkSql;
+        }
+
+        StringBuilder placeholders = new StringBuilder("(");
+        for (int i = 0; i < columns.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        placeholders.append(')');
+
+        StringBuilder sql = new StringBuilder(64 + rowCount * (placeholders.length() + 2))
+            .append("INSERT INTO ").append(table)
+            .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        if (upsertClause != null) {
+            sql.append(upsertClause);
+        }
+
+        if (rowCount == chunkSize) {
+            fullChunkSql = sql.toString();
+            return fullChunkSql;
+        }
+        return sql.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.Customer;
 import java.sql.*;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 
 public class CustomerDAO {
     
+    private static final Logger LOG = Logger.getLogger(CustomerDAO.class);
+    
     // Create new customer
     public boolean insertCustomer(Customer customer) {
         String sql = "INSERT INTO customers (customer_name, contact_person, phone, address, email, customer_type, credit_limit, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
@@ -31,11 +35,12 @@ public class CustomerDAO {
                 if (generatedKeys.next()) {
                     customer.setCustomerId(generatedKeys.getInt(1));
                 }
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_CUSTOMERS);
                 return true;
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertCustomer failed", e);
         }
         return false;
     }
@@ -57,10 +62,14 @@ public class CustomerDAO {
             pstmt.setString(8, customer.getStatus());
             pstmt.setInt(9, customer.getCustomerId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_CUSTOMERS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateCustomer failed", e);
         }
         return false;
     }
@@ -73,10 +82,14 @@ public class CustomerDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, customerId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_CUSTOMERS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("deleteCustomer failed", e);
         }
         return false;
     }
@@ -96,7 +109,7 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findCustomerById failed", e);
         }
         return null;
     }
@@ -122,7 +135,7 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getCustomersByType failed", e);
         }
         return customers;
     }
@@ -143,7 +156,7 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getCustomersByStatus failed", e);
         }
         return customers;
     }
@@ -167,7 +180,7 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchCustomers failed", e);
         }
         return customers;
     }
@@ -185,7 +198,7 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalCustomerCount failed", e);
         }
         return 0;
     }
@@ -205,13 +218,13 @@ public class CustomerDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getCustomerCountByType failed", e);
         }
         return 0;
     }
     
     // Helper method to map ResultSet to Customer object
-    private Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
+    Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
         Customer customer = new Customer();
         customer.setCustomerId(rs.getInt("customer_id"));
         customer.setCustomerName(rs.getString("customer_name"));
@@ -0,0 +1,395 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.CustomerLedgerEntry;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customer receivables ledger (db/customer_ledger.sql).
+ *
+ * Every change to what a customer owes is posted as an entry carrying the
+ * balance after it, and customer_balances keeps the current balance. The
+ * balance row is locked while an entry is posted, so concurrent postings
+ * for the same customer serialise and the running balance stays exact.
+ *
+ * postEntry() joins the caller's transaction; recordPayment() runs its own.
+ * If the ledger tables are not installed, postings are skipped with a
+ * warning and balances fall back to aggregating sales_orders.
+ */
+public class CustomerLedgerDAO {
+
+    private static final Logger LOG = Logger.getLogger(CustomerLedgerDAO.class);
+
+    // Whether db/customer_ledger.sql has been applied; checked once
+    private static volatile Boolean ledgerInstalled;
+
+    /**
+     * Post one entry inside the caller's transaction and fill in its id and
+     * balance_after. Does nothing and returns false if the ledger is not
+     * installed.
+     */
+    public boolean postEntry(Connection conn, CustomerLedgerEntry entry) throws SQLException {
+        if (!isLedgerInstalled(conn)) {
+            return false;
+        }
+
+        BigDecimal amount = BigDecimal.valueOf(entry.getAmount()).setScale(2, RoundingMode.HALF_UP);
+
+        // Create the balance row on first use, then hold its lock until commit
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO customer_balances (customer_id, balance) VALUES (?, 0) " +
+                "ON DUPLICATE KEY UPDATE customer_id = customer_id")) {
+            pstmt.setInt(1, entry.getCustomerId());
+            pstmt.executeUpdate();
+        }
+
+        BigDecimal balance = BigDecimal.ZERO;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT balance FROM customer_balances WHERE customer_id = ? FOR UPDATE")) {
+            pstmt.setInt(1, entry.getCustomerId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    balance = rs.getBigDecimal(1);
+                }
+            }
+        }
+        BigDecimal balanceAfter = balance.add(amount);
+
+        String sql = "INSERT INTO customer_ledger_entries (customer_id, sale_id, entry_type, amount, balance_after, " +
+                     "payment_method, reference_number, entry_date, notes, created_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, entry.getCustomerId());
+            if (entry.getSaleId() > 0) {
+                pstmt.setInt(2, entry.getSaleId());
+            } else {
+                pstmt.setNull(2, Types.INTEGER);
+            }
+            pstmt.setString(3, entry.getEntryType());
+            pstmt.setBigDecimal(4, amount);
+            pstmt.setBigDecimal(5, balanceAfter);
+            pstmt.setString(6, entry.getPaymentMethod());
+            pstmt.setString(7, entry.getReferenceNumber());
+            pstmt.setDate(8, new java.sql.Date((entry.getEntryDate() != null ? entry.getEntryDate() : new java.util.Date()).getTime()));
+            pstmt.setString(9, entry.getNotes());
+            pstmt.setString(10, entry.getCreatedBy());
+            pstmt.executeUpdate();
+
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    entry.setEntryId(keys.getInt(1));
+                }
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE customer_balances SET balance = ?, last_entry_id = ? WHERE customer_id = ?")) {
+            pstmt.setBigDecimal(1, balanceAfter);
+            pstmt.setInt(2, entry.getEntryId());
+            pstmt.setInt(3, entry.getCustomerId());
+            pstmt.executeUpdate();
+        }
+
+        entry.setAmount(amount.doubleValue());
+        entry.setBalanceAfter(balanceAfter.doubleValue());
+        return true;
+    }
+
+    /**
+     * Post several entries of one customer inside the caller's transaction,
+     * locking the balance row once and writing the entries as one multi-row
+     * insert. Entries are posted in list order and get their ids and
+     * balance_after filled in. Returns false if the ledger is not installed.
+     */
+    public boolean postEntries(Connection conn, int customerId, List<CustomerLedgerEntry> entries) throws SQLException {
+        if (!isLedgerInstalled(conn)) {
+            return false;
+        }
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO customer_balances (customer_id, balance) VALUES (?, 0) " +
+                "ON DUPLICATE KEY UPDATE customer_id = customer_id")) {
+            pstmt.setInt(1, customerId);
+            pstmt.executeUpdate();
+        }
+
+        BigDecimal balance = BigDecimal.ZERO;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT balance FROM customer_balances WHERE customer_id = ? FOR UPDATE")) {
+            pstmt.setInt(1, customerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    balance = rs.getBigDecimal(1);
+                }
+            }
+        }
+
+        BulkInsertWriter writer = new BulkInsertWriter("customer_ledger_entries",
+            "customer_id", "sale_id", "entry_type", "amount", "balance_after",
+            "payment_method", "reference_number", "entry_date", "notes", "created_by");
+        List<BigDecimal> balances = new ArrayList<>(entries.size());
+        for (CustomerLedgerEntry entry : entries) {
+            BigDecimal amount = BigDecimal.valueOf(entry.getAmount()).setScale(2, RoundingMode.HALF_UP);
+            balance = balance.add(amount);
+            balances.add(balance);
+            entry.setCustomerId(customerId);
+            entry.setAmount(amount.doubleValue());
+            writer.addRow(customerId,
+                entry.getSaleId() > 0 ? entry.getSaleId() : null,
+                entry.getEntryType(), amount, balance,
+                entry.getPaymentMethod(), entry.getReferenceNumber(),
+                new java.sql.Date((entry.getEntryDate() != null ? entry.getEntryDate() : new java.util.Date()).getTime()),
+                entry.getNotes(), entry.getCreatedBy());
+        }
+        int[] ids = writer.flush(conn);
+
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setEntryId(ids[i]);
+            entries.get(i).setBalanceAfter(balances.get(i).doubleValue());
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE customer_balances SET balance = ?, last_entry_id = ? WHERE customer_id = ?")) {
+            pstmt.setBigDecimal(1, balance);
+            pstmt.setInt(2, ids[ids.length - 1]);
+            pstmt.setInt(3, customerId);
+            pstmt.executeUpdate();
+        }
+        return true;
+    }
+
+    // Whether a customer already has a payment with this reference number
+    public boolean hasPaymentReference(Connection conn, int customerId, String referenceNumber) throws SQLException {
+        if (!isLedgerInstalled(conn)) {
+            return false;
+        }
+        String sql = "SELECT 1 FROM customer_ledger_entries " +
+                     "WHERE customer_id = ? AND entry_type = 'Payment' AND reference_number = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, customerId);
+            pstmt.setString(2, referenceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Record a payment received from a customer in its own transaction.
+     * With a sale id the sale's paid amount and status are updated too; the
+     * sale must belong to the customer. The entry amount is the payment
+     * amount (positive); it is posted as a reduction of the balance.
+     */
+    public boolean recordPayment(CustomerLedgerEntry payment) {
+        if (payment.getAmount() <= 0) {
+            LOG.warn("Ignoring payment of {} for customer {}", payment.getAmount(), payment.getCustomerId());
+            return false;
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            if (payment.getSaleId() > 0 && !applyToSale(conn, payment.getSaleId(), payment.getCustomerId(), payment.getAmount())) {
+                conn.rollback();
+                return false;
+            }
+
+            CustomerLedgerEntry entry = new CustomerLedgerEntry(payment.getCustomerId(), payment.getSaleId(),
+                CustomerLedgerEntry.TYPE_PAYMENT, -payment.getAmount(), payment.getEntryDate());
+            entry.setPaymentMethod(payment.getPaymentMethod());
+            entry.setReferenceNumber(payment.getReferenceNumber());
+            entry.setNotes(payment.getNotes());
+            entry.setCreatedBy(payment.getCreatedBy());
+            postEntry(conn, entry);
+
+            conn.commit();
+            payment.setEntryId(entry.getEntryId());
+            payment.setBalanceAfter(entry.getBalanceAfter());
+            LOG.info("Payment of {} recorded for customer {}", payment.getAmount(), payment.getCustomerId());
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
+            return true;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOG.error("recordPayment rollback failed", rollbackEx);
+                }
+            }
+            LOG.error("Error recording payment for customer {}", payment.getCustomerId(), e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close(); // Return connection to the pool
+                } catch (SQLException e) {
+                    LOG.error("Could not release connection in recordPayment", e);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Add a payment to a sale's paid amount and update its status
+    private boolean applyToSale(Connection conn, int saleId, int customerId, double amount) throws SQLException {
+        String sql = "UPDATE sales_orders SET paid_amount = paid_amount + ?, " +
+                     "payment_status = CASE WHEN paid_amount >= total_amount THEN 'Paid' " +
+                     "                      WHEN paid_amount > 0 THEN 'Partial' ELSE 'Pending' END, " +
+                     "updated_at = CURRENT_TIMESTAMP " +
+                     "WHERE sale_id = ? AND customer_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDouble(1, amount);
+            pstmt.setInt(2, saleId);
+            pstmt.setInt(3, customerId);
+            if (pstmt.executeUpdate() == 0) {
+                LOG.warn("Sale {} not found for customer {}", saleId, customerId);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // Current balance of a customer (what they owe)
+    public double getBalance(int customerId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String sql = isLedgerInstalled(conn)
+                ? "SELECT balance FROM customer_balances WHERE customer_id = ?"
+                : "SELECT COALESCE(SUM(total_amount - paid_amount), 0) FROM sales_orders WHERE customer_id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, customerId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getDouble(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error getting balance for customer {}", customerId, e);
+        }
+        return 0.0;
+    }
+
+    // Ledger entries of a customer, oldest first
+    public List<CustomerLedgerEntry> getLedger(int customerId) {
+        List<CustomerLedgerEntry> entries = new ArrayList<>();
+        String sql = "SELECT * FROM customer_ledger_entries WHERE customer_id = ? ORDER BY entry_id";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!isLedgerInstalled(conn)) {
+                return entries;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, customerId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(mapResultSetToEntry(rs));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error loading ledger for customer {}", customerId, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Rebuild the whole ledger from sales_orders, as the install script
+     * does, inside the caller's transaction. Used after loading sales in
+     * bulk without going through the DAOs. Returns false if the ledger is
+     * not installed.
+     */
+    public boolean rebuildFromSales(Connection conn) throws SQLException {
+        if (!isLedgerInstalled(conn)) {
+            return false;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM customer_balances");
+            stmt.executeUpdate("DELETE FROM customer_ledger_entries");
+            stmt.executeUpdate(
+                "INSERT INTO customer_ledger_entries (customer_id, sale_id, entry_type, amount, balance_after, entry_date, notes, created_by) " +
+                "SELECT customer_id, sale_id, entry_type, amount, 0, sale_date, notes, created_by " +
+                "  FROM (SELECT customer_id, sale_id, 'Sale' AS entry_type, total_amount AS amount, sale_date, " +
+                "               CONCAT('Sale ', sale_number) AS notes, created_by, 1 AS seq FROM sales_orders " +
+                "        UNION ALL " +
+                "        SELECT customer_id, sale_id, 'Payment', -paid_amount, sale_date, " +
+                "               CONCAT('Paid on sale ', sale_number, ' before the ledger'), created_by, 2 " +
+                "          FROM sales_orders WHERE paid_amount > 0) e " +
+                " ORDER BY sale_date, sale_id, seq");
+            stmt.executeUpdate(
+                "UPDATE customer_ledger_entries e " +
+                "  JOIN (SELECT entry_id, SUM(amount) OVER (PARTITION BY customer_id ORDER BY entry_id) AS running " +
+                "          FROM customer_ledger_entries) r ON r.entry_id = e.entry_id " +
+                "   SET e.balance_after = r.running");
+            stmt.executeUpdate(
+                "INSERT INTO customer_balances (customer_id, balance, last_entry_id) " +
+                "SELECT c.customer_id, COALESCE(SUM(e.amount), 0), MAX(e.entry_id) " +
+                "  FROM customers c LEFT JOIN customer_ledger_entries e ON e.customer_id = c.customer_id " +
+                " GROUP BY c.customer_id");
+        }
+        return true;
+    }
+
+    // Whether the ledger tables exist; false if the database cannot be reached
+    public static boolean isLedgerInstalled() {
+        Boolean known = ledgerInstalled;
+        if (known != null) {
+            return known;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return isLedgerInstalled(conn);
+        } catch (SQLException e) {
+            LOG.error("Could not check for the customer ledger", e);
+            return false;
+        }
+    }
+
+    // Whether the ledger tables exist; checked once
+    public static boolean isLedgerInstalled(Connection conn) throws SQLException {
+        Boolean known = ledgerInstalled;
+        if (known != null) {
+            return known;
+        }
+
+        boolean found;
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "customer_balances", new String[] {"TABLE"})) {
+            found = rs.next();
+        }
+        if (!found) {
+            LOG.warn("The customer ledger is not installed; sales and payments are not posted to it and balances are "
+                + "aggregated from sales_orders. Apply db/customer_ledger.sql to enable it.");
+        }
+        ledgerInstalled = found;
+        return found;
+    }
+
+    // Map ResultSet to CustomerLedgerEntry object
+    private CustomerLedgerEntry mapResultSetToEntry(ResultSet rs) throws SQLException {
+        CustomerLedgerEntry entry = new CustomerLedgerEntry();
+        entry.setEntryId(rs.getInt("entry_id"));
+        entry.setCustomerId(rs.getInt("customer_id"));
+        entry.setSaleId(rs.getInt("sale_id"));
+        entry.setEntryType(rs.getString("entry_type"));
+        entry.setAmount(rs.getDouble("amount"));
+        entry.setBalanceAfter(rs.getDouble("balance_after"));
+        entry.setPaymentMethod(rs.getString("payment_method"));
+        entry.setReferenceNumber(rs.getString("reference_number"));
+        entry.setEntryDate(rs.getDate("entry_date"));
+        entry.setNotes(rs.getString("notes"));
+        entry.setCreatedBy(rs.getString("created_by"));
+        entry.setCreatedAt(rs.getTimestamp("created_at"));
+        return entry;
+    }
+}
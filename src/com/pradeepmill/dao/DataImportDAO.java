@@ -0,0 +1,213 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.models.Customer;
+import com.pradeepmill.models.Product;
+import com.pradeepmill.models.ProductionRecord;
+import com.pradeepmill.models.PurchaseItem;
+import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.models.SalesItem;
+import com.pradeepmill.models.SalesOrder;
+import com.pradeepmill.models.Supplier;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk writes for the historical data import. Every method runs inside the
+ * caller's transaction and writes with multi-row INSERTs; ids are filled in
+ * on the models. Stock levels and data change events are left to the
+ * caller.
+ */
+public class DataImportDAO {
+
+    // Values per IN (...) lookup
+    private static final int LOOKUP_CHUNK = 1000;
+
+    /**
+     * Which of the given keys already exist in table.column, compared
+     * case-insensitively; returned in upper case. The table and column are
+     * fixed names from the import service, never user input.
+     */
+    public Set<String> findExisting(Connection conn, String table, String column, Collection<String> keys) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(LOOKUP_CHUNK);
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == LOOKUP_CHUNK) {
+                findExistingChunk(conn, table, column, chunk, existing);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            findExistingChunk(conn, table, column, chunk, existing);
+        }
+        return existing;
+    }
+
+    private void findExistingChunk(Connection conn, String table, String column, List<String> keys, Set<String> existing) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(column).append(" FROM ").append(table)
+            .append(" WHERE ").append(column).append(" IN (");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < keys.size(); i++) {
+                pstmt.setString(i + 1, keys.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).trim().toUpperCase(Locale.ENGLISH));
+                }
+            }
+        }
+    }
+
+    /**
+     * Id of every row of the table by its name, whatever its status, so
+     * imported history can refer to inactive customers, machines or staff.
+     * Where names repeat, an active row wins over an inactive one. The
+     * table and columns are fixed names from the import service.
+     */
+    public Map<String, Integer> findIdsByName(Connection conn, String table, String idColumn, String nameColumn) throws SQLException {
+        String sql = "SELECT " + idColumn + ", " + nameColumn + " FROM " + table +
+                     " ORDER BY status = 'Active' DESC, " + idColumn;
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ids.putIfAbsent(rs.getString(2), rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    // Every product, whatever its status, active ones first
+    public List<Product> findAllProducts(Connection conn) throws SQLException {
+        String sql = "SELECT product_id, product_name, product_type FROM products ORDER BY status = 'Active' DESC, product_id";
+        List<Product> products = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Product product = new Product();
+                product.setProductId(rs.getInt("product_id"));
+                product.setProductName(rs.getString("product_name"));
+                product.setProductType(rs.getString("product_type"));
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    public void insertCustomers(Connection conn, List<Customer> customers) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("customers",
+            "customer_name", "contact_person", "phone", "address", "email", "customer_type", "credit_limit", "status");
+        for (Customer customer : customers) {
+            writer.addRow(customer.getCustomerName(), customer.getContactPerson(), customer.getPhone(), customer.getAddress(),
+                customer.getEmail(), customer.getCustomerType(), customer.getCreditLimit(), customer.getStatus());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            customers.get(i).setCustomerId(ids[i]);
+        }
+    }
+
+    public void insertSuppliers(Connection conn, List<Supplier> suppliers) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("suppliers",
+            "supplier_name", "contact_person", "phone", "address", "email", "credit_limit", "status");
+        for (Supplier supplier : suppliers) {
+            writer.addRow(supplier.getSupplierName(), supplier.getContactPerson(), supplier.getPhone(), supplier.getAddress(),
+                supplier.getEmail(), supplier.getCreditLimit(), supplier.getStatus());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            suppliers.get(i).setSupplierId(ids[i]);
+        }
+    }
+
+    public void insertProducts(Connection conn, List<Product> products) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("products",
+            "product_name", "product_type", "grade", "unit_price", "unit", "description", "status");
+        for (Product product : products) {
+            writer.addRow(product.getProductName(), product.getProductType(), product.getGrade(), product.getUnitPrice(),
+                product.getUnit(), product.getDescription(), product.getStatus());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            products.get(i).setProductId(ids[i]);
+        }
+    }
+
+    public void insertSalesOrders(Connection conn, List<SalesOrder> orders) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("sales_orders",
+            "sale_number", "customer_id", "sale_date", "total_quantity", "total_amount",
+            "paid_amount", "payment_status", "notes", "created_by");
+        for (SalesOrder order : orders) {
+            writer.addRow(order.getSaleNumber(), order.getCustomerId(), new java.sql.Date(order.getSaleDate().getTime()),
+                order.getTotalQuantity(), order.getTotalAmount(), order.getPaidAmount(), order.getPaymentStatus(),
+                order.getNotes(), order.getCreatedBy());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            orders.get(i).setSaleId(ids[i]);
+        }
+    }
+
+    // Items must carry the sale ids set by insertSalesOrders
+    public void insertSalesItems(Connection conn, List<SalesItem> items) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("sales_items",
+            "sale_id", "product_id", "quantity", "unit_price", "total_price").withoutGeneratedKeys();
+        for (SalesItem item : items) {
+            writer.addRow(item.getSaleId(), item.getProductId(), item.getQuantity(), item.getUnitPrice(), item.getTotalPrice());
+        }
+        writer.flush(conn);
+    }
+
+    public void insertPurchaseOrders(Connection conn, List<PurchaseOrder> orders) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("purchase_orders",
+            "purchase_number", "supplier_id", "purchase_date", "total_quantity", "total_amount",
+            "paid_amount", "payment_status", "notes", "created_by");
+        for (PurchaseOrder order : orders) {
+            writer.addRow(order.getPurchaseNumber(), order.getSupplierId(), new java.sql.Date(order.getPurchaseDate().getTime()),
+                order.getTotalQuantity(), order.getTotalAmount(), order.getPaidAmount(), order.getPaymentStatus(),
+                order.getNotes(), order.getCreatedBy());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            orders.get(i).setPurchaseId(ids[i]);
+        }
+    }
+
+    // Items must carry the purchase ids set by insertPurchaseOrders
+    public void insertPurchaseItems(Connection conn, List<PurchaseItem> items) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("purchase_items",
+            "purchase_id", "product_id", "quantity", "unit_price", "total_price").withoutGeneratedKeys();
+        for (PurchaseItem item : items) {
+            writer.addRow(item.getPurchaseId(), item.getProductId(), item.getQuantity(), item.getUnitPrice(), item.getTotalPrice());
+        }
+        writer.flush(conn);
+    }
+
+    public void insertProductionRecords(Connection conn, List<ProductionRecord> records) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("production_records",
+            "production_number", "production_date", "raw_product_id", "finished_product_id", "input_quantity",
+            "output_quantity", "conversion_rate", "waste_quantity", "machine_id", "operator_id", "notes");
+        for (ProductionRecord record : records) {
+            writer.addRow(record.getProductionNumber(), new java.sql.Date(record.getProductionDate().getTime()),
+                record.getRawProductId(), record.getFinishedProductId(), record.getInputQuantity(),
+                record.getOutputQuantity(), record.getConversionRate(), record.getWasteQuantity(),
+                record.getMachineId(), record.getOperatorId(), record.getNotes());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < ids.length; i++) {
+            records.get(i).setProductionId(ids[i]);
+        }
+    }
+}
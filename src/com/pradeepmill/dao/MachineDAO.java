@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.Machine;
 import java.sql.*;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 
 public class MachineDAO {
     
+    private static final Logger LOG = Logger.getLogger(MachineDAO.class);
+    
     // Create new machine
     public boolean insertMachine(Machine machine) {
         String sql = "INSERT INTO machines (machine_name, machine_type, location, installation_date, capacity_per_hour, status) VALUES (?, ?, ?, ?, ?, ?)";
@@ -29,11 +33,12 @@ public class MachineDAO {
                 if (generatedKeys.next()) {
                     machine.setMachineId(generatedKeys.getInt(1));
                 }
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_MACHINES);
                 return true;
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertMachine failed", e);
         }
         return false;
     }
@@ -52,10 +57,14 @@ public class MachineDAO {
             pstmt.setString(5, machine.getStatus());
             pstmt.setInt(6, machine.getMachineId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_MACHINES);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateMachine failed", e);
         }
         return false;
     }
@@ -68,10 +77,14 @@ public class MachineDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, machineId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_MACHINES);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("deleteMachine failed", e);
         }
         return false;
     }
@@ -91,7 +104,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findMachineById failed", e);
         }
         return null;
     }
@@ -117,7 +130,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getMachinesByType failed", e);
         }
         return machines;
     }
@@ -138,7 +151,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getMachinesByStatus failed", e);
         }
         return machines;
     }
@@ -160,7 +173,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getMachinesByTypeAndStatus failed", e);
         }
         return machines;
     }
@@ -210,7 +223,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchMachines failed", e);
         }
         return machines;
     }
@@ -228,7 +241,7 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalMachineCount failed", e);
         }
         return 0;
     }
@@ -246,13 +259,13 @@ public class MachineDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalCapacity failed", e);
         }
         return 0.0;
     }
     
     // Helper method to map ResultSet to Machine object
-    private Machine mapResultSetToMachine(ResultSet rs) throws SQLException {
+    Machine mapResultSetToMachine(ResultSet rs) throws SQLException {
         Machine machine = new Machine();
         machine.setMachineId(rs.getInt("machine_id"));
         machine.setMachineName(rs.getString("machine_name"));
@@ -0,0 +1,127 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.PaymentAllocation;
+import java.sql.*;
+
+/**
+ * Saved bulk payment allocations (db/payment_allocations.sql), keyed by
+ * party and reference number.
+ */
+public class PaymentAllocationDAO {
+
+    private static final Logger LOG = Logger.getLogger(PaymentAllocationDAO.class);
+
+    // MySQL error code for a duplicate unique key
+    private static final int DUPLICATE_KEY = 1062;
+
+    // Whether db/payment_allocations.sql has been applied; checked once
+    private static volatile Boolean tableInstalled;
+
+    /**
+     * Claim the allocation's reference number inside the caller's
+     * transaction. Returns false if the party already has an allocation
+     * with that reference; true if it was saved or the table is not
+     * installed.
+     */
+    public boolean claimReference(Connection conn, PaymentAllocation allocation) throws SQLException {
+        if (!isInstalled(conn)) {
+            return true;
+        }
+
+        String sql = "INSERT INTO payment_allocations (party_type, party_id, reference_number, payment_amount, " +
+                     "allocated_amount, unallocated_amount, order_count, strategy, payment_method, payment_date, created_by) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, allocation.getPartyType());
+            pstmt.setInt(2, allocation.getPartyId());
+            pstmt.setString(3, allocation.getReferenceNumber());
+            pstmt.setDouble(4, allocation.getPaymentAmount());
+            pstmt.setDouble(5, allocation.getAllocatedAmount());
+            pstmt.setDouble(6, allocation.getUnallocatedAmount());
+            pstmt.setInt(7, allocation.getOrderCount());
+            pstmt.setString(8, allocation.getStrategy());
+            pstmt.setString(9, allocation.getPaymentMethod());
+            pstmt.setDate(10, new java.sql.Date(allocation.getPaymentDate().getTime()));
+            pstmt.setString(11, allocation.getCreatedBy());
+            pstmt.executeUpdate();
+
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    allocation.setAllocationId(keys.getInt(1));
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // Saved allocation of a party with the given reference number, or null
+    public PaymentAllocation findAllocation(String partyType, int partyId, String referenceNumber) {
+        String sql = "SELECT * FROM payment_allocations WHERE party_type = ? AND party_id = ? AND reference_number = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!isInstalled(conn)) {
+                return null;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, partyType);
+                pstmt.setInt(2, partyId);
+                pstmt.setString(3, referenceNumber);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return mapResultSetToAllocation(rs);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error finding allocation {}", referenceNumber, e);
+        }
+        return null;
+    }
+
+    // Whether the payment_allocations table exists; checked once
+    static boolean isInstalled(Connection conn) throws SQLException {
+        Boolean known = tableInstalled;
+        if (known != null) {
+            return known;
+        }
+
+        boolean found;
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "payment_allocations", new String[] {"TABLE"})) {
+            found = rs.next();
+        }
+        if (!found) {
+            LOG.warn("payment_allocations is not installed; bulk payments are checked against existing references only. "
+                + "Apply db/payment_allocations.sql to guard against concurrent duplicates.");
+        }
+        tableInstalled = found;
+        return found;
+    }
+
+    // Map ResultSet to PaymentAllocation object
+    private PaymentAllocation mapResultSetToAllocation(ResultSet rs) throws SQLException {
+        PaymentAllocation allocation = new PaymentAllocation();
+        allocation.setAllocationId(rs.getInt("allocation_id"));
+        allocation.setPartyType(rs.getString("party_type"));
+        allocation.setPartyId(rs.getInt("party_id"));
+        allocation.setReferenceNumber(rs.getString("reference_number"));
+        allocation.setPaymentAmount(rs.getDouble("payment_amount"));
+        allocation.setAllocatedAmount(rs.getDouble("allocated_amount"));
+        allocation.setUnallocatedAmount(rs.getDouble("unallocated_amount"));
+        allocation.setOrderCount(rs.getInt("order_count"));
+        allocation.setStrategy(rs.getString("strategy"));
+        allocation.setPaymentMethod(rs.getString("payment_method"));
+        allocation.setPaymentDate(rs.getDate("payment_date"));
+        allocation.setCreatedBy(rs.getString("created_by"));
+        allocation.setCreatedAt(rs.getTimestamp("created_at"));
+        return allocation;
+    }
+}
@@ -0,0 +1,134 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.ProductionRecord;
+import com.pradeepmill.models.PurchaseItem;
+import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.models.SalesItem;
+import com.pradeepmill.models.SalesOrder;
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Posts a complete sale, purchase or production run in one database call
+ * through the procedures in db/posting_procedures.sql. The procedure does the
+ * validation, number allocation, inserts and guarded stock updates and
+ * commits or rolls back on its own.
+ *
+ * Unlike the other DAOs these methods throw SQLException, so the caller can
+ * tell a rejected posting (SQLSTATE 45000, see isValidationFailure) from
+ * procedures that are not installed (isProcedureMissing). A connection
+ * failure is thrown as well rather than shown in a dialog.
+ */
+public class PostingProcedureDAO {
+
+    private static final Logger LOG = Logger.getLogger(PostingProcedureDAO.class);
+
+    // MySQL error raised when calling a procedure that does not exist
+    private static final int ER_SP_DOES_NOT_EXIST = 1305;
+    private static final String VALIDATION_SQLSTATE = "45000";
+
+    // Post a sale; fills in the sale id, number and totals on success
+    public void postSale(SalesOrder sale, List<SalesItem> items) throws SQLException {
+        StringBuilder lines = new StringBuilder(items.size() * 64).append('[');
+        double totalQuantity = 0;
+        for (SalesItem item : items) {
+            appendLine(lines, item.getProductId(), item.getQuantity(), item.getUnitPrice());
+            totalQuantity += item.getQuantity();
+        }
+        lines.append(']');
+
+        try (Connection conn = DatabaseConnection.requireConnection();
+             CallableStatement cstmt = conn.prepareCall("{call post_sale(?, ?, ?, ?, ?, ?, ?)}")) {
+
+            cstmt.setInt(1, sale.getCustomerId());
+            cstmt.setString(2, lines.toString());
+            cstmt.setString(3, sale.getNotes());
+            cstmt.setString(4, sale.getCreatedBy());
+            cstmt.registerOutParameter(5, Types.INTEGER);
+            cstmt.registerOutParameter(6, Types.VARCHAR);
+            cstmt.registerOutParameter(7, Types.DOUBLE);
+            cstmt.execute();
+
+            sale.setSaleId(cstmt.getInt(5));
+            sale.setSaleNumber(cstmt.getString(6));
+            sale.setTotalAmount(cstmt.getDouble(7));
+            sale.setTotalQuantity(totalQuantity);
+            LOG.debug("post_sale created {}", sale.getSaleNumber());
+        }
+    }
+
+    // Post a purchase; fills in the purchase id, number and totals on success
+    public void postPurchase(PurchaseOrder purchase, List<PurchaseItem> items) throws SQLException {
+        StringBuilder lines = new StringBuilder(items.size() * 64).append('[');
+        double totalQuantity = 0;
+        for (PurchaseItem item : items) {
+            appendLine(lines, item.getProductId(), item.getQuantity(), item.getUnitPrice());
+            totalQuantity += item.getQuantity();
+        }
+        lines.append(']');
+
+        try (Connection conn = DatabaseConnection.requireConnection();
+             CallableStatement cstmt = conn.prepareCall("{call post_purchase(?, ?, ?, ?, ?, ?, ?)}")) {
+
+            cstmt.setInt(1, purchase.getSupplierId());
+            cstmt.setString(2, lines.toString());
+            cstmt.setString(3, purchase.getNotes());
+            cstmt.setString(4, purchase.getCreatedBy());
+            cstmt.registerOutParameter(5, Types.INTEGER);
+            cstmt.registerOutParameter(6, Types.VARCHAR);
+            cstmt.registerOutParameter(7, Types.DOUBLE);
+            cstmt.execute();
+
+            purchase.setPurchaseId(cstmt.getInt(5));
+            purchase.setPurchaseNumber(cstmt.getString(6));
+            purchase.setTotalAmount(cstmt.getDouble(7));
+            purchase.setTotalQuantity(totalQuantity);
+            LOG.debug("post_purchase created {}", purchase.getPurchaseNumber());
+        }
+    }
+
+    // Post a production run; fills in the production id and number on success
+    public void postProduction(ProductionRecord production) throws SQLException {
+        try (Connection conn = DatabaseConnection.requireConnection();
+             CallableStatement cstmt = conn.prepareCall("{call post_production(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)}")) {
+
+            cstmt.setInt(1, production.getRawProductId());
+            cstmt.setInt(2, production.getFinishedProductId());
+            cstmt.setDouble(3, production.getInputQuantity());
+            cstmt.setDouble(4, production.getOutputQuantity());
+            cstmt.setDouble(5, production.getWasteQuantity());
+            cstmt.setInt(6, production.getMachineId());
+            cstmt.setInt(7, production.getOperatorId());
+            cstmt.setString(8, production.getNotes());
+            cstmt.registerOutParameter(9, Types.INTEGER);
+            cstmt.registerOutParameter(10, Types.VARCHAR);
+            cstmt.execute();
+
+            production.setProductionId(cstmt.getInt(9));
+            production.setProductionNumber(cstmt.getString(10));
+            LOG.debug("post_production created {}", production.getProductionNumber());
+        }
+    }
+
+    // True when the posting procedures have not been installed
+    public static boolean isProcedureMissing(SQLException e) {
+        return e.getErrorCode() == ER_SP_DOES_NOT_EXIST;
+    }
+
+    // True when the procedure rejected the posting (bad input, not enough stock)
+    public static boolean isValidationFailure(SQLException e) {
+        return VALIDATION_SQLSTATE.equals(e.getSQLState());
+    }
+
+    // One {"product_id":..,"quantity":..,"unit_price":..} element of the lines array
+    private static void appendLine(StringBuilder lines, int productId, double quantity, double unitPrice) {
+        if (lines.length() > 1) {
+            lines.append(',');
+        }
+        lines.append("{\"product_id\":").append(productId)
+             .append(",\"quantity\":").append(quantity)
+             .append(",\"unit_price\":").append(unitPrice).append('}');
+    }
+}
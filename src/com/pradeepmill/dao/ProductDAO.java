@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.Product;
 import java.sql.*;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 
 public class ProductDAO {
     
+    private static final Logger LOG = Logger.getLogger(ProductDAO.class);
+    
     // Create new product
     public boolean insertProduct(Product product) {
         String sql = "INSERT INTO products (product_name, product_type, grade, unit_price, unit, description, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
@@ -30,11 +34,12 @@ public class ProductDAO {
                 if (generatedKeys.next()) {
                     product.setProductId(generatedKeys.getInt(1));
                 }
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTS);
                 return true;
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertProduct failed", e);
         }
         return false;
     }
@@ -55,10 +60,14 @@ public class ProductDAO {
             pstmt.setString(7, product.getStatus());
             pstmt.setInt(8, product.getProductId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateProduct failed", e);
         }
         return false;
     }
@@ -71,10 +80,14 @@ public class ProductDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, productId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("deleteProduct failed", e);
         }
         return false;
     }
@@ -94,7 +107,7 @@ public class ProductDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findProductById failed", e);
         }
         return null;
     }
@@ -120,7 +133,7 @@ public class ProductDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductsByType failed", e);
         }
         return products;
     }
@@ -156,7 +169,7 @@ public class ProductDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductsByStatus failed", e);
         }
         return products;
     }
@@ -179,7 +192,7 @@ public class ProductDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchProducts failed", e);
         }
         return products;
     }
@@ -197,13 +210,13 @@ public class ProductDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalProductCount failed", e);
         }
         return 0;
     }
     
     // Helper method to map ResultSet to Product object
-    private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
+    Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setProductId(rs.getInt("product_id"));
         product.setProductName(rs.getString("product_name"));
@@ -234,7 +247,7 @@ public List<Product> getProductsByGrade(String grade) {
         }
         
     } catch (SQLException e) {
-        e.printStackTrace();
+        LOG.error("mapResultSetToProduct failed", e);
     }
     return products;
 }
@@ -256,7 +269,7 @@ public List<Product> getProductsByTypeAndGrade(String productType, String grade)
         }
         
     } catch (SQLException e) {
-        e.printStackTrace();
+        LOG.error("mapResultSetToProduct failed", e);
     }
     return products;
     }
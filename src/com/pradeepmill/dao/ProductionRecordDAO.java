@@ -1,96 +1,131 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
 import com.pradeepmill.models.ProductionRecord;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 
 public class ProductionRecordDAO {
     
-    // Create new production record
+    private static final Logger LOG = Logger.getLogger(ProductionRecordDAO.class);
+    
+    private final ProductionYieldDAO yieldDAO = new ProductionYieldDAO();
+    
+    // Create new production record; its yield statistics are updated in the same transaction
     public boolean insertProductionRecord(ProductionRecord productionRecord) {
         String sql = "INSERT INTO production_records (production_number, production_date, raw_product_id, finished_product_id, input_quantity, output_quantity, conversion_rate, waste_quantity, machine_id, operator_id, notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, productionRecord.getProductionNumber());
-            pstmt.setDate(2, new java.sql.Date(productionRecord.getProductionDate().getTime()));
-            pstmt.setInt(3, productionRecord.getRawProductId());
-            pstmt.setInt(4, productionRecord.getFinishedProductId());
-            pstmt.setDouble(5, productionRecord.getInputQuantity());
-            pstmt.setDouble(6, productionRecord.getOutputQuantity());
-            pstmt.setDouble(7, productionRecord.getConversionRate());
-            pstmt.setDouble(8, productionRecord.getWasteQuantity());
-            
-            // Handle optional machine and operator
-            if (productionRecord.getMachineId() > 0) {
-                pstmt.setInt(9, productionRecord.getMachineId());
-            } else {
-                pstmt.setNull(9, Types.INTEGER);
-            }
-            
-            if (productionRecord.getOperatorId() > 0) {
-                pstmt.setInt(10, productionRecord.getOperatorId());
-            } else {
-                pstmt.setNull(10, Types.INTEGER);
-            }
-            
-            pstmt.setString(11, productionRecord.getNotes());
-            
-            int rowsAffected = pstmt.executeUpdate();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            if (rowsAffected > 0) {
-                ResultSet generatedKeys = pstmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    productionRecord.setProductionId(generatedKeys.getInt(1));
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, productionRecord.getProductionNumber());
+                pstmt.setDate(2, new java.sql.Date(productionRecord.getProductionDate().getTime()));
+                pstmt.setInt(3, productionRecord.getRawProductId());
+                pstmt.setInt(4, productionRecord.getFinishedProductId());
+                pstmt.setDouble(5, productionRecord.getInputQuantity());
+                pstmt.setDouble(6, productionRecord.getOutputQuantity());
+                pstmt.setDouble(7, productionRecord.getConversionRate());
+                pstmt.setDouble(8, productionRecord.getWasteQuantity());
+                
+                // Handle optional machine and operator
+                if (productionRecord.getMachineId() > 0) {
+                    pstmt.setInt(9, productionRecord.getMachineId());
+                } else {
+                    pstmt.setNull(9, Types.INTEGER);
+                }
+                
+                if (productionRecord.getOperatorId() > 0) {
+                    pstmt.setInt(10, productionRecord.getOperatorId());
+                } else {
+                    pstmt.setNull(10, Types.INTEGER);
+                }
+                
+                pstmt.setString(11, productionRecord.getNotes());
+                
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        productionRecord.setProductionId(generatedKeys.getInt(1));
+                    }
                 }
-                return true;
             }
             
+            yieldDAO.recordRuns(conn, Collections.singletonList(productionRecord));
+            conn.commit();
+            return true;
+            
         } catch (SQLException e) {
-            e.printStackTrace();
+            rollbackQuietly(conn, "insertProductionRecord");
+            LOG.error("insertProductionRecord failed", e);
+        } finally {
+            release(conn, "insertProductionRecord");
         }
         return false;
     }
     
-    // Update existing production record
+    // Update existing production record; the old run is taken out of the yield statistics and the new one added
     public boolean updateProductionRecord(ProductionRecord productionRecord) {
         String sql = "UPDATE production_records SET production_date=?, raw_product_id=?, finished_product_id=?, input_quantity=?, output_quantity=?, conversion_rate=?, waste_quantity=?, machine_id=?, operator_id=?, notes=?, updated_at=CURRENT_TIMESTAMP WHERE production_id=?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, new java.sql.Date(productionRecord.getProductionDate().getTime()));
-            pstmt.setInt(2, productionRecord.getRawProductId());
-            pstmt.setInt(3, productionRecord.getFinishedProductId());
-            pstmt.setDouble(4, productionRecord.getInputQuantity());
-            pstmt.setDouble(5, productionRecord.getOutputQuantity());
-            pstmt.setDouble(6, productionRecord.getConversionRate());
-            pstmt.setDouble(7, productionRecord.getWasteQuantity());
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            if (productionRecord.getMachineId() > 0) {
-                pstmt.setInt(8, productionRecord.getMachineId());
-            } else {
-                pstmt.setNull(8, Types.INTEGER);
+            ProductionRecord previous = lockProductionRecord(conn, productionRecord.getProductionId());
+            if (previous == null) {
+                conn.rollback();
+                return false;
             }
             
-            if (productionRecord.getOperatorId() > 0) {
-                pstmt.setInt(9, productionRecord.getOperatorId());
-            } else {
-                pstmt.setNull(9, Types.INTEGER);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setDate(1, new java.sql.Date(productionRecord.getProductionDate().getTime()));
+                pstmt.setInt(2, productionRecord.getRawProductId());
+                pstmt.setInt(3, productionRecord.getFinishedProductId());
+                pstmt.setDouble(4, productionRecord.getInputQuantity());
+                pstmt.setDouble(5, productionRecord.getOutputQuantity());
+                pstmt.setDouble(6, productionRecord.getConversionRate());
+                pstmt.setDouble(7, productionRecord.getWasteQuantity());
+                
+                if (productionRecord.getMachineId() > 0) {
+                    pstmt.setInt(8, productionRecord.getMachineId());
+                } else {
+                    pstmt.setNull(8, Types.INTEGER);
+                }
+                
+                if (productionRecord.getOperatorId() > 0) {
+                    pstmt.setInt(9, productionRecord.getOperatorId());
+                } else {
+                    pstmt.setNull(9, Types.INTEGER);
+                }
+                
+                pstmt.setString(10, productionRecord.getNotes());
+                pstmt.setInt(11, productionRecord.getProductionId());
+                pstmt.executeUpdate();
             }
             
-            pstmt.setString(10, productionRecord.getNotes());
-            pstmt.setInt(11, productionRecord.getProductionId());
-            
-            return pstmt.executeUpdate() > 0;
+            // The run stays in the shift it was first recorded in (created_at is not updated)
+            yieldDAO.removeRun(conn, previous);
+            yieldDAO.recordRuns(conn, Collections.singletonList(productionRecord));
+            conn.commit();
+            return true;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            rollbackQuietly(conn, "updateProductionRecord");
+            LOG.error("updateProductionRecord failed", e);
+        } finally {
+            release(conn, "updateProductionRecord");
         }
         return false;
     }
@@ -117,7 +152,7 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findProductionRecordById failed", e);
         }
         return null;
     }
@@ -144,7 +179,7 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getAllProductionRecords failed", e);
         }
         return productionRecords;
     }
@@ -175,7 +210,7 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductionRecordsByDateRange failed", e);
         }
         return productionRecords;
     }
@@ -204,7 +239,7 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductionRecordsByMachine failed", e);
         }
         return productionRecords;
     }
@@ -240,27 +275,41 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchProductionRecords failed", e);
         }
         return productionRecords;
     }
     
-    // Get production statistics
+    // Get production statistics; read from the lifetime yield statistics when installed
     public Map<String, Object> getProductionStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        String sql = "SELECT " +
-                     "COUNT(*) as total_productions, " +
-                     "SUM(input_quantity) as total_input, " +
-                     "SUM(output_quantity) as total_output, " +
-                     "SUM(waste_quantity) as total_waste, " +
-                     "AVG(conversion_rate) as avg_conversion_rate " +
-                     "FROM production_records";
+        String sql = ProductionYieldDAO.isStatsInstalled()
+            ? "SELECT " +
+              "runs as total_productions, " +
+              "total_input, total_output, total_waste, " +
+              "conversion_mean as avg_conversion_rate " +
+              "FROM production_yield_stats " +
+              "WHERE dimension = 'All' AND dimension_id = 0 AND finished_product_id = 0 " +
+              "AND period = 'Lifetime' AND period_start = '" + ProductionYieldDAO.LIFETIME_START + "' AND shift = 0"
+            : "SELECT " +
+              "COUNT(*) as total_productions, " +
+              "SUM(input_quantity) as total_input, " +
+              "SUM(output_quantity) as total_output, " +
+              "SUM(waste_quantity) as total_waste, " +
+              "AVG(conversion_rate) as avg_conversion_rate " +
+              "FROM production_records";
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            // No statistics row yet means no production
+            stats.put("totalProductions", 0);
+            stats.put("totalInput", 0.0);
+            stats.put("totalOutput", 0.0);
+            stats.put("totalWaste", 0.0);
+            stats.put("avgConversionRate", 0.0);
             if (rs.next()) {
                 stats.put("totalProductions", rs.getInt("total_productions"));
                 stats.put("totalInput", rs.getDouble("total_input"));
@@ -270,22 +319,33 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductionStatistics failed", e);
         }
         return stats;
     }
     
-    // Get production efficiency by machine
+    // Get production efficiency by machine; read from the lifetime yield statistics when installed
     public List<Map<String, Object>> getProductionEfficiencyByMachine() {
-        String sql = "SELECT m.machine_name, m.machine_id, " +
-                     "COUNT(pr.production_id) as production_count, " +
-                     "AVG(pr.conversion_rate) as avg_efficiency, " +
-                     "SUM(pr.input_quantity) as total_processed " +
-                     "FROM machines m " +
-                     "LEFT JOIN production_records pr ON m.machine_id = pr.machine_id " +
-                     "WHERE m.status = 'Active' " +
-                     "GROUP BY m.machine_id, m.machine_name " +
-                     "ORDER BY avg_efficiency DESC";
+        String sql = ProductionYieldDAO.isStatsInstalled()
+            ? "SELECT m.machine_name, m.machine_id, " +
+              "COALESCE(s.runs, 0) as production_count, " +
+              "s.conversion_mean as avg_efficiency, " +
+              "COALESCE(s.total_input, 0) as total_processed " +
+              "FROM machines m " +
+              "LEFT JOIN production_yield_stats s ON s.dimension = 'Machine' AND s.dimension_id = m.machine_id " +
+              "AND s.finished_product_id = 0 AND s.period = 'Lifetime' " +
+              "AND s.period_start = '" + ProductionYieldDAO.LIFETIME_START + "' AND s.shift = 0 " +
+              "WHERE m.status = 'Active' " +
+              "ORDER BY avg_efficiency DESC"
+            : "SELECT m.machine_name, m.machine_id, " +
+              "COUNT(pr.production_id) as production_count, " +
+              "AVG(pr.conversion_rate) as avg_efficiency, " +
+              "SUM(pr.input_quantity) as total_processed " +
+              "FROM machines m " +
+              "LEFT JOIN production_records pr ON m.machine_id = pr.machine_id " +
+              "WHERE m.status = 'Active' " +
+              "GROUP BY m.machine_id, m.machine_name " +
+              "ORDER BY avg_efficiency DESC";
         
         List<Map<String, Object>> results = new ArrayList<>();
         
@@ -304,13 +364,48 @@ public class ProductionRecordDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductionEfficiencyByMachine failed", e);
         }
         return results;
     }
     
+    // Yield fields of a production record, locked until commit
+    private ProductionRecord lockProductionRecord(Connection conn, int productionId) throws SQLException {
+        String sql = "SELECT * FROM production_records WHERE production_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, productionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToProductionRecord(rs);
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void rollbackQuietly(Connection conn, String operation) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOG.error("{} rollback failed", operation, rollbackEx);
+            }
+        }
+    }
+    
+    private void release(Connection conn, String operation) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close(); // Return connection to the pool
+            } catch (SQLException e) {
+                LOG.error("Could not release connection in {}", operation, e);
+            }
+        }
+    }
+    
     // Helper method to map ResultSet to ProductionRecord object
-    private ProductionRecord mapResultSetToProductionRecord(ResultSet rs) throws SQLException {
+    ProductionRecord mapResultSetToProductionRecord(ResultSet rs) throws SQLException {
         ProductionRecord productionRecord = new ProductionRecord();
         productionRecord.setProductionId(rs.getInt("production_id"));
         productionRecord.setProductionNumber(rs.getString("production_number"));
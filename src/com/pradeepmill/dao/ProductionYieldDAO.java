@@ -0,0 +1,427 @@
+package com.pradeepmill.dao;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.ProductionRecord;
+import com.pradeepmill.models.ProductionYieldStats;
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running yield statistics of production runs (db/production_yield.sql).
+ *
+ * Every run adds one sample to the rows of its machine, product pair,
+ * operator and the whole mill, for the lifetime and for its week, day and
+ * shift. The update is Welford's: the mean moves by delta / n and m2 by
+ * delta * delta * (n - 1) / n, done inside the INSERT ... ON DUPLICATE KEY
+ * UPDATE so posting a run costs one statement and reading any statistic is
+ * a primary key or index range lookup.
+ */
+public class ProductionYieldDAO {
+
+    private static final Logger LOG = Logger.getLogger(ProductionYieldDAO.class);
+
+    // period_start of the Lifetime rows
+    public static final Date LIFETIME_START = Date.valueOf("1000-01-01");
+
+    // Shift start hours: 1 from 06:00, 2 from 14:00, 3 from 22:00 to 06:00
+    private static final int SHIFT_1_START = 6;
+    private static final int SHIFT_2_START = 14;
+    private static final int SHIFT_3_START = 22;
+
+    private static final String SHIFT_SQL =
+        "CASE WHEN HOUR(created_at) >= " + SHIFT_3_START + " OR HOUR(created_at) < " + SHIFT_1_START + " THEN 3 " +
+        "WHEN HOUR(created_at) >= " + SHIFT_2_START + " THEN 2 ELSE 1 END";
+
+    private static final String WEEK_START_SQL = "DATE_SUB(production_date, INTERVAL WEEKDAY(production_date) DAY)";
+
+    // Whether db/production_yield.sql has been applied; checked once
+    private static volatile Boolean statsInstalled;
+
+    private static final String[] COLUMNS = {
+        "dimension", "dimension_id", "finished_product_id", "period", "period_start", "shift",
+        "runs", "total_input", "total_output", "total_waste",
+        "conversion_mean", "conversion_m2", "waste_mean", "waste_m2", "output_mean", "output_m2"
+    };
+
+    /*
+     * Welford's update with the new run in VALUES(). Each assignment only
+     * reads columns assigned after it, so every one sees the old mean and
+     * run count; runs is assigned last.
+     */
+    private static final String[] ADD_RUN = {
+        "total_input = total_input + VALUES(total_input)",
+        "total_output = total_output + VALUES(total_output)",
+        "total_waste = total_waste + VALUES(total_waste)",
+        "conversion_m2 = conversion_m2 + POW(VALUES(conversion_mean) - conversion_mean, 2) * runs / (runs + 1)",
+        "conversion_mean = conversion_mean + (VALUES(conversion_mean) - conversion_mean) / (runs + 1)",
+        "waste_m2 = waste_m2 + POW(VALUES(waste_mean) - waste_mean, 2) * runs / (runs + 1)",
+        "waste_mean = waste_mean + (VALUES(waste_mean) - waste_mean) / (runs + 1)",
+        "output_m2 = output_m2 + POW(VALUES(output_mean) - output_mean, 2) * runs / (runs + 1)",
+        "output_mean = output_mean + (VALUES(output_mean) - output_mean) / (runs + 1)",
+        "runs = runs + 1"
+    };
+
+    // The reverse of ADD_RUN for one run with the values x bound in order; rows left with no runs are deleted
+    private static final String REMOVE_RUN_SQL =
+        "UPDATE production_yield_stats SET " +
+        "total_input = total_input - ?, total_output = total_output - ?, total_waste = total_waste - ?, " +
+        "conversion_m2 = IF(runs > 1, GREATEST(conversion_m2 - POW(? - conversion_mean, 2) * runs / (runs - 1), 0), 0), " +
+        "conversion_mean = IF(runs > 1, (conversion_mean * runs - ?) / (runs - 1), 0), " +
+        "waste_m2 = IF(runs > 1, GREATEST(waste_m2 - POW(? - waste_mean, 2) * runs / (runs - 1), 0), 0), " +
+        "waste_mean = IF(runs > 1, (waste_mean * runs - ?) / (runs - 1), 0), " +
+        "output_m2 = IF(runs > 1, GREATEST(output_m2 - POW(? - output_mean, 2) * runs / (runs - 1), 0), 0), " +
+        "output_mean = IF(runs > 1, (output_mean * runs - ?) / (runs - 1), 0), " +
+        "runs = runs - 1 " +
+        "WHERE dimension = ? AND dimension_id = ? AND finished_product_id = ? AND period = ? AND period_start = ? AND shift = ?";
+
+    private static final String DELETE_EMPTY_SQL =
+        "DELETE FROM production_yield_stats " +
+        "WHERE dimension = ? AND dimension_id = ? AND finished_product_id = ? AND period = ? AND period_start = ? AND shift = ? " +
+        "AND runs <= 0";
+
+    // Dimension, id and finished product expressions and row filter for the rebuild
+    private static final String[][] DIMENSION_SQL = {
+        {ProductionYieldStats.DIMENSION_ALL, "0", "0", ""},
+        {ProductionYieldStats.DIMENSION_MACHINE, "machine_id", "0", " AND machine_id > 0"},
+        {ProductionYieldStats.DIMENSION_PRODUCT, "raw_product_id", "finished_product_id", ""},
+        {ProductionYieldStats.DIMENSION_OPERATOR, "operator_id", "0", " AND operator_id > 0"}
+    };
+
+    // Period, period start and shift expressions for the rebuild
+    private static final String[][] PERIOD_SQL = {
+        {ProductionYieldStats.PERIOD_LIFETIME, "'" + LIFETIME_START + "'", "0"},
+        {ProductionYieldStats.PERIOD_WEEK, WEEK_START_SQL, "0"},
+        {ProductionYieldStats.PERIOD_DAY, "production_date", "0"},
+        {ProductionYieldStats.PERIOD_SHIFT, "production_date", SHIFT_SQL}
+    };
+
+    /**
+     * Add the runs to the statistics inside the caller's transaction. Does
+     * nothing and returns false if the statistics are not installed.
+     */
+    public boolean recordRuns(Connection conn, Collection<ProductionRecord> records) throws SQLException {
+        if (!isStatsInstalled(conn)) {
+            return false;
+        }
+
+        loadRecordedAt(conn, records);
+        BulkInsertWriter writer = new BulkInsertWriter("production_yield_stats", COLUMNS)
+            .onDuplicateKeyUpdateWith(ADD_RUN);
+        for (ProductionRecord record : records) {
+            if (record.getInputQuantity() <= 0) {
+                continue;
+            }
+            double input = record.getInputQuantity();
+            double conversion = record.getOutputQuantity() / input * 100;
+            double waste = record.getWasteQuantity() / input * 100;
+            for (Object[] key : keysOf(record)) {
+                writer.addRow(key[0], key[1], key[2], key[3], key[4], key[5],
+                    1, input, record.getOutputQuantity(), record.getWasteQuantity(),
+                    conversion, 0.0, waste, 0.0, record.getOutputQuantity(), 0.0);
+            }
+        }
+        writer.flush(conn);
+        return true;
+    }
+
+    // Set the stored created_at of the inserted runs, so their shift comes
+    // from the same timestamp the rebuild reads and not the client clock
+    private static void loadRecordedAt(Connection conn, Collection<ProductionRecord> records) throws SQLException {
+        Map<Integer, ProductionRecord> byId = new HashMap<>();
+        for (ProductionRecord record : records) {
+            if (record.getProductionId() > 0) {
+                byId.put(record.getProductionId(), record);
+            }
+        }
+        List<Integer> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += BulkInsertWriter.DEFAULT_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + BulkInsertWriter.DEFAULT_CHUNK_SIZE));
+            StringBuilder sql = new StringBuilder("SELECT production_id, created_at FROM production_records WHERE production_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        byId.get(rs.getInt(1)).setCreatedAt(rs.getTimestamp(2));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add one run posted elsewhere (the post_production procedure) on its
+     * own connection. A failure is logged and left for the next rebuild.
+     */
+    public boolean recordRun(ProductionRecord record) {
+        if (!isStatsInstalled()) {
+            return false;
+        }
+        try (Connection conn = DatabaseConnection.requireConnection()) {
+            return recordRuns(conn, Collections.singletonList(record));
+        } catch (SQLException e) {
+            LOG.error("Could not add production {} to the yield statistics", record.getProductionNumber(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Take one run back out of the statistics inside the caller's
+     * transaction, e.g. before it is changed. The record must hold the
+     * values the run was added with.
+     */
+    public boolean removeRun(Connection conn, ProductionRecord record) throws SQLException {
+        if (!isStatsInstalled(conn)) {
+            return false;
+        }
+        if (record.getInputQuantity() <= 0) {
+            return true;
+        }
+
+        double input = record.getInputQuantity();
+        double conversion = record.getOutputQuantity() / input * 100;
+        double waste = record.getWasteQuantity() / input * 100;
+        List<Object[]> keys = keysOf(record);
+        try (PreparedStatement update = conn.prepareStatement(REMOVE_RUN_SQL);
+             PreparedStatement delete = conn.prepareStatement(DELETE_EMPTY_SQL)) {
+            for (Object[] key : keys) {
+                Object[] values = {input, record.getOutputQuantity(), record.getWasteQuantity(),
+                    conversion, conversion, waste, waste, record.getOutputQuantity(), record.getOutputQuantity()};
+                int index = 1;
+                for (Object value : values) {
+                    update.setObject(index++, value);
+                }
+                for (Object part : key) {
+                    update.setObject(index++, part);
+                }
+                update.addBatch();
+
+                for (int i = 0; i < key.length; i++) {
+                    delete.setObject(i + 1, key[i]);
+                }
+                delete.addBatch();
+            }
+            update.executeBatch();
+            delete.executeBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Recompute every statistic from production_records inside the caller's
+     * transaction: mean from AVG and m2 from VAR_POP * COUNT, the same
+     * values the incremental updates arrive at. Returns false if the
+     * statistics are not installed.
+     */
+    public boolean rebuild(Connection conn) throws SQLException {
+        if (!isStatsInstalled(conn)) {
+            return false;
+        }
+
+        String conversion = "output_quantity / input_quantity * 100";
+        String waste = "waste_quantity / input_quantity * 100";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM production_yield_stats");
+            for (String[] dimension : DIMENSION_SQL) {
+                for (String[] period : PERIOD_SQL) {
+                    // Constant expressions are left out of the GROUP BY
+                    List<String> groupBy = new ArrayList<>();
+                    for (String expression : new String[] {dimension[1], dimension[2], period[1], period[2]}) {
+                        if (!expression.equals("0") && !expression.startsWith("'")) {
+                            groupBy.add(expression);
+                        }
+                    }
+                    stmt.executeUpdate(
+                        "INSERT INTO production_yield_stats (" + String.join(", ", COLUMNS) + ") " +
+                        "SELECT '" + dimension[0] + "', " + dimension[1] + ", " + dimension[2] + ", " +
+                        "'" + period[0] + "', " + period[1] + ", " + period[2] + ", " +
+                        "COUNT(*), SUM(input_quantity), SUM(output_quantity), SUM(waste_quantity), " +
+                        "AVG(" + conversion + "), VAR_POP(" + conversion + ") * COUNT(*), " +
+                        "AVG(" + waste + "), VAR_POP(" + waste + ") * COUNT(*), " +
+                        "AVG(output_quantity), VAR_POP(output_quantity) * COUNT(*) " +
+                        "FROM production_records WHERE input_quantity > 0" + dimension[3] +
+                        (groupBy.isEmpty() ? " HAVING COUNT(*) > 0" : " GROUP BY " + String.join(", ", groupBy)));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Statistics rows of one dimension and period whose period starts in the
+     * range, with the names of the machines, operators or products, ordered
+     * by key and then period
+     */
+    public List<ProductionYieldStats> getStats(String dimension, String period, Date fromDate, Date toDate) {
+        String sql = "SELECT s.*, COALESCE(m.machine_name, st.employee_name, rp.product_name) as name, " +
+                     "fp.product_name as finished_product_name " +
+                     "FROM production_yield_stats s " +
+                     "LEFT JOIN machines m ON s.dimension = 'Machine' AND m.machine_id = s.dimension_id " +
+                     "LEFT JOIN staff st ON s.dimension = 'Operator' AND st.staff_id = s.dimension_id " +
+                     "LEFT JOIN products rp ON s.dimension = 'Product' AND rp.product_id = s.dimension_id " +
+                     "LEFT JOIN products fp ON s.dimension = 'Product' AND fp.product_id = s.finished_product_id " +
+                     "WHERE s.dimension = ? AND s.period = ? AND s.period_start BETWEEN ? AND ? " +
+                     "ORDER BY s.dimension_id, s.finished_product_id, s.period_start, s.shift";
+
+        return queryStats("getStats", sql, dimension, period, fromDate, toDate);
+    }
+
+    // Statistics rows of one machine, product pair or operator and period, oldest first
+    public List<ProductionYieldStats> getSeries(String dimension, int dimensionId, int finishedProductId,
+                                                String period, Date fromDate, Date toDate) {
+        String sql = "SELECT s.*, NULL as name, NULL as finished_product_name " +
+                     "FROM production_yield_stats s " +
+                     "WHERE s.dimension = ? AND s.dimension_id = ? AND s.finished_product_id = ? " +
+                     "AND s.period = ? AND s.period_start BETWEEN ? AND ? " +
+                     "ORDER BY s.period_start, s.shift";
+
+        return queryStats("getSeries", sql, dimension, dimensionId, finishedProductId, period, fromDate, toDate);
+    }
+
+    // Whether the statistics table exists; false if the database cannot be reached
+    public static boolean isStatsInstalled() {
+        Boolean known = statsInstalled;
+        if (known != null) {
+            return known;
+        }
+        try (Connection conn = DatabaseConnection.requireConnection()) {
+            return isStatsInstalled(conn);
+        } catch (SQLException e) {
+            LOG.error("Could not check for the production yield statistics", e);
+            return false;
+        }
+    }
+
+    // Whether the statistics table exists; checked once
+    public static boolean isStatsInstalled(Connection conn) throws SQLException {
+        Boolean known = statsInstalled;
+        if (known != null) {
+            return known;
+        }
+
+        boolean found;
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "production_yield_stats", new String[] {"TABLE"})) {
+            found = rs.next();
+        }
+        if (!found) {
+            LOG.warn("Production yield statistics are not installed; machine efficiency is aggregated from "
+                + "production_records. Apply db/production_yield.sql to enable them.");
+        }
+        statsInstalled = found;
+        return found;
+    }
+
+    /*
+     * Primary keys of the rows a run belongs to, in primary key order so
+     * concurrent postings lock shared rows in the same order
+     */
+    static List<Object[]> keysOf(ProductionRecord record) {
+        LocalDate day = record.getProductionDate() != null
+            ? toLocalDate(record.getProductionDate()) : LocalDate.now();
+        // created_at as stored by the database; now only for runs not inserted yet
+        LocalDateTime recordedAt = record.getCreatedAt() != null
+            ? LocalDateTime.ofInstant(record.getCreatedAt().toInstant(), ZoneId.systemDefault()) : LocalDateTime.now();
+        Date dayStart = Date.valueOf(day);
+        Date weekStart = Date.valueOf(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        int shift = shiftOf(recordedAt.getHour());
+
+        List<int[]> dimensions = new ArrayList<>(4);
+        List<String> names = new ArrayList<>(4);
+        names.add(ProductionYieldStats.DIMENSION_ALL);
+        dimensions.add(new int[] {0, 0});
+        if (record.getMachineId() > 0) {
+            names.add(ProductionYieldStats.DIMENSION_MACHINE);
+            dimensions.add(new int[] {record.getMachineId(), 0});
+        }
+        names.add(ProductionYieldStats.DIMENSION_PRODUCT);
+        dimensions.add(new int[] {record.getRawProductId(), record.getFinishedProductId()});
+        if (record.getOperatorId() > 0) {
+            names.add(ProductionYieldStats.DIMENSION_OPERATOR);
+            dimensions.add(new int[] {record.getOperatorId(), 0});
+        }
+
+        List<Object[]> keys = new ArrayList<>(dimensions.size() * 4);
+        for (int i = 0; i < dimensions.size(); i++) {
+            int[] ids = dimensions.get(i);
+            String name = names.get(i);
+            keys.add(new Object[] {name, ids[0], ids[1], ProductionYieldStats.PERIOD_LIFETIME, LIFETIME_START, 0});
+            keys.add(new Object[] {name, ids[0], ids[1], ProductionYieldStats.PERIOD_WEEK, weekStart, 0});
+            keys.add(new Object[] {name, ids[0], ids[1], ProductionYieldStats.PERIOD_DAY, dayStart, 0});
+            keys.add(new Object[] {name, ids[0], ids[1], ProductionYieldStats.PERIOD_SHIFT, dayStart, shift});
+        }
+        return keys;
+    }
+
+    // Shift of an hour of the day, matching SHIFT_SQL
+    static int shiftOf(int hour) {
+        if (hour >= SHIFT_3_START || hour < SHIFT_1_START) {
+            return 3;
+        }
+        return hour >= SHIFT_2_START ? 2 : 1;
+    }
+
+    private static LocalDate toLocalDate(java.util.Date date) {
+        if (date instanceof Date) {
+            return ((Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private List<ProductionYieldStats> queryStats(String name, String sql, Object... parameters) {
+        List<ProductionYieldStats> stats = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(mapResultSetToStats(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("{} failed", name, e);
+        }
+        return stats;
+    }
+
+    // Map ResultSet to ProductionYieldStats object
+    private ProductionYieldStats mapResultSetToStats(ResultSet rs) throws SQLException {
+        ProductionYieldStats stats = new ProductionYieldStats(rs.getString("dimension"), rs.getInt("dimension_id"),
+            rs.getInt("finished_product_id"));
+        stats.setPeriod(rs.getString("period"));
+        stats.setPeriodStart(rs.getDate("period_start"));
+        stats.setShift(rs.getInt("shift"));
+        stats.setRuns(rs.getInt("runs"));
+        stats.setTotalInput(rs.getDouble("total_input"));
+        stats.setTotalOutput(rs.getDouble("total_output"));
+        stats.setTotalWaste(rs.getDouble("total_waste"));
+        stats.setConversionMean(rs.getDouble("conversion_mean"));
+        stats.setConversionM2(rs.getDouble("conversion_m2"));
+        stats.setWasteMean(rs.getDouble("waste_mean"));
+        stats.setWasteM2(rs.getDouble("waste_m2"));
+        stats.setOutputMean(rs.getDouble("output_mean"));
+        stats.setOutputM2(rs.getDouble("output_m2"));
+        stats.setName(rs.getString("name"));
+        stats.setFinishedProductName(rs.getString("finished_product_name"));
+        return stats;
+    }
+}
@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.PurchaseOrder;
 import com.pradeepmill.models.PaymentRecord;
 import java.sql.*;
@@ -12,6 +14,8 @@ import com.pradeepmill.models.PurchaseItem;
 
 public class PurchaseOrderDAO {
     
+    private static final Logger LOG = Logger.getLogger(PurchaseOrderDAO.class);
+    
     // Create new purchase order
     public boolean insertPurchaseOrder(PurchaseOrder purchaseOrder) {
         String sql = "INSERT INTO purchase_orders (purchase_number, supplier_id, purchase_date, total_quantity, total_amount, paid_amount, payment_status, notes, created_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
@@ -40,7 +44,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertPurchaseOrder failed", e);
         }
         return false;
     }
@@ -61,10 +65,14 @@ public class PurchaseOrderDAO {
             pstmt.setString(7, purchaseOrder.getNotes());
             pstmt.setInt(8, purchaseOrder.getPurchaseId());
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES);
+                return true;
+            }
+            return false;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updatePurchaseOrder failed", e);
         }
         return false;
     }
@@ -82,16 +90,16 @@ public class PurchaseOrderDAO {
             
             int rowsUpdated = pstmt.executeUpdate();
             if (rowsUpdated > 0) {
-                System.out.println("✅ Payment updated successfully for purchase ID: " + purchaseId);
+                LOG.info("Payment updated for purchase {}", purchaseId);
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES);
                 return true;
             } else {
-                System.out.println("❌ No purchase order found with ID: " + purchaseId);
+                LOG.warn("No purchase order found with ID {}", purchaseId);
                 return false;
             }
             
         } catch (SQLException e) {
-            System.out.println("❌ Error updating payment: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating payment for purchase {}", purchaseId, e);
         }
         return false;
     }
@@ -117,13 +125,12 @@ public class PurchaseOrderDAO {
                 if (generatedKeys.next()) {
                     paymentRecord.setPaymentId(generatedKeys.getInt(1));
                 }
-                System.out.println("✅ Payment record saved for tracking");
+                LOG.info("Payment record {} saved for purchase {}", paymentRecord.getPaymentId(), paymentRecord.getPurchaseId());
                 return true;
             }
             
         } catch (SQLException e) {
-            System.out.println("❌ Error saving payment record: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error saving payment record for purchase {}", paymentRecord.getPurchaseId(), e);
         }
         return false;
     }
@@ -145,7 +152,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findPurchaseOrderById failed", e);
         }
         return null;
     }
@@ -167,7 +174,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findPurchaseOrderByNumber failed", e);
         }
         return null;
     }
@@ -189,7 +196,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getAllPurchaseOrders failed", e);
         }
         return orders;
     }
@@ -214,7 +221,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getPurchaseOrdersByPaymentStatus failed", e);
         }
         return orders;
     }
@@ -237,11 +244,86 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getOutstandingPurchases failed", e);
         }
         return orders;
     }
     
+    // Outstanding purchases from one supplier, oldest first
+    public List<PurchaseOrder> getOutstandingPurchasesBySupplier(int supplierId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return selectOutstandingPurchases(conn, supplierId, false);
+        } catch (SQLException e) {
+            LOG.error("Error loading outstanding purchases for supplier {}", supplierId, e);
+        }
+        return new ArrayList<>();
+    }
+
+    // Outstanding purchases from one supplier, oldest first, locked until the caller's transaction ends
+    public List<PurchaseOrder> lockOutstandingPurchases(Connection conn, int supplierId) throws SQLException {
+        return selectOutstandingPurchases(conn, supplierId, true);
+    }
+
+    private List<PurchaseOrder> selectOutstandingPurchases(Connection conn, int supplierId, boolean forUpdate) throws SQLException {
+        String sql = "SELECT po.* FROM purchase_orders po " +
+                     "WHERE po.supplier_id = ? AND po.payment_status IN ('Pending', 'Partial') " +
+                     "ORDER BY po.purchase_date ASC, po.purchase_id ASC" +
+                     (forUpdate ? " FOR UPDATE" : "");
+
+        List<PurchaseOrder> orders = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, supplierId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToPurchaseOrder(rs));
+                }
+            }
+        }
+        return orders;
+    }
+
+    // Write the paid amount and payment status of several purchases in one batch inside the caller's transaction
+    public void applyPayments(Connection conn, List<PurchaseOrder> orders) throws SQLException {
+        String sql = "UPDATE purchase_orders SET paid_amount=?, payment_status=?, updated_at=CURRENT_TIMESTAMP WHERE purchase_id=?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (PurchaseOrder order : orders) {
+                pstmt.setDouble(1, order.getPaidAmount());
+                pstmt.setString(2, order.getPaymentStatus());
+                pstmt.setInt(3, order.getPurchaseId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Insert several payment records as one multi-row insert inside the caller's transaction
+    public void insertPaymentRecords(Connection conn, List<PaymentRecord> records) throws SQLException {
+        BulkInsertWriter writer = new BulkInsertWriter("payment_records",
+            "purchase_id", "payment_amount", "payment_method", "reference_number", "payment_date", "notes");
+        for (PaymentRecord record : records) {
+            writer.addRow(record.getPurchaseId(), record.getPaymentAmount(), record.getPaymentMethod(),
+                record.getReferenceNumber(), new java.sql.Date(record.getPaymentDate().getTime()), record.getNotes());
+        }
+        int[] ids = writer.flush(conn);
+        for (int i = 0; i < records.size(); i++) {
+            records.get(i).setPaymentId(ids[i]);
+        }
+    }
+
+    // Whether a supplier already has a payment record with this reference number
+    public boolean hasPaymentReference(Connection conn, int supplierId, String referenceNumber) throws SQLException {
+        String sql = "SELECT 1 FROM payment_records pr " +
+                     "JOIN purchase_orders po ON pr.purchase_id = po.purchase_id " +
+                     "WHERE po.supplier_id = ? AND pr.reference_number = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, supplierId);
+            pstmt.setString(2, referenceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     // Search purchase orders
     public List<PurchaseOrder> searchPurchaseOrders(String keyword) {
         String sql = "SELECT po.*, s.supplier_name FROM purchase_orders po " +
@@ -265,7 +347,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchPurchaseOrders failed", e);
         }
         return orders;
     }
@@ -299,13 +381,13 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getPurchaseOrderStatistics failed", e);
         }
         return stats;
     }
     
     // Helper method to map ResultSet to PurchaseOrder object
-    private PurchaseOrder mapResultSetToPurchaseOrder(ResultSet rs) throws SQLException {
+    PurchaseOrder mapResultSetToPurchaseOrder(ResultSet rs) throws SQLException {
         PurchaseOrder purchaseOrder = new PurchaseOrder();
         purchaseOrder.setPurchaseId(rs.getInt("purchase_id"));
         purchaseOrder.setPurchaseNumber(rs.getString("purchase_number"));
@@ -332,32 +414,24 @@ public class PurchaseOrderDAO {
     
     // Purchase Item Operations
     public boolean insertPurchaseItems(int purchaseId, List<PurchaseItem> items) {
-        String sql = "INSERT INTO purchase_items (purchase_id, product_id, quantity, unit_price, total_price) VALUES (?, ?, ?, ?, ?)";
+        // One multi-row INSERT per chunk rather than a statement per item
+        BulkInsertWriter writer = new BulkInsertWriter("purchase_items",
+            "purchase_id", "product_id", "quantity", "unit_price", "total_price");
+        for (PurchaseItem item : items) {
+            writer.addRow(purchaseId, item.getProductId(), item.getQuantity(), item.getUnitPrice(),
+                item.getQuantity() * item.getUnitPrice());
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            for (PurchaseItem item : items) {
-                pstmt.setInt(1, purchaseId);
-                pstmt.setInt(2, item.getProductId());
-                pstmt.setDouble(3, item.getQuantity());
-                pstmt.setDouble(4, item.getUnitPrice());
-                pstmt.setDouble(5, item.getQuantity() * item.getUnitPrice());
-                pstmt.addBatch();
-            }
-            
-            int[] results = pstmt.executeBatch();
-            
-            // Check if all items were inserted
-            for (int result : results) {
-                if (result <= 0) {
-                    return false;
-                }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int[] itemIds = writer.flush(conn);
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).setPurchaseId(purchaseId);
+                items.get(i).setItemId(itemIds[i]);
             }
             return true;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertPurchaseItems failed", e);
         }
         return false;
     }
@@ -396,7 +470,7 @@ public class PurchaseOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getPurchaseItems failed", e);
         }
         return items;
     }
@@ -423,6 +497,7 @@ public class PurchaseOrderDAO {
                 
                 if (rowsAffected > 0) {
                     conn.commit();
+                    DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES);
                     return true;
                 }
             }
@@ -435,16 +510,17 @@ public class PurchaseOrderDAO {
                 try {
                     conn.rollback();
                 } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
+                    LOG.error("deletePurchaseOrder rollback failed", rollbackEx);
                 }
             }
-            e.printStackTrace();
+            LOG.error("deletePurchaseOrder failed", e);
         } finally {
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
+                    conn.close(); // Return connection to the pool
                 } catch (SQLException e) {
-                    e.printStackTrace();
+                    LOG.error("Could not release connection in deletePurchaseOrder", e);
                 }
             }
         }
@@ -1,34 +1,49 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class ReportDAO {
     
+    private static final Logger LOG = Logger.getLogger(ReportDAO.class);
+    
     // ===== CUSTOMER DETAILS REPORT (Required Report #1) =====
     public List<Map<String, Object>> getCustomerDetailsReport() {
+        return executeReportQuery(customerDetailsSql());
+    }
+    
+    private String customerDetailsSql() {
+        // Outstanding balance comes from the receivables ledger when it is installed
+        boolean ledger = CustomerLedgerDAO.isLedgerInstalled();
         String sql = "SELECT " +
                      "c.customer_id, c.customer_name, c.phone, c.address, c.customer_type, " +
                      "COUNT(so.sale_id) as total_orders, " +
                      "COALESCE(SUM(so.total_amount), 0) as total_purchases, " +
-                     "COALESCE(SUM(so.total_amount - so.paid_amount), 0) as outstanding_balance, " +
+                     (ledger ? "COALESCE(cb.balance, 0) as outstanding_balance, "
+                             : "COALESCE(SUM(so.total_amount - so.paid_amount), 0) as outstanding_balance, ") +
                      "MAX(so.sale_date) as last_purchase_date " +
                      "FROM customers c " +
                      "LEFT JOIN sales_orders so ON c.customer_id = so.customer_id " +
+                     (ledger ? "LEFT JOIN customer_balances cb ON cb.customer_id = c.customer_id " : "") +
                      "WHERE c.status = 'Active' " +
-                     "GROUP BY c.customer_id, c.customer_name, c.phone, c.address, c.customer_type " +
+                     "GROUP BY c.customer_id, c.customer_name, c.phone, c.address, c.customer_type" +
+                     (ledger ? ", cb.balance " : " ") +
                      "ORDER BY c.customer_name";
-        
-        return executeReportQuery(sql);
+        return sql;
     }
     
     // ===== SUPPLIER DETAILS REPORT (Required Report #2) =====
     public List<Map<String, Object>> getSupplierDetailsReport() {
-        String sql = "SELECT " +
+        return executeReportQuery(SUPPLIER_DETAILS_SQL);
+    }
+    
+    private static final String SUPPLIER_DETAILS_SQL = "SELECT " +
                      "s.supplier_id, s.supplier_name, s.phone, s.address, " +
                      "COUNT(po.purchase_id) as total_orders, " +
                      "COALESCE(SUM(po.total_amount), 0) as total_purchases, " +
@@ -39,25 +54,22 @@ public class ReportDAO {
                      "WHERE s.status = 'Active' " +
                      "GROUP BY s.supplier_id, s.supplier_name, s.phone, s.address " +
                      "ORDER BY s.supplier_name";
-        
-        return executeReportQuery(sql);
-    }
     
     // ===== MONTHLY SALARY REPORT (Required Report #3) =====
-    public List<Map<String, Object>> getMonthlySalaryReport(String month) {
-        String sql = "SELECT " +
+    private static final String MONTHLY_SALARY_SQL = "SELECT " +
                      "st.staff_id, st.employee_name, st.position, st.monthly_salary, " +
-                     "sp.basic_salary, sp.overtime_amount, sp.bonus, sp.deductions, sp.net_salary, " +
+                     "sp.basic_salary, sp.overtime_hours, sp.overtime_amount, sp.bonus, sp.deductions, sp.net_salary, " +
                      "sp.payment_date, sp.payment_status " +
                      "FROM staff st " +
                      "LEFT JOIN salary_payments sp ON st.staff_id = sp.staff_id AND sp.payment_month = ? " +
                      "WHERE st.status = 'Active' " +
                      "ORDER BY st.employee_name";
-        
+    
+    public List<Map<String, Object>> getMonthlySalaryReport(String month) {
         List<Map<String, Object>> results = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(MONTHLY_SALARY_SQL)) {
             
             pstmt.setString(1, month); // Format: YYYY-MM
             ResultSet rs = pstmt.executeQuery();
@@ -69,6 +81,7 @@ public class ReportDAO {
                 row.put("position", rs.getString("position"));
                 row.put("monthly_salary", rs.getDouble("monthly_salary"));
                 row.put("basic_salary", rs.getDouble("basic_salary"));
+                row.put("overtime_hours", rs.getDouble("overtime_hours"));
                 row.put("overtime_amount", rs.getDouble("overtime_amount"));
                 row.put("bonus", rs.getDouble("bonus"));
                 row.put("deductions", rs.getDouble("deductions"));
@@ -79,15 +92,14 @@ public class ReportDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getMonthlySalaryReport failed", e);
         }
         return results;
     }
     
     // ===== STOCK REPORT =====
     // ===== STOCK REPORT =====
-public List<Map<String, Object>> getStockReport() {
-    String sql = "SELECT " +
+private static final String STOCK_REPORT_SQL = "SELECT " +
                  "p.product_id, p.product_name, p.product_type, p.grade, p.unit_price, p.unit, " +
                  "si.current_quantity, si.minimum_level, si.maximum_level, " +
                  "(si.current_quantity * p.unit_price) as stock_value, " +
@@ -101,10 +113,13 @@ public List<Map<String, Object>> getStockReport() {
                  "JOIN stock_inventory si ON p.product_id = si.product_id " +
                  // Remove this line temporarily to test: "WHERE p.status = 'Active' " +
                  "ORDER BY p.product_type, p.product_name";
-    
-    System.out.println("DEBUG: Executing stock report query: " + sql); // Add this debug line
-    List<Map<String, Object>> results = executeReportQuery(sql);
-    System.out.println("DEBUG: Stock report returned " + results.size() + " rows"); // Add this debug line
+
+public List<Map<String, Object>> getStockReport() {
+    LOG.debug("Executing stock report query: {}", STOCK_REPORT_SQL);
+    List<Map<String, Object>> results = executeReportQuery(STOCK_REPORT_SQL);
+    if (LOG.isDebugEnabled()) {
+        LOG.debug("Stock report returned {} rows", results.size());
+    }
     
     return results;
 }
@@ -147,15 +162,14 @@ public List<Map<String, Object>> getStockReport() {
                 "WHERE si.current_quantity <= si.minimum_level AND p.status = 'Active'"));
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getDashboardStats failed", e);
         }
         
         return stats;
     }
     
     // ===== PRODUCTION SUMMARY REPORT =====
-    public List<Map<String, Object>> getProductionSummaryReport(Date fromDate, Date toDate) {
-        String sql = "SELECT " +
+    private static final String PRODUCTION_SUMMARY_SQL = "SELECT " +
                      "pr.production_date, pr.production_number, " +
                      "rp.product_name as raw_product, fp.product_name as finished_product, " +
                      "pr.input_quantity, pr.output_quantity, pr.conversion_rate, pr.waste_quantity, " +
@@ -167,11 +181,12 @@ public List<Map<String, Object>> getStockReport() {
                      "LEFT JOIN staff s ON pr.operator_id = s.staff_id " +
                      "WHERE pr.production_date BETWEEN ? AND ? " +
                      "ORDER BY pr.production_date DESC";
-        
+    
+    public List<Map<String, Object>> getProductionSummaryReport(Date fromDate, Date toDate) {
         List<Map<String, Object>> results = new ArrayList<>();
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(PRODUCTION_SUMMARY_SQL)) {
             
             pstmt.setDate(1, fromDate);
             pstmt.setDate(2, toDate);
@@ -193,11 +208,210 @@ public List<Map<String, Object>> getStockReport() {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getProductionSummaryReport failed", e);
         }
         return results;
     }
     
+    // ===== PAYSLIPS AND CUSTOMER STATEMENTS (streamed for batch documents) =====
+    
+    // Number of salary payments recorded for the month
+    public int countPayslips(String month) {
+        return countWithParameter("SELECT COUNT(*) FROM salary_payments WHERE payment_month = ?", month);
+    }
+    
+    // Stream every salary payment of the month with its staff details, in staff id order
+    public boolean streamPayslips(String month, Consumer<Map<String, Object>> handler) {
+        String sql = "SELECT " +
+                     "sp.payment_id, sp.payment_month, sp.payment_date, sp.payment_status, " +
+                     "sp.basic_salary, sp.overtime_hours, sp.overtime_amount, sp.bonus, sp.deductions, sp.net_salary, " +
+                     "st.staff_id, st.employee_name, st.position, st.phone, st.hire_date " +
+                     "FROM salary_payments sp " +
+                     "JOIN staff st ON sp.staff_id = st.staff_id " +
+                     "WHERE sp.payment_month = ? " +
+                     "ORDER BY st.staff_id";
+        
+        return streamRows("streamPayslips", sql, handler, month);
+    }
+    
+    // Number of active customers, i.e. candidate statements
+    public int countStatementCustomers() {
+        return countWithParameter("SELECT COUNT(*) FROM customers WHERE status = ?", "Active");
+    }
+    
+    /**
+     * Stream each active customer's sales in the period, ordered by customer
+     * and sale date, with the balance owing from before the period on every
+     * row. Customers without sales in the period come through as one row
+     * with a null sale_id.
+     */
+    public boolean streamCustomerStatements(Date fromDate, Date toDate, Consumer<Map<String, Object>> handler) {
+        String sql = "SELECT " +
+                     "c.customer_id, c.customer_name, c.contact_person, c.phone, c.address, c.customer_type, " +
+                     "COALESCE(ob.opening_balance, 0) as opening_balance, " +
+                     "so.sale_id, so.sale_number, so.sale_date, so.total_quantity, so.total_amount, " +
+                     "so.paid_amount, so.payment_status " +
+                     "FROM customers c " +
+                     "LEFT JOIN (SELECT customer_id, SUM(total_amount - paid_amount) as opening_balance " +
+                     "           FROM sales_orders WHERE sale_date < ? GROUP BY customer_id) ob " +
+                     "       ON ob.customer_id = c.customer_id " +
+                     "LEFT JOIN sales_orders so ON so.customer_id = c.customer_id " +
+                     "       AND so.sale_date BETWEEN ? AND ? " +
+                     "WHERE c.status = 'Active' " +
+                     "ORDER BY c.customer_id, so.sale_date, so.sale_id";
+        
+        return streamRows("streamCustomerStatements", sql, handler, fromDate, fromDate, toDate);
+    }
+    
+    // ===== EXPORTS (streamed, one row at a time) =====
+    
+    public boolean streamCustomerDetailsReport(Consumer<Map<String, Object>> handler) {
+        return streamRows("streamCustomerDetailsReport", customerDetailsSql(), handler);
+    }
+    
+    public boolean streamSupplierDetailsReport(Consumer<Map<String, Object>> handler) {
+        return streamRows("streamSupplierDetailsReport", SUPPLIER_DETAILS_SQL, handler);
+    }
+    
+    public boolean streamMonthlySalaryReport(String month, Consumer<Map<String, Object>> handler) {
+        return streamRows("streamMonthlySalaryReport", MONTHLY_SALARY_SQL, handler, month);
+    }
+    
+    public boolean streamStockReport(Consumer<Map<String, Object>> handler) {
+        return streamRows("streamStockReport", STOCK_REPORT_SQL, handler);
+    }
+    
+    // Number of production records in the period
+    public int countProductionRecords(Date fromDate, Date toDate) {
+        return countRows("countProductionRecords",
+                         "SELECT COUNT(*) FROM production_records WHERE production_date BETWEEN ? AND ?", fromDate, toDate);
+    }
+    
+    public boolean streamProductionSummaryReport(Date fromDate, Date toDate, Consumer<Map<String, Object>> handler) {
+        return streamRows("streamProductionSummaryReport", PRODUCTION_SUMMARY_SQL, handler, fromDate, toDate);
+    }
+    
+    // Number of sales lines in the period
+    public int countSalesHistory(Date fromDate, Date toDate) {
+        return countRows("countSalesHistory",
+                         "SELECT COUNT(*) FROM sales_items si JOIN sales_orders so ON si.sale_id = so.sale_id " +
+                         "WHERE so.sale_date BETWEEN ? AND ?", fromDate, toDate);
+    }
+    
+    /**
+     * Stream every sales line in the period with its order, customer and
+     * product, in sale date order. Meant for exports of the full history,
+     * which can run to millions of rows.
+     */
+    public boolean streamSalesHistory(Date fromDate, Date toDate, Consumer<Map<String, Object>> handler) {
+        String sql = "SELECT " +
+                     "so.sale_date, so.sale_number, c.customer_name, p.product_name, p.product_type, " +
+                     "si.quantity, si.unit_price, si.total_price, " +
+                     "so.total_amount as order_total, so.paid_amount as order_paid, so.payment_status " +
+                     "FROM sales_items si " +
+                     "JOIN sales_orders so ON si.sale_id = so.sale_id " +
+                     "JOIN customers c ON so.customer_id = c.customer_id " +
+                     "JOIN products p ON si.product_id = p.product_id " +
+                     "WHERE so.sale_date BETWEEN ? AND ? " +
+                     "ORDER BY so.sale_date, so.sale_id";
+        
+        return streamRows("streamSalesHistory", sql, handler, fromDate, toDate);
+    }
+    
+    // ===== RECEIVABLES AND PAYABLES AGING =====
+    
+    // Aging buckets by days since the order date: 0-30, 31-60, 61-90, over 90
+    public static final String[] AGING_BUCKETS = {"0-30", "31-60", "61-90", "90+"};
+    private static final int[] AGING_BUCKET_DAYS = {30, 60, 90};
+    
+    /**
+     * Outstanding customer balances split into aging buckets as of the given
+     * day, one row per customer with open sales. Computed in one pass over
+     * the open sales with conditional sums.
+     */
+    public List<Map<String, Object>> getReceivablesAging(Date asOf) {
+        return agingQuery("getReceivablesAging", "sales_orders", "customer_id", "sale_date",
+                          "customers", "customer_name", asOf);
+    }
+    
+    // Outstanding supplier balances split into aging buckets as of the given day
+    public List<Map<String, Object>> getPayablesAging(Date asOf) {
+        return agingQuery("getPayablesAging", "purchase_orders", "supplier_id", "purchase_date",
+                          "suppliers", "supplier_name", asOf);
+    }
+    
+    // Open sales of one customer in one aging bucket (-1 for all), oldest first
+    public List<Map<String, Object>> getReceivablesAgingOrders(int customerId, int bucket, Date asOf) {
+        String sql = "SELECT sale_id as order_id, sale_number as order_number, sale_date as order_date, " +
+                     "total_amount, paid_amount, total_amount - paid_amount as outstanding, " +
+                     "DATEDIFF(?, sale_date) as age_days, payment_status " +
+                     "FROM sales_orders " +
+                     "WHERE customer_id = ? AND payment_status IN ('Pending', 'Partial') " +
+                     "AND sale_date >= ? AND sale_date <= ? " +
+                     "ORDER BY sale_date, sale_id";
+        
+        return agingOrdersQuery("getReceivablesAgingOrders", sql, customerId, bucket, asOf);
+    }
+    
+    // Open purchases from one supplier in one aging bucket (-1 for all), oldest first
+    public List<Map<String, Object>> getPayablesAgingOrders(int supplierId, int bucket, Date asOf) {
+        String sql = "SELECT purchase_id as order_id, purchase_number as order_number, purchase_date as order_date, " +
+                     "total_amount, paid_amount, total_amount - paid_amount as outstanding, " +
+                     "DATEDIFF(?, purchase_date) as age_days, payment_status " +
+                     "FROM purchase_orders " +
+                     "WHERE supplier_id = ? AND payment_status IN ('Pending', 'Partial') " +
+                     "AND purchase_date >= ? AND purchase_date <= ? " +
+                     "ORDER BY purchase_date, purchase_id";
+        
+        return agingOrdersQuery("getPayablesAgingOrders", sql, supplierId, bucket, asOf);
+    }
+    
+    /**
+     * Aggregate the open orders per party in a derived table first, so the
+     * scan can be answered from the (payment_status, party, date, amounts)
+     * index of db/aging_indexes.sql, then join the names of the parties
+     * found. Bucket boundaries are bound as dates, not computed per row.
+     */
+    private List<Map<String, Object>> agingQuery(String name, String orderTable, String partyColumn, String dateColumn,
+                                                 String partyTable, String nameColumn, Date asOf) {
+        String outstanding = "o.total_amount - o.paid_amount";
+        String sql = "SELECT a.party_id, p." + nameColumn + " as party_name, a.open_orders, " +
+                     "a.days_0_30, a.days_31_60, a.days_61_90, a.days_over_90, a.total_outstanding, a.oldest_date " +
+                     "FROM (SELECT o." + partyColumn + " as party_id, COUNT(*) as open_orders, " +
+                     "      SUM(CASE WHEN o." + dateColumn + " >= ? THEN " + outstanding + " ELSE 0 END) as days_0_30, " +
+                     "      SUM(CASE WHEN o." + dateColumn + " < ? AND o." + dateColumn + " >= ? THEN " + outstanding + " ELSE 0 END) as days_31_60, " +
+                     "      SUM(CASE WHEN o." + dateColumn + " < ? AND o." + dateColumn + " >= ? THEN " + outstanding + " ELSE 0 END) as days_61_90, " +
+                     "      SUM(CASE WHEN o." + dateColumn + " < ? THEN " + outstanding + " ELSE 0 END) as days_over_90, " +
+                     "      SUM(" + outstanding + ") as total_outstanding, " +
+                     "      MIN(o." + dateColumn + ") as oldest_date " +
+                     "      FROM " + orderTable + " o " +
+                     "      WHERE o.payment_status IN ('Pending', 'Partial') " +
+                     "      GROUP BY o." + partyColumn + ") a " +
+                     "JOIN " + partyTable + " p ON p." + partyColumn + " = a.party_id " +
+                     "ORDER BY a.total_outstanding DESC";
+        
+        Date day30 = daysBefore(asOf, AGING_BUCKET_DAYS[0]);
+        Date day60 = daysBefore(asOf, AGING_BUCKET_DAYS[1]);
+        Date day90 = daysBefore(asOf, AGING_BUCKET_DAYS[2]);
+        return queryRows(name, sql, day30, day30, day60, day60, day90, day90);
+    }
+    
+    // Orders of one party whose date falls in the bucket's date range; bucket -1 means all open orders
+    private List<Map<String, Object>> agingOrdersQuery(String name, String sql, int partyId, int bucket, Date asOf) {
+        if (bucket < -1 || bucket >= AGING_BUCKETS.length) {
+            throw new IllegalArgumentException("No aging bucket " + bucket);
+        }
+        // Newest date in the bucket (open-ended for 0-30, which includes future dates) and oldest date
+        Date newest = bucket <= 0 ? Date.valueOf("9999-12-31") : daysBefore(asOf, AGING_BUCKET_DAYS[bucket - 1] + 1);
+        Date oldest = bucket == -1 || bucket == AGING_BUCKETS.length - 1
+            ? Date.valueOf("1000-01-01") : daysBefore(asOf, AGING_BUCKET_DAYS[bucket]);
+        return queryRows(name, sql, asOf, partyId, oldest, newest);
+    }
+    
+    private static Date daysBefore(Date day, int days) {
+        return Date.valueOf(day.toLocalDate().minusDays(days));
+    }
+    
     // ===== HELPER METHODS =====
     
     // Execute general report query and return results as Map list
@@ -208,21 +422,128 @@ public List<Map<String, Object>> getStockReport() {
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
+            results = mapRows(rs);
             
-            while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnName = metaData.getColumnName(i);
-                    Object value = rs.getObject(i);
-                    row.put(columnName, value);
+        } catch (SQLException e) {
+            LOG.error("executeReportQuery failed", e);
+        }
+        return results;
+    }
+    
+    /**
+     * Run a query with a streaming result set (MySQL sends rows as they are
+     * read instead of buffering the whole result) and hand each row to the
+     * handler as a column label -> value map. Returns false if the query
+     * failed; rows already handled are not rolled back. An exception from
+     * the handler (e.g. a cancelled export) cancels the query on the server
+     * before it is rethrown, so the rest of the rows are not read.
+     */
+    private boolean streamRows(String name, String sql, Consumer<Map<String, Object>> handler, Object... parameters) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] labels = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    labels[i] = metaData.getColumnLabel(i + 1);
+                }
+                
+                try {
+                    while (rs.next()) {
+                        Map<String, Object> row = new HashMap<>();
+                        for (int i = 0; i < columnCount; i++) {
+                            row.put(labels[i], rs.getObject(i + 1));
+                        }
+                        handler.accept(row);
+                    }
+                } catch (RuntimeException e) {
+                    // Closing a streaming result set reads it to the end; stop the query first
+                    cancelQuietly(name, pstmt);
+                    throw e;
                 }
-                results.add(row);
             }
+            return true;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("{} failed", name, e);
+            return false;
+        }
+    }
+    
+    private static void cancelQuietly(String name, Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            LOG.warn("Could not cancel " + name, e);
+        }
+    }
+    
+    // Run a query with positional parameters and return the rows as column label -> value maps
+    private List<Map<String, Object>> queryRows(String name, String sql, Object... parameters) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        streamRows(name, sql, results::add, parameters);
+        return results;
+    }
+    
+    // Get a count for a query with one string parameter
+    private int countWithParameter(String sql, String parameter) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, parameter);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Count query failed: {}", sql, e);
+        }
+        return 0;
+    }
+    
+    // Get a count for a query with positional parameters, 0 if it failed
+    private int countRows(String name, String sql, Object... parameters) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < parameters.length; i++) {
+                pstmt.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("{} failed", name, e);
+        }
+        return 0;
+    }
+    
+    // Turn every row into a column name -> value map
+    List<Map<String, Object>> mapRows(ResultSet rs) throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        
+        while (rs.next()) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                String columnName = metaData.getColumnName(i);
+                Object value = rs.getObject(i);
+                row.put(columnName, value);
+            }
+            results.add(row);
         }
         return results;
     }
@@ -1,15 +1,30 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
+import com.pradeepmill.models.SalaryPayment;
 import com.pradeepmill.models.Staff;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class SalaryPaymentDAO {
     
+    private static final Logger LOG = Logger.getLogger(SalaryPaymentDAO.class);
+    
+    // Cached result of hasStaffMonthKey
+    private static volatile Boolean staffMonthKey;
+    
+    // Cached result of hasAbsentDays
+    private static volatile Boolean absentDaysColumn;
+    
     /**
      * Simple salary payment insertion - only basic salary and bonus
      */
@@ -30,16 +45,16 @@ public class SalaryPaymentDAO {
             pstmt.setDouble(5, netSalary);
             
             int rowsAffected = pstmt.executeUpdate();
-            System.out.println("Salary payment saved - StaffID: " + staffId + 
-                             ", Month: " + paymentMonth + 
-                             ", Basic: " + basicSalary + 
-                             ", Bonus: " + bonus + 
-                             ", Net: " + netSalary);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Salary payment saved for staff {} month {}, net {}", staffId, paymentMonth, netSalary);
+            }
+            if (rowsAffected > 0) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALARY);
+            }
             return rowsAffected > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error inserting salary payment: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error inserting salary payment", e);
         }
         return false;
     }
@@ -62,106 +77,296 @@ public class SalaryPaymentDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error checking payment existence: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error checking payment existence", e);
         }
         return false;
     }
     
     /**
-     * Process monthly payments for all active staff with simplified approach
+     * Save a month's payroll in one transaction: new payments are inserted
+     * and existing unpaid ones overwritten, with multi-row upserts. Payments
+     * already marked Paid are never overwritten and are counted as skipped.
+     * Returns the inserted, updated and skipped counts, or null if nothing
+     * was saved.
      */
-    public int processMonthlyPayments(String paymentMonth) {
-        int processedCount = 0;
+    public PayrollRunCounts savePayrollRun(String paymentMonth, List<SalaryPayment> payments) {
+        return savePayrollRun(paymentMonth, payments, false);
+    }
+    
+    /**
+     * Save a month's payroll, inserting only staff who have no payment for
+     * the month yet. Existing payments, paid or not, are counted as skipped.
+     */
+    public PayrollRunCounts saveNewPayments(String paymentMonth, List<SalaryPayment> payments) {
+        return savePayrollRun(paymentMonth, payments, true);
+    }
+    
+    private PayrollRunCounts savePayrollRun(String paymentMonth, List<SalaryPayment> payments, boolean newOnly) {
+        java.sql.Date today = new java.sql.Date(System.currentTimeMillis());
+        if (payments.isEmpty()) {
+            return new PayrollRunCounts(0, 0, 0);
+        }
         
         try (Connection conn = DatabaseConnection.getConnection()) {
             conn.setAutoCommit(false); // Start transaction
-            
-            // Get all active staff
-            String staffSql = "SELECT staff_id, monthly_salary FROM staff WHERE status = 'Active'";
-            PreparedStatement staffStmt = conn.prepareStatement(staffSql);
-            ResultSet staffRs = staffStmt.executeQuery();
-            
-            while (staffRs.next()) {
-                int staffId = staffRs.getInt("staff_id");
-                double monthlySalary = staffRs.getDouble("monthly_salary");
+            try {
+                // Existing payments of these staff for the month (locked until commit)
+                Map<Integer, String> existing = lockPayments(conn, paymentMonth, payments);
+                
+                boolean absentDays = hasAbsentDays(conn);
+                List<String> columns = new ArrayList<>(Arrays.asList("staff_id", "payment_month", "basic_salary",
+                    "overtime_hours", "overtime_amount", "bonus", "deductions", "net_salary", "payment_date", "payment_status"));
+                List<String> updateColumns = new ArrayList<>(Arrays.asList("basic_salary", "overtime_hours",
+                    "overtime_amount", "bonus", "deductions", "net_salary"));
+                if (absentDays) {
+                    columns.add("absent_days");
+                    updateColumns.add("absent_days");
+                }
                 
-                // Check if payment already exists
-                if (!paymentExists(staffId, paymentMonth)) {
-                    // Create simple payment record (only basic salary, no bonus)
-                    if (insertSimpleSalaryPayment(staffId, paymentMonth, monthlySalary, 0.0)) {
-                        processedCount++;
+                BulkInsertWriter writer = new BulkInsertWriter("salary_payments", columns.toArray(new String[0]));
+                boolean upsert = hasStaffMonthKey(conn);
+                if (upsert) {
+                    writer.onDuplicateKeyUpdate(updateColumns.toArray(new String[0]));
+                } else {
+                    writer.withoutGeneratedKeys();
+                }
+                
+                int inserted = 0;
+                int updated = 0;
+                int skipped = 0;
+                List<SalaryPayment> updates = new ArrayList<>();
+                for (SalaryPayment payment : payments) {
+                    boolean exists = existing.containsKey(payment.getStaffId());
+                    if (exists && (newOnly || SalaryPayment.STATUS_PAID.equals(existing.get(payment.getStaffId())))) {
+                        skipped++;
+                        continue;
+                    }
+                    if (exists) {
+                        updated++;
+                    } else {
+                        inserted++;
                     }
+                    if (exists && !upsert) {
+                        updates.add(payment);
+                    } else if (absentDays) {
+                        writer.addRow(payment.getStaffId(), paymentMonth, payment.getBasicSalary(),
+                            payment.getOvertimeHours(), payment.getOvertimeAmount(), payment.getBonus(),
+                            payment.getDeductions(), payment.getNetSalary(), today, payment.getPaymentStatus(),
+                            payment.getAbsentDays());
+                    } else {
+                        writer.addRow(payment.getStaffId(), paymentMonth, payment.getBasicSalary(),
+                            payment.getOvertimeHours(), payment.getOvertimeAmount(), payment.getBonus(),
+                            payment.getDeductions(), payment.getNetSalary(), today, payment.getPaymentStatus());
+                    }
+                }
+                
+                writer.flush(conn);
+                if (!updates.isEmpty()) {
+                    updatePayments(conn, paymentMonth, updates, absentDays);
+                }
+                conn.commit(); // Commit transaction
+                
+                PayrollRunCounts counts = new PayrollRunCounts(inserted, updated, skipped);
+                if (inserted + updated > 0) {
+                    DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALARY);
                 }
+                LOG.info("Payroll for {} saved: {} new, {} updated", paymentMonth, counts.inserted, counts.updated);
+                if (skipped > 0) {
+                    LOG.warn("Payroll for {}: {} existing payment(s) were left unchanged", paymentMonth, skipped);
+                }
+                return counts;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-            staffStmt.close();
-            conn.commit(); // Commit transaction
-            conn.setAutoCommit(true);
-            
         } catch (SQLException e) {
-            System.err.println("Error processing monthly payments: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error saving payroll run", e);
+        }
+        return null;
+    }
+    
+    // Lock the month's existing payments of the given staff and return their
+    // status by staff id. Only these (staff_id, payment_month) rows are locked,
+    // so payroll runs for other staff or months are not blocked.
+    private Map<Integer, String> lockPayments(Connection conn, String paymentMonth,
+                                              List<SalaryPayment> payments) throws SQLException {
+        Set<Integer> staffIds = new TreeSet<>();
+        for (SalaryPayment payment : payments) {
+            staffIds.add(payment.getStaffId());
+        }
+        
+        StringBuilder sql = new StringBuilder(
+            "SELECT staff_id, payment_status FROM salary_payments WHERE payment_month = ? AND staff_id IN (");
+        for (int i = 0; i < staffIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
         }
+        sql.append(") ORDER BY staff_id FOR UPDATE");
         
-        return processedCount;
+        Map<Integer, String> existing = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            pstmt.setString(index++, paymentMonth);
+            for (int staffId : staffIds) {
+                pstmt.setInt(index++, staffId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.put(rs.getInt("staff_id"), rs.getString("payment_status"));
+                }
+            }
+        }
+        return existing;
+    }
+    
+    // Batched UPDATE for databases without the (staff_id, payment_month) unique key
+    private void updatePayments(Connection conn, String paymentMonth, List<SalaryPayment> payments,
+                                boolean absentDays) throws SQLException {
+        String sql = "UPDATE salary_payments SET basic_salary = ?, overtime_hours = ?, overtime_amount = ?, " +
+                     "bonus = ?, deductions = ?, net_salary = ?" + (absentDays ? ", absent_days = ?" : "") +
+                     " WHERE staff_id = ? AND payment_month = ?";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (SalaryPayment payment : payments) {
+                int index = 1;
+                pstmt.setDouble(index++, payment.getBasicSalary());
+                pstmt.setDouble(index++, payment.getOvertimeHours());
+                pstmt.setDouble(index++, payment.getOvertimeAmount());
+                pstmt.setDouble(index++, payment.getBonus());
+                pstmt.setDouble(index++, payment.getDeductions());
+                pstmt.setDouble(index++, payment.getNetSalary());
+                if (absentDays) {
+                    pstmt.setDouble(index++, payment.getAbsentDays());
+                }
+                pstmt.setInt(index++, payment.getStaffId());
+                pstmt.setString(index, paymentMonth);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+    
+    // Whether salary_payments has the unique (staff_id, payment_month) key
+    // from db/salary_payments_unique_month.sql; checked once
+    private static boolean hasStaffMonthKey(Connection conn) throws SQLException {
+        Boolean known = staffMonthKey;
+        if (known != null) {
+            return known;
+        }
+        
+        Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, "salary_payments", true, false)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (index != null && column != null) {
+                    uniqueIndexes.computeIfAbsent(index, k -> new HashSet<>()).add(column.toLowerCase());
+                }
+            }
+        }
+        boolean found = uniqueIndexes.containsValue(new HashSet<>(Arrays.asList("staff_id", "payment_month")));
+        if (!found) {
+            LOG.warn("salary_payments has no unique (staff_id, payment_month) key; edited payments use a "
+                + "batched UPDATE instead of an upsert. Apply db/salary_payments_unique_month.sql to enable upserts.");
+        }
+        staffMonthKey = found;
+        return found;
+    }
+    
+    // Whether salary_payments has the absent_days column from
+    // db/salary_payments_absent_days.sql; checked once
+    private static boolean hasAbsentDays(Connection conn) throws SQLException {
+        Boolean known = absentDaysColumn;
+        if (known != null) {
+            return known;
+        }
+        
+        boolean found;
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "salary_payments", "absent_days")) {
+            found = rs.next();
+        }
+        if (!found) {
+            LOG.warn("salary_payments has no absent_days column; absent days are used for the calculation "
+                + "but not stored. Apply db/salary_payments_absent_days.sql to store them.");
+        }
+        absentDaysColumn = found;
+        return found;
     }
     
     /**
-     * Get salary payment details for a specific month
+     * Rows written by savePayrollRun
      */
-    public List<Map<String, Object>> getSalaryPaymentsByMonth(String paymentMonth) {
-        String sql = "SELECT sp.payment_id, sp.staff_id, sp.payment_month, " +
-                     "sp.basic_salary, sp.bonus, sp.net_salary, sp.payment_date, sp.payment_status, " +
-                     "st.employee_name, st.position, st.monthly_salary " +
-                     "FROM salary_payments sp " +
-                     "JOIN staff st ON sp.staff_id = st.staff_id " +
-                     "WHERE sp.payment_month = ? " +
-                     "ORDER BY st.employee_name";
+    public static class PayrollRunCounts {
+        public final int inserted;
+        public final int updated;
+        // Existing payments left unchanged (already paid, or any for saveNewPayments)
+        public final int skipped;
         
+        PayrollRunCounts(int inserted, int updated, int skipped) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.skipped = skipped;
+        }
+    }
+    
+    /**
+     * Get salary payment details for a specific month. The map holds
+     * absent_days only when the column is installed.
+     */
+    public List<Map<String, Object>> getSalaryPaymentsByMonth(String paymentMonth) {
         List<Map<String, Object>> payments = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, paymentMonth);
-            ResultSet rs = pstmt.executeQuery();
-            
-            System.out.println("DEBUG: Fetching salary payments for month: " + paymentMonth);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean absentDays = hasAbsentDays(conn);
+            String sql = "SELECT sp.payment_id, sp.staff_id, sp.payment_month, " +
+                         "sp.basic_salary, sp.overtime_hours, sp.overtime_amount, sp.bonus, sp.deductions, " +
+                         "sp.net_salary, sp.payment_date, sp.payment_status, " +
+                         (absentDays ? "sp.absent_days, " : "") +
+                         "st.employee_name, st.position, st.monthly_salary " +
+                         "FROM salary_payments sp " +
+                         "JOIN staff st ON sp.staff_id = st.staff_id " +
+                         "WHERE sp.payment_month = ? " +
+                         "ORDER BY st.employee_name";
             
-            while (rs.next()) {
-                Map<String, Object> payment = new HashMap<>();
-                payment.put("payment_id", rs.getInt("payment_id"));
-                payment.put("staff_id", rs.getInt("staff_id"));
-                payment.put("employee_name", rs.getString("employee_name"));
-                payment.put("position", rs.getString("position"));
-                payment.put("payment_month", rs.getString("payment_month"));
-                payment.put("monthly_salary", rs.getDouble("monthly_salary"));
-                payment.put("basic_salary", rs.getDouble("basic_salary"));
-                payment.put("bonus", rs.getDouble("bonus"));
-                payment.put("net_salary", rs.getDouble("net_salary"));
-                payment.put("payment_date", rs.getDate("payment_date"));
-                payment.put("payment_status", rs.getString("payment_status"));
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, paymentMonth);
+                ResultSet rs = pstmt.executeQuery();
+                
+                LOG.debug("Fetching salary payments for month {}", paymentMonth);
                 
-                // Set overtime fields to 0 for simplified system
-                payment.put("overtime_hours", 0.0);
-                payment.put("overtime_amount", 0.0);
-                payment.put("deductions", 0.0);
+                while (rs.next()) {
+                    Map<String, Object> payment = new HashMap<>();
+                    payment.put("payment_id", rs.getInt("payment_id"));
+                    payment.put("staff_id", rs.getInt("staff_id"));
+                    payment.put("employee_name", rs.getString("employee_name"));
+                    payment.put("position", rs.getString("position"));
+                    payment.put("payment_month", rs.getString("payment_month"));
+                    payment.put("monthly_salary", rs.getDouble("monthly_salary"));
+                    payment.put("basic_salary", rs.getDouble("basic_salary"));
+                    payment.put("bonus", rs.getDouble("bonus"));
+                    payment.put("net_salary", rs.getDouble("net_salary"));
+                    payment.put("payment_date", rs.getDate("payment_date"));
+                    payment.put("payment_status", rs.getString("payment_status"));
+                    payment.put("overtime_hours", rs.getDouble("overtime_hours"));
+                    payment.put("overtime_amount", rs.getDouble("overtime_amount"));
+                    payment.put("deductions", rs.getDouble("deductions"));
+                    if (absentDays) {
+                        payment.put("absent_days", rs.getDouble("absent_days"));
+                    }
                 
-                System.out.println("DEBUG: Found payment - Staff ID: " + rs.getInt("staff_id") + 
-                                 ", Name: " + rs.getString("employee_name") + 
-                                 ", Basic: " + rs.getDouble("basic_salary") + 
-                                 ", Bonus: " + rs.getDouble("bonus") + 
-                                 ", Net: " + rs.getDouble("net_salary"));
+                    payments.add(payment);
+                }
                 
-                payments.add(payment);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Found {} salary payments for month {}", payments.size(), paymentMonth);
+                }
             }
             
-            System.out.println("DEBUG: Total payments found: " + payments.size());
-            
         } catch (SQLException e) {
-            System.err.println("Error getting salary payments by month: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting salary payments by month", e);
         }
         
         return payments;
@@ -187,14 +392,15 @@ public class SalaryPaymentDAO {
             
             boolean updated = pstmt.executeUpdate() > 0;
             if (updated) {
-                System.out.println("DEBUG: Updated salary payment ID " + paymentId + 
-                                 " - Basic: " + basicSalary + ", Bonus: " + bonus + ", Net: " + netSalary);
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALARY);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Updated salary payment {}, net {}", paymentId, netSalary);
+                }
             }
             return updated;
             
         } catch (SQLException e) {
-            System.err.println("Error updating salary payment: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating salary payment", e);
         }
         return false;
     }
@@ -220,15 +426,15 @@ public class SalaryPaymentDAO {
             
             boolean updated = pstmt.executeUpdate() > 0;
             if (updated) {
-                System.out.println("DEBUG: Updated salary payment for staff ID " + staffId + 
-                                 " month " + paymentMonth + 
-                                 " - Basic: " + basicSalary + ", Bonus: " + bonus + ", Net: " + netSalary);
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALARY);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Updated salary payment for staff {} month {}, net {}", staffId, paymentMonth, netSalary);
+                }
             }
             return updated;
             
         } catch (SQLException e) {
-            System.err.println("Error updating salary payment by staff and month: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating salary payment by staff and month", e);
         }
         return false;
     }
@@ -243,11 +449,14 @@ public class SalaryPaymentDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, paymentId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALARY);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            System.err.println("Error deleting salary payment: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error deleting salary payment", e);
         }
         return false;
     }
@@ -269,8 +478,7 @@ public class SalaryPaymentDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting total salary expense: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error getting total salary expense", e);
         }
         return 0.0;
     }
@@ -1,100 +1,235 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
+import com.pradeepmill.models.CustomerLedgerEntry;
 import com.pradeepmill.models.SalesOrder;
 import com.pradeepmill.models.SalesItem;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 
 public class SalesOrderDAO {
     
-    // Create new sales order
+    private static final Logger LOG = Logger.getLogger(SalesOrderDAO.class);
+    
+    private final CustomerLedgerDAO ledgerDAO = new CustomerLedgerDAO();
+    
+    // Create new sales order and post it to the customer's ledger; inside a TransactionScope
+    // both commit or roll back with the caller's transaction
     public boolean insertSalesOrder(SalesOrder salesOrder) {
         String sql = "INSERT INTO sales_orders (sale_number, customer_id, sale_date, total_quantity, total_amount, paid_amount, payment_status, notes, created_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, salesOrder.getSaleNumber());
-            pstmt.setInt(2, salesOrder.getCustomerId());
-            pstmt.setDate(3, new java.sql.Date(salesOrder.getSaleDate().getTime()));
-            pstmt.setDouble(4, salesOrder.getTotalQuantity());
-            pstmt.setDouble(5, salesOrder.getTotalAmount());
-            pstmt.setDouble(6, salesOrder.getPaidAmount());
-            pstmt.setString(7, salesOrder.getPaymentStatus());
-            pstmt.setString(8, salesOrder.getNotes());
-            pstmt.setString(9, salesOrder.getCreatedBy());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            
-            if (rowsAffected > 0) {
-                ResultSet generatedKeys = pstmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    salesOrder.setSaleId(generatedKeys.getInt(1));
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, salesOrder.getSaleNumber());
+                pstmt.setInt(2, salesOrder.getCustomerId());
+                pstmt.setDate(3, new java.sql.Date(salesOrder.getSaleDate().getTime()));
+                pstmt.setDouble(4, salesOrder.getTotalQuantity());
+                pstmt.setDouble(5, salesOrder.getTotalAmount());
+                pstmt.setDouble(6, salesOrder.getPaidAmount());
+                pstmt.setString(7, salesOrder.getPaymentStatus());
+                pstmt.setString(8, salesOrder.getNotes());
+                pstmt.setString(9, salesOrder.getCreatedBy());
+                
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        salesOrder.setSaleId(generatedKeys.getInt(1));
+                    }
                 }
-                return true;
             }
             
+            postToLedger(conn, salesOrder.getCustomerId(), salesOrder.getSaleId(), CustomerLedgerEntry.TYPE_SALE,
+                         salesOrder.getTotalAmount(), "Sale " + salesOrder.getSaleNumber(), salesOrder.getCreatedBy());
+            postToLedger(conn, salesOrder.getCustomerId(), salesOrder.getSaleId(), CustomerLedgerEntry.TYPE_PAYMENT,
+                         -salesOrder.getPaidAmount(), "Paid on sale " + salesOrder.getSaleNumber(), salesOrder.getCreatedBy());
+            
+            conn.commit();
+            return true;
+            
         } catch (SQLException e) {
-            e.printStackTrace();
+            rollbackQuietly(conn, "insertSalesOrder");
+            LOG.error("insertSalesOrder failed", e);
+        } finally {
+            release(conn, "insertSalesOrder");
         }
         return false;
     }
     
-    // Update existing sales order
+    // Update existing sales order; amount or customer changes are posted to the ledger
     public boolean updateSalesOrder(SalesOrder salesOrder) {
         String sql = "UPDATE sales_orders SET customer_id=?, sale_date=?, total_quantity=?, total_amount=?, paid_amount=?, payment_status=?, notes=?, updated_at=CURRENT_TIMESTAMP WHERE sale_id=?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            
+            SaleAmounts before = lockSaleAmounts(conn, salesOrder.getSaleId());
+            if (before == null) {
+                conn.rollback();
+                return false;
+            }
             
-            pstmt.setInt(1, salesOrder.getCustomerId());
-            pstmt.setDate(2, new java.sql.Date(salesOrder.getSaleDate().getTime()));
-            pstmt.setDouble(3, salesOrder.getTotalQuantity());
-            pstmt.setDouble(4, salesOrder.getTotalAmount());
-            pstmt.setDouble(5, salesOrder.getPaidAmount());
-            pstmt.setString(6, salesOrder.getPaymentStatus());
-            pstmt.setString(7, salesOrder.getNotes());
-            pstmt.setInt(8, salesOrder.getSaleId());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, salesOrder.getCustomerId());
+                pstmt.setDate(2, new java.sql.Date(salesOrder.getSaleDate().getTime()));
+                pstmt.setDouble(3, salesOrder.getTotalQuantity());
+                pstmt.setDouble(4, salesOrder.getTotalAmount());
+                pstmt.setDouble(5, salesOrder.getPaidAmount());
+                pstmt.setString(6, salesOrder.getPaymentStatus());
+                pstmt.setString(7, salesOrder.getNotes());
+                pstmt.setInt(8, salesOrder.getSaleId());
+                pstmt.executeUpdate();
+            }
+            
+            int saleId = salesOrder.getSaleId();
+            if (before.customerId != salesOrder.getCustomerId()) {
+                // Move the sale's outstanding amount to the new customer
+                postToLedger(conn, before.customerId, saleId, CustomerLedgerEntry.TYPE_ADJUSTMENT,
+                             -(before.totalAmount - before.paidAmount), "Sale moved to another customer", null);
+                postToLedger(conn, salesOrder.getCustomerId(), saleId, CustomerLedgerEntry.TYPE_ADJUSTMENT,
+                             salesOrder.getTotalAmount() - salesOrder.getPaidAmount(), "Sale moved from another customer", null);
+            } else {
+                postToLedger(conn, before.customerId, saleId, CustomerLedgerEntry.TYPE_ADJUSTMENT,
+                             salesOrder.getTotalAmount() - before.totalAmount, "Sale amount changed", null);
+                postPaidChange(conn, before.customerId, saleId, salesOrder.getPaidAmount() - before.paidAmount);
+            }
             
-            return pstmt.executeUpdate() > 0;
+            conn.commit();
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
+            return true;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            rollbackQuietly(conn, "updateSalesOrder");
+            LOG.error("updateSalesOrder failed", e);
+        } finally {
+            release(conn, "updateSalesOrder");
         }
         return false;
     }
     
-    // FIXED: Enhanced payment update for sales
+    // FIXED: Enhanced payment update for sales; the change in paid amount is posted to the ledger
     public boolean updatePayment(int saleId, double paidAmount, String paymentStatus) {
         String sql = "UPDATE sales_orders SET paid_amount=?, payment_status=?, updated_at=CURRENT_TIMESTAMP WHERE sale_id=?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDouble(1, paidAmount);
-            pstmt.setString(2, paymentStatus);
-            pstmt.setInt(3, saleId);
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
             
-            int rowsUpdated = pstmt.executeUpdate();
-            if (rowsUpdated > 0) {
-                System.out.println("✅ Sales payment updated successfully for sale ID: " + saleId);
-                return true;
-            } else {
-                System.out.println("❌ No sales order found with ID: " + saleId);
+            SaleAmounts before = lockSaleAmounts(conn, saleId);
+            if (before == null) {
+                conn.rollback();
+                LOG.warn("No sales order found with ID {}", saleId);
                 return false;
             }
             
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setDouble(1, paidAmount);
+                pstmt.setString(2, paymentStatus);
+                pstmt.setInt(3, saleId);
+                pstmt.executeUpdate();
+            }
+            postPaidChange(conn, before.customerId, saleId, paidAmount - before.paidAmount);
+            
+            conn.commit();
+            LOG.info("Payment updated for sale {}", saleId);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
+            return true;
+            
         } catch (SQLException e) {
-            System.out.println("❌ Error updating sales payment: " + e.getMessage());
-            e.printStackTrace();
+            rollbackQuietly(conn, "updatePayment");
+            LOG.error("Error updating payment for sale {}", saleId, e);
+        } finally {
+            release(conn, "updatePayment");
         }
         return false;
     }
     
+    // ===== LEDGER HELPERS =====
+    
+    // Customer and amounts of a sale, locked until commit
+    private SaleAmounts lockSaleAmounts(Connection conn, int saleId) throws SQLException {
+        String sql = "SELECT customer_id, total_amount, paid_amount FROM sales_orders WHERE sale_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, saleId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new SaleAmounts(rs.getInt("customer_id"), rs.getDouble("total_amount"), rs.getDouble("paid_amount"));
+                }
+            }
+        }
+        return null;
+    }
+    
+    // More paid is a payment; less paid (a correction) is an adjustment
+    private void postPaidChange(Connection conn, int customerId, int saleId, double paidChange) throws SQLException {
+        if (paidChange > 0) {
+            postToLedger(conn, customerId, saleId, CustomerLedgerEntry.TYPE_PAYMENT, -paidChange, "Payment on sale", null);
+        } else {
+            postToLedger(conn, customerId, saleId, CustomerLedgerEntry.TYPE_ADJUSTMENT, -paidChange, "Paid amount reduced", null);
+        }
+    }
+    
+    // Post one ledger entry in the current transaction; zero amounts are not posted
+    private void postToLedger(Connection conn, int customerId, int saleId, String type, double amount,
+                              String notes, String createdBy) throws SQLException {
+        if (Math.abs(amount) < 0.005) {
+            return;
+        }
+        CustomerLedgerEntry entry = new CustomerLedgerEntry(customerId, saleId, type, amount, new java.util.Date());
+        entry.setNotes(notes);
+        entry.setCreatedBy(createdBy);
+        ledgerDAO.postEntry(conn, entry);
+    }
+    
+    private void rollbackQuietly(Connection conn, String operation) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOG.error("{} rollback failed", operation, rollbackEx);
+            }
+        }
+    }
+    
+    private void release(Connection conn, String operation) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close(); // Return connection to the pool
+            } catch (SQLException e) {
+                LOG.error("Could not release connection in {}", operation, e);
+            }
+        }
+    }
+    
+    private static final class SaleAmounts {
+        final int customerId;
+        final double totalAmount;
+        final double paidAmount;
+        
+        SaleAmounts(int customerId, double totalAmount, double paidAmount) {
+            this.customerId = customerId;
+            this.totalAmount = totalAmount;
+            this.paidAmount = paidAmount;
+        }
+    }
+    
     // Find sales order by ID
     public SalesOrder findSalesOrderById(int saleId) {
         String sql = "SELECT so.*, c.customer_name FROM sales_orders so " +
@@ -112,7 +247,7 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findSalesOrderById failed", e);
         }
         return null;
     }
@@ -134,7 +269,7 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findSalesOrderByNumber failed", e);
         }
         return null;
     }
@@ -156,7 +291,7 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getAllSalesOrders failed", e);
         }
         return orders;
     }
@@ -181,7 +316,7 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getSalesOrdersByPaymentStatus failed", e);
         }
         return orders;
     }
@@ -204,11 +339,89 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getOutstandingSales failed", e);
         }
         return orders;
     }
     
+    // Outstanding sales of one customer, oldest first
+    public List<SalesOrder> getOutstandingSalesByCustomer(int customerId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return selectOutstandingSales(conn, customerId, false);
+        } catch (SQLException e) {
+            LOG.error("Error loading outstanding sales for customer {}", customerId, e);
+        }
+        return new ArrayList<>();
+    }
+
+    // Outstanding sales of one customer, oldest first, locked until the caller's transaction ends
+    public List<SalesOrder> lockOutstandingSales(Connection conn, int customerId) throws SQLException {
+        return selectOutstandingSales(conn, customerId, true);
+    }
+
+    private List<SalesOrder> selectOutstandingSales(Connection conn, int customerId, boolean forUpdate) throws SQLException {
+        String sql = "SELECT so.* FROM sales_orders so " +
+                     "WHERE so.customer_id = ? AND so.payment_status IN ('Pending', 'Partial') " +
+                     "ORDER BY so.sale_date ASC, so.sale_id ASC" +
+                     (forUpdate ? " FOR UPDATE" : "");
+
+        List<SalesOrder> orders = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, customerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToSalesOrder(rs));
+                }
+            }
+        }
+        return orders;
+    }
+
+    // Sales with the given ids, locked until the caller's transaction ends
+    public List<SalesOrder> lockSalesByIds(Connection conn, Collection<Integer> saleIds) throws SQLException {
+        List<SalesOrder> orders = new ArrayList<>();
+        if (saleIds.isEmpty()) {
+            return orders;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT so.* FROM sales_orders so WHERE so.sale_id IN (");
+        for (int i = 0; i < saleIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY so.sale_id FOR UPDATE");
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer saleId : saleIds) {
+                pstmt.setInt(index++, saleId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToSalesOrder(rs));
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Write the paid amount and payment status of several sales in one
+     * batch inside the caller's transaction. Nothing is posted to the
+     * ledger; the caller does that.
+     */
+    public void applyPayments(Connection conn, List<SalesOrder> orders) throws SQLException {
+        String sql = "UPDATE sales_orders SET paid_amount=?, payment_status=?, updated_at=CURRENT_TIMESTAMP WHERE sale_id=?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (SalesOrder order : orders) {
+                pstmt.setDouble(1, order.getPaidAmount());
+                pstmt.setString(2, order.getPaymentStatus());
+                pstmt.setInt(3, order.getSaleId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     // Search sales orders
     public List<SalesOrder> searchSalesOrders(String keyword) {
         String sql = "SELECT so.*, c.customer_name FROM sales_orders so " +
@@ -232,7 +445,7 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchSalesOrders failed", e);
         }
         return orders;
     }
@@ -266,13 +479,13 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getSalesOrderStatistics failed", e);
         }
         return stats;
     }
     
     // Helper method to map ResultSet to SalesOrder object
-    private SalesOrder mapResultSetToSalesOrder(ResultSet rs) throws SQLException {
+    SalesOrder mapResultSetToSalesOrder(ResultSet rs) throws SQLException {
         SalesOrder salesOrder = new SalesOrder();
         salesOrder.setSaleId(rs.getInt("sale_id"));
         salesOrder.setSaleNumber(rs.getString("sale_number"));
@@ -299,32 +512,24 @@ public class SalesOrderDAO {
     
     // Sales Item Operations
     public boolean insertSalesItems(int saleId, List<SalesItem> items) {
-        String sql = "INSERT INTO sales_items (sale_id, product_id, quantity, unit_price, total_price) VALUES (?, ?, ?, ?, ?)";
+        // One multi-row INSERT per chunk rather than a statement per item
+        BulkInsertWriter writer = new BulkInsertWriter("sales_items",
+            "sale_id", "product_id", "quantity", "unit_price", "total_price");
+        for (SalesItem item : items) {
+            writer.addRow(saleId, item.getProductId(), item.getQuantity(), item.getUnitPrice(),
+                item.getQuantity() * item.getUnitPrice());
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            for (SalesItem item : items) {
-                pstmt.setInt(1, saleId);
-                pstmt.setInt(2, item.getProductId());
-                pstmt.setDouble(3, item.getQuantity());
-                pstmt.setDouble(4, item.getUnitPrice());
-                pstmt.setDouble(5, item.getQuantity() * item.getUnitPrice());
-                pstmt.addBatch();
-            }
-            
-            int[] results = pstmt.executeBatch();
-            
-            // Check if all items were inserted
-            for (int result : results) {
-                if (result <= 0) {
-                    return false;
-                }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int[] itemIds = writer.flush(conn);
+            for (int i = 0; i < items.size(); i++) {
+                items.get(i).setSaleId(saleId);
+                items.get(i).setItemId(itemIds[i]);
             }
             return true;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertSalesItems failed", e);
         }
         return false;
     }
@@ -363,18 +568,26 @@ public class SalesOrderDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getSalesItems failed", e);
         }
         return items;
     }
     
-    // Delete sales order and its items
+    // Delete sales order and its items, reversing its outstanding amount in the ledger
     public boolean deleteSalesOrder(int saleId) {
         Connection conn = null;
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false);
             
+            SaleAmounts before = lockSaleAmounts(conn, saleId);
+            if (before == null) {
+                conn.rollback();
+                return false;
+            }
+            postToLedger(conn, before.customerId, saleId, CustomerLedgerEntry.TYPE_ADJUSTMENT,
+                         -(before.totalAmount - before.paidAmount), "Sale deleted", null);
+            
             // First delete sales items
             String deleteItemsSql = "DELETE FROM sales_items WHERE sale_id = ?";
             try (PreparedStatement pstmt1 = conn.prepareStatement(deleteItemsSql)) {
@@ -390,6 +603,7 @@ public class SalesOrderDAO {
                 
                 if (rowsAffected > 0) {
                     conn.commit();
+                    DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
                     return true;
                 }
             }
@@ -402,16 +616,17 @@ public class SalesOrderDAO {
                 try {
                     conn.rollback();
                 } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
+                    LOG.error("deleteSalesOrder rollback failed", rollbackEx);
                 }
             }
-            e.printStackTrace();
+            LOG.error("deleteSalesOrder failed", e);
         } finally {
             if (conn != null) {
                 try {
                     conn.setAutoCommit(true);
+                    conn.close(); // Return connection to the pool
                 } catch (SQLException e) {
-                    e.printStackTrace();
+                    LOG.error("Could not release connection in deleteSalesOrder", e);
                 }
             }
         }
@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.Staff;
 import java.sql.*;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 
 public class StaffDAO {
     
+    private static final Logger LOG = Logger.getLogger(StaffDAO.class);
+    
     // Create new staff
     public boolean insertStaff(Staff staff) {
         String sql = "INSERT INTO staff (employee_name, position, phone, address, monthly_salary, status) VALUES (?, ?, ?, ?, ?, ?)";
@@ -29,11 +33,12 @@ public class StaffDAO {
                 if (generatedKeys.next()) {
                     staff.setStaffId(generatedKeys.getInt(1));
                 }
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_STAFF);
                 return true;
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertStaff failed", e);
         }
         return false;
     }
@@ -53,10 +58,14 @@ public class StaffDAO {
             pstmt.setString(6, staff.getStatus());
             pstmt.setInt(7, staff.getStaffId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_STAFF);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateStaff failed", e);
         }
         return false;
     }
@@ -69,10 +78,14 @@ public class StaffDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, staffId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_STAFF);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("deleteStaff failed", e);
         }
         return false;
     }
@@ -92,7 +105,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findStaffById failed", e);
         }
         return null;
     }
@@ -118,7 +131,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getStaffByStatus failed", e);
         }
         return staffList;
     }
@@ -139,7 +152,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getStaffByPosition failed", e);
         }
         return staffList;
     }
@@ -163,7 +176,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchStaff failed", e);
         }
         return staffList;
     }
@@ -181,7 +194,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalStaffCount failed", e);
         }
         return 0;
     }
@@ -199,7 +212,7 @@ public class StaffDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalMonthlySalaryExpense failed", e);
         }
         return 0.0;
     }
@@ -210,7 +223,7 @@ public class StaffDAO {
     }
     
     // Helper method to map ResultSet to Staff object
-    private Staff mapResultSetToStaff(ResultSet rs) throws SQLException {
+    Staff mapResultSetToStaff(ResultSet rs) throws SQLException {
         Staff staff = new Staff();
         staff.setStaffId(rs.getInt("staff_id"));
         staff.setEmployeeName(rs.getString("employee_name"));
@@ -241,7 +254,7 @@ public List<Staff> getStaffByPositionAndStatus(String position, String status) {
         }
         
     } catch (SQLException e) {
-        e.printStackTrace();
+        LOG.error("mapResultSetToStaff failed", e);
     }
     return staffList;
     }
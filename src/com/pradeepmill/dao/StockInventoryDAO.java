@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.StockInventory;
 import java.sql.*;
 import java.util.ArrayList;
@@ -10,6 +12,8 @@ import java.util.Map;
 
 public class StockInventoryDAO {
     
+    private static final Logger LOG = Logger.getLogger(StockInventoryDAO.class);
+    
     // Get stock by product ID
     public StockInventory getStockByProductId(int productId) {
         String sql = "SELECT si.*, p.product_name, p.product_type, p.unit_price, p.unit " +
@@ -28,7 +32,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getStockByProductId failed", e);
         }
         return null;
     }
@@ -52,7 +56,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getAllStockItems failed", e);
         }
         return stockItems;
     }
@@ -78,7 +82,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getStockByProductType failed", e);
         }
         return stockItems;
     }
@@ -103,7 +107,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getLowStockItems failed", e);
         }
         return stockItems;
     }
@@ -127,7 +131,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getOutOfStockItems failed", e);
         }
         return stockItems;
     }
@@ -145,7 +149,7 @@ public class StockInventoryDAO {
             return pstmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateStockQuantity failed", e);
         }
         return false;
     }
@@ -161,10 +165,14 @@ public class StockInventoryDAO {
             pstmt.setDouble(2, maximumLevel);
             pstmt.setInt(3, productId);
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_STOCK);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateStockLevels failed", e);
         }
         return false;
     }
@@ -185,7 +193,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("isStockAvailable failed", e);
         }
         return false;
     }
@@ -206,7 +214,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalStockValue failed", e);
         }
         return 0.0;
     }
@@ -229,7 +237,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getStockValueByType failed", e);
         }
         return 0.0;
     }
@@ -261,7 +269,7 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getInventoryStatistics failed", e);
         }
         return stats;
     }
@@ -290,13 +298,13 @@ public class StockInventoryDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchStockItems failed", e);
         }
         return stockItems;
     }
     
     // Helper method to map ResultSet to StockInventory object
-    private StockInventory mapResultSetToStockInventory(ResultSet rs) throws SQLException {
+    StockInventory mapResultSetToStockInventory(ResultSet rs) throws SQLException {
         StockInventory stockInventory = new StockInventory();
         stockInventory.setStockId(rs.getInt("stock_id"));
         stockInventory.setProductId(rs.getInt("product_id"));
@@ -1,6 +1,8 @@
 package com.pradeepmill.dao;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.DataChangeNotifier;
 import com.pradeepmill.models.Supplier;
 import java.sql.*;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 
 public class SupplierDAO {
     
+    private static final Logger LOG = Logger.getLogger(SupplierDAO.class);
+    
     // Create new supplier
     public boolean insertSupplier(Supplier supplier) {
         String sql = "INSERT INTO suppliers (supplier_name, contact_person, phone, address, email, credit_limit, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
@@ -31,11 +35,12 @@ public class SupplierDAO {
                 if (generatedKeys.next()) {
                     supplier.setSupplierId(generatedKeys.getInt(1));
                 }
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SUPPLIERS);
                 return true;
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("insertSupplier failed", e);
         }
         return false;
     }
@@ -56,10 +61,14 @@ public class SupplierDAO {
             pstmt.setString(7, supplier.getStatus());
             pstmt.setInt(8, supplier.getSupplierId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SUPPLIERS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("updateSupplier failed", e);
         }
         return false;
     }
@@ -72,10 +81,14 @@ public class SupplierDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, supplierId);
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SUPPLIERS);
+            }
+            return updated;
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("deleteSupplier failed", e);
         }
         return false;
     }
@@ -95,7 +108,7 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("findSupplierById failed", e);
         }
         return null;
     }
@@ -119,7 +132,7 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getAllSuppliers failed", e);
         }
         return suppliers;
     }
@@ -140,7 +153,7 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getSuppliersByStatus failed", e);
         }
         return suppliers;
     }
@@ -164,7 +177,7 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("searchSuppliers failed", e);
         }
         return suppliers;
     }
@@ -185,7 +198,7 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("isSupplierNameExists failed", e);
         }
         return false;
     }
@@ -203,13 +216,13 @@ public class SupplierDAO {
             }
             
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("getTotalSupplierCount failed", e);
         }
         return 0;
     }
     
     // Helper method to map ResultSet to Supplier object
-    private Supplier mapResultSetToSupplier(ResultSet rs) throws SQLException {
+    Supplier mapResultSetToSupplier(ResultSet rs) throws SQLException {
         Supplier supplier = new Supplier();
         supplier.setSupplierId(rs.getInt("supplier_id"));
         supplier.setSupplierName(rs.getString("supplier_name"));
@@ -1,53 +1,192 @@
 package com.pradeepmill.database;
 
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.monitoring.DaoMetrics;
+import com.pradeepmill.monitoring.MetricsRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import javax.swing.JOptionPane;
 
 public class DatabaseConnection {
-    
-    // Database configuration
-    private static final String URL = "jdbc:mysql://localhost:3306/pradeep_rice_mill";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "2001kkkK@@"; // Change this
-    private static Connection connection = null;
-    
-    // Get database connection
+
+    private static final Logger LOG = Logger.getLogger(DatabaseConnection.class);
+
+    // Database configuration (override with -Dpradeepmill.db.url, .user and .password,
+    // e.g. to point the load test or data generator at a scratch database)
+    private static final String URL = System.getProperty("pradeepmill.db.url", "jdbc:mysql://localhost:3306/pradeep_rice_mill");
+    private static final String USERNAME = System.getProperty("pradeepmill.db.user", "root");
+    private static final String PASSWORD = System.getProperty("pradeepmill.db.password", "2001kkkK@@"); // Change this
+    private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+
+    // Number of pooled connections (override with -Dpradeepmill.db.poolSize=N)
+    private static final int POOL_SIZE = Integer.getInteger("pradeepmill.db.poolSize", 4);
+
+    private static volatile ConnectionPool pool = null;
+
+    private static final MetricsRegistry.Timer BORROW_TIMER = MetricsRegistry.timer("pool.borrow");
+
+    // Connection of the snapshot session or transaction scope open on this thread, if any
+    private static final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    // Set when a DAO rolls back on the bound connection; the scope owner must not commit
+    private static final ThreadLocal<Boolean> rollbackRequested = new ThreadLocal<>();
+
+    // Get database connection (closing it returns it to the pool)
     public static Connection getConnection() {
+        DaoMetrics.recordCall();
+        Connection bound = boundConnection.get();
+        if (bound != null) {
+            return sharedHandle(bound);
+        }
         try {
-            if (connection == null || connection.isClosed()) {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-                System.out.println("Database connected successfully!");
-            }
+            return borrow();
         } catch (ClassNotFoundException e) {
             JOptionPane.showMessageDialog(null, "MySQL Driver not found: " + e.getMessage(), "Driver Error", JOptionPane.ERROR_MESSAGE);
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(null, "Database connection failed: " + e.getMessage(), "Connection Error", JOptionPane.ERROR_MESSAGE);
         }
-        return connection;
+        return null;
     }
-    
-    // Close database connection
-    public static void closeConnection() {
+
+    /**
+     * Like getConnection(), but throws instead of showing a dialog when no
+     * connection can be had, for code that must not touch the UI (services
+     * run from the command line or a background thread).
+     */
+    public static Connection requireConnection() throws SQLException {
+        DaoMetrics.recordCall();
+        Connection bound = boundConnection.get();
+        if (bound != null) {
+            return sharedHandle(bound);
+        }
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.out.println("Error closing connection: " + e.getMessage());
+            return borrow();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("MySQL Driver not found: " + e.getMessage(), e);
+        }
+    }
+
+    // Borrow a pooled connection, throwing instead of showing a dialog
+    static Connection borrow() throws ClassNotFoundException, SQLException {
+        long start = System.nanoTime();
+        Connection conn = getPool().borrow();
+        BORROW_TIMER.stop(start);
+        return conn;
+    }
+
+    static void bind(Connection connection) {
+        boundConnection.set(connection);
+        rollbackRequested.remove();
+    }
+
+    static void unbind() {
+        boundConnection.remove();
+        rollbackRequested.remove();
+    }
+
+    // Whether a DAO rolled back on the bound connection since it was bound
+    static boolean isRollbackRequested() {
+        return Boolean.TRUE.equals(rollbackRequested.get());
+    }
+
+    static boolean hasBoundConnection() {
+        return boundConnection.get() != null;
+    }
+
+    /*
+     * A handle on the bound connection whose close() leaves it open for the
+     * session. The session owner ends the transaction, so commit and
+     * setAutoCommit are ignored and a rollback only marks the transaction
+     * for rollback.
+     */
+    private static Connection sharedHandle(Connection bound) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                    case "commit":
+                    case "setAutoCommit":
+                        return null;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "rollback":
+                        // Rolling back to a savepoint stays inside the transaction
+                        if (args == null) {
+                            rollbackRequested.set(Boolean.TRUE);
+                            return null;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(bound, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    // Load the JDBC driver (safe to call more than once)
+    public static void loadDriver() throws ClassNotFoundException {
+        Class.forName(DRIVER_CLASS);
+    }
+
+    /**
+     * Open pooled connections ahead of time so the first screens do not pay
+     * for connection setup. Errors are thrown instead of shown in a dialog, so
+     * this can run on a background thread during startup.
+     */
+    public static void warmUp(int connections) throws ClassNotFoundException, SQLException {
+        getPool().warmUp(connections);
+    }
+
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    // Close all pooled database connections
+    public static void closeConnection() {
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.closeAll();
+            LOG.info("Database connection closed");
         }
     }
-    
+
     // Test connection method
     public static boolean testConnection() {
-        try {
-            Connection testConn = getConnection();
+        try (Connection testConn = getConnection()) {
             return testConn != null && !testConn.isClosed();
         } catch (SQLException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static void registerPoolGauges(ConnectionPool current) {
+        MetricsRegistry.gauge("pool.max", current::getMaxSize);
+        MetricsRegistry.gauge("pool.open", current::getOpenCount);
+        MetricsRegistry.gauge("pool.idle", current::getIdleCount);
+        MetricsRegistry.gauge("pool.active", current::getActiveCount);
+    }
+
+    private static ConnectionPool getPool() throws ClassNotFoundException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    loadDriver();
+                    current = new ConnectionPool(URL, USERNAME, PASSWORD, POOL_SIZE);
+                    pool = current;
+                    registerPoolGauges(current);
+                }
+            }
+        }
+        return current;
+    }
+}
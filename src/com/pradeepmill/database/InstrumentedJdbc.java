@@ -0,0 +1,297 @@
+package com.pradeepmill.database;
+
+import com.pradeepmill.monitoring.DaoQueryEvent;
+import com.pradeepmill.monitoring.QueryStats;
+import com.pradeepmill.monitoring.SqlActivity;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the statements and result sets handed out by pooled connections to
+ * time each execution, count the rows read and measure how long the DAO spends
+ * mapping them (from executeQuery until the result set or statement is
+ * closed). Results go to QueryStats. Off by default, so statements are
+ * handed out unwrapped; enable with -Dpradeepmill.sql.instrument=true.
+ *
+ * EXPLAIN of a slow query runs on a background thread with its own pooled
+ * connection, never on the caller's connection or thread.
+ */
+class InstrumentedJdbc {
+
+    static final boolean ENABLED = QueryStats.isEnabled();
+
+    // Plans waiting to be captured; more than this are dropped, not queued
+    private static final int MAX_PENDING_EXPLAINS = 8;
+
+    private static final ExecutorService EXPLAIN_EXECUTOR = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_PENDING_EXPLAINS), runnable -> {
+            Thread thread = new Thread(runnable, "sql-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+
+    // Wrap a statement created by the connection; the interface is the factory method's return type
+    static Object wrapStatement(Statement target, Class<?> statementType, String preparedSql) {
+        return Proxy.newProxyInstance(
+            Statement.class.getClassLoader(),
+            new Class<?>[]{statementType},
+            new StatementHandler(target, preparedSql));
+    }
+
+    // One execution of a statement, finished when its results have been read
+    private static class Execution {
+        final String sql;
+        final QueryStats.StatementStats stats;
+        final Map<Integer, Object> parameters;
+        final DaoQueryEvent event = new DaoQueryEvent();
+        long executeNanos;
+        long resultStartNanos = -1;
+        long rows;
+        boolean finished;
+
+        Execution(String sql, Map<Integer, Object> parameters) {
+            this.sql = sql;
+            this.stats = QueryStats.statsFor(QueryStats.normalize(sql));
+            this.parameters = parameters;
+            event.begin();
+        }
+
+        void finish(boolean failed) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long mappingNanos = resultStartNanos < 0 ? -1 : System.nanoTime() - resultStartNanos;
+            event.end();
+            if (event.shouldCommit()) {
+                event.sql = stats.getSql();
+                event.rows = rows;
+                event.executeTime = executeNanos;
+                event.mappingTime = Math.max(mappingNanos, 0);
+                event.failed = failed;
+                event.commit();
+            }
+            if (QueryStats.recordExecution(stats, executeNanos, mappingNanos, rows, failed)
+                    && QueryStats.claimExplain(stats)) {
+                EXPLAIN_EXECUTOR.execute(() -> QueryStats.recordExplain(stats, explain(sql, parameters)));
+            }
+        }
+    }
+
+    // Plan of the statement with its bind values, on a connection of its own
+    private static String explain(String sql, Map<Integer, Object> parameters) {
+        try (Connection conn = DatabaseConnection.borrow();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            if (parameters != null) {
+                for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                    pstmt.setObject(parameter.getKey(), parameter.getValue());
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    plan.append(i > 1 ? "\t" : "").append(meta.getColumnLabel(i));
+                }
+                plan.append('\n');
+                while (rs.next()) {
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        plan.append(i > 1 ? "\t" : "").append(rs.getString(i));
+                    }
+                    plan.append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | ClassNotFoundException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private Map<Integer, Object> parameters;
+        private Execution current;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute(proxy, method, args);
+                case "getResultSet": {
+                    ResultSet rs = (ResultSet) call(method, args);
+                    return wrapResults(proxy, rs);
+                }
+                case "close":
+                    finishCurrent();
+                    return call(method, args);
+                case "clearParameters":
+                    if (parameters != null) {
+                        parameters.clear();
+                    }
+                    return call(method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            // Keep bind values only when they may be needed for EXPLAIN
+            if (QueryStats.isExplainSlowQueries() && preparedSql != null && name.startsWith("set")
+                    && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (parameters == null) {
+                    parameters = new TreeMap<>();
+                }
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            finishCurrent();
+            boolean adHoc = args != null && args.length > 0 && args[0] instanceof String;
+            String sql = adHoc ? (String) args[0] : preparedSql;
+            if (sql == null) {
+                return call(method, args);
+            }
+
+            Execution execution = new Execution(sql,
+                adHoc || parameters == null ? null : new TreeMap<>(parameters));
+            SqlActivity.begin(sql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable t) {
+                execution.executeNanos = System.nanoTime() - start;
+                execution.finish(true);
+                throw t;
+            }
+            execution.executeNanos = System.nanoTime() - start;
+
+            if (result instanceof ResultSet) {
+                current = execution;
+                return wrapResults(proxy, (ResultSet) result);
+            } else if (result instanceof Boolean && (Boolean) result) {
+                // Results are fetched later through getResultSet()
+                current = execution;
+                return result;
+            }
+
+            execution.rows = countRows(result);
+            execution.finish(false);
+            return result;
+        }
+
+        private Object wrapResults(Object statementProxy, ResultSet rs) {
+            Execution execution = current;
+            if (rs == null || execution == null || execution.finished) {
+                return rs;
+            }
+            execution.resultStartNanos = System.nanoTime();
+            return Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new ResultSetHandler(rs, statementProxy, execution));
+        }
+
+        private void finishCurrent() {
+            if (current != null) {
+                current.finish(false);
+                current = null;
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static long countRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return Math.max(((Number) result).longValue(), 0);
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += Math.max(count, 0);
+                }
+            }
+            return total;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Object statementProxy;
+        private final Execution execution;
+
+        ResultSetHandler(ResultSet target, Object statementProxy, Execution execution) {
+            this.target = target;
+            this.statementProxy = statementProxy;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getStatement":
+                    return statementProxy;
+                case "close":
+                    execution.finish(false);
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                execution.rows++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.pradeepmill.database;
+
+import com.pradeepmill.logging.Logger;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * A read-only REPEATABLE READ transaction on one pooled connection, for
+ * reports that combine several queries. Every query sees the same consistent
+ * snapshot, so the figures reconcile even while sales are being committed,
+ * and only one connection is borrowed for the whole report.
+ *
+ * While a session is open, DatabaseConnection.getConnection() on the same
+ * thread returns the session's connection, so the existing DAOs join it
+ * without changes. Queries run one after another on that connection.
+ *
+ *   Map<String, Object> summary = SnapshotSession.read(() -> {
+ *       ... several DAO calls ...
+ *   });
+ */
+public final class SnapshotSession implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(SnapshotSession.class);
+
+    private final Connection connection;
+    private final int previousIsolation;
+    private boolean closed;
+
+    private SnapshotSession(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.previousIsolation = connection.getTransactionIsolation();
+
+        connection.setReadOnly(true);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        connection.setAutoCommit(false);
+        // Take the snapshot now rather than at the first read
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+        }
+    }
+
+    /**
+     * Open a snapshot session bound to the current thread. Close it on the
+     * same thread, preferably with try-with-resources.
+     */
+    public static SnapshotSession open() throws SQLException, ClassNotFoundException {
+        if (DatabaseConnection.hasBoundConnection()) {
+            throw new IllegalStateException("A snapshot session is already open on this thread");
+        }
+        Connection connection = DatabaseConnection.borrow();
+        try {
+            SnapshotSession session = new SnapshotSession(connection);
+            DatabaseConnection.bind(connection);
+            return session;
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Run a group of reads inside one snapshot. Joins the session already
+     * open on this thread if there is one, and falls back to plain autocommit
+     * reads if a session cannot be opened.
+     */
+    public static <T> T read(Supplier<T> work) {
+        if (DatabaseConnection.hasBoundConnection()) {
+            return work.get();
+        }
+
+        SnapshotSession session;
+        try {
+            session = open();
+        } catch (SQLException | ClassNotFoundException e) {
+            LOG.warn("Could not open snapshot session, reading without one: {}", e.getMessage());
+            return work.get();
+        }
+        try {
+            return work.get();
+        } finally {
+            session.close();
+        }
+    }
+
+    // End the read-only transaction and return the connection to the pool
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        DatabaseConnection.unbind();
+        try {
+            connection.commit();
+            connection.setAutoCommit(true);
+            connection.setReadOnly(false);
+            connection.setTransactionIsolation(previousIsolation);
+        } catch (SQLException e) {
+            LOG.error("Could not reset snapshot session connection", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.error("Could not release snapshot session connection", e);
+            }
+        }
+    }
+}
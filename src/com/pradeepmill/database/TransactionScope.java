@@ -0,0 +1,103 @@
+package com.pradeepmill.database;
+
+import com.pradeepmill.logging.Logger;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A read-write transaction on one pooled connection, bound to the current
+ * thread the same way as SnapshotSession. While the scope is open,
+ * DatabaseConnection.getConnection() on the same thread returns its
+ * connection, so the existing DAOs write into the one transaction and
+ * everything commits or rolls back together, on a single pool slot.
+ *
+ * The DAOs' own commit and setAutoCommit calls are left to the scope; a DAO
+ * that rolls back marks the transaction, and commit() then refuses.
+ *
+ *   try (TransactionScope tx = TransactionScope.begin()) {
+ *       ... several DAO calls ...
+ *       tx.commit();
+ *   }
+ *
+ * Closing a scope that was not committed rolls it back.
+ */
+public final class TransactionScope implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(TransactionScope.class);
+
+    private final Connection connection;
+    private boolean closed;
+
+    private TransactionScope(Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Start a transaction bound to the current thread. Throws instead of
+     * showing a dialog when no connection can be had. End it on the same
+     * thread, preferably with try-with-resources.
+     */
+    public static TransactionScope begin() throws SQLException {
+        if (DatabaseConnection.hasBoundConnection()) {
+            throw new IllegalStateException("A transaction or snapshot session is already open on this thread");
+        }
+        Connection connection;
+        try {
+            connection = DatabaseConnection.borrow();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("MySQL Driver not found: " + e.getMessage(), e);
+        }
+        try {
+            TransactionScope scope = new TransactionScope(connection);
+            DatabaseConnection.bind(connection);
+            return scope;
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Commit and return the connection to the pool. Rolls back and throws
+     * if a DAO call inside the scope rolled back.
+     */
+    public void commit() throws SQLException {
+        if (closed) {
+            throw new IllegalStateException("Transaction already ended");
+        }
+        if (DatabaseConnection.isRollbackRequested()) {
+            close();
+            throw new SQLException("A database call in the transaction failed and rolled it back");
+        }
+        connection.commit();
+        end(false);
+    }
+
+    // Roll back unless committed, and return the connection to the pool
+    @Override
+    public void close() {
+        if (!closed) {
+            end(true);
+        }
+    }
+
+    private void end(boolean rollback) {
+        closed = true;
+        DatabaseConnection.unbind();
+        try {
+            if (rollback) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            LOG.error("Could not end transaction", e);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.error("Could not release transaction connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.pradeepmill.logging;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Configures loggers and runs the background thread that writes log records.
+ *
+ * Settings are read from logging.properties in the working directory and can
+ * be overridden with system properties prefixed "pradeepmill.log.":
+ *   level=INFO                          default level
+ *   level.com.pradeepmill.dao=DEBUG     level for a package or class (longest prefix wins)
+ *   file=logs/pradeepmill.log           log file, empty for none
+ *   file.maxSize=5242880                roll the file over at this size in bytes
+ *   file.count=5                        rolled files to keep
+ *   console=true                        also write to standard output
+ *   bufferSize=8192                     records held before new ones are dropped
+ */
+public final class LogManager {
+
+    private static final String CONFIG_FILE = "logging.properties";
+    private static final String PROPERTY_PREFIX = "pradeepmill.log.";
+    private static final long IDLE_PARK_NANOS = 20_000_000L;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static final Map<String, LogLevel> levels = new ConcurrentHashMap<>();
+    private static volatile LogLevel rootLevel = LogLevel.INFO;
+
+    private static final LogRingBuffer buffer;
+    private static final RollingFileWriter fileWriter;
+    private static final boolean console;
+    private static final Thread writerThread;
+
+    // Only touched by the writer thread
+    private static final StringBuilder batch = new StringBuilder(16 * 1024);
+
+    static {
+        Properties config = loadConfig();
+
+        rootLevel = LogLevel.parse(config.getProperty("level"), LogLevel.INFO);
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith("level.")) {
+                levels.put(key.substring("level.".length()), LogLevel.parse(config.getProperty(key), rootLevel));
+            }
+        }
+
+        String fileName = config.getProperty("file", "logs/pradeepmill.log").trim();
+        fileWriter = fileName.isEmpty() ? null : new RollingFileWriter(new File(fileName),
+            parseLong(config.getProperty("file.maxSize"), 5L * 1024 * 1024),
+            (int) parseLong(config.getProperty("file.count"), 5));
+        console = Boolean.parseBoolean(config.getProperty("console", "true"));
+        buffer = new LogRingBuffer((int) parseLong(config.getProperty("bufferSize"), 8192));
+
+        writerThread = new Thread(LogManager::writeLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(LogManager::shutdown, "log-shutdown"));
+    }
+
+    private LogManager() {
+    }
+
+    static Logger getLogger(String name) {
+        return loggers.computeIfAbsent(name, n -> new Logger(n, levelFor(n)));
+    }
+
+    /**
+     * Change the level of a package or class (or the root level when prefix
+     * is empty) while the application is running
+     */
+    public static void setLevel(String prefix, LogLevel level) {
+        if (prefix == null || prefix.isEmpty()) {
+            rootLevel = level;
+        } else {
+            levels.put(prefix, level);
+        }
+        for (Logger logger : loggers.values()) {
+            logger.setLevel(levelFor(logger.getName()));
+        }
+    }
+
+    // Configured levels by prefix, for display
+    public static Map<String, LogLevel> getLevels() {
+        Map<String, LogLevel> result = new TreeMap<>(levels);
+        result.put("", rootLevel);
+        return result;
+    }
+
+    /**
+     * Wait until everything logged so far has been written (at most two seconds)
+     */
+    public static void flush() {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        LockSupport.unpark(writerThread);
+        while (!buffer.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    static void enqueue(Logger logger, LogLevel level, String message, Object arg1, Object arg2, Object arg3, Throwable error) {
+        buffer.publish(System.currentTimeMillis(), level, logger, Thread.currentThread().getName(),
+            message, arg1, arg2, arg3, error);
+        if (level.ordinal() >= LogLevel.WARN.ordinal()) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private static LogLevel levelFor(String name) {
+        LogLevel level = rootLevel;
+        int bestLength = -1;
+        for (Map.Entry<String, LogLevel> entry : levels.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > bestLength
+                    && (name.equals(prefix) || name.startsWith(prefix + "."))) {
+                level = entry.getValue();
+                bestLength = prefix.length();
+            }
+        }
+        return level;
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            if (writeBatch() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Drain the ring into one batch and write it with a single call per target
+    private static synchronized int writeBatch() {
+        int count = buffer.drain(LogManager::format);
+        long dropped = buffer.takeDroppedCount();
+        if (dropped > 0) {
+            batch.append(TIMESTAMP_FORMAT.format(Instant.now()))
+                 .append(" WARN  [log-writer] LogManager - ").append(dropped)
+                 .append(" log messages dropped, buffer full").append(System.lineSeparator());
+        }
+        if (batch.length() == 0) {
+            return 0;
+        }
+
+        if (console) {
+            System.out.print(batch);
+            System.out.flush();
+        }
+        if (fileWriter != null) {
+            try {
+                fileWriter.write(batch);
+                fileWriter.flush();
+            } catch (IOException e) {
+                System.err.println("Could not write log file: " + e.getMessage());
+            }
+        }
+        batch.setLength(0);
+        return count;
+    }
+
+    private static void format(LogRingBuffer.Slot slot) {
+        batch.append(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(slot.timestamp))).append(' ');
+        String level = slot.level.name();
+        batch.append(level);
+        for (int i = level.length(); i < 6; i++) {
+            batch.append(' ');
+        }
+        batch.append('[').append(slot.thread).append("] ")
+             .append(slot.logger.getShortName()).append(" - ");
+        appendMessage(slot.message, slot.arg1, slot.arg2, slot.arg3);
+        batch.append(System.lineSeparator());
+
+        if (slot.error != null) {
+            StringWriter trace = new StringWriter();
+            slot.error.printStackTrace(new PrintWriter(trace));
+            batch.append(trace);
+        }
+    }
+
+    // Replace up to three {} placeholders with the arguments
+    private static void appendMessage(String message, Object arg1, Object arg2, Object arg3) {
+        if (message == null) {
+            batch.append("null");
+            return;
+        }
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < 3 && (placeholder = message.indexOf("{}", start)) >= 0) {
+            batch.append(message, start, placeholder);
+            Object arg = argIndex == 0 ? arg1 : argIndex == 1 ? arg2 : arg3;
+            batch.append(arg);
+            argIndex++;
+            start = placeholder + 2;
+        }
+        batch.append(message, start, message.length());
+    }
+
+    private static void shutdown() {
+        writeBatch();
+        if (fileWriter != null) {
+            fileWriter.close();
+        }
+    }
+
+    private static Properties loadConfig() {
+        Properties config = new Properties();
+        File file = new File(CONFIG_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                config.load(in);
+            } catch (IOException e) {
+                System.err.println("Could not read " + CONFIG_FILE + ": " + e.getMessage());
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(PROPERTY_PREFIX)) {
+                config.setProperty(key.substring(PROPERTY_PREFIX.length()), System.getProperty(key));
+            }
+        }
+        return config;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.pradeepmill.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded multi-producer, single-consumer ring of pre-allocated log records.
+ * Producers claim a sequence number with a CAS and publish the slot by
+ * writing its sequence; no locks are taken and nothing is allocated per
+ * message. When the ring is full the message is dropped and counted rather
+ * than blocking the caller.
+ */
+class LogRingBuffer {
+
+    static final class Slot {
+        volatile long sequence = -1;
+        long timestamp;
+        LogLevel level;
+        Logger logger;
+        String thread;
+        String message;
+        Object arg1;
+        Object arg2;
+        Object arg3;
+        Throwable error;
+
+        void clear() {
+            logger = null;
+            message = null;
+            arg1 = null;
+            arg2 = null;
+            arg3 = null;
+            error = null;
+        }
+    }
+
+    interface SlotReader {
+        void read(Slot slot);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(requestedCapacity, 64) - 1) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        mask = capacity - 1;
+    }
+
+    boolean publish(long timestamp, LogLevel level, Logger logger, String thread, String message,
+                    Object arg1, Object arg2, Object arg3, Throwable error) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timestamp = timestamp;
+        slot.level = level;
+        slot.logger = logger;
+        slot.thread = thread;
+        slot.message = message;
+        slot.arg1 = arg1;
+        slot.arg2 = arg2;
+        slot.arg3 = arg3;
+        slot.error = error;
+        slot.sequence = sequence;
+        return true;
+    }
+
+    // Hand every published record to the reader in order; returns how many were read
+    int drain(SlotReader reader) {
+        int count = 0;
+        long next = head;
+        while (true) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence != next) {
+                break;
+            }
+            reader.read(slot);
+            slot.clear();
+            next++;
+            head = next;
+            count++;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    long takeDroppedCount() {
+        return dropped.getAndSet(0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.pradeepmill.logging;
+
+/**
+ * Named logger. Messages use {} placeholders, e.g.
+ * LOG.info("Sale {} posted for customer {}", saleNumber, customerId).
+ *
+ * The level check comes first and messages are formatted on the log writer
+ * thread, so a disabled call costs a field read. Boxing a primitive argument
+ * still allocates at the call site; wrap such calls in isDebugEnabled() on
+ * hot paths.
+ */
+public final class Logger {
+
+    private final String name;
+    private final String shortName;
+    private volatile int threshold;
+
+    Logger(String name, LogLevel level) {
+        this.name = name;
+        this.shortName = name.substring(name.lastIndexOf('.') + 1);
+        this.threshold = level.ordinal();
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return LogManager.getLogger(type.getName());
+    }
+
+    public static Logger getLogger(String name) {
+        return LogManager.getLogger(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    String getShortName() {
+        return shortName;
+    }
+
+    void setLevel(LogLevel level) {
+        this.threshold = level.ordinal();
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isTraceEnabled() {
+        return LogLevel.TRACE.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return LogLevel.DEBUG.ordinal() >= threshold;
+    }
+
+    public boolean isInfoEnabled() {
+        return LogLevel.INFO.ordinal() >= threshold;
+    }
+
+    public void trace(String message) {
+        log(LogLevel.TRACE, message, null, null, null, null);
+    }
+
+    public void trace(String message, Object arg) {
+        log(LogLevel.TRACE, message, arg, null, null, null);
+    }
+
+    public void trace(String message, Object arg1, Object arg2) {
+        log(LogLevel.TRACE, message, arg1, arg2, null, null);
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null, null, null, null);
+    }
+
+    public void debug(String message, Object arg) {
+        log(LogLevel.DEBUG, message, arg, null, null, null);
+    }
+
+    public void debug(String message, Object arg1, Object arg2) {
+        log(LogLevel.DEBUG, message, arg1, arg2, null, null);
+    }
+
+    public void debug(String message, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.DEBUG, message, arg1, arg2, arg3, null);
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null, null, null, null);
+    }
+
+    public void info(String message, Object arg) {
+        log(LogLevel.INFO, message, arg, null, null, null);
+    }
+
+    public void info(String message, Object arg1, Object arg2) {
+        log(LogLevel.INFO, message, arg1, arg2, null, null);
+    }
+
+    public void info(String message, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.INFO, message, arg1, arg2, arg3, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null, null, null, null);
+    }
+
+    public void warn(String message, Object arg) {
+        log(LogLevel.WARN, message, arg, null, null, null);
+    }
+
+    public void warn(String message, Object arg1, Object arg2) {
+        log(LogLevel.WARN, message, arg1, arg2, null, null);
+    }
+
+    public void warn(String message, Throwable error) {
+        log(LogLevel.WARN, message, null, null, null, error);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null, null, null, null);
+    }
+
+    public void error(String message, Object arg) {
+        log(LogLevel.ERROR, message, arg, null, null, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(LogLevel.ERROR, message, null, null, null, error);
+    }
+
+    public void error(String message, Object arg, Throwable error) {
+        log(LogLevel.ERROR, message, arg, null, null, error);
+    }
+
+    private void log(LogLevel level, String message, Object arg1, Object arg2, Object arg3, Throwable error) {
+        if (level.ordinal() < threshold) {
+            return;
+        }
+        LogManager.enqueue(this, level, message, arg1, arg2, arg3, error);
+    }
+}
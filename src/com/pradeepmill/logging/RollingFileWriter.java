@@ -0,0 +1,88 @@
+package com.pradeepmill.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends to a log file and rolls it over when it passes the size limit:
+ * pradeepmill.log becomes pradeepmill.log.1, .1 becomes .2 and so on, keeping
+ * at most maxFiles old files. Only used from the log writer thread.
+ */
+class RollingFileWriter {
+
+    private final File file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private Writer writer;
+    private long size;
+
+    RollingFileWriter(File file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    void write(CharSequence text) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        String value = text.toString();
+        writer.write(value);
+        // Close enough for ASCII-heavy log text
+        size += value.length();
+        if (size >= maxBytes) {
+            roll();
+        }
+    }
+
+    void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // Nothing left to do with a broken log file
+            }
+            writer = null;
+        }
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        size = file.length();
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    private void roll() throws IOException {
+        close();
+        File oldest = new File(file.getPath() + "." + maxFiles);
+        if (oldest.exists()) {
+            oldest.delete();
+        }
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File source = new File(file.getPath() + "." + i);
+            if (source.exists()) {
+                source.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+        }
+        if (maxFiles > 0) {
+            file.renameTo(new File(file.getPath() + ".1"));
+        } else {
+            file.delete();
+        }
+        open();
+    }
+}
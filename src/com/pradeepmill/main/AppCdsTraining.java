@@ -0,0 +1,77 @@
+package com.pradeepmill.main;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.services.ReportService;
+import com.pradeepmill.services.StartupService;
+import com.pradeepmill.ui.LoginForm;
+import com.pradeepmill.ui.MainDashboard;
+import com.pradeepmill.ui.SplashWindow;
+import com.pradeepmill.ui.reports.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * Training run for the class-data sharing archive (ant cds-archive). Walks the
+ * same path as a normal session - login form, dashboard, report screens - so
+ * the classes they load end up in the archive, then exits.
+ */
+public class AppCdsTraining {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Class-data sharing training run...");
+
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            System.out.println("Could not set look and feel: " + e.getMessage());
+        }
+
+        StartupService.startWarmUp();
+
+        // Login
+        SwingUtilities.invokeAndWait(() -> {
+            SplashWindow splash = new SplashWindow();
+            splash.pack();
+            splash.dispose();
+
+            LoginForm loginForm = new LoginForm();
+            loginForm.pack();
+            loginForm.dispose();
+        });
+
+        if (!StartupService.awaitDatabase(15000)) {
+            System.out.println("✗ Database not available - archive will only cover the login screens");
+            System.exit(0);
+        }
+
+        // Dashboard and report screens
+        SwingUtilities.invokeAndWait(() -> {
+            MainDashboard dashboard = new MainDashboard();
+            dashboard.pack();
+            dashboard.dispose();
+
+            JFrame frame = new JFrame();
+            frame.add(new CustomerReportPanel());
+            frame.add(new SupplierReportPanel());
+            frame.add(new SalaryReportPanel());
+            frame.add(new StockReportPanel());
+            frame.pack();
+            frame.dispose();
+        });
+
+        // Report queries
+        ReportService reportService = new ReportService();
+        reportService.generateCustomerDetailsReport();
+        reportService.generateSupplierDetailsReport();
+        reportService.generateMonthlySalaryReport(LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM")));
+        reportService.generateStockReport();
+        reportService.getReportSummaryStatistics();
+
+        DatabaseConnection.closeConnection();
+        System.out.println("✓ Training run complete");
+        System.exit(0);
+    }
+}
@@ -0,0 +1,590 @@
+package com.pradeepmill.main;
+
+import com.pradeepmill.dao.BulkInsertWriter;
+import com.pradeepmill.dao.CustomerLedgerDAO;
+import com.pradeepmill.dao.ProductionYieldDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.LogLevel;
+import com.pradeepmill.logging.LogManager;
+import com.pradeepmill.models.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Fills a database with several years of realistic, seasonal data for scale
+ * testing: suppliers, customers, products, machines of every type, staff,
+ * purchases and sales with items, production records, monthly salaries and
+ * matching stock levels. The same seed and start date always produce the
+ * same data.
+ *
+ * Rows are written with multi-row INSERT statements, committed in chunks.
+ * Run it against an empty scratch schema:
+ *   java -Dpradeepmill.db.url=jdbc:mysql://localhost:3306/rice_mill_scale -cp ... com.pradeepmill.main.DataGenerator
+ *        --seed=42 --years=5 --start=2021-01-01
+ *
+ * Options (defaults in brackets): --customers [50000], --suppliers [2000],
+ * --staff [150], --machines-per-type [3], --sales [2000000],
+ * --purchases [200000], --production [500000], --years [5],
+ * --start [1 January, years ago], --seed [42], --chunk [1000 rows per INSERT]
+ * and --scale [1.0], which multiplies every count for quick runs.
+ */
+public class DataGenerator {
+
+    private static final DateTimeFormatter NUMBER_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    // Relative activity per month (January first): paddy is bought at the Maha
+    // (Feb-Apr) and Yala (Aug-Sep) harvests, milled a few weeks later, and rice
+    // sales peak before the April New Year and in December
+    private static final double[] PURCHASE_SEASON = {0.6, 1.6, 1.8, 1.2, 0.6, 0.5, 0.6, 1.4, 1.6, 0.8, 0.6, 0.7};
+    private static final double[] PRODUCTION_SEASON = {0.7, 1.1, 1.5, 1.5, 1.0, 0.7, 0.6, 1.0, 1.4, 1.3, 0.8, 0.7};
+    private static final double[] SALES_SEASON = {1.0, 0.9, 1.0, 1.4, 1.0, 0.9, 0.9, 0.9, 0.9, 1.0, 1.1, 1.3};
+    // Business grows about 8% a year
+    private static final double YEARLY_GROWTH = 1.08;
+
+    private static final String[] FIRST_NAMES = {
+        "Nimal", "Sunil", "Kamal", "Ruwan", "Chaminda", "Pradeep", "Saman", "Ajith", "Lasantha", "Mahesh",
+        "Kumari", "Dilani", "Chathura", "Nuwan", "Priyanka", "Sanjeewa", "Asanka", "Tharindu", "Nadeesha", "Roshan"
+    };
+    private static final String[] LAST_NAMES = {
+        "Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe", "Rathnayake", "Herath",
+        "Dissanayake", "Gunawardena", "Karunaratne", "Senanayake", "Wijesinghe", "Amarasinghe", "Ekanayake"
+    };
+    private static final String[] TOWNS = {
+        "Polonnaruwa", "Anuradhapura", "Ampara", "Kurunegala", "Hambantota", "Dambulla", "Kandy",
+        "Matale", "Trincomalee", "Batticaloa", "Vavuniya", "Badulla", "Colombo", "Galle", "Negombo"
+    };
+    private static final String[] SHOP_WORDS = {"Stores", "Traders", "Enterprises", "Rice Mart", "Food City", "Distributors"};
+
+    private final Random random;
+    private final int chunkSize;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int customerCount;
+    private final int supplierCount;
+    private final int staffCount;
+    private final int machinesPerType;
+    private final long salesCount;
+    private final long purchaseCount;
+    private final long productionCount;
+
+    private Connection conn;
+    private int[] customerIds;
+    private boolean[] wholesaleCustomer;
+    private int[] supplierIds;
+    private int[] staffIds;
+    private double[] staffSalaries;
+    private LocalDate[] staffHireDates;
+    private int[] operatorIds;
+    private int[] machineIds;
+    private final List<Product> rawProducts = new ArrayList<>();
+    private final List<Product> finishedProducts = new ArrayList<>();
+    private final List<Product> saleableProducts = new ArrayList<>();
+    private final Map<Integer, double[]> stockRunning = new HashMap<>(); // product id -> {balance, lowest balance}
+    private long rowsWritten;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.setLevel("com.pradeepmill", LogLevel.WARN);
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+
+        try {
+            new DataGenerator(options).generate();
+        } catch (SQLException | ClassNotFoundException e) {
+            System.out.println("Data generation failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            LogManager.flush();
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    DataGenerator(Map<String, String> options) {
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1.0"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int years = Integer.parseInt(options.getOrDefault("years", "5"));
+
+        random = new Random(seed);
+        chunkSize = Integer.parseInt(options.getOrDefault("chunk", "1000"));
+        startDate = options.containsKey("start")
+            ? LocalDate.parse(options.get("start"))
+            : LocalDate.of(LocalDate.now().getYear() - years, 1, 1);
+        endDate = startDate.plusYears(years).minusDays(1);
+
+        customerCount = scaled(options, "customers", 50000, scale);
+        supplierCount = scaled(options, "suppliers", 2000, scale);
+        staffCount = scaled(options, "staff", 150, scale);
+        machinesPerType = Math.max(1, Integer.parseInt(options.getOrDefault("machines-per-type", "3")));
+        salesCount = scaled(options, "sales", 2000000, scale);
+        purchaseCount = scaled(options, "purchases", 200000, scale);
+        productionCount = scaled(options, "production", 500000, scale);
+    }
+
+    /**
+     * Generate everything in one pass, oldest day first
+     */
+    void generate() throws SQLException, ClassNotFoundException {
+        DatabaseConnection.warmUp(1);
+        conn = DatabaseConnection.getConnection();
+        long started = System.nanoTime();
+        try {
+            conn.setAutoCommit(false);
+            System.out.println("Generating " + startDate + " to " + endDate + ": " + salesCount + " sales, "
+                + purchaseCount + " purchases, " + productionCount + " production records");
+
+            insertSuppliers();
+            insertCustomers();
+            insertProducts();
+            insertMachines();
+            insertStaff();
+            conn.commit();
+
+            insertDailyActivity();
+            insertSalaries();
+            updateStock();
+            new CustomerLedgerDAO().rebuildFromSales(conn);
+            new ProductionYieldDAO().rebuild(conn);
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+            conn.close();
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.println(String.format("Done: %,d rows in %.1f s (%,.0f rows/s)", rowsWritten, seconds, rowsWritten / seconds));
+    }
+
+    // ===== MASTER DATA =====
+
+    private void insertSuppliers() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("suppliers",
+            "supplier_name", "contact_person", "phone", "address", "email", "credit_limit", "status");
+        for (int i = 0; i < supplierCount; i++) {
+            String contact = personName();
+            insert.addRow(contact + " Paddy Supply " + (i + 1), contact, phone(), pick(TOWNS),
+                null, (double) (100000 + random.nextInt(20) * 50000), "Active");
+        }
+        supplierIds = flush(insert);
+        System.out.println("  " + supplierIds.length + " suppliers");
+    }
+
+    private void insertCustomers() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("customers",
+            "customer_name", "contact_person", "phone", "address", "email", "customer_type", "credit_limit", "status");
+        wholesaleCustomer = new boolean[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            String contact = personName();
+            // The busiest customers (lowest indexes, see pickCustomer) are the wholesalers
+            String type = i < customerCount / 20 ? Customer.TYPE_WHOLESALE
+                : random.nextInt(4) == 0 ? Customer.TYPE_DIRECT : Customer.TYPE_RETAIL;
+            wholesaleCustomer[i] = Customer.TYPE_WHOLESALE.equals(type);
+            String name = Customer.TYPE_RETAIL.equals(type) ? contact : pick(TOWNS) + " " + pick(SHOP_WORDS) + " " + (i + 1);
+            insert.addRow(name, contact, phone(), pick(TOWNS), null, type,
+                wholesaleCustomer[i] ? 500000.0 : 50000.0, "Active");
+        }
+        customerIds = flush(insert);
+        System.out.println("  " + customerIds.length + " customers");
+    }
+
+    private void insertProducts() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("products",
+            "product_name", "product_type", "grade", "unit_price", "unit", "description", "status");
+        List<Product> products = new ArrayList<>();
+        products.add(product("Samba Paddy", Product.TYPE_RAW_PADDY, Product.GRADE_A, 120));
+        products.add(product("Nadu Paddy", Product.TYPE_RAW_PADDY, Product.GRADE_A, 100));
+        products.add(product("Keeri Samba Paddy", Product.TYPE_RAW_PADDY, Product.GRADE_PREMIUM, 160));
+        products.add(product("Red Paddy", Product.TYPE_RAW_PADDY, Product.GRADE_B, 105));
+        products.add(product("Samba Rice", Product.TYPE_FINISHED_RICE, Product.GRADE_A, 210));
+        products.add(product("Nadu Rice", Product.TYPE_FINISHED_RICE, Product.GRADE_A, 180));
+        products.add(product("Keeri Samba Rice", Product.TYPE_FINISHED_RICE, Product.GRADE_PREMIUM, 290));
+        products.add(product("Red Raw Rice", Product.TYPE_FINISHED_RICE, Product.GRADE_B, 190));
+        products.add(product("White Raw Rice", Product.TYPE_FINISHED_RICE, Product.GRADE_REGULAR, 175));
+        products.add(product("Rice Bran", Product.TYPE_BY_PRODUCT, Product.GRADE_REGULAR, 45));
+        products.add(product("Broken Rice", Product.TYPE_BY_PRODUCT, Product.GRADE_C, 120));
+        products.add(product("Paddy Husk", Product.TYPE_BY_PRODUCT, Product.GRADE_REGULAR, 8));
+
+        for (Product product : products) {
+            insert.addRow(product.getProductName(), product.getProductType(), product.getGrade(),
+                product.getUnitPrice(), product.getUnit(), "Generated test data", "Active");
+        }
+        int[] ids = flush(insert);
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            product.setProductId(ids[i]);
+            stockRunning.put(ids[i], new double[2]);
+            if (Product.TYPE_RAW_PADDY.equals(product.getProductType())) {
+                rawProducts.add(product);
+            } else {
+                saleableProducts.add(product);
+                if (Product.TYPE_FINISHED_RICE.equals(product.getProductType())) {
+                    finishedProducts.add(product);
+                }
+            }
+        }
+        System.out.println("  " + ids.length + " products");
+    }
+
+    private void insertMachines() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("machines",
+            "machine_name", "machine_type", "location", "installation_date", "capacity_per_hour", "status");
+        String[] types = {Machine.TYPE_CLEANER, Machine.TYPE_DEHUSKER, Machine.TYPE_POLISHER, Machine.TYPE_GRADER, Machine.TYPE_PACKER};
+        for (String type : types) {
+            for (int i = 1; i <= machinesPerType; i++) {
+                insert.addRow(type + " " + i, type, "Mill floor " + (1 + random.nextInt(3)),
+                    java.sql.Date.valueOf(startDate.minusYears(1 + random.nextInt(8))),
+                    (double) (500 + random.nextInt(16) * 100), Machine.STATUS_ACTIVE);
+            }
+        }
+        machineIds = flush(insert);
+        System.out.println("  " + machineIds.length + " machines");
+    }
+
+    private void insertStaff() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("staff",
+            "employee_name", "position", "phone", "address", "hire_date", "monthly_salary", "status");
+        String[] positions = {Staff.POSITION_MACHINE_OPERATOR, Staff.POSITION_MACHINE_OPERATOR, Staff.POSITION_HELPER,
+            Staff.POSITION_HELPER, Staff.POSITION_QUALITY_CONTROLLER, Staff.POSITION_SUPERVISOR, Staff.POSITION_ACCOUNTANT};
+        String[] staffPositions = new String[staffCount];
+        staffSalaries = new double[staffCount];
+        staffHireDates = new LocalDate[staffCount];
+        long days = endDate.toEpochDay() - startDate.toEpochDay();
+        for (int i = 0; i < staffCount; i++) {
+            staffPositions[i] = i == 0 ? Staff.POSITION_MANAGER : pick(positions);
+            staffSalaries[i] = salaryFor(staffPositions[i]);
+            // Two thirds were there from the start, the rest joined along the way
+            staffHireDates[i] = random.nextInt(3) < 2
+                ? startDate.minusDays(random.nextInt(2000))
+                : startDate.plusDays((long) (random.nextDouble() * days));
+            insert.addRow(personName(), staffPositions[i], phone(), pick(TOWNS),
+                java.sql.Date.valueOf(staffHireDates[i]), staffSalaries[i], "Active");
+        }
+        staffIds = flush(insert);
+
+        List<Integer> operators = new ArrayList<>();
+        for (int i = 0; i < staffCount; i++) {
+            if (Staff.POSITION_MACHINE_OPERATOR.equals(staffPositions[i])) {
+                operators.add(staffIds[i]);
+            }
+        }
+        if (operators.isEmpty()) {
+            operators.add(staffIds[0]);
+        }
+        operatorIds = operators.stream().mapToInt(Integer::intValue).toArray();
+        System.out.println("  " + staffIds.length + " staff");
+    }
+
+    // ===== DAILY ACTIVITY =====
+
+    private void insertDailyActivity() throws SQLException {
+        double[] purchaseWeights = dayWeights(PURCHASE_SEASON, false);
+        double[] productionWeights = dayWeights(PRODUCTION_SEASON, false);
+        double[] salesWeights = dayWeights(SALES_SEASON, true);
+
+        BulkInsertWriter purchases = bulkInsert("purchase_orders",
+            "purchase_number", "supplier_id", "purchase_date", "total_quantity", "total_amount",
+            "paid_amount", "payment_status", "notes", "created_by");
+        BulkInsertWriter purchaseItems = bulkInsert("purchase_items",
+            "purchase_id", "product_id", "quantity", "unit_price", "total_price");
+        BulkInsertWriter sales = bulkInsert("sales_orders",
+            "sale_number", "customer_id", "sale_date", "total_quantity", "total_amount",
+            "paid_amount", "payment_status", "notes", "created_by");
+        BulkInsertWriter salesItems = bulkInsert("sales_items",
+            "sale_id", "product_id", "quantity", "unit_price", "total_price");
+        BulkInsertWriter production = bulkInsert("production_records",
+            "production_number", "production_date", "raw_product_id", "finished_product_id", "input_quantity",
+            "output_quantity", "conversion_rate", "waste_quantity", "machine_id", "operator_id", "notes");
+
+        List<Object[]> pendingPurchaseItems = new ArrayList<>();
+        List<Object[]> pendingSalesItems = new ArrayList<>();
+        int machineCursor = 0;
+        LocalDate day = startDate;
+        for (int dayIndex = 0; !day.isAfter(endDate); dayIndex++, day = day.plusDays(1)) {
+            java.sql.Date sqlDate = java.sql.Date.valueOf(day);
+            String dateText = day.format(NUMBER_DATE);
+            long ageInDays = endDate.toEpochDay() - day.toEpochDay();
+
+            int dayPurchases = countFor(purchaseCount, purchaseWeights[dayIndex]);
+            for (int i = 0; i < dayPurchases; i++) {
+                // Paddy is cheapest at harvest time
+                double priceFactor = 1.15 - 0.1 * PURCHASE_SEASON[day.getMonthValue() - 1];
+                int itemCount = 1 + random.nextInt(2);
+                double totalQuantity = 0;
+                double totalAmount = 0;
+                for (int item = 0; item < itemCount; item++) {
+                    Product product = rawProducts.get(random.nextInt(rawProducts.size()));
+                    double quantity = 100 * (5 + random.nextInt(46));
+                    double unitPrice = round2(product.getUnitPrice() * priceFactor * (0.95 + random.nextDouble() * 0.1));
+                    totalQuantity += quantity;
+                    totalAmount += quantity * unitPrice;
+                    move(product.getProductId(), quantity);
+                    pendingPurchaseItems.add(new Object[] {purchases.pendingRows(), product.getProductId(), quantity, unitPrice, round2(quantity * unitPrice)});
+                }
+                double paid = paidAmount(totalAmount, ageInDays);
+                purchases.addRow(String.format("PO%sG%04d", dateText, i + 1), supplierIds[skewedIndex(supplierIds.length)],
+                    sqlDate, totalQuantity, round2(totalAmount), paid, paymentStatus(paid, totalAmount), null, "generator");
+                if (purchases.pendingRows() >= chunkSize) {
+                    flushOrders(purchases, purchaseItems, pendingPurchaseItems);
+                }
+            }
+
+            int dayProduction = countFor(productionCount, productionWeights[dayIndex]);
+            for (int i = 0; i < dayProduction; i++) {
+                Product raw = rawProducts.get(random.nextInt(rawProducts.size()));
+                Product finished = finishedProducts.get(random.nextInt(finishedProducts.size()));
+                double input = 50 * (4 + random.nextInt(37));
+                // Milling yield around 66%, a little worse on older machines
+                double yield = Math.max(0.55, Math.min(0.74, 0.66 + random.nextGaussian() * 0.025));
+                double output = Math.round(input * yield);
+                double waste = Math.round(input * (0.02 + random.nextDouble() * 0.03));
+                move(raw.getProductId(), -input);
+                move(finished.getProductId(), output);
+                // Work through every machine in turn so all types have records
+                int machineId = machineIds[machineCursor++ % machineIds.length];
+                production.addRow(String.format("PRD%sG%04d", dateText, i + 1), sqlDate, raw.getProductId(),
+                    finished.getProductId(), input, output, round2(output / input * 100), waste, machineId,
+                    operatorIds[random.nextInt(operatorIds.length)], null);
+                if (production.pendingRows() >= chunkSize) {
+                    flush(production);
+                    conn.commit();
+                }
+            }
+
+            int daySales = countFor(salesCount, salesWeights[dayIndex]);
+            for (int i = 0; i < daySales; i++) {
+                int customer = skewedIndex(customerIds.length);
+                int itemCount = 1 + random.nextInt(4);
+                double totalQuantity = 0;
+                double totalAmount = 0;
+                for (int item = 0; item < itemCount; item++) {
+                    Product product = saleableProducts.get(random.nextInt(saleableProducts.size()));
+                    double quantity = wholesaleCustomer[customer] ? 50 * (1 + random.nextInt(10)) : 5 * (1 + random.nextInt(10));
+                    double unitPrice = product.getUnitPrice();
+                    totalQuantity += quantity;
+                    totalAmount += quantity * unitPrice;
+                    move(product.getProductId(), -quantity);
+                    pendingSalesItems.add(new Object[] {sales.pendingRows(), product.getProductId(), quantity, unitPrice, round2(quantity * unitPrice)});
+                }
+                double paid = paidAmount(totalAmount, ageInDays);
+                sales.addRow(String.format("SO%sG%05d", dateText, i + 1), customerIds[customer], sqlDate,
+                    totalQuantity, round2(totalAmount), paid, paymentStatus(paid, totalAmount), null, "generator");
+                if (sales.pendingRows() >= chunkSize) {
+                    flushOrders(sales, salesItems, pendingSalesItems);
+                }
+            }
+
+            if (day.getDayOfMonth() == day.lengthOfMonth()) {
+                flushOrders(purchases, purchaseItems, pendingPurchaseItems);
+                flushOrders(sales, salesItems, pendingSalesItems);
+                flush(production);
+                conn.commit();
+                System.out.println("  " + day.format(MONTH_FORMAT) + " done, " + rowsWritten + " rows so far");
+            }
+        }
+        flushOrders(purchases, purchaseItems, pendingPurchaseItems);
+        flushOrders(sales, salesItems, pendingSalesItems);
+        flush(production);
+        conn.commit();
+    }
+
+    // Insert the buffered orders, then their items with the new order ids, and commit both together
+    private void flushOrders(BulkInsertWriter orders, BulkInsertWriter items, List<Object[]> pendingItems) throws SQLException {
+        int[] orderIds = flush(orders);
+        for (Object[] item : pendingItems) {
+            items.addRow(orderIds[(Integer) item[0]], item[1], item[2], item[3], item[4]);
+        }
+        pendingItems.clear();
+        flush(items);
+        conn.commit();
+    }
+
+    // ===== SALARIES AND STOCK =====
+
+    private void insertSalaries() throws SQLException {
+        BulkInsertWriter insert = bulkInsert("salary_payments",
+            "staff_id", "payment_month", "basic_salary", "overtime_hours", "overtime_amount",
+            "bonus", "deductions", "net_salary", "payment_date", "payment_status");
+        for (LocalDate month = startDate.withDayOfMonth(1); !month.isAfter(endDate); month = month.plusMonths(1)) {
+            LocalDate payDay = month.withDayOfMonth(month.lengthOfMonth());
+            // Yearly increments of about 5%
+            double raise = Math.pow(1.05, month.getYear() - startDate.getYear());
+            for (int i = 0; i < staffIds.length; i++) {
+                if (staffHireDates[i].isAfter(payDay)) {
+                    continue;
+                }
+                double basic = Math.round(staffSalaries[i] * raise);
+                // Avurudu (April) and year-end bonuses
+                double bonus = month.getMonthValue() == 4 || month.getMonthValue() == 12 ? Math.round(basic * 0.25) : 0;
+                insert.addRow(staffIds[i], month.format(MONTH_FORMAT), basic, 0, 0, bonus, 0, basic + bonus,
+                    java.sql.Date.valueOf(payDay), "Paid");
+                if (insert.pendingRows() >= chunkSize) {
+                    flush(insert);
+                }
+            }
+        }
+        flush(insert);
+        conn.commit();
+        System.out.println("  salaries done");
+    }
+
+    // Opening stock is whatever keeps every product from going negative, plus some headroom
+    private void updateStock() throws SQLException {
+        String update = "UPDATE stock_inventory SET current_quantity = ?, minimum_level = ?, maximum_level = ?, last_updated = CURRENT_TIMESTAMP WHERE product_id = ?";
+        String insert = "INSERT INTO stock_inventory (product_id, current_quantity, minimum_level, maximum_level) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement updateStmt = conn.prepareStatement(update);
+             PreparedStatement insertStmt = conn.prepareStatement(insert)) {
+            for (Map.Entry<Integer, double[]> entry : stockRunning.entrySet()) {
+                double[] running = entry.getValue();
+                double opening = Math.max(0, -running[1]) + 1000;
+                double quantity = opening + running[0];
+                double minimum = 500;
+                double maximum = Math.max(10000, quantity * 2);
+
+                updateStmt.setDouble(1, quantity);
+                updateStmt.setDouble(2, minimum);
+                updateStmt.setDouble(3, maximum);
+                updateStmt.setInt(4, entry.getKey());
+                if (updateStmt.executeUpdate() == 0) {
+                    insertStmt.setInt(1, entry.getKey());
+                    insertStmt.setDouble(2, quantity);
+                    insertStmt.setDouble(3, minimum);
+                    insertStmt.setDouble(4, maximum);
+                    insertStmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // ===== HELPERS =====
+
+    /**
+     * Weight of each day in the period: monthly season times yearly growth,
+     * with quiet Sundays (and for sales, a Saturday rush), normalised to sum to 1
+     */
+    private double[] dayWeights(double[] season, boolean sales) {
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1);
+        double[] weights = new double[days];
+        double sum = 0;
+        LocalDate day = startDate;
+        for (int i = 0; i < days; i++, day = day.plusDays(1)) {
+            double weight = season[day.getMonthValue() - 1] * Math.pow(YEARLY_GROWTH, i / 365.0);
+            if (day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                weight *= 0.3;
+            } else if (sales && day.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                weight *= 1.3;
+            }
+            weights[i] = weight;
+            sum += weight;
+        }
+        for (int i = 0; i < days; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    // Whole number of rows for a day, rounding the fraction at random so totals come out right
+    private int countFor(long total, double weight) {
+        double expected = total * weight;
+        int count = (int) expected;
+        if (random.nextDouble() < expected - count) {
+            count++;
+        }
+        return count;
+    }
+
+    // Index skewed towards the start of the list, so a few customers and suppliers do most of the business
+    private int skewedIndex(int size) {
+        double value = random.nextDouble();
+        return Math.min(size - 1, (int) (size * value * value * value));
+    }
+
+    // Older orders are mostly settled; recent ones are often still open
+    private double paidAmount(double totalAmount, long ageInDays) {
+        int roll = random.nextInt(100);
+        int paidChance = ageInDays > 90 ? 92 : ageInDays > 30 ? 70 : 40;
+        if (roll < paidChance) {
+            return round2(totalAmount);
+        }
+        if (roll < paidChance + (100 - paidChance) / 2) {
+            return round2(totalAmount * (0.2 + random.nextDouble() * 0.6));
+        }
+        return 0.0;
+    }
+
+    private static String paymentStatus(double paid, double total) {
+        if (paid <= 0) {
+            return PurchaseOrder.PAYMENT_PENDING;
+        }
+        return paid >= round2(total) ? PurchaseOrder.PAYMENT_PAID : PurchaseOrder.PAYMENT_PARTIAL;
+    }
+
+    private void move(int productId, double quantity) {
+        double[] running = stockRunning.get(productId);
+        running[0] += quantity;
+        running[1] = Math.min(running[1], running[0]);
+    }
+
+    private static Product product(String name, String type, String grade, double price) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductType(type);
+        product.setGrade(grade);
+        product.setUnitPrice(price);
+        product.setUnit(Product.UNIT_KG);
+        return product;
+    }
+
+    private static double salaryFor(String position) {
+        switch (position) {
+            case Staff.POSITION_MANAGER: return 150000;
+            case Staff.POSITION_ACCOUNTANT: return 85000;
+            case Staff.POSITION_SUPERVISOR: return 75000;
+            case Staff.POSITION_QUALITY_CONTROLLER: return 65000;
+            case Staff.POSITION_MACHINE_OPERATOR: return 55000;
+            default: return 42000;
+        }
+    }
+
+    private String personName() {
+        return pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+    }
+
+    private String phone() {
+        return String.format("07%d%07d", random.nextInt(9), random.nextInt(10000000));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // A writer for one table using the --chunk size
+    private BulkInsertWriter bulkInsert(String table, String... columns) {
+        return new BulkInsertWriter(table, columns).setChunkSize(chunkSize);
+    }
+
+    // Write a writer's buffered rows on the generator connection and return their ids
+    private int[] flush(BulkInsertWriter writer) throws SQLException {
+        rowsWritten += writer.pendingRows();
+        return writer.flush(conn);
+    }
+
+    private static int scaled(Map<String, String> options, String key, long defaultValue, double scale) {
+        long value = options.containsKey(key) ? Long.parseLong(options.get(key)) : defaultValue;
+        return (int) Math.max(1, Math.round(value * scale));
+    }
+}
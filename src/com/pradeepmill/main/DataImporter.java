@@ -0,0 +1,118 @@
+package com.pradeepmill.main;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.LogLevel;
+import com.pradeepmill.logging.LogManager;
+import com.pradeepmill.services.DataImportService;
+import com.pradeepmill.services.DataImportService.Entity;
+import com.pradeepmill.services.DataImportService.ImportReport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line front end for DataImportService: imports historical
+ * customers, suppliers, products, sales, purchases and production records
+ * from CSV files. Runs as a dry run unless --commit is given.
+ *
+ *   java -cp ... com.pradeepmill.main.DataImporter --dir=export/ [--commit] [--skip-invalid]
+ *   java -cp ... com.pradeepmill.main.DataImporter --customers=old/customers.csv --sales=old/sales.csv --commit
+ *
+ * --dir picks up customers.csv, suppliers.csv, products.csv, sales.csv,
+ * purchases.csv and production.csv where present. Files named one by one
+ * override those. Errors are written next to each file as
+ * <name>-errors.csv, or into --report-dir. --user sets created_by for
+ * orders that have no created_by column (default "import").
+ *
+ * Exits with status 1 when any file has errors or could not be imported.
+ */
+public class DataImporter {
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.setLevel("com.pradeepmill", LogLevel.WARN);
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (arg.startsWith("--")) {
+                options.put(arg.substring(2), "true");
+            }
+        }
+
+        int status;
+        try {
+            status = run(options);
+        } catch (IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            LogManager.flush();
+            DatabaseConnection.closeConnection();
+        }
+        System.exit(status);
+    }
+
+    private static int run(Map<String, String> options) throws IOException {
+        Map<Entity, Path> files = new EnumMap<>(Entity.class);
+        if (options.containsKey("dir")) {
+            Path dir = Paths.get(options.get("dir"));
+            for (Entity entity : Entity.values()) {
+                Path file = dir.resolve(entity.getFileName());
+                if (Files.isRegularFile(file)) {
+                    files.put(entity, file);
+                }
+            }
+        }
+        for (Entity entity : Entity.values()) {
+            String option = entity.name().toLowerCase(Locale.ENGLISH);
+            if (options.containsKey(option)) {
+                files.put(entity, Paths.get(options.get(option)));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Nothing to import. Give --dir=<export directory> or files such as --sales=<file.csv>.");
+            return 1;
+        }
+
+        boolean commit = Boolean.parseBoolean(options.getOrDefault("commit", "false"));
+        boolean skipInvalid = Boolean.parseBoolean(options.getOrDefault("skip-invalid", "false"));
+        Path reportDir = options.containsKey("report-dir") ? Paths.get(options.get("report-dir")) : null;
+        if (reportDir != null) {
+            Files.createDirectories(reportDir);
+        }
+
+        System.out.println(commit ? "Importing " + files.size() + " file(s)" : "Dry run of " + files.size() + " file(s); add --commit to write");
+        List<ImportReport> reports = new DataImportService().importFiles(files, !commit, skipInvalid,
+            options.getOrDefault("user", "import"));
+
+        boolean clean = true;
+        for (ImportReport report : reports) {
+            System.out.println("  " + report.getEntity().name().toLowerCase(Locale.ENGLISH) + " (" + report.getFile() + "): "
+                + report.getSummary());
+            if (!report.isClean()) {
+                clean = false;
+                Path target = errorReportPath(report, reportDir);
+                report.writeErrorReport(target);
+                System.out.println("    errors written to " + target);
+            }
+        }
+        return clean ? 0 : 1;
+    }
+
+    // sales.csv -> sales-errors.csv, next to the file or in the report directory
+    private static Path errorReportPath(ImportReport report, Path reportDir) {
+        String name = report.getFile().getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String errorsName = (dot > 0 ? name.substring(0, dot) : name) + "-errors.csv";
+        Path dir = reportDir != null ? reportDir : report.getFile().toAbsolutePath().getParent();
+        return dir.resolve(errorsName);
+    }
+}
@@ -0,0 +1,417 @@
+package com.pradeepmill.main;
+
+import com.pradeepmill.dao.StockInventoryDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.LogLevel;
+import com.pradeepmill.logging.LogManager;
+import com.pradeepmill.models.*;
+import com.pradeepmill.monitoring.LatencyHistogram;
+import com.pradeepmill.services.MasterDataCache;
+import com.pradeepmill.services.TransactionService;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load test for TransactionService. Runs sales, purchase and
+ * production transactions from many concurrent threads, then reports
+ * throughput, latency percentiles and rollbacks, and checks that stock still
+ * agrees with the movements that were committed.
+ *
+ * Run it against a database nobody else is using, for example:
+ *   java -Dpradeepmill.db.url=jdbc:mysql://localhost:3306/rice_mill_load -cp ... com.pradeepmill.main.LoadTest
+ *        --threads=50 --duration=60 --mix=sales:60,purchase:30,production:10
+ *
+ * Options: --threads=N, --duration=seconds or --transactions=N, --mix=type:weight,...,
+ * --products=N and --customers=N (only use the first N), --seed=N, --pool=N
+ * (connection pool size), --procedures (post through the stored procedures in
+ * db/posting_procedures.sql) and --verbose (keep INFO logging).
+ *
+ * Each transaction holds one pooled connection, so the pool is sized to
+ * --threads unless --pool is given, and --threads defaults to the pool
+ * size. More threads than connections measures waiting for the pool rather
+ * than throughput.
+ *
+ * Uses virtual threads when the JVM has them and a fixed pool of platform
+ * threads otherwise. Exits with status 1 when the stock check fails.
+ */
+public class LoadTest {
+
+    private static final String SALES = "sales";
+    private static final String PURCHASE = "purchase";
+    private static final String PRODUCTION = "production";
+    private static final double TOLERANCE = 0.001;
+
+    // Per transaction type results
+    private static class TypeStats {
+        final LatencyHistogram latencyMicros = new LatencyHistogram();
+        final LongAdder committed = new LongAdder();
+        final LongAdder rolledBack = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final int threads;
+    private final long durationSeconds;
+    private final long transactionLimit;
+    private final long seed;
+    private final String[] mixTypes;
+    private final int[] mixWeights;
+    private final int totalWeight;
+
+    private final List<Customer> customers;
+    private final List<Supplier> suppliers;
+    private final List<Product> rawProducts;
+    private final List<Product> saleableProducts;
+    private final List<Product> finishedProducts;
+    private final List<Machine> machines;
+    private final List<Staff> operators;
+
+    private final Map<String, TypeStats> stats = new LinkedHashMap<>();
+    private final Map<Integer, DoubleAdder> committedMovement = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private volatile long deadline;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("pool")) {
+            System.setProperty("pradeepmill.db.poolSize", options.get("pool"));
+        } else if (options.containsKey("threads")) {
+            System.setProperty("pradeepmill.db.poolSize", options.get("threads"));
+        }
+        if (options.containsKey("procedures")) {
+            TransactionService.setStoredProcedurePosting(true);
+        }
+        if (!options.containsKey("verbose")) {
+            LogManager.setLevel("com.pradeepmill", LogLevel.WARN);
+        }
+
+        try {
+            DatabaseConnection.warmUp(DatabaseConnection.getPoolSize());
+        } catch (Exception e) {
+            System.out.println("Cannot connect to the database: " + e.getMessage());
+            System.exit(2);
+        }
+
+        boolean invariantHolds;
+        try {
+            LoadTest test = new LoadTest(options);
+            invariantHolds = test.run();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            invariantHolds = false;
+        } finally {
+            LogManager.flush();
+            DatabaseConnection.closeConnection();
+        }
+        System.exit(invariantHolds ? 0 : 1);
+    }
+
+    LoadTest(Map<String, String> options) {
+        threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(DatabaseConnection.getPoolSize())));
+        durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        transactionLimit = Long.parseLong(options.getOrDefault("transactions", "0"));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        String[] mix = options.getOrDefault("mix", "sales:60,purchase:30,production:10").split(",");
+        mixTypes = new String[mix.length];
+        mixWeights = new int[mix.length];
+        int weightSum = 0;
+        for (int i = 0; i < mix.length; i++) {
+            String[] parts = mix[i].trim().split(":");
+            mixTypes[i] = parts[0].trim().toLowerCase();
+            if (!SALES.equals(mixTypes[i]) && !PURCHASE.equals(mixTypes[i]) && !PRODUCTION.equals(mixTypes[i])) {
+                throw new IllegalArgumentException("Unknown transaction type in --mix: " + parts[0]);
+            }
+            mixWeights[i] = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            weightSum += mixWeights[i];
+            stats.put(mixTypes[i], new TypeStats());
+        }
+        totalWeight = weightSum;
+
+        int productLimit = Integer.parseInt(options.getOrDefault("products", "0"));
+        int customerLimit = Integer.parseInt(options.getOrDefault("customers", "0"));
+
+        MasterDataCache cache = MasterDataCache.getInstance();
+        customers = limit(cache.getActiveCustomers(), customerLimit);
+        suppliers = cache.getActiveSuppliers();
+        rawProducts = limit(cache.getActiveProductsByType(Product.TYPE_RAW_PADDY), productLimit);
+        finishedProducts = limit(cache.getActiveProductsByType(Product.TYPE_FINISHED_RICE), productLimit);
+        saleableProducts = new ArrayList<>(finishedProducts);
+        saleableProducts.addAll(limit(cache.getActiveProductsByType(Product.TYPE_BY_PRODUCT), productLimit));
+        machines = cache.getActiveMachines();
+        operators = cache.getActiveStaff();
+
+        if (stats.containsKey(SALES) && (customers.isEmpty() || saleableProducts.isEmpty())) {
+            throw new IllegalArgumentException("Sales need at least one active customer and one finished or by-product");
+        }
+        if (stats.containsKey(PURCHASE) && (suppliers.isEmpty() || rawProducts.isEmpty())) {
+            throw new IllegalArgumentException("Purchases need at least one active supplier and one raw paddy product");
+        }
+        if (stats.containsKey(PRODUCTION) && (rawProducts.isEmpty() || finishedProducts.isEmpty()
+                || machines.isEmpty() || operators.isEmpty())) {
+            throw new IllegalArgumentException("Production needs raw paddy, finished rice, a machine and a staff member");
+        }
+    }
+
+    /**
+     * Run the load and print the report; returns false if the stock check fails
+     */
+    boolean run() {
+        Map<Integer, Double> startStock = readStock();
+        Map<Integer, Double> startLedger = readLedger();
+
+        ExecutorService executor = newExecutor(threads);
+        if (threads > DatabaseConnection.getPoolSize()) {
+            System.out.println("Note: " + threads + " workers share " + DatabaseConnection.getPoolSize()
+                + " connections; latency includes waiting for the pool");
+        }
+        System.out.println("Running " + threads + " workers on " + describeExecutor(executor)
+            + (transactionLimit > 0 ? " for " + transactionLimit + " transactions" : " for " + durationSeconds + " s")
+            + ", pool size " + DatabaseConnection.getPoolSize());
+
+        long started = System.nanoTime();
+        deadline = started + TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < threads; i++) {
+            final int workerIndex = i;
+            executor.submit(() -> runWorker(workerIndex));
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(durationSeconds + 600, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        printResults(elapsedSeconds);
+        return checkStockInvariant(startStock, startLedger, readStock(), readLedger());
+    }
+
+    private void runWorker(int workerIndex) {
+        Random random = new Random(seed + workerIndex * 7919L);
+        TransactionService service = new TransactionService();
+        Map<Integer, Double> movement = new HashMap<>();
+
+        while (hasMoreWork()) {
+            String type = pickType(random);
+            TypeStats typeStats = stats.get(type);
+            movement.clear();
+
+            long start = System.nanoTime();
+            boolean committed;
+            try {
+                if (SALES.equals(type)) {
+                    committed = runSale(service, random, movement);
+                } else if (PURCHASE.equals(type)) {
+                    committed = runPurchase(service, random, movement);
+                } else {
+                    committed = runProduction(service, random, movement);
+                }
+            } catch (RuntimeException e) {
+                typeStats.errors.increment();
+                committed = false;
+            }
+            typeStats.latencyMicros.record((System.nanoTime() - start) / 1000);
+
+            if (committed) {
+                typeStats.committed.increment();
+                for (Map.Entry<Integer, Double> entry : movement.entrySet()) {
+                    committedMovement.computeIfAbsent(entry.getKey(), k -> new DoubleAdder()).add(entry.getValue());
+                }
+            } else {
+                typeStats.rolledBack.increment();
+            }
+        }
+    }
+
+    private boolean runSale(TransactionService service, Random random, Map<Integer, Double> movement) {
+        Customer customer = customers.get(random.nextInt(customers.size()));
+        List<SalesItem> items = new ArrayList<>();
+        int itemCount = 1 + random.nextInt(3);
+        for (int i = 0; i < itemCount; i++) {
+            Product product = saleableProducts.get(random.nextInt(saleableProducts.size()));
+            double quantity = 1 + random.nextInt(20);
+            items.add(new SalesItem(product.getProductId(), quantity, product.getUnitPrice()));
+            movement.merge(product.getProductId(), -quantity, Double::sum);
+        }
+        return service.processSalesTransaction(customer.getCustomerId(), items, "Load test", "loadtest");
+    }
+
+    private boolean runPurchase(TransactionService service, Random random, Map<Integer, Double> movement) {
+        Supplier supplier = suppliers.get(random.nextInt(suppliers.size()));
+        List<PurchaseItem> items = new ArrayList<>();
+        int itemCount = 1 + random.nextInt(2);
+        for (int i = 0; i < itemCount; i++) {
+            Product product = rawProducts.get(random.nextInt(rawProducts.size()));
+            double quantity = 100 * (5 + random.nextInt(16));
+            items.add(new PurchaseItem(product.getProductId(), quantity, product.getUnitPrice()));
+            movement.merge(product.getProductId(), quantity, Double::sum);
+        }
+        return service.processPurchaseTransaction(supplier.getSupplierId(), items, "Load test", "loadtest");
+    }
+
+    private boolean runProduction(TransactionService service, Random random, Map<Integer, Double> movement) {
+        Product raw = rawProducts.get(random.nextInt(rawProducts.size()));
+        Product finished = finishedProducts.get(random.nextInt(finishedProducts.size()));
+        Machine machine = machines.get(random.nextInt(machines.size()));
+        Staff operator = operators.get(random.nextInt(operators.size()));
+
+        double input = 50 * (2 + random.nextInt(9));
+        // Typical milling yield of 60-70%
+        double output = Math.round(input * (0.60 + random.nextInt(11) / 100.0));
+        // and 2-5% of the input lost as waste
+        double waste = Math.round(input * (2 + random.nextInt(4)) / 100.0);
+        movement.merge(raw.getProductId(), -input, Double::sum);
+        movement.merge(finished.getProductId(), output, Double::sum);
+        return service.processProductionTransaction(raw.getProductId(), finished.getProductId(),
+            input, output, waste, machine.getMachineId(), operator.getStaffId(), "Load test");
+    }
+
+    private boolean hasMoreWork() {
+        if (transactionLimit > 0) {
+            return issued.getAndIncrement() < transactionLimit;
+        }
+        return System.nanoTime() < deadline;
+    }
+
+    private String pickType(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < mixTypes.length; i++) {
+            value -= mixWeights[i];
+            if (value < 0) {
+                return mixTypes[i];
+            }
+        }
+        return mixTypes[mixTypes.length - 1];
+    }
+
+    private void printResults(double elapsedSeconds) {
+        System.out.println();
+        System.out.println(String.format("=== Load test results (%.1f s) ===", elapsedSeconds));
+        System.out.println(String.format("%-11s %10s %12s %7s %10s %9s %9s %9s %9s",
+            "Type", "Committed", "Rolled back", "Errors", "Per min", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+
+        long totalCommitted = 0;
+        for (Map.Entry<String, TypeStats> entry : stats.entrySet()) {
+            TypeStats typeStats = entry.getValue();
+            LatencyHistogram latency = typeStats.latencyMicros;
+            long committed = typeStats.committed.sum();
+            totalCommitted += committed;
+            System.out.println(String.format("%-11s %10d %12d %7d %10.1f %9.1f %9.1f %9.1f %9.1f",
+                entry.getKey(), committed, typeStats.rolledBack.sum(), typeStats.errors.sum(),
+                committed * 60 / elapsedSeconds,
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(95) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getMax() / 1000.0));
+        }
+        System.out.println(String.format("Total committed: %d (%.1f per minute)",
+            totalCommitted, totalCommitted * 60 / elapsedSeconds));
+    }
+
+    /**
+     * Stock must have moved by exactly what the committed transactions moved
+     * it, and by what the item and production tables say
+     * (purchases - sales - production input + production output)
+     */
+    private boolean checkStockInvariant(Map<Integer, Double> startStock, Map<Integer, Double> startLedger,
+                                        Map<Integer, Double> endStock, Map<Integer, Double> endLedger) {
+        Set<Integer> productIds = new TreeSet<>(endStock.keySet());
+        productIds.addAll(committedMovement.keySet());
+
+        int failures = 0;
+        for (Integer productId : productIds) {
+            double stockMoved = endStock.getOrDefault(productId, 0.0) - startStock.getOrDefault(productId, 0.0);
+            double ledgerMoved = endLedger.getOrDefault(productId, 0.0) - startLedger.getOrDefault(productId, 0.0);
+            DoubleAdder committed = committedMovement.get(productId);
+            double committedMoved = committed != null ? committed.sum() : 0.0;
+
+            if (Math.abs(stockMoved - committedMoved) > TOLERANCE || Math.abs(stockMoved - ledgerMoved) > TOLERANCE) {
+                failures++;
+                System.out.println(String.format("  Product %d: stock moved %.2f, committed transactions %.2f, item tables %.2f",
+                    productId, stockMoved, committedMoved, ledgerMoved));
+            }
+        }
+
+        if (failures == 0) {
+            System.out.println("Stock invariant holds for " + productIds.size() + " products");
+            return true;
+        }
+        System.out.println("Stock invariant FAILED for " + failures + " of " + productIds.size() + " products");
+        return false;
+    }
+
+    private Map<Integer, Double> readStock() {
+        Map<Integer, Double> stock = new HashMap<>();
+        for (StockInventory item : new StockInventoryDAO().getAllStockItems()) {
+            stock.put(item.getProductId(), item.getCurrentQuantity());
+        }
+        return stock;
+    }
+
+    // Net quantity per product according to the item and production tables
+    private Map<Integer, Double> readLedger() {
+        String sql = "SELECT p.product_id, " +
+                     "COALESCE((SELECT SUM(quantity) FROM purchase_items WHERE product_id = p.product_id), 0) " +
+                     "- COALESCE((SELECT SUM(quantity) FROM sales_items WHERE product_id = p.product_id), 0) " +
+                     "- COALESCE((SELECT SUM(input_quantity) FROM production_records WHERE raw_product_id = p.product_id), 0) " +
+                     "+ COALESCE((SELECT SUM(output_quantity) FROM production_records WHERE finished_product_id = p.product_id), 0) " +
+                     "AS net_quantity FROM products p";
+        Map<Integer, Double> ledger = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ledger.put(rs.getInt("product_id"), rs.getDouble("net_quantity"));
+            }
+        } catch (SQLException e) {
+            System.out.println("Could not read item tables: " + e.getMessage());
+        }
+        return ledger;
+    }
+
+    // Virtual thread per task on Java 21+, otherwise one platform thread per worker
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    private static String describeExecutor(ExecutorService executor) {
+        return executor.getClass().getName().contains("ThreadPerTask") ? "virtual threads" : "platform threads";
+    }
+
+    private static <T> List<T> limit(List<T> list, int max) {
+        return max > 0 && list.size() > max ? new ArrayList<>(list.subList(0, max)) : new ArrayList<>(list);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+        return options;
+    }
+}
@@ -2,7 +2,11 @@ package com.pradeepmill.main;
 
 import com.pradeepmill.ui.LoginForm;
 import com.pradeepmill.ui.MainDashboard;
-import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.ui.SplashWindow;
+import com.pradeepmill.services.StartupService;
+import com.pradeepmill.monitoring.EdtWatchdog;
+import com.pradeepmill.monitoring.FlightRecording;
+import com.pradeepmill.utils.StartupTimeline;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.JOptionPane;
@@ -10,37 +14,79 @@ import javax.swing.JOptionPane;
 public class MainApplication {
     
     public static void main(String[] args) {
+        // Print the startup timeline with --timeline, record to JFR with --record
+        boolean record = FlightRecording.isRequested();
+        for (String arg : args) {
+            if ("--timeline".equals(arg)) {
+                StartupTimeline.setEnabled(true);
+            } else if ("--record".equals(arg)) {
+                record = true;
+            }
+        }
+        if (record) {
+            FlightRecording.start();
+        }
+        
         // Set Look and Feel
+        StartupTimeline.begin("Look and feel");
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeel());
         } catch (Exception e) {
             System.out.println("Could not set look and feel: " + e.getMessage());
         }
+        StartupTimeline.end("Look and feel");
+        
+        // Log UI stalls with the EDT stack and the SQL being run
+        if (EdtWatchdog.isEnabled()) {
+            EdtWatchdog.start();
+        }
+        
+        System.out.println("Starting Pradeep Rice Mill Management System...");
         
-        // Test database connection on startup
+        // Show the splash screen as soon as possible
+        SplashWindow[] splash = new SplashWindow[1];
         SwingUtilities.invokeLater(() -> {
-            System.out.println("Starting Pradeep Rice Mill Management System...");
-            
-            if (DatabaseConnection.testConnection()) {
-                System.out.println("Database connected successfully!");
-                
+            StartupTimeline.begin("Splash screen");
+            splash[0] = new SplashWindow();
+            splash[0].setStatus("Connecting to database...");
+            splash[0].setVisible(true);
+            StartupTimeline.end("Splash screen");
+        });
+        
+        // Connect and load the master data behind the splash screen; the dashboard
+        // figures keep loading in the background while the user logs in
+        StartupService.startWarmUp().thenRun(() -> SwingUtilities.invokeLater(() -> {
+            if (splash[0] != null) {
+                splash[0].setStatus("Loading data...");
+            }
+        }));
+        StartupService.whenDataReady().whenComplete((ignored, error) -> {
+            if (error != null) {
+                SwingUtilities.invokeLater(() -> {
+                    splash[0].dispose();
+                    JOptionPane.showMessageDialog(null, 
+                        "Could not connect to database.\n" +
+                        "Please check:\n" +
+                        "1. MySQL Server is running\n" +
+                        "2. Database 'pradeep_rice_mill' exists\n" +
+                        "3. Username and password are correct", 
+                        "Database Connection Error", 
+                        JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
                 // Option 1: Direct to Main Dashboard (for development/testing)
                 // new MainDashboard().setVisible(true);
                 
                 // Option 2: Show Login Form first (recommended for final version)
+                StartupTimeline.begin("Login form");
                 new LoginForm().setVisible(true);
+                StartupTimeline.end("Login form");
                 
-            } else {
-                JOptionPane.showMessageDialog(null, 
-                    "Could not connect to database.\n" +
-                    "Please check:\n" +
-                    "1. MySQL Server is running\n" +
-                    "2. Database 'pradeep_rice_mill' exists\n" +
-                    "3. Username and password are correct", 
-                    "Database Connection Error", 
-                    JOptionPane.ERROR_MESSAGE);
-                System.exit(1);
-            }
+                splash[0].dispose();
+            });
         });
     }
-}
\ No newline at end of file
+}
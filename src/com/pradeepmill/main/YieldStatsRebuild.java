@@ -0,0 +1,50 @@
+package com.pradeepmill.main;
+
+import com.pradeepmill.dao.ProductionYieldDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.LogLevel;
+import com.pradeepmill.logging.LogManager;
+import com.pradeepmill.services.ProductionYieldService;
+
+/**
+ * Command line front end for ProductionYieldService.rebuild: recomputes the
+ * production yield statistics from production_records. Run it once after
+ * applying db/production_yield.sql, and whenever records were changed
+ * outside the application (e.g. nightly).
+ *
+ *   java -cp ... com.pradeepmill.main.YieldStatsRebuild
+ *
+ * Exits with status 1 when the statistics are not installed or the rebuild
+ * failed.
+ */
+public class YieldStatsRebuild {
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.setLevel("com.pradeepmill", LogLevel.WARN);
+
+        int status;
+        try {
+            status = run();
+        } finally {
+            LogManager.flush();
+            DatabaseConnection.closeConnection();
+        }
+        System.exit(status);
+    }
+
+    private static int run() {
+        if (!ProductionYieldDAO.isStatsInstalled()) {
+            System.out.println("Yield statistics are not installed. Apply db/production_yield.sql first.");
+            return 1;
+        }
+
+        long started = System.currentTimeMillis();
+        if (!new ProductionYieldService().rebuild()) {
+            System.out.println("Rebuild failed; see the log for details.");
+            return 1;
+        }
+        System.out.println("Rebuilt the production yield statistics in " + (System.currentTimeMillis() - started) + " ms");
+        return 0;
+    }
+}
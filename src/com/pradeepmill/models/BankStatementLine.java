@@ -0,0 +1,121 @@
+package com.pradeepmill.models;
+
+import java.util.Date;
+
+public class BankStatementLine {
+    // Result of matching a line
+    public static final String STATUS_MATCHED = "Matched";
+    public static final String STATUS_AMBIGUOUS = "Ambiguous";
+    public static final String STATUS_AMOUNT_MISMATCH = "Amount Mismatch";
+    public static final String STATUS_UNRECORDED = "Unrecorded";
+    public static final String STATUS_UNMATCHED = "Unmatched";
+    public static final String STATUS_DUPLICATE = "Duplicate";
+    // Stored once a matched line has been applied
+    public static final String STATUS_POSTED = "Posted";
+    public static final String STATUS_RECONCILED = "Reconciled";
+
+    // How a matched line was found
+    public static final String MATCH_REFERENCE = "Reference";
+    public static final String MATCH_AMOUNT_DATE = "Amount and date";
+    public static final String MATCH_PARTY_AMOUNT = "Party and amount";
+
+    private int lineId;
+    private long lineNumber;          // line in the statement file
+    private String lineKey;           // bank transaction id, or a hash of the line
+    private Date transactionDate;
+    private double amount;            // positive money in (receipt), negative money out (payment)
+    private String description;
+    private String referenceNumber;
+    private String status;
+    private String matchMethod;
+    private int paymentId;            // 0 when not matched to a payment record
+    private int saleId;               // 0 when not matched to a sale
+    private int purchaseId;           // 0 when not matched to a purchase
+    private int customerId;           // 0 when no customer was identified
+    private int supplierId;           // 0 when no supplier was identified
+    private String note;
+    private String sourceFile;
+    private Date importedAt;
+
+    // Constructors
+    public BankStatementLine() {}
+
+    public BankStatementLine(long lineNumber, Date transactionDate, double amount, String description, String referenceNumber) {
+        this.lineNumber = lineNumber;
+        this.transactionDate = transactionDate;
+        this.amount = amount;
+        this.description = description;
+        this.referenceNumber = referenceNumber;
+    }
+
+    // Getters and Setters
+    public int getLineId() { return lineId; }
+    public void setLineId(int lineId) { this.lineId = lineId; }
+
+    public long getLineNumber() { return lineNumber; }
+    public void setLineNumber(long lineNumber) { this.lineNumber = lineNumber; }
+
+    public String getLineKey() { return lineKey; }
+    public void setLineKey(String lineKey) { this.lineKey = lineKey; }
+
+    public Date getTransactionDate() { return transactionDate; }
+    public void setTransactionDate(Date transactionDate) { this.transactionDate = transactionDate; }
+
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMatchMethod() { return matchMethod; }
+    public void setMatchMethod(String matchMethod) { this.matchMethod = matchMethod; }
+
+    public int getPaymentId() { return paymentId; }
+    public void setPaymentId(int paymentId) { this.paymentId = paymentId; }
+
+    public int getSaleId() { return saleId; }
+    public void setSaleId(int saleId) { this.saleId = saleId; }
+
+    public int getPurchaseId() { return purchaseId; }
+    public void setPurchaseId(int purchaseId) { this.purchaseId = purchaseId; }
+
+    public int getCustomerId() { return customerId; }
+    public void setCustomerId(int customerId) { this.customerId = customerId; }
+
+    public int getSupplierId() { return supplierId; }
+    public void setSupplierId(int supplierId) { this.supplierId = supplierId; }
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+
+    public String getSourceFile() { return sourceFile; }
+    public void setSourceFile(String sourceFile) { this.sourceFile = sourceFile; }
+
+    public Date getImportedAt() { return importedAt; }
+    public void setImportedAt(Date importedAt) { this.importedAt = importedAt; }
+
+    public boolean isReceipt() {
+        return amount > 0;
+    }
+
+    public boolean isMatched() {
+        return STATUS_MATCHED.equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return "BankStatementLine{" +
+                "lineNumber=" + lineNumber +
+                ", transactionDate=" + transactionDate +
+                ", amount=" + amount +
+                ", referenceNumber='" + referenceNumber + '\'' +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.pradeepmill.models;
+
+import java.util.Date;
+
+public class CustomerLedgerEntry {
+    public static final String TYPE_SALE = "Sale";
+    public static final String TYPE_PAYMENT = "Payment";
+    public static final String TYPE_ADJUSTMENT = "Adjustment";
+
+    private int entryId;
+    private int customerId;
+    private int saleId;             // 0 when the entry is not tied to a sale
+    private String entryType;
+    private double amount;          // positive increases what the customer owes
+    private double balanceAfter;
+    private String paymentMethod;
+    private String referenceNumber;
+    private Date entryDate;
+    private String notes;
+    private String createdBy;
+    private Date createdAt;
+
+    // Constructors
+    public CustomerLedgerEntry() {}
+
+    public CustomerLedgerEntry(int customerId, int saleId, String entryType, double amount, Date entryDate) {
+        this.customerId = customerId;
+        this.saleId = saleId;
+        this.entryType = entryType;
+        this.amount = amount;
+        this.entryDate = entryDate;
+    }
+
+    // Getters and Setters
+    public int getEntryId() { return entryId; }
+    public void setEntryId(int entryId) { this.entryId = entryId; }
+
+    public int getCustomerId() { return customerId; }
+    public void setCustomerId(int customerId) { this.customerId = customerId; }
+
+    public int getSaleId() { return saleId; }
+    public void setSaleId(int saleId) { this.saleId = saleId; }
+
+    public String getEntryType() { return entryType; }
+    public void setEntryType(String entryType) { this.entryType = entryType; }
+
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+
+    public double getBalanceAfter() { return balanceAfter; }
+    public void setBalanceAfter(double balanceAfter) { this.balanceAfter = balanceAfter; }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
+    public Date getEntryDate() { return entryDate; }
+    public void setEntryDate(Date entryDate) { this.entryDate = entryDate; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public boolean isPayment() {
+        return TYPE_PAYMENT.equals(entryType);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerLedgerEntry{" +
+                "entryId=" + entryId +
+                ", customerId=" + customerId +
+                ", saleId=" + saleId +
+                ", entryType='" + entryType + '\'' +
+                ", amount=" + amount +
+                ", balanceAfter=" + balanceAfter +
+                '}';
+    }
+}
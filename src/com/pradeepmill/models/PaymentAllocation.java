@@ -0,0 +1,84 @@
+package com.pradeepmill.models;
+
+import java.util.Date;
+
+public class PaymentAllocation {
+    public static final String PARTY_CUSTOMER = "Customer";
+    public static final String PARTY_SUPPLIER = "Supplier";
+
+    private int allocationId;
+    private String partyType;
+    private int partyId;
+    private String referenceNumber;
+    private double paymentAmount;
+    private double allocatedAmount;
+    private double unallocatedAmount;
+    private int orderCount;
+    private String strategy;
+    private String paymentMethod;
+    private Date paymentDate;
+    private String createdBy;
+    private Date createdAt;
+
+    // Constructors
+    public PaymentAllocation() {}
+
+    public PaymentAllocation(String partyType, int partyId, String referenceNumber, double paymentAmount) {
+        this.partyType = partyType;
+        this.partyId = partyId;
+        this.referenceNumber = referenceNumber;
+        this.paymentAmount = paymentAmount;
+    }
+
+    // Getters and Setters
+    public int getAllocationId() { return allocationId; }
+    public void setAllocationId(int allocationId) { this.allocationId = allocationId; }
+
+    public String getPartyType() { return partyType; }
+    public void setPartyType(String partyType) { this.partyType = partyType; }
+
+    public int getPartyId() { return partyId; }
+    public void setPartyId(int partyId) { this.partyId = partyId; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
+    public double getPaymentAmount() { return paymentAmount; }
+    public void setPaymentAmount(double paymentAmount) { this.paymentAmount = paymentAmount; }
+
+    public double getAllocatedAmount() { return allocatedAmount; }
+    public void setAllocatedAmount(double allocatedAmount) { this.allocatedAmount = allocatedAmount; }
+
+    public double getUnallocatedAmount() { return unallocatedAmount; }
+    public void setUnallocatedAmount(double unallocatedAmount) { this.unallocatedAmount = unallocatedAmount; }
+
+    public int getOrderCount() { return orderCount; }
+    public void setOrderCount(int orderCount) { this.orderCount = orderCount; }
+
+    public String getStrategy() { return strategy; }
+    public void setStrategy(String strategy) { this.strategy = strategy; }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public Date getPaymentDate() { return paymentDate; }
+    public void setPaymentDate(Date paymentDate) { this.paymentDate = paymentDate; }
+
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    @Override
+    public String toString() {
+        return "PaymentAllocation{" +
+                "partyType='" + partyType + '\'' +
+                ", partyId=" + partyId +
+                ", referenceNumber='" + referenceNumber + '\'' +
+                ", paymentAmount=" + paymentAmount +
+                ", allocatedAmount=" + allocatedAmount +
+                ", orderCount=" + orderCount +
+                '}';
+    }
+}
@@ -0,0 +1,224 @@
+package com.pradeepmill.models;
+
+import java.util.Date;
+
+/**
+ * Running statistics of the production runs of one machine, product pair,
+ * operator or the whole mill over one period (lifetime, week, day or
+ * shift). Means and variances are kept with Welford's method: each metric
+ * has its mean and its sum of squared differences from the mean (m2).
+ */
+public class ProductionYieldStats {
+    public static final String DIMENSION_ALL = "All";
+    public static final String DIMENSION_MACHINE = "Machine";
+    public static final String DIMENSION_PRODUCT = "Product";
+    public static final String DIMENSION_OPERATOR = "Operator";
+
+    public static final String PERIOD_LIFETIME = "Lifetime";
+    public static final String PERIOD_WEEK = "Week";
+    public static final String PERIOD_DAY = "Day";
+    public static final String PERIOD_SHIFT = "Shift";
+
+    private String dimension;
+    private int dimensionId;
+    private int finishedProductId;
+    private String period;
+    private Date periodStart;
+    private int shift;
+    private int runs;
+    private double totalInput;
+    private double totalOutput;
+    private double totalWaste;
+    private double conversionMean;
+    private double conversionM2;
+    private double wasteMean;
+    private double wasteM2;
+    private double outputMean;
+    private double outputM2;
+
+    // Display fields (joined)
+    private String name;
+    private String finishedProductName;
+
+    // Constructors
+    public ProductionYieldStats() {}
+
+    public ProductionYieldStats(String dimension, int dimensionId, int finishedProductId) {
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.finishedProductId = finishedProductId;
+    }
+
+    /**
+     * Add one run: Welford's update of each mean and m2
+     */
+    public void addRun(double inputQuantity, double outputQuantity, double wasteQuantity) {
+        if (inputQuantity <= 0) {
+            return;
+        }
+        runs++;
+        totalInput += inputQuantity;
+        totalOutput += outputQuantity;
+        totalWaste += wasteQuantity;
+
+        double conversion = outputQuantity / inputQuantity * 100;
+        double delta = conversion - conversionMean;
+        conversionMean += delta / runs;
+        conversionM2 += delta * (conversion - conversionMean);
+
+        double waste = wasteQuantity / inputQuantity * 100;
+        delta = waste - wasteMean;
+        wasteMean += delta / runs;
+        wasteM2 += delta * (waste - wasteMean);
+
+        delta = outputQuantity - outputMean;
+        outputMean += delta / runs;
+        outputM2 += delta * (outputQuantity - outputMean);
+    }
+
+    /**
+     * Fold another set of runs into this one (Chan et al.'s pairwise
+     * combination), e.g. the days of a rolling window
+     */
+    public void merge(ProductionYieldStats other) {
+        if (other.runs == 0) {
+            return;
+        }
+        if (runs == 0) {
+            runs = other.runs;
+            totalInput = other.totalInput;
+            totalOutput = other.totalOutput;
+            totalWaste = other.totalWaste;
+            conversionMean = other.conversionMean;
+            conversionM2 = other.conversionM2;
+            wasteMean = other.wasteMean;
+            wasteM2 = other.wasteM2;
+            outputMean = other.outputMean;
+            outputM2 = other.outputM2;
+            return;
+        }
+
+        double n = runs + other.runs;
+        double weight = (double) runs * other.runs / n;
+
+        double delta = other.conversionMean - conversionMean;
+        conversionMean += delta * other.runs / n;
+        conversionM2 += other.conversionM2 + delta * delta * weight;
+
+        delta = other.wasteMean - wasteMean;
+        wasteMean += delta * other.runs / n;
+        wasteM2 += other.wasteM2 + delta * delta * weight;
+
+        delta = other.outputMean - outputMean;
+        outputMean += delta * other.runs / n;
+        outputM2 += other.outputM2 + delta * delta * weight;
+
+        runs += other.runs;
+        totalInput += other.totalInput;
+        totalOutput += other.totalOutput;
+        totalWaste += other.totalWaste;
+    }
+
+    // Sample standard deviation of the run conversion rates (0 with fewer than two runs)
+    public double getConversionStdDev() {
+        return runs > 1 ? Math.sqrt(Math.max(conversionM2, 0) / (runs - 1)) : 0;
+    }
+
+    public double getWasteStdDev() {
+        return runs > 1 ? Math.sqrt(Math.max(wasteM2, 0) / (runs - 1)) : 0;
+    }
+
+    public double getOutputStdDev() {
+        return runs > 1 ? Math.sqrt(Math.max(outputM2, 0) / (runs - 1)) : 0;
+    }
+
+    // Conversion rate of all input together (total output / total input %)
+    public double getOverallConversionRate() {
+        return totalInput > 0 ? totalOutput / totalInput * 100 : 0;
+    }
+
+    public double getOverallWastePercent() {
+        return totalInput > 0 ? totalWaste / totalInput * 100 : 0;
+    }
+
+    // Getters and Setters
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+
+    public int getDimensionId() { return dimensionId; }
+    public void setDimensionId(int dimensionId) { this.dimensionId = dimensionId; }
+
+    public int getFinishedProductId() { return finishedProductId; }
+    public void setFinishedProductId(int finishedProductId) { this.finishedProductId = finishedProductId; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public Date getPeriodStart() { return periodStart; }
+    public void setPeriodStart(Date periodStart) { this.periodStart = periodStart; }
+
+    public int getShift() { return shift; }
+    public void setShift(int shift) { this.shift = shift; }
+
+    public int getRuns() { return runs; }
+    public void setRuns(int runs) { this.runs = runs; }
+
+    public double getTotalInput() { return totalInput; }
+    public void setTotalInput(double totalInput) { this.totalInput = totalInput; }
+
+    public double getTotalOutput() { return totalOutput; }
+    public void setTotalOutput(double totalOutput) { this.totalOutput = totalOutput; }
+
+    public double getTotalWaste() { return totalWaste; }
+    public void setTotalWaste(double totalWaste) { this.totalWaste = totalWaste; }
+
+    public double getConversionMean() { return conversionMean; }
+    public void setConversionMean(double conversionMean) { this.conversionMean = conversionMean; }
+
+    public double getConversionM2() { return conversionM2; }
+    public void setConversionM2(double conversionM2) { this.conversionM2 = conversionM2; }
+
+    public double getWasteMean() { return wasteMean; }
+    public void setWasteMean(double wasteMean) { this.wasteMean = wasteMean; }
+
+    public double getWasteM2() { return wasteM2; }
+    public void setWasteM2(double wasteM2) { this.wasteM2 = wasteM2; }
+
+    public double getOutputMean() { return outputMean; }
+    public void setOutputMean(double outputMean) { this.outputMean = outputMean; }
+
+    public double getOutputM2() { return outputM2; }
+    public void setOutputM2(double outputM2) { this.outputM2 = outputM2; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getFinishedProductName() { return finishedProductName; }
+    public void setFinishedProductName(String finishedProductName) { this.finishedProductName = finishedProductName; }
+
+    // Display name, "Raw -> Finished" for product pairs
+    public String getDisplayName() {
+        if (DIMENSION_ALL.equals(dimension)) {
+            return "All production";
+        }
+        String base = name != null ? name : dimension + " " + dimensionId;
+        if (DIMENSION_PRODUCT.equals(dimension)) {
+            return base + " -> " + (finishedProductName != null ? finishedProductName : "Product " + finishedProductId);
+        }
+        return base;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductionYieldStats{" +
+                "dimension='" + dimension + '\'' +
+                ", dimensionId=" + dimensionId +
+                ", finishedProductId=" + finishedProductId +
+                ", period='" + period + '\'' +
+                ", periodStart=" + periodStart +
+                ", shift=" + shift +
+                ", runs=" + runs +
+                ", conversionMean=" + conversionMean +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.pradeepmill.models;
+
+public class SalaryPayment {
+    public static final String STATUS_PAID = "Paid";
+
+    private int paymentId;
+    private int staffId;
+    private String paymentMonth;
+    private double basicSalary;
+    private double overtimeHours;
+    private double overtimeAmount;
+    private double absentDays;
+    private double bonus;
+    private double deductions;
+    private double netSalary;
+    private String paymentStatus = STATUS_PAID;
+
+    // Constructors
+    public SalaryPayment() {}
+
+    public SalaryPayment(int staffId, String paymentMonth, double basicSalary, double bonus) {
+        this.staffId = staffId;
+        this.paymentMonth = paymentMonth;
+        this.basicSalary = basicSalary;
+        this.bonus = bonus;
+        this.netSalary = basicSalary + bonus;
+    }
+
+    // Getters and Setters
+    public int getPaymentId() { return paymentId; }
+    public void setPaymentId(int paymentId) { this.paymentId = paymentId; }
+
+    public int getStaffId() { return staffId; }
+    public void setStaffId(int staffId) { this.staffId = staffId; }
+
+    public String getPaymentMonth() { return paymentMonth; }
+    public void setPaymentMonth(String paymentMonth) { this.paymentMonth = paymentMonth; }
+
+    public double getBasicSalary() { return basicSalary; }
+    public void setBasicSalary(double basicSalary) { this.basicSalary = basicSalary; }
+
+    public double getOvertimeHours() { return overtimeHours; }
+    public void setOvertimeHours(double overtimeHours) { this.overtimeHours = overtimeHours; }
+
+    public double getOvertimeAmount() { return overtimeAmount; }
+    public void setOvertimeAmount(double overtimeAmount) { this.overtimeAmount = overtimeAmount; }
+
+    public double getAbsentDays() { return absentDays; }
+    public void setAbsentDays(double absentDays) { this.absentDays = absentDays; }
+
+    public double getBonus() { return bonus; }
+    public void setBonus(double bonus) { this.bonus = bonus; }
+
+    public double getDeductions() { return deductions; }
+    public void setDeductions(double deductions) { this.deductions = deductions; }
+
+    public double getNetSalary() { return netSalary; }
+    public void setNetSalary(double netSalary) { this.netSalary = netSalary; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    @Override
+    public String toString() {
+        return "SalaryPayment{" +
+                "staffId=" + staffId +
+                ", paymentMonth='" + paymentMonth + '\'' +
+                ", basicSalary=" + basicSalary +
+                ", bonus=" + bonus +
+                ", netSalary=" + netSalary +
+                '}';
+    }
+}
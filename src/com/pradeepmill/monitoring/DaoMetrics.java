@@ -0,0 +1,39 @@
+package com.pradeepmill.monitoring;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts DAO method calls. Every DAO method borrows one connection, so the
+ * connection pool calls recordCall() and the calling DAO method is found by
+ * walking the stack. Published as dao.&lt;Class&gt;.&lt;method&gt;.
+ */
+public class DaoMetrics {
+
+    private static final String DAO_PACKAGE = "com.pradeepmill.dao.";
+
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    // Counters per DAO class, then per method name
+    private static final ClassValue<Map<String, MetricsRegistry.Counter>> countersByClass = new ClassValue<>() {
+        @Override
+        protected Map<String, MetricsRegistry.Counter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public static void recordCall() {
+        Optional<StackWalker.StackFrame> frame = walker.walk(frames -> frames
+            .filter(f -> f.getClassName().startsWith(DAO_PACKAGE))
+            .findFirst());
+        if (frame.isPresent()) {
+            StackWalker.StackFrame daoFrame = frame.get();
+            Class<?> daoClass = daoFrame.getDeclaringClass();
+            countersByClass.get(daoClass)
+                .computeIfAbsent(daoFrame.getMethodName(),
+                    method -> MetricsRegistry.counter("dao." + daoClass.getSimpleName() + "." + method))
+                .increment();
+        }
+    }
+}
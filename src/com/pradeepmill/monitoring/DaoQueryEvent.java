@@ -0,0 +1,35 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one SQL execution, from execute until its results are read
+ */
+@Name("com.pradeepmill.DaoQuery")
+@Label("DAO Query")
+@Category({"Pradeep Rice Mill", "Database"})
+@Description("One SQL statement execution including reading its results")
+public class DaoQueryEvent extends jdk.jfr.Event {
+
+    @Label("SQL")
+    @Description("Normalized SQL text")
+    public String sql;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Execute Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long executeTime;
+
+    @Label("Mapping Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long mappingTime;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,179 @@
+package com.pradeepmill.monitoring;
+
+import com.pradeepmill.logging.LogManager;
+import com.pradeepmill.logging.Logger;
+import java.awt.Dialog;
+import java.awt.KeyboardFocusManager;
+import java.awt.Window;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures Event Dispatch Thread responsiveness. A daemon thread posts a
+ * heartbeat to the EDT and checks how long it waits to run. When the EDT is
+ * blocked longer than the threshold, the EDT stack and the SQL statement it is
+ * running are logged, and the stall duration is added to a histogram for the
+ * screen that was active.
+ *
+ * Enabled by default; -Dpradeepmill.edtWatchdog=false turns it off and
+ * -Dpradeepmill.edtWatchdog.thresholdMs=N changes the threshold (200 ms).
+ */
+public class EdtWatchdog {
+
+    private static final Logger LOG = Logger.getLogger(EdtWatchdog.class);
+
+    private static final long THRESHOLD_MS = Long.getLong("pradeepmill.edtWatchdog.thresholdMs", 200);
+    private static final long CHECK_INTERVAL_MS = 50;
+    private static final int MAX_STACK_FRAMES = 30;
+
+    private static volatile Thread watchdogThread;
+    private static volatile Thread edtThread;
+    private static volatile String currentScreen;
+
+    // Time the pending heartbeat was posted, 0 when none is pending
+    private static final AtomicLong heartbeatPostedNanos = new AtomicLong();
+    private static final AtomicReference<Stall> currentStall = new AtomicReference<>();
+    private static final Map<String, LatencyHistogram> stallsByScreen = new ConcurrentHashMap<>();
+
+    private static class Stall {
+        final String screen;
+        final long postedNanos;
+
+        Stall(String screen, long postedNanos) {
+            this.screen = screen;
+            this.postedNanos = postedNanos;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("pradeepmill.edtWatchdog"));
+    }
+
+    public static synchronized void start() {
+        if (watchdogThread != null) {
+            return;
+        }
+        watchdogThread = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!stallsByScreen.isEmpty()) {
+                LOG.info("EDT stalls by screen:\n{}", formatStallHistograms());
+                LogManager.flush();
+            }
+        }, "edt-watchdog-summary"));
+        LOG.info("EDT watchdog started (threshold {} ms)", THRESHOLD_MS);
+    }
+
+    public static synchronized void stop() {
+        if (watchdogThread != null) {
+            watchdogThread.interrupt();
+            watchdogThread = null;
+        }
+    }
+
+    /**
+     * Name the screen shown in the main window, e.g. "MainDashboard/stock".
+     * Stalls while a dialog has focus are counted against the dialog instead.
+     */
+    public static void setCurrentScreen(String screen) {
+        currentScreen = screen;
+    }
+
+    public static long getThresholdMillis() {
+        return THRESHOLD_MS;
+    }
+
+    // Stall durations (ms) per screen
+    public static Map<String, LatencyHistogram> getStallHistograms() {
+        return new TreeMap<>(stallsByScreen);
+    }
+
+    public static String formatStallHistograms() {
+        StringBuilder sb = new StringBuilder("EDT stalls over " + THRESHOLD_MS + " ms by screen:\n");
+        for (Map.Entry<String, LatencyHistogram> entry : getStallHistograms().entrySet()) {
+            sb.append(String.format("  %-40s %s%n", entry.getKey(), entry.getValue().summary("ms")));
+        }
+        return sb.toString();
+    }
+
+    private static void watch() {
+        Runnable heartbeat = EdtWatchdog::heartbeat;
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            long posted = heartbeatPostedNanos.get();
+            if (posted == 0) {
+                heartbeatPostedNanos.set(now);
+                SwingUtilities.invokeLater(heartbeat);
+            } else if (currentStall.get() == null && (now - posted) / 1_000_000 >= THRESHOLD_MS) {
+                Stall stall = new Stall(describeScreen(), posted);
+                if (currentStall.compareAndSet(null, stall)) {
+                    reportStall(stall, now);
+                }
+            }
+            try {
+                Thread.sleep(CHECK_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Runs on the EDT
+    private static void heartbeat() {
+        edtThread = Thread.currentThread();
+        long posted = heartbeatPostedNanos.getAndSet(0);
+        Stall stall = currentStall.getAndSet(null);
+        if (posted == 0) {
+            return;
+        }
+        long delayMs = (System.nanoTime() - posted) / 1_000_000;
+        if (delayMs >= THRESHOLD_MS) {
+            String screen = stall != null ? stall.screen : describeScreen();
+            stallsByScreen.computeIfAbsent(screen, s -> new LatencyHistogram()).record(delayMs);
+            LOG.info("EDT stall ended on {} after {} ms", screen, delayMs);
+        }
+    }
+
+    private static void reportStall(Stall stall, long nowNanos) {
+        Thread edt = edtThread;
+        StringBuilder sb = new StringBuilder();
+        sb.append("EDT blocked for ").append((nowNanos - stall.postedNanos) / 1_000_000)
+          .append(" ms on ").append(stall.screen).append('\n');
+
+        if (edt == null) {
+            sb.append("  (EDT not seen yet)\n");
+        } else {
+            SqlActivity.Activity sql = SqlActivity.current(edt);
+            if (sql != null) {
+                sb.append("  SQL in flight (").append(sql.getElapsedMillis()).append(" ms): ")
+                  .append(sql.getSql().replaceAll("\\s+", " ").trim()).append('\n');
+            }
+            StackTraceElement[] stack = edt.getStackTrace();
+            int frames = Math.min(stack.length, MAX_STACK_FRAMES);
+            for (int i = 0; i < frames; i++) {
+                sb.append("    at ").append(stack[i]).append('\n');
+            }
+            if (stack.length > frames) {
+                sb.append("    ... ").append(stack.length - frames).append(" more\n");
+            }
+        }
+        LOG.warn(sb.toString().trim());
+    }
+
+    private static String describeScreen() {
+        Window active = KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow();
+        if (active instanceof Dialog) {
+            return active.getClass().getSimpleName().isEmpty() ? "Dialog" : active.getClass().getSimpleName();
+        }
+        if (currentScreen != null) {
+            return currentScreen;
+        }
+        return active != null ? active.getClass().getSimpleName() : "No window";
+    }
+}
@@ -0,0 +1,79 @@
+package com.pradeepmill.monitoring;
+
+import com.pradeepmill.logging.Logger;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.Date;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts a JDK Flight Recorder recording with the bundled pradeepmill.jfc
+ * profile: the application's business events plus GC, lock, thread and I/O
+ * events, so a day's trading can be opened in JDK Mission Control. The
+ * recording keeps the last 24 hours on disk and is written out when the
+ * application exits.
+ *
+ * Start with the --record argument or -Dpradeepmill.jfr=true; the file name
+ * can be set with -Dpradeepmill.jfr.file (default pradeepmill-yyyyMMdd-HHmmss.jfr).
+ * The same profile also works without the application's help:
+ * java -XX:StartFlightRecording=settings=pradeepmill.jfc,...
+ */
+public class FlightRecording {
+
+    private static final Logger LOG = Logger.getLogger(FlightRecording.class);
+
+    private static final String PROFILE = "pradeepmill.jfc";
+
+    private static Recording recording;
+
+    public static boolean isRequested() {
+        return Boolean.getBoolean("pradeepmill.jfr");
+    }
+
+    public static synchronized void start() {
+        if (recording != null) {
+            return;
+        }
+        try (InputStream in = FlightRecording.class.getResourceAsStream(PROFILE)) {
+            if (in == null) {
+                LOG.warn("Flight recording profile {} not found", PROFILE);
+                return;
+            }
+            Configuration configuration;
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                configuration = Configuration.create(reader);
+            }
+
+            Path destination = Paths.get(System.getProperty("pradeepmill.jfr.file",
+                "pradeepmill-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".jfr"));
+
+            Recording newRecording = new Recording(configuration);
+            newRecording.setName("Pradeep Rice Mill");
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(Duration.ofHours(24));
+            newRecording.setDestination(destination);
+            newRecording.setDumpOnExit(true);
+            newRecording.start();
+            recording = newRecording;
+            LOG.info("Flight recording started, writing to {} on exit", destination.toAbsolutePath());
+        } catch (Exception e) {
+            LOG.warn("Could not start flight recording", e);
+        }
+    }
+
+    // Stop the recording and write it to its destination
+    public static synchronized void stop() {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+            recording = null;
+        }
+    }
+}
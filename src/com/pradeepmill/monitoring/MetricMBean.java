@@ -0,0 +1,103 @@
+package com.pradeepmill.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Read-only MBean view of one metric. Timers also offer a reset operation.
+ */
+class MetricMBean implements DynamicMBean {
+
+    private final Object metric;
+    private final Map<String, Supplier<Object>> attributes = new LinkedHashMap<>();
+    private final MBeanInfo info;
+
+    MetricMBean(String name, Object metric) {
+        this.metric = metric;
+
+        if (metric instanceof MetricsRegistry.Counter) {
+            MetricsRegistry.Counter counter = (MetricsRegistry.Counter) metric;
+            attributes.put("Count", counter::getCount);
+        } else if (metric instanceof MetricsRegistry.Gauge) {
+            MetricsRegistry.Gauge gauge = (MetricsRegistry.Gauge) metric;
+            attributes.put("Value", () -> gauge.getValue().doubleValue());
+        } else if (metric instanceof MetricsRegistry.Timer) {
+            MetricsRegistry.Timer timer = (MetricsRegistry.Timer) metric;
+            attributes.put("Count", timer::getCount);
+            attributes.put("LastMinuteCount", timer::getLastMinuteCount);
+            attributes.put("MeanMillis", timer::getMeanMillis);
+            attributes.put("P50Millis", () -> timer.getPercentileMillis(50));
+            attributes.put("P95Millis", () -> timer.getPercentileMillis(95));
+            attributes.put("P99Millis", () -> timer.getPercentileMillis(99));
+            attributes.put("MaxMillis", timer::getMaxMillis);
+        }
+
+        MBeanAttributeInfo[] attributeInfo = new MBeanAttributeInfo[attributes.size()];
+        int i = 0;
+        for (String attribute : attributes.keySet()) {
+            String type = attribute.endsWith("Millis") || attribute.equals("Value") ? "double" : "long";
+            attributeInfo[i++] = new MBeanAttributeInfo(attribute, type, attribute, true, false, false);
+        }
+
+        MBeanOperationInfo[] operations = metric instanceof MetricsRegistry.Timer
+            ? new MBeanOperationInfo[]{new MBeanOperationInfo("reset", "Clear the latency histogram",
+                null, "void", MBeanOperationInfo.ACTION)}
+            : new MBeanOperationInfo[0];
+
+        this.info = new MBeanInfo(metric.getClass().getName(), name, attributeInfo, null, operations, null);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Supplier<Object> value = attributes.get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.get();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Supplier<Object> value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value.get()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName) && metric instanceof MetricsRegistry.Timer) {
+            ((MetricsRegistry.Timer) metric).reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+}
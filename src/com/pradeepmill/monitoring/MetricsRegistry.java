@@ -0,0 +1,187 @@
+package com.pradeepmill.monitoring;
+
+import com.pradeepmill.logging.Logger;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Application metrics (counters, gauges and timers) published as MBeans in
+ * the platform MBean server under the "com.pradeepmill" domain, so they can be
+ * watched in JConsole or VisualVM. Metrics are created on first use and live
+ * for the whole run; look them up once and keep them in a static field on
+ * hot paths.
+ */
+public class MetricsRegistry {
+
+    private static final Logger LOG = Logger.getLogger(MetricsRegistry.class);
+
+    static final String DOMAIN = "com.pradeepmill";
+
+    private static final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Monotonic event count
+     */
+    public static class Counter {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Value read on demand, e.g. pool size or cache hit ratio
+     */
+    public static class Gauge {
+        private final Supplier<? extends Number> value;
+
+        Gauge(Supplier<? extends Number> value) {
+            this.value = value;
+        }
+
+        public Number getValue() {
+            try {
+                return value.get();
+            } catch (RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Latency histogram (microseconds) plus throughput over the last minute
+     */
+    public static class Timer {
+        private final LatencyHistogram micros = new LatencyHistogram();
+        // One slot per second of the last minute
+        private final AtomicLongArray slotSecond = new AtomicLongArray(60);
+        private final AtomicLongArray slotCount = new AtomicLongArray(60);
+
+        // Start time for stop(); just System.nanoTime()
+        public long start() {
+            return System.nanoTime();
+        }
+
+        // Record the time since start and return the current time, so phases can be chained
+        public long stop(long startNanos) {
+            long now = System.nanoTime();
+            recordNanos(now - startNanos);
+            return now;
+        }
+
+        public void recordNanos(long nanos) {
+            micros.record(nanos / 1000);
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % 60);
+            long slotStart = slotSecond.get(slot);
+            if (slotStart != second && slotSecond.compareAndSet(slot, slotStart, second)) {
+                slotCount.set(slot, 0);
+            }
+            slotCount.incrementAndGet(slot);
+        }
+
+        public long getCount() {
+            return micros.getCount();
+        }
+
+        public long getLastMinuteCount() {
+            long now = System.currentTimeMillis() / 1000;
+            long total = 0;
+            for (int i = 0; i < 60; i++) {
+                if (now - slotSecond.get(i) < 60) {
+                    total += slotCount.get(i);
+                }
+            }
+            return total;
+        }
+
+        public double getMeanMillis() {
+            return micros.getMean() / 1000.0;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            return micros.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double getMaxMillis() {
+            return micros.getMax() / 1000.0;
+        }
+
+        public void reset() {
+            micros.reset();
+        }
+    }
+
+    public static Counter counter(String name) {
+        return register(name, "Counter", Counter.class, Counter::new);
+    }
+
+    public static Gauge gauge(String name, Supplier<? extends Number> value) {
+        return register(name, "Gauge", Gauge.class, () -> new Gauge(value));
+    }
+
+    public static Timer timer(String name) {
+        return register(name, "Timer", Timer.class, Timer::new);
+    }
+
+    // Ratio of hits to all lookups, as a gauge
+    public static Gauge hitRatio(String name, Counter hits, Counter misses) {
+        return gauge(name, () -> {
+            long h = hits.getCount();
+            long total = h + misses.getCount();
+            return total == 0 ? 0.0 : (double) h / total;
+        });
+    }
+
+    // Snapshot of every metric, for logging or tests
+    public static Map<String, Object> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    private static <T> T register(String name, String type, Class<T> metricClass, Supplier<T> factory) {
+        Object existing = metrics.get(name);
+        if (existing == null) {
+            synchronized (metrics) {
+                existing = metrics.get(name);
+                if (existing == null) {
+                    existing = factory.get();
+                    metrics.put(name, existing);
+                    publish(name, type, existing);
+                }
+            }
+        }
+        if (!metricClass.isInstance(existing)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + existing.getClass().getSimpleName());
+        }
+        return metricClass.cast(existing);
+    }
+
+    private static void publish(String name, String type, Object metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + "s,name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new MetricMBean(name, metric), objectName);
+            }
+        } catch (Exception | LinkageError e) {
+            // JMX is optional; metrics still work without it
+            LOG.warn("Could not publish metric {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for showing a dashboard screen, from the menu click until it has
+ * been painted
+ */
+@Name("com.pradeepmill.PanelLoad")
+@Label("Panel Load")
+@Category({"Pradeep Rice Mill", "User Interface"})
+public class PanelLoadEvent extends jdk.jfr.Event {
+
+    @Label("Panel")
+    public String panel;
+
+    @Label("Title")
+    public String title;
+
+    @Label("First Build")
+    @Description("True if the screen was constructed, false if a cached screen was reused")
+    public boolean firstBuild;
+}
@@ -0,0 +1,34 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for TransactionService.processProductionTransaction
+ */
+@Name("com.pradeepmill.ProductionTransaction")
+@Label("Production Transaction")
+@Category({"Pradeep Rice Mill", "Transactions"})
+@Description("A production run converting raw paddy into finished rice")
+public class ProductionTransactionEvent extends jdk.jfr.Event {
+
+    @Label("Production Number")
+    public String productionNumber;
+
+    @Label("Machine ID")
+    public int machineId;
+
+    @Label("Input Quantity")
+    public double inputQuantity;
+
+    @Label("Output Quantity")
+    public double outputQuantity;
+
+    @Label("Committed")
+    public boolean committed;
+
+    @Label("Failure")
+    public String failure;
+}
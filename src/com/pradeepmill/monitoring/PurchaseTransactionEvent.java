@@ -0,0 +1,34 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for TransactionService.processPurchaseTransaction
+ */
+@Name("com.pradeepmill.PurchaseTransaction")
+@Label("Purchase Transaction")
+@Category({"Pradeep Rice Mill", "Transactions"})
+@Description("A purchase posted with its items and stock increases")
+public class PurchaseTransactionEvent extends jdk.jfr.Event {
+
+    @Label("Purchase Number")
+    public String purchaseNumber;
+
+    @Label("Supplier ID")
+    public int supplierId;
+
+    @Label("Items")
+    public int itemCount;
+
+    @Label("Total Amount")
+    public double totalAmount;
+
+    @Label("Committed")
+    public boolean committed;
+
+    @Label("Failure")
+    public String failure;
+}
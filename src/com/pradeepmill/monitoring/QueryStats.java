@@ -0,0 +1,237 @@
+package com.pradeepmill.monitoring;
+
+import com.pradeepmill.logging.Logger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement SQL statistics collected by the instrumented JDBC wrappers.
+ * Statements are grouped by normalized SQL (literals replaced by ?, IN lists
+ * collapsed, whitespace squeezed), so every call of a DAO method lands in the
+ * same entry.
+ *
+ * -Dpradeepmill.sql.instrument=true  collect the statistics (off by default)
+ * -Dpradeepmill.sql.slowMs=N         slow-query log threshold (500 ms)
+ * -Dpradeepmill.sql.explain=true     also log EXPLAIN for slow SELECTs
+ * -Dpradeepmill.sql.maxStatements=N  statements kept (500); when full, the
+ *                                    one with the least total time is dropped
+ */
+public class QueryStats {
+
+    private static final Logger LOG = Logger.getLogger(QueryStats.class);
+
+    // Normalized forms are cached per raw SQL string; DAO SQL is a fixed set
+    private static final int MAX_CACHED_NORMALIZATIONS = 2000;
+    private static final long EXPLAIN_INTERVAL_MS = 10 * 60 * 1000;
+    private static final int MAX_STATEMENTS = Integer.getInteger("pradeepmill.sql.maxStatements", 500);
+    private static final boolean ENABLED = Boolean.getBoolean("pradeepmill.sql.instrument");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile long slowThresholdMillis = Long.getLong("pradeepmill.sql.slowMs", 500);
+    private static volatile boolean explainSlowQueries = Boolean.getBoolean("pradeepmill.sql.explain");
+
+    private static final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private static final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Totals and latency histograms for one normalized statement. Times are
+     * kept in microseconds.
+     */
+    public static class StatementStats {
+        private final String sql;
+        private final LatencyHistogram executeMicros = new LatencyHistogram();
+        private final LatencyHistogram mappingMicros = new LatencyHistogram();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong slowCount = new AtomicLong();
+        private volatile String lastExplain;
+        private volatile long lastExplainMillis;
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCalls() {
+            return executeMicros.getCount();
+        }
+
+        public LatencyHistogram getExecuteMicros() {
+            return executeMicros;
+        }
+
+        public LatencyHistogram getMappingMicros() {
+            return mappingMicros;
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getSlowCount() {
+            return slowCount.get();
+        }
+
+        // Total execute time in milliseconds
+        public double getTotalMillis() {
+            return executeMicros.getMean() * executeMicros.getCount() / 1000.0;
+        }
+
+        public String getLastExplain() {
+            return lastExplain;
+        }
+    }
+
+    // Whether statements are instrumented; fixed at startup
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    public static void setSlowThresholdMillis(long millis) {
+        slowThresholdMillis = millis;
+    }
+
+    public static boolean isExplainSlowQueries() {
+        return explainSlowQueries;
+    }
+
+    public static void setExplainSlowQueries(boolean value) {
+        explainSlowQueries = value;
+    }
+
+    public static String normalize(String sql) {
+        String result = normalized.get(sql);
+        if (result == null) {
+            result = STRING_LITERAL.matcher(sql).replaceAll("?");
+            result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+            result = IN_LIST.matcher(result).replaceAll("IN (?)");
+            result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+            if (normalized.size() < MAX_CACHED_NORMALIZATIONS) {
+                normalized.put(sql, result);
+            }
+        }
+        return result;
+    }
+
+    public static StatementStats statsFor(String normalizedSql) {
+        StatementStats stats = statements.get(normalizedSql);
+        if (stats == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                evictLeastExpensive();
+            }
+            stats = statements.computeIfAbsent(normalizedSql, StatementStats::new);
+        }
+        return stats;
+    }
+
+    // Drop the statement with the least total execute time to make room
+    private static void evictLeastExpensive() {
+        StatementStats least = null;
+        for (StatementStats stats : statements.values()) {
+            if (least == null || stats.getTotalMillis() < least.getTotalMillis()) {
+                least = stats;
+            }
+        }
+        if (least != null) {
+            statements.remove(least.sql, least);
+        }
+    }
+
+    /**
+     * Record one finished execution. Returns true if it crossed the slow-query
+     * threshold (the caller may then capture an EXPLAIN).
+     */
+    public static boolean recordExecution(StatementStats stats, long executeNanos, long mappingNanos, long rowCount, boolean failed) {
+        stats.executeMicros.record(executeNanos / 1000);
+        if (mappingNanos >= 0) {
+            stats.mappingMicros.record(mappingNanos / 1000);
+        }
+        if (rowCount > 0) {
+            stats.rows.addAndGet(rowCount);
+        }
+        if (failed) {
+            stats.errors.incrementAndGet();
+        }
+
+        long totalMillis = (executeNanos + Math.max(mappingNanos, 0)) / 1_000_000;
+        if (totalMillis < slowThresholdMillis) {
+            return false;
+        }
+        stats.slowCount.incrementAndGet();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Slow query: {} ms (execute " + executeNanos / 1_000_000 + " ms, mapping "
+                + Math.max(mappingNanos, 0) / 1_000_000 + " ms, {} rows) {}", totalMillis, rowCount, stats.sql);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a slow statement should have its plan captured now. Claims the
+     * capture, so a statement is explained at most once per interval even
+     * when several slow executions finish together.
+     */
+    public static boolean claimExplain(StatementStats stats) {
+        if (!explainSlowQueries || !stats.sql.regionMatches(true, 0, "SELECT", 0, 6)) {
+            return false;
+        }
+        synchronized (stats) {
+            long now = System.currentTimeMillis();
+            if (now - stats.lastExplainMillis <= EXPLAIN_INTERVAL_MS) {
+                return false;
+            }
+            stats.lastExplainMillis = now;
+            return true;
+        }
+    }
+
+    public static void recordExplain(StatementStats stats, String plan) {
+        stats.lastExplain = plan;
+        LOG.info("EXPLAIN {}\n{}", stats.sql, plan);
+    }
+
+    // Statements ordered by total execute time, largest first
+    public static List<StatementStats> getTopStatements(int limit) {
+        List<StatementStats> all = new ArrayList<>(statements.values());
+        all.sort(Comparator.comparingDouble(StatementStats::getTotalMillis).reversed());
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    public static String formatTopStatements(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%8s %10s %8s %8s %8s %8s %10s %9s  %s%n",
+            "calls", "total ms", "mean ms", "p95 ms", "p99 ms", "max ms", "rows", "map ms", "statement"));
+        for (StatementStats stats : getTopStatements(limit)) {
+            LatencyHistogram exec = stats.getExecuteMicros();
+            sb.append(String.format("%8d %10.1f %8.2f %8.2f %8.2f %8.2f %10d %9.2f  %s%n",
+                stats.getCalls(), stats.getTotalMillis(), exec.getMean() / 1000.0,
+                exec.getValueAtPercentile(95) / 1000.0, exec.getValueAtPercentile(99) / 1000.0,
+                exec.getMax() / 1000.0, stats.getRows(), stats.getMappingMicros().getMean() / 1000.0,
+                stats.getSql()));
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one report generated by ReportService
+ */
+@Name("com.pradeepmill.ReportGeneration")
+@Label("Report Generation")
+@Category({"Pradeep Rice Mill", "Reports"})
+public class ReportGenerationEvent extends jdk.jfr.Event {
+
+    @Label("Report")
+    public String report;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,34 @@
+package com.pradeepmill.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for TransactionService.processSalesTransaction
+ */
+@Name("com.pradeepmill.SalesTransaction")
+@Label("Sales Transaction")
+@Category({"Pradeep Rice Mill", "Transactions"})
+@Description("A sale posted with its items and stock reductions")
+public class SalesTransactionEvent extends jdk.jfr.Event {
+
+    @Label("Sale Number")
+    public String saleNumber;
+
+    @Label("Customer ID")
+    public int customerId;
+
+    @Label("Items")
+    public int itemCount;
+
+    @Label("Total Amount")
+    public double totalAmount;
+
+    @Label("Committed")
+    public boolean committed;
+
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,48 @@
+package com.pradeepmill.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the SQL statement each thread is currently working on, so a
+ * diagnostic thread (the EDT watchdog) can tell which query another thread
+ * is blocked in. Entries are set by the connection pool and cleared when the
+ * connection is returned.
+ */
+public class SqlActivity {
+
+    private static final Map<Thread, Activity> inFlight = new ConcurrentHashMap<>();
+
+    public static class Activity {
+        private final String sql;
+        private final long startNanos;
+
+        Activity(String sql, long startNanos) {
+            this.sql = sql;
+            this.startNanos = startNanos;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getElapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+
+    // Record that the calling thread has started on a statement
+    public static void begin(String sql) {
+        inFlight.put(Thread.currentThread(), new Activity(sql, System.nanoTime()));
+    }
+
+    // Clear the calling thread's statement
+    public static void end() {
+        inFlight.remove(Thread.currentThread());
+    }
+
+    // Statement the given thread is working on, or null
+    public static Activity current(Thread thread) {
+        return inFlight.get(thread);
+    }
+}
@@ -0,0 +1,49 @@
+package com.pradeepmill.monitoring;
+
+/**
+ * Timers for one kind of business transaction (sale, purchase, production):
+ * the whole transaction, each of its phases, and commit/rollback counts.
+ * Published as transactions.&lt;kind&gt;.&lt;phase&gt;.
+ */
+public class TransactionMetrics {
+
+    public static final int VALIDATE = 0;
+    public static final int INSERT_ORDER = 1;
+    public static final int INSERT_ITEMS = 2;
+    public static final int STOCK_UPDATE = 3;
+    public static final int COMMIT = 4;
+    // The whole posting when it runs as one stored procedure call
+    public static final int PROCEDURE = 5;
+
+    private static final String[] PHASE_NAMES = {"validate", "insertOrder", "insertItems", "stockUpdate", "commit", "procedure"};
+
+    private final MetricsRegistry.Timer total;
+    private final MetricsRegistry.Timer[] phases = new MetricsRegistry.Timer[PHASE_NAMES.length];
+    private final MetricsRegistry.Counter committed;
+    private final MetricsRegistry.Counter rolledBack;
+
+    public TransactionMetrics(String kind) {
+        String prefix = "transactions." + kind;
+        this.total = MetricsRegistry.timer(prefix + ".total");
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            phases[i] = MetricsRegistry.timer(prefix + "." + PHASE_NAMES[i]);
+        }
+        this.committed = MetricsRegistry.counter(prefix + ".committed");
+        this.rolledBack = MetricsRegistry.counter(prefix + ".rolledBack");
+    }
+
+    // Record a finished phase and return the start time of the next one
+    public long endPhase(int phase, long phaseStartNanos) {
+        return phases[phase].stop(phaseStartNanos);
+    }
+
+    public void committed(long transactionStartNanos) {
+        total.stop(transactionStartNanos);
+        committed.increment();
+    }
+
+    public void rolledBack(long transactionStartNanos) {
+        total.stop(transactionStartNanos);
+        rolledBack.increment();
+    }
+}
@@ -0,0 +1,93 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.monitoring.MetricsRegistry;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Aging report rows of the current day, one entry per side (receivables or
+ * payables). An entry is dropped when the day changes or when the DAOs
+ * report a change to sales or purchases, so the report is computed at most
+ * once per day between postings.
+ */
+final class AgingReportCache implements DataChangeNotifier.DataChangeListener {
+
+    private static final AgingReportCache INSTANCE = new AgingReportCache();
+
+    private static final MetricsRegistry.Counter HITS = MetricsRegistry.counter("cache.aging.hits");
+    private static final MetricsRegistry.Counter MISSES = MetricsRegistry.counter("cache.aging.misses");
+
+    static {
+        MetricsRegistry.hitRatio("cache.aging.hitRatio", HITS, MISSES);
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every relevant change; a load started before a change is not cached
+    private final AtomicLong version = new AtomicLong();
+
+    private AgingReportCache() {
+        DataChangeNotifier.addListener(this);
+    }
+
+    static AgingReportCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Cached rows of the side for the day, loading them on a miss
+     */
+    List<Map<String, Object>> get(String side, LocalDate day, Supplier<List<Map<String, Object>>> loader) {
+        Entry entry = entries.get(side);
+        if (entry != null && entry.day.equals(day)) {
+            HITS.increment();
+            return entry.rows;
+        }
+
+        MISSES.increment();
+        long loadVersion = version.get();
+        List<Map<String, Object>> rows = loader.get();
+        if (!rows.isEmpty() && version.get() == loadVersion) {
+            entries.put(side, new Entry(day, rows));
+        }
+        return rows;
+    }
+
+    void clear() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public void dataChanged(String topic) {
+        switch (topic) {
+            case DataChangeNotifier.TOPIC_SALES:
+            case DataChangeNotifier.TOPIC_CUSTOMERS:
+                version.incrementAndGet();
+                entries.remove(ReportService.AGING_RECEIVABLES);
+                break;
+            case DataChangeNotifier.TOPIC_PURCHASES:
+            case DataChangeNotifier.TOPIC_SUPPLIERS:
+                version.incrementAndGet();
+                entries.remove(ReportService.AGING_PAYABLES);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static final class Entry {
+        final LocalDate day;
+        final List<Map<String, Object>> rows;
+
+        Entry(LocalDate day, List<Map<String, Object>> rows) {
+            this.day = day;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,722 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.BankReconciliationDAO;
+import com.pradeepmill.dao.CustomerLedgerDAO;
+import com.pradeepmill.dao.PurchaseOrderDAO;
+import com.pradeepmill.dao.SalesOrderDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.BankStatementLine;
+import com.pradeepmill.models.Customer;
+import com.pradeepmill.models.CustomerLedgerEntry;
+import com.pradeepmill.models.PaymentRecord;
+import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.models.SalesOrder;
+import com.pradeepmill.models.Supplier;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches a bank statement against the books and posts the receipts it
+ * can account for.
+ *
+ * The statement is streamed line by line and every line is looked up in
+ * hash indexes built once from the open items: payment records by
+ * reference number and by amount, outstanding sales and purchases by
+ * order number and by balance, and customers and suppliers by the words
+ * of their names. Each lookup is a map probe, so a statement of many
+ * thousands of lines is checked in one pass without a query per line.
+ *
+ * Money in is matched to an outstanding sale: by the sale number in the
+ * reference or description, by an identified customer and the exact
+ * balance, or by a unique sale of that balance within the receipt window.
+ * Money out is matched to a supplier payment record by reference, or by
+ * amount within a few days; a payment the bank shows but the books do not
+ * is flagged as unrecorded. Nothing is guessed: several candidates make a
+ * line ambiguous and leave it for review.
+ *
+ * Posting applies matched receipts to their sales (and the customer
+ * ledger) and marks matched payments reconciled, in transactions of
+ * batchSize lines. Lines are stored under their statement key, so
+ * importing the same statement again skips what was already posted.
+ *
+ * Tuning (system properties): pradeepmill.reconciliation.dateWindowDays
+ * (3), pradeepmill.reconciliation.receiptWindowDays (90) and
+ * pradeepmill.reconciliation.batchSize (500).
+ */
+public class BankReconciliationService {
+
+    private static final Logger LOG = Logger.getLogger(BankReconciliationService.class);
+
+    private static final int DATE_WINDOW_DAYS = Integer.getInteger("pradeepmill.reconciliation.dateWindowDays", 3);
+    private static final int RECEIPT_WINDOW_DAYS = Integer.getInteger("pradeepmill.reconciliation.receiptWindowDays", 90);
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("pradeepmill.reconciliation.batchSize", 500));
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    // Shortest reference token worth looking up; keeps words like "NO" or "TO" out
+    private static final int MIN_REFERENCE_LENGTH = 4;
+
+    private final SalesOrderDAO salesDAO;
+    private final PurchaseOrderDAO purchaseDAO;
+    private final CustomerLedgerDAO ledgerDAO;
+    private final BankReconciliationDAO bankDAO;
+
+    public BankReconciliationService() {
+        this.salesDAO = new SalesOrderDAO();
+        this.purchaseDAO = new PurchaseOrderDAO();
+        this.ledgerDAO = new CustomerLedgerDAO();
+        this.bankDAO = new BankReconciliationDAO();
+    }
+
+    /**
+     * Read the statement and match every line. Nothing is saved; the
+     * result can be reviewed and then handed to post().
+     */
+    public Reconciliation analyze(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        Matcher matcher = new Matcher(
+            salesDAO.getOutstandingSales(),
+            purchaseDAO.getOutstandingPurchases(),
+            bankDAO.getUnreconciledPaymentRecords(),
+            MasterDataCache.getInstance().getActiveCustomers(),
+            MasterDataCache.getInstance().getActiveSuppliers(),
+            bankDAO.getSettledLineKeys());
+        long indexed = System.currentTimeMillis();
+
+        Reconciliation result = new Reconciliation(file.getFileName().toString());
+        BankStatementReader reader = new BankStatementReader(file);
+        reader.read(line -> {
+            matcher.match(line);
+            result.add(line);
+        });
+        result.errors.addAll(reader.getErrors());
+        result.errorCount = reader.getErrorCount();
+
+        LOG.info("Checked {} statement lines from {}", result.lines.size(), result.fileName);
+        LOG.debug("Reconciliation indexes built in {} ms, matched in {} ms",
+            indexed - start, System.currentTimeMillis() - indexed);
+        return result;
+    }
+
+    /**
+     * Save the checked statement. Matched receipts are paid onto their
+     * sales and matched payments marked reconciled; every other line is
+     * stored with its status for review. Each batch is its own
+     * transaction, so a failure leaves earlier batches posted and the
+     * failed lines unchanged.
+     */
+    public PostResult post(Reconciliation reconciliation, String postedBy) {
+        PostResult result = new PostResult();
+        if (!BankReconciliationDAO.isInstalled()) {
+            result.message = "Bank reconciliation is not installed. Apply db/bank_reconciliation.sql to post statements.";
+            return result;
+        }
+
+        List<BankStatementLine> pending = new ArrayList<>();
+        for (BankStatementLine line : reconciliation.lines) {
+            if (!BankStatementLine.STATUS_DUPLICATE.equals(line.getStatus())
+                    && !BankStatementLine.STATUS_POSTED.equals(line.getStatus())
+                    && !BankStatementLine.STATUS_RECONCILED.equals(line.getStatus())) {
+                pending.add(line);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += BATCH_SIZE) {
+            List<BankStatementLine> batch = pending.subList(from, Math.min(from + BATCH_SIZE, pending.size()));
+            if (!postBatch(batch, postedBy, result)) {
+                result.failedLines += batch.size();
+            }
+        }
+
+        reconciliation.recount();
+        if (result.posted > 0) {
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
+        }
+        LOG.info("Statement {} posted: {} receipts, {} payments reconciled",
+            reconciliation.fileName, result.posted, result.reconciled);
+        return result;
+    }
+
+    private boolean postBatch(List<BankStatementLine> batch, String postedBy, PostResult result) {
+        // New statuses are kept aside and only applied to the lines once the batch commits
+        Map<BankStatementLine, String> outcome = new HashMap<>();
+        Map<BankStatementLine, String> notes = new HashMap<>();
+
+        List<String> lineKeys = new ArrayList<>(batch.size());
+        for (BankStatementLine line : batch) {
+            lineKeys.add(line.getLineKey());
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // Lines posted since the statement was checked (another import or user) are skipped
+            Set<String> settled = bankDAO.lockSettledLineKeys(conn, lineKeys);
+
+            Set<Integer> saleIds = new LinkedHashSet<>();
+            for (BankStatementLine line : batch) {
+                if (line.isMatched() && line.isReceipt() && line.getSaleId() > 0 && !settled.contains(line.getLineKey())) {
+                    saleIds.add(line.getSaleId());
+                }
+            }
+
+            Map<Integer, SalesOrder> sales = new LinkedHashMap<>();
+            for (SalesOrder sale : salesDAO.lockSalesByIds(conn, saleIds)) {
+                sales.put(sale.getSaleId(), sale);
+            }
+
+            Map<Integer, SalesOrder> changed = new LinkedHashMap<>();
+            Map<Integer, List<CustomerLedgerEntry>> entries = new LinkedHashMap<>();
+            int posted = 0;
+            int reconciled = 0;
+            for (BankStatementLine line : batch) {
+                if (settled.contains(line.getLineKey())) {
+                    outcome.put(line, BankStatementLine.STATUS_DUPLICATE);
+                    notes.put(line, "Already posted from an earlier import");
+                    continue;
+                }
+                if (!line.isMatched()) {
+                    continue;
+                }
+                if (!line.isReceipt()) {
+                    outcome.put(line, BankStatementLine.STATUS_RECONCILED);
+                    reconciled++;
+                    continue;
+                }
+
+                // The sale may have been paid since the statement was checked
+                SalesOrder sale = sales.get(line.getSaleId());
+                long amount = toCents(line.getAmount());
+                if (sale == null || amount > toCents(sale.getTotalAmount()) - toCents(sale.getPaidAmount())) {
+                    outcome.put(line, BankStatementLine.STATUS_AMOUNT_MISMATCH);
+                    notes.put(line, "Sale changed since the statement was checked");
+                    continue;
+                }
+
+                double paidAfter = (toCents(sale.getPaidAmount()) + amount) / 100.0;
+                sale.setPaidAmount(paidAfter);
+                sale.setPaymentStatus(paymentStatus(paidAfter, sale.getTotalAmount()));
+                changed.put(sale.getSaleId(), sale);
+                entries.computeIfAbsent(sale.getCustomerId(), id -> new ArrayList<>())
+                       .add(receiptEntry(line, sale, postedBy));
+                outcome.put(line, BankStatementLine.STATUS_POSTED);
+                posted++;
+            }
+
+            salesDAO.applyPayments(conn, new ArrayList<>(changed.values()));
+            for (Map.Entry<Integer, List<CustomerLedgerEntry>> customer : entries.entrySet()) {
+                ledgerDAO.postEntries(conn, customer.getKey(), customer.getValue());
+            }
+
+            // Save with the new statuses, restoring the old ones if the transaction fails
+            Map<BankStatementLine, String> previous = new HashMap<>();
+            Map<BankStatementLine, String> previousNotes = new HashMap<>();
+            for (Map.Entry<BankStatementLine, String> change : outcome.entrySet()) {
+                BankStatementLine line = change.getKey();
+                previous.put(line, line.getStatus());
+                previousNotes.put(line, line.getNote());
+                line.setStatus(change.getValue());
+                if (notes.containsKey(line)) {
+                    line.setNote(notes.get(line));
+                }
+            }
+            try {
+                bankDAO.saveLines(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                for (Map.Entry<BankStatementLine, String> old : previous.entrySet()) {
+                    old.getKey().setStatus(old.getValue());
+                    old.getKey().setNote(previousNotes.get(old.getKey()));
+                }
+                throw e;
+            }
+
+            result.posted += posted;
+            result.reconciled += reconciled;
+            result.saved += batch.size();
+            return true;
+
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            LOG.error("Error posting {} statement lines", batch.size(), e);
+            result.message = "Database error: " + e.getMessage();
+            return false;
+        } finally {
+            release(conn);
+        }
+    }
+
+    private CustomerLedgerEntry receiptEntry(BankStatementLine line, SalesOrder sale, String postedBy) {
+        CustomerLedgerEntry entry = new CustomerLedgerEntry(sale.getCustomerId(), sale.getSaleId(),
+            CustomerLedgerEntry.TYPE_PAYMENT, -line.getAmount(), line.getTransactionDate());
+        entry.setPaymentMethod("Bank Transfer");
+        entry.setReferenceNumber(isBlank(line.getReferenceNumber()) ? null : line.getReferenceNumber());
+        entry.setNotes("Bank receipt on sale " + sale.getSaleNumber());
+        entry.setCreatedBy(postedBy);
+        return entry;
+    }
+
+    private static String paymentStatus(double paidAmount, double totalAmount) {
+        if (paidAmount >= totalAmount - 0.005) {
+            return SalesOrder.PAYMENT_PAID;
+        }
+        return paidAmount > 0 ? SalesOrder.PAYMENT_PARTIAL : SalesOrder.PAYMENT_PENDING;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOG.error("Bank reconciliation rollback failed", rollbackEx);
+            }
+        }
+    }
+
+    private void release(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close(); // Return connection to the pool
+            } catch (SQLException e) {
+                LOG.error("Could not release bank reconciliation connection", e);
+            }
+        }
+    }
+
+    // ===== MATCHING =====
+
+    /**
+     * Hash indexes over the open items, built once per statement. Sales
+     * and payment records are consumed as lines match them, so two lines
+     * never claim the same balance or record.
+     */
+    private static final class Matcher {
+        private final Map<String, SalesOrder> salesByNumber = new HashMap<>();
+        private final Map<Long, List<SalesOrder>> salesByBalance = new HashMap<>();
+        private final Map<Integer, Long> saleBalances = new HashMap<>();
+
+        private final Map<String, PurchaseOrder> purchasesByNumber = new HashMap<>();
+        private final Map<Long, List<PurchaseOrder>> purchasesByBalance = new HashMap<>();
+
+        private final Map<String, List<PaymentRecord>> paymentsByReference = new HashMap<>();
+        private final Map<Long, List<PaymentRecord>> paymentsByAmount = new HashMap<>();
+        private final Set<Integer> usedPayments = new HashSet<>();
+
+        private final Map<String, List<Party>> customersByWord = new HashMap<>();
+        private final Map<String, List<Party>> suppliersByWord = new HashMap<>();
+        private final Map<Integer, Integer> purchaseSuppliers = new HashMap<>();
+
+        private final Set<String> settledKeys;
+
+        Matcher(List<SalesOrder> sales, List<PurchaseOrder> purchases, List<PaymentRecord> payments,
+                List<Customer> customers, List<Supplier> suppliers, Set<String> settledKeys) {
+            this.settledKeys = settledKeys;
+
+            // Sales come oldest first, so every bucket lists the oldest sale first
+            for (SalesOrder sale : sales) {
+                long balance = toCents(sale.getTotalAmount()) - toCents(sale.getPaidAmount());
+                if (balance <= 0) {
+                    continue;
+                }
+                putKey(salesByNumber, normalizeReference(sale.getSaleNumber()), sale);
+                salesByBalance.computeIfAbsent(balance, k -> new ArrayList<>()).add(sale);
+                saleBalances.put(sale.getSaleId(), balance);
+            }
+            for (PurchaseOrder purchase : purchases) {
+                long balance = toCents(purchase.getTotalAmount()) - toCents(purchase.getPaidAmount());
+                putKey(purchasesByNumber, normalizeReference(purchase.getPurchaseNumber()), purchase);
+                purchasesByBalance.computeIfAbsent(balance, k -> new ArrayList<>()).add(purchase);
+                purchaseSuppliers.put(purchase.getPurchaseId(), purchase.getSupplierId());
+            }
+            for (PaymentRecord payment : payments) {
+                String reference = normalizeReference(payment.getReferenceNumber());
+                if (reference != null) {
+                    paymentsByReference.computeIfAbsent(reference, k -> new ArrayList<>()).add(payment);
+                }
+                paymentsByAmount.computeIfAbsent(toCents(payment.getPaymentAmount()), k -> new ArrayList<>()).add(payment);
+            }
+            for (Customer customer : customers) {
+                indexParty(customersByWord, customer.getCustomerId(), customer.getCustomerName());
+            }
+            for (Supplier supplier : suppliers) {
+                indexParty(suppliersByWord, supplier.getSupplierId(), supplier.getSupplierName());
+            }
+        }
+
+        void match(BankStatementLine line) {
+            line.setStatus(BankStatementLine.STATUS_UNMATCHED);
+            if (settledKeys.contains(line.getLineKey())) {
+                line.setStatus(BankStatementLine.STATUS_DUPLICATE);
+                line.setNote("Already posted from an earlier import");
+                return;
+            }
+            List<String> references = references(line);
+            if (line.isReceipt()) {
+                matchReceipt(line, references);
+            } else {
+                matchPayment(line, references);
+            }
+        }
+
+        // Money in: pay an outstanding sale
+        private void matchReceipt(BankStatementLine line, List<String> references) {
+            long amount = toCents(line.getAmount());
+            Party customer = findParty(customersByWord, line.getDescription());
+            if (customer != null) {
+                line.setCustomerId(customer.id);
+            }
+
+            for (String reference : references) {
+                SalesOrder sale = salesByNumber.get(reference);
+                if (sale == null) {
+                    continue;
+                }
+                long balance = saleBalances.getOrDefault(sale.getSaleId(), 0L);
+                line.setSaleId(sale.getSaleId());
+                line.setCustomerId(sale.getCustomerId());
+                if (amount <= balance) {
+                    matched(line, BankStatementLine.MATCH_REFERENCE);
+                    useSale(sale, amount);
+                    if (amount < balance) {
+                        line.setNote(String.format("Part payment; Rs. %,.2f still due", (balance - amount) / 100.0));
+                    }
+                } else {
+                    line.setStatus(BankStatementLine.STATUS_AMOUNT_MISMATCH);
+                    line.setNote(String.format("Only Rs. %,.2f is due on %s", balance / 100.0, sale.getSaleNumber()));
+                }
+                return;
+            }
+
+            List<SalesOrder> candidates = new ArrayList<>();
+            for (SalesOrder sale : salesByBalance.getOrDefault(amount, Collections.emptyList())) {
+                if (saleBalances.getOrDefault(sale.getSaleId(), 0L) != amount) {
+                    continue; // Already matched by an earlier line
+                }
+                if (customer != null ? sale.getCustomerId() == customer.id
+                                     : withinDays(sale.getSaleDate(), line.getTransactionDate(), RECEIPT_WINDOW_DAYS, DATE_WINDOW_DAYS)) {
+                    candidates.add(sale);
+                }
+            }
+
+            if (customer != null && !candidates.isEmpty()) {
+                // Same customer and same balance: the oldest sale is paid first
+                SalesOrder sale = candidates.get(0);
+                line.setSaleId(sale.getSaleId());
+                matched(line, BankStatementLine.MATCH_PARTY_AMOUNT);
+                useSale(sale, amount);
+            } else if (candidates.size() == 1) {
+                SalesOrder sale = candidates.get(0);
+                line.setSaleId(sale.getSaleId());
+                line.setCustomerId(sale.getCustomerId());
+                matched(line, BankStatementLine.MATCH_AMOUNT_DATE);
+                useSale(sale, amount);
+            } else if (candidates.size() > 1) {
+                line.setStatus(BankStatementLine.STATUS_AMBIGUOUS);
+                line.setNote(candidates.size() + " open sales of this amount");
+            } else if (customer != null) {
+                line.setNote("From " + customer.name + "; no single open sale of this amount (use Bulk Payment)");
+            }
+        }
+
+        // Money out: find the supplier payment record it settles
+        private void matchPayment(BankStatementLine line, List<String> references) {
+            long amount = -toCents(line.getAmount());
+            Party supplier = findParty(suppliersByWord, line.getDescription());
+            if (supplier != null) {
+                line.setSupplierId(supplier.id);
+            }
+
+            for (String reference : references) {
+                List<PaymentRecord> records = unused(paymentsByReference.get(reference));
+                if (records.isEmpty()) {
+                    continue;
+                }
+                PaymentRecord record = closest(records, line.getTransactionDate(), amount);
+                linkPayment(line, record);
+                if (toCents(record.getPaymentAmount()) == amount) {
+                    matched(line, BankStatementLine.MATCH_REFERENCE);
+                    usedPayments.add(record.getPaymentId());
+                } else {
+                    line.setStatus(BankStatementLine.STATUS_AMOUNT_MISMATCH);
+                    line.setNote(String.format("Recorded as Rs. %,.2f", record.getPaymentAmount()));
+                }
+                return;
+            }
+
+            List<PaymentRecord> candidates = new ArrayList<>();
+            for (PaymentRecord record : unused(paymentsByAmount.get(amount))) {
+                if (withinDays(record.getPaymentDate(), line.getTransactionDate(), DATE_WINDOW_DAYS, DATE_WINDOW_DAYS)
+                        && (supplier == null || supplier.id == purchaseSuppliers.getOrDefault(record.getPurchaseId(), supplier.id))) {
+                    candidates.add(record);
+                }
+            }
+            if (candidates.size() == 1) {
+                linkPayment(line, candidates.get(0));
+                matched(line, BankStatementLine.MATCH_AMOUNT_DATE);
+                usedPayments.add(candidates.get(0).getPaymentId());
+                return;
+            }
+            if (candidates.size() > 1) {
+                line.setStatus(BankStatementLine.STATUS_AMBIGUOUS);
+                line.setNote(candidates.size() + " payment records of this amount");
+                return;
+            }
+
+            // The bank paid something the books have no payment record for
+            PurchaseOrder purchase = null;
+            for (String reference : references) {
+                purchase = purchasesByNumber.get(reference);
+                if (purchase != null) {
+                    break;
+                }
+            }
+            if (purchase == null && supplier != null) {
+                for (PurchaseOrder candidate : purchasesByBalance.getOrDefault(amount, Collections.emptyList())) {
+                    if (candidate.getSupplierId() == supplier.id) {
+                        purchase = candidate;
+                        break;
+                    }
+                }
+            }
+            if (purchase != null) {
+                line.setPurchaseId(purchase.getPurchaseId());
+                line.setSupplierId(purchase.getSupplierId());
+                line.setStatus(BankStatementLine.STATUS_UNRECORDED);
+                line.setNote("No payment record for " + purchase.getPurchaseNumber());
+            } else if (supplier != null) {
+                line.setStatus(BankStatementLine.STATUS_UNRECORDED);
+                line.setNote("Paid to " + supplier.name + " but no payment record or open purchase matches");
+            }
+        }
+
+        private void useSale(SalesOrder sale, long amount) {
+            saleBalances.merge(sale.getSaleId(), -amount, Long::sum);
+        }
+
+        private void linkPayment(BankStatementLine line, PaymentRecord record) {
+            line.setPaymentId(record.getPaymentId());
+            line.setPurchaseId(record.getPurchaseId());
+            Integer supplierId = purchaseSuppliers.get(record.getPurchaseId());
+            if (supplierId != null) {
+                line.setSupplierId(supplierId);
+            }
+        }
+
+        private List<PaymentRecord> unused(List<PaymentRecord> records) {
+            List<PaymentRecord> unused = new ArrayList<>();
+            if (records != null) {
+                for (PaymentRecord record : records) {
+                    if (!usedPayments.contains(record.getPaymentId())) {
+                        unused.add(record);
+                    }
+                }
+            }
+            return unused;
+        }
+
+        // The record with the same amount if there is one, nearest in date otherwise
+        private static PaymentRecord closest(List<PaymentRecord> records, Date date, long amount) {
+            PaymentRecord best = null;
+            long bestScore = Long.MAX_VALUE;
+            for (PaymentRecord record : records) {
+                long score = Math.abs(record.getPaymentDate().getTime() - date.getTime())
+                    + (toCents(record.getPaymentAmount()) == amount ? 0 : Long.MAX_VALUE / 2);
+                if (score < bestScore) {
+                    best = record;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        private static void matched(BankStatementLine line, String method) {
+            line.setStatus(BankStatementLine.STATUS_MATCHED);
+            line.setMatchMethod(method);
+        }
+
+        // Whether the book date lies from daysBefore before to daysAfter after the bank date
+        private static boolean withinDays(Date bookDate, Date bankDate, int daysBefore, int daysAfter) {
+            if (bookDate == null) {
+                return false;
+            }
+            long difference = bankDate.getTime() - bookDate.getTime();
+            return difference <= daysBefore * DAY_MILLIS && -difference <= daysAfter * DAY_MILLIS;
+        }
+
+        // Reference candidates: the reference column, then tokens of the description that contain a digit
+        private static List<String> references(BankStatementLine line) {
+            List<String> references = new ArrayList<>();
+            String reference = normalizeReference(line.getReferenceNumber());
+            if (reference != null) {
+                references.add(reference);
+            }
+            if (line.getDescription() != null) {
+                for (String token : line.getDescription().split("[\\s,;:()\\[\\]]+")) {
+                    String candidate = normalizeReference(token);
+                    if (candidate != null && candidate.length() >= MIN_REFERENCE_LENGTH
+                            && candidate.chars().anyMatch(Character::isDigit) && !references.contains(candidate)) {
+                        references.add(candidate);
+                    }
+                }
+            }
+            return references;
+        }
+
+        // Upper case letters and digits only, so "so-1712", "SO 1712" and "SO1712" meet
+        private static String normalizeReference(String value) {
+            if (value == null) {
+                return null;
+            }
+            StringBuilder normalized = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    normalized.append(Character.toUpperCase(c));
+                }
+            }
+            return normalized.length() == 0 ? null : normalized.toString();
+        }
+
+        private static String normalizeName(String value) {
+            return value == null ? "" : value.toUpperCase(Locale.ENGLISH).replaceAll("[^A-Z0-9]+", " ").trim();
+        }
+
+        // Parties are indexed under the first word of their name
+        private static void indexParty(Map<String, List<Party>> index, int id, String name) {
+            String normalized = normalizeName(name);
+            if (normalized.length() < 3) {
+                return;
+            }
+            String firstWord = normalized.split(" ")[0];
+            index.computeIfAbsent(firstWord, k -> new ArrayList<>()).add(new Party(id, name, normalized));
+        }
+
+        /**
+         * The party whose full name appears in the description, found by
+         * probing the index with each word; the longest name wins so
+         * "Silva Traders" beats "Silva".
+         */
+        private static Party findParty(Map<String, List<Party>> index, String description) {
+            String text = " " + normalizeName(description) + " ";
+            Party best = null;
+            for (String word : text.trim().split(" ")) {
+                for (Party party : index.getOrDefault(word, Collections.emptyList())) {
+                    if (text.contains(" " + party.normalizedName + " ")
+                            && (best == null || party.normalizedName.length() > best.normalizedName.length())) {
+                        best = party;
+                    }
+                }
+            }
+            return best;
+        }
+
+        private static <V> void putKey(Map<String, V> index, String key, V value) {
+            if (key != null) {
+                index.putIfAbsent(key, value);
+            }
+        }
+    }
+
+    private static final class Party {
+        final int id;
+        final String name;
+        final String normalizedName;
+
+        Party(int id, String name, String normalizedName) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = normalizedName;
+        }
+    }
+
+    // ===== RESULTS =====
+
+    /**
+     * A checked statement: every line with its match, and counts by status
+     */
+    public static final class Reconciliation {
+        private final String fileName;
+        private final List<BankStatementLine> lines = new ArrayList<>();
+        private final Map<String, Integer> statusCounts = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount;
+
+        private Reconciliation(String fileName) {
+            this.fileName = fileName;
+        }
+
+        private void add(BankStatementLine line) {
+            lines.add(line);
+            statusCounts.merge(line.getStatus(), 1, Integer::sum);
+        }
+
+        private void recount() {
+            statusCounts.clear();
+            for (BankStatementLine line : lines) {
+                statusCounts.merge(line.getStatus(), 1, Integer::sum);
+            }
+        }
+
+        public String getFileName() { return fileName; }
+        public List<BankStatementLine> getLines() { return lines; }
+        public Map<String, Integer> getStatusCounts() { return statusCounts; }
+        public List<String> getErrors() { return errors; }
+        public int getErrorCount() { return errorCount; }
+
+        public int getCount(String status) {
+            return statusCounts.getOrDefault(status, 0);
+        }
+
+        public int getMatchedCount() {
+            return getCount(BankStatementLine.STATUS_MATCHED);
+        }
+    }
+
+    /**
+     * What post() did
+     */
+    public static final class PostResult {
+        private int posted;
+        private int reconciled;
+        private int saved;
+        private int failedLines;
+        private String message;
+
+        public int getPosted() { return posted; }
+        public int getReconciled() { return reconciled; }
+        public int getSaved() { return saved; }
+        public int getFailedLines() { return failedLines; }
+        public String getMessage() { return message; }
+
+        public boolean isSuccessful() {
+            return failedLines == 0 && message == null;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.models.BankStatementLine;
+import com.pradeepmill.utils.CsvReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.Consumer;
+
+/**
+ * Streams the transactions of a bank statement file, one line at a time.
+ *
+ * CSV files need a header row. The columns are found by name: a date
+ * column, a description column, an optional reference column and either
+ * one signed Amount column or separate Debit and Credit columns. OFX/QFX
+ * files (SGML or XML) are read transaction by transaction.
+ *
+ * Every line gets a key for duplicate detection: the bank's FITID when the
+ * file has one, otherwise a hash of the line and how many identical lines
+ * came before it in the file. Lines that cannot be read are skipped and
+ * reported through getErrors().
+ */
+public class BankStatementReader {
+
+    // Date formats tried in order; -Dpradeepmill.reconciliation.dateFormat puts one first
+    private static final List<DateTimeFormatter> DATE_FORMATS = new ArrayList<>();
+
+    static {
+        String configured = System.getProperty("pradeepmill.reconciliation.dateFormat");
+        if (configured != null && !configured.trim().isEmpty()) {
+            DATE_FORMATS.add(DateTimeFormatter.ofPattern(configured.trim(), Locale.ENGLISH));
+        }
+        for (String pattern : new String[] {"yyyy-MM-dd", "dd/MM/yyyy", "dd-MM-yyyy", "dd.MM.yyyy",
+                                            "yyyy/MM/dd", "yyyyMMdd", "d/M/yyyy", "dd-MMM-yyyy", "dd MMM yyyy"}) {
+            DATE_FORMATS.add(DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH));
+        }
+    }
+
+    private static final int MAX_ERRORS = 200;
+
+    private final Path file;
+    private final List<String> errors = new ArrayList<>();
+    private final Map<String, Integer> occurrences = new HashMap<>();
+    private int errorCount;
+
+    public BankStatementReader(Path file) {
+        this.file = file;
+    }
+
+    public static boolean isOfx(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+        return name.endsWith(".ofx") || name.endsWith(".qfx");
+    }
+
+    /**
+     * Hand every transaction of the file to the handler in file order and
+     * return how many were read
+     */
+    public long read(Consumer<BankStatementLine> handler) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return isOfx(file) ? readOfx(in, handler) : readCsv(in, handler);
+        }
+    }
+
+    // Lines that were skipped, with their line numbers (the first MAX_ERRORS)
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    // ===== CSV =====
+
+    private long readCsv(BufferedReader in, Consumer<BankStatementLine> handler) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        String[] header = csv.readRecord();
+        if (header == null) {
+            return 0;
+        }
+
+        int dateColumn = findColumn(header, "date", "transaction date", "txn date", "posting date", "posted date", "value date");
+        int descriptionColumn = findColumn(header, "description", "narration", "details", "particulars", "memo", "payee", "name");
+        int referenceColumn = findColumn(header, "reference", "reference number", "ref", "ref no", "cheque no", "cheque number",
+                                         "check number", "instrument no");
+        int idColumn = findColumn(header, "transaction id", "fitid", "id");
+        int amountColumn = findColumn(header, "amount", "transaction amount");
+        int debitColumn = findColumn(header, "debit", "debits", "withdrawal", "withdrawals", "money out", "paid out");
+        int creditColumn = findColumn(header, "credit", "credits", "deposit", "deposits", "money in", "paid in");
+
+        if (dateColumn < 0 || (amountColumn < 0 && debitColumn < 0 && creditColumn < 0)) {
+            throw new IOException("The statement needs a Date column and an Amount column or Debit and Credit columns");
+        }
+
+        long count = 0;
+        String[] record;
+        while ((record = csv.readRecord()) != null) {
+            long lineNumber = csv.getLineNumber();
+            try {
+                LocalDate date = parseDate(field(record, dateColumn));
+                BigDecimal amount;
+                if (amountColumn >= 0) {
+                    amount = parseAmount(field(record, amountColumn));
+                } else {
+                    BigDecimal credit = parseAmount(field(record, creditColumn));
+                    BigDecimal debit = parseAmount(field(record, debitColumn));
+                    amount = credit.abs().subtract(debit.abs());
+                }
+                if (amount.signum() == 0) {
+                    continue; // Balance lines and zero-value entries carry nothing to match
+                }
+
+                BankStatementLine line = new BankStatementLine(lineNumber, java.sql.Date.valueOf(date), amount.doubleValue(),
+                    field(record, descriptionColumn), field(record, referenceColumn));
+                line.setLineKey(lineKey(field(record, idColumn), line));
+                line.setSourceFile(file.getFileName().toString());
+                handler.accept(line);
+                count++;
+
+            } catch (IllegalArgumentException e) {
+                error(lineNumber, e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    private static int findColumn(String[] header, String... names) {
+        for (String name : names) {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].trim().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String field(String[] record, int column) {
+        if (column < 0 || column >= record.length) {
+            return "";
+        }
+        return record[column].trim();
+    }
+
+    // ===== OFX =====
+
+    /**
+     * OFX 1.x is SGML where closing tags are optional, OFX 2.x is XML; both
+     * are read as a stream of "<TAG>value" tokens. A transaction ends at
+     * its closing tag or the next STMTTRN.
+     */
+    private long readOfx(BufferedReader in, Consumer<BankStatementLine> handler) {
+        long count = 0;
+        Map<String, String> transaction = null;
+        long transactionNumber = 0;
+
+        Scanner scanner = new Scanner(in);
+        scanner.useDelimiter("<");
+        while (scanner.hasNext()) {
+            String token = scanner.next();
+            int close = token.indexOf('>');
+            if (close < 0) {
+                continue;
+            }
+            String tag = token.substring(0, close).trim().toUpperCase(Locale.ENGLISH);
+            String value = token.substring(close + 1).trim();
+
+            if (tag.equals("STMTTRN")) {
+                if (transaction != null && emitOfx(transaction, transactionNumber, handler)) {
+                    count++;
+                }
+                transaction = new HashMap<>();
+                transactionNumber++;
+            } else if (tag.equals("/STMTTRN") || tag.equals("/BANKTRANLIST")) {
+                if (transaction != null && emitOfx(transaction, transactionNumber, handler)) {
+                    count++;
+                }
+                transaction = null;
+            } else if (transaction != null && !tag.startsWith("/") && !value.isEmpty()) {
+                transaction.put(tag, value);
+            }
+        }
+        if (transaction != null && emitOfx(transaction, transactionNumber, handler)) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean emitOfx(Map<String, String> transaction, long number, Consumer<BankStatementLine> handler) {
+        try {
+            String posted = transaction.getOrDefault("DTPOSTED", "");
+            if (posted.length() < 8) {
+                throw new IllegalArgumentException("Missing or invalid DTPOSTED '" + posted + "'");
+            }
+            LocalDate date = LocalDate.parse(posted.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            BigDecimal amount = parseAmount(transaction.getOrDefault("TRNAMT", ""));
+            if (amount.signum() == 0) {
+                return false;
+            }
+
+            String name = transaction.getOrDefault("NAME", "");
+            String memo = transaction.getOrDefault("MEMO", "");
+            String description = name.isEmpty() ? memo : (memo.isEmpty() ? name : name + " " + memo);
+            String reference = transaction.getOrDefault("CHECKNUM", transaction.getOrDefault("REFNUM", ""));
+
+            BankStatementLine line = new BankStatementLine(number, java.sql.Date.valueOf(date), amount.doubleValue(),
+                unescapeXml(description), unescapeXml(reference));
+            line.setLineKey(lineKey(transaction.getOrDefault("FITID", ""), line));
+            line.setSourceFile(file.getFileName().toString());
+            handler.accept(line);
+            return true;
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            error(number, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String unescapeXml(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    // ===== FIELDS =====
+
+    static LocalDate parseDate(String text) {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        // Drop a time part such as "2024-03-01 10:15:00"
+        String day = text.length() > 11 && text.charAt(10) == ' ' ? text.substring(0, 10) : text;
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(day, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        throw new IllegalArgumentException("Unrecognised date '" + text + "'");
+    }
+
+    /**
+     * Amount in the usual bank layouts: "1,250.00", "Rs. 1,250.00",
+     * "(1,250.00)" or "1,250.00 DR" for money out, "1,250.00 CR" for money
+     * in. Blank is zero.
+     */
+    static BigDecimal parseAmount(String text) {
+        String value = text.trim().toUpperCase(Locale.ENGLISH);
+        if (value.isEmpty() || value.equals("-")) {
+            return BigDecimal.ZERO;
+        }
+
+        boolean negative = false;
+        if (value.endsWith("DR")) {
+            negative = true;
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("CR")) {
+            value = value.substring(0, value.length() - 2);
+        }
+        if (value.startsWith("(") && value.endsWith(")")) {
+            negative = true;
+            value = value.substring(1, value.length() - 1);
+        }
+        value = value.replace("RS.", "").replace("LKR", "").replace(",", "").replace(" ", "");
+
+        try {
+            BigDecimal amount = new BigDecimal(value);
+            return negative ? amount.abs().negate() : amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unrecognised amount '" + text + "'");
+        }
+    }
+
+    // Bank transaction id if there is one, otherwise a hash that tells identical lines apart by position
+    private String lineKey(String transactionId, BankStatementLine line) {
+        if (!transactionId.isEmpty()) {
+            String key = "id:" + transactionId;
+            return key.length() <= 64 ? key : "id:" + sha1(transactionId);
+        }
+        String content = line.getTransactionDate() + "|" + BigDecimal.valueOf(line.getAmount()).setScale(2, RoundingMode.HALF_UP)
+            + "|" + line.getReferenceNumber() + "|" + line.getDescription();
+        int occurrence = occurrences.merge(content, 1, Integer::sum);
+        return sha1(content + "|" + occurrence);
+    }
+
+    private static String sha1(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    private void error(long lineNumber, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+}
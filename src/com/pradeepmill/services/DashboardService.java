@@ -1,11 +1,15 @@
 package com.pradeepmill.services;
 
 import com.pradeepmill.dao.*;
+import com.pradeepmill.database.SnapshotSession;
+import com.pradeepmill.logging.Logger;
 import java.util.HashMap;
 import java.util.Map;
 
 public class DashboardService {
     
+    private static final Logger LOG = Logger.getLogger(DashboardService.class);
+    
     private SupplierDAO supplierDAO;
     private CustomerDAO customerDAO;
     private ProductDAO productDAO;
@@ -13,48 +17,48 @@ public class DashboardService {
     private StockInventoryDAO stockDAO;
     private ReportDAO reportDAO;
     
+    // Read the metrics inside a snapshot session (off when there is no database)
+    private final boolean snapshotReads;
+    
     public DashboardService() {
-        this.supplierDAO = new SupplierDAO();
-        this.customerDAO = new CustomerDAO();
-        this.productDAO = new ProductDAO();
-        this.staffDAO = new StaffDAO();
-        this.stockDAO = new StockInventoryDAO();
-        this.reportDAO = new ReportDAO();
+        this(new SupplierDAO(), new CustomerDAO(), new ProductDAO(), new StaffDAO(),
+             new StockInventoryDAO(), new ReportDAO(), true);
+    }
+    
+    // Used by the benchmarks to supply DAOs that do not need a database
+    DashboardService(SupplierDAO supplierDAO, CustomerDAO customerDAO, ProductDAO productDAO,
+                     StaffDAO staffDAO, StockInventoryDAO stockDAO, ReportDAO reportDAO) {
+        this(supplierDAO, customerDAO, productDAO, staffDAO, stockDAO, reportDAO, false);
+    }
+    
+    private DashboardService(SupplierDAO supplierDAO, CustomerDAO customerDAO, ProductDAO productDAO,
+                             StaffDAO staffDAO, StockInventoryDAO stockDAO, ReportDAO reportDAO,
+                             boolean snapshotReads) {
+        this.supplierDAO = supplierDAO;
+        this.customerDAO = customerDAO;
+        this.productDAO = productDAO;
+        this.staffDAO = staffDAO;
+        this.stockDAO = stockDAO;
+        this.reportDAO = reportDAO;
+        this.snapshotReads = snapshotReads;
     }
     
     /**
-     * Get comprehensive dashboard statistics
+     * Get comprehensive dashboard statistics. All figures are read from one
+     * read-only snapshot on a single connection, so the counts and totals
+     * agree with each other even while orders are being saved.
      */
     public Map<String, Object> getAllDashboardMetrics() {
         Map<String, Object> metrics = new HashMap<>();
         
         try {
-            // Basic counts
-            metrics.put("totalSuppliers", supplierDAO.getTotalSupplierCount());
-            metrics.put("totalCustomers", customerDAO.getTotalCustomerCount());
-            metrics.put("totalProducts", productDAO.getTotalProductCount());
-            metrics.put("totalStaff", staffDAO.getTotalStaffCount());
-            
-            // Financial metrics
-            double totalStockValue = stockDAO.getTotalStockValue();
-            double monthlyExpense = staffDAO.getTotalMonthlySalaryExpense();
-            
-            metrics.put("totalStockValue", totalStockValue);
-            metrics.put("monthlyExpense", monthlyExpense);
-            
-            // Stock alerts
-            int lowStockCount = stockDAO.getLowStockItems().size();
-            int outOfStockCount = stockDAO.getOutOfStockItems().size();
-            
-            metrics.put("lowStockItems", lowStockCount);
-            metrics.put("outOfStockItems", outOfStockCount);
-            
-            // Status indicators
-            metrics.put("stockStatus", getStockStatusSummary());
-            metrics.put("systemHealth", getSystemHealthStatus());
-            
+            if (snapshotReads) {
+                SnapshotSession.read(() -> collectDashboardMetrics(metrics));
+            } else {
+                collectDashboardMetrics(metrics);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("getAllDashboardMetrics failed", e);
             // Return default values in case of error
             setDefaultMetrics(metrics);
         }
@@ -62,42 +66,55 @@ public class DashboardService {
         return metrics;
     }
     
+    // Run the dashboard queries and fill in the figures
+    private Map<String, Object> collectDashboardMetrics(Map<String, Object> metrics) {
+        // Basic counts
+        int suppliers = supplierDAO.getTotalSupplierCount();
+        int customers = customerDAO.getTotalCustomerCount();
+        int products = productDAO.getTotalProductCount();
+        metrics.put("totalSuppliers", suppliers);
+        metrics.put("totalCustomers", customers);
+        metrics.put("totalProducts", products);
+        metrics.put("totalStaff", staffDAO.getTotalStaffCount());
+        
+        // Financial metrics
+        metrics.put("totalStockValue", stockDAO.getTotalStockValue());
+        metrics.put("monthlyExpense", staffDAO.getTotalMonthlySalaryExpense());
+        
+        // Stock alerts
+        int lowStock = stockDAO.getLowStockItems().size();
+        int outOfStock = stockDAO.getOutOfStockItems().size();
+        metrics.put("lowStockItems", lowStock);
+        metrics.put("outOfStockItems", outOfStock);
+        
+        // Status indicators
+        metrics.put("stockStatus", getStockStatusSummary(lowStock, outOfStock));
+        metrics.put("systemHealth", getSystemHealthStatus(suppliers, customers, products));
+        
+        return metrics;
+    }
+    
     /**
      * Get stock status summary
      */
-    private String getStockStatusSummary() {
-        try {
-            int lowStock = stockDAO.getLowStockItems().size();
-            int outOfStock = stockDAO.getOutOfStockItems().size();
-            
-            if (outOfStock > 0) {
-                return "Critical - " + outOfStock + " items out of stock";
-            } else if (lowStock > 0) {
-                return "Warning - " + lowStock + " items low stock";
-            } else {
-                return "Normal - All items adequately stocked";
-            }
-        } catch (Exception e) {
-            return "Unable to determine stock status";
+    private String getStockStatusSummary(int lowStock, int outOfStock) {
+        if (outOfStock > 0) {
+            return "Critical - " + outOfStock + " items out of stock";
+        } else if (lowStock > 0) {
+            return "Warning - " + lowStock + " items low stock";
+        } else {
+            return "Normal - All items adequately stocked";
         }
     }
     
     /**
      * Get system health status
      */
-    private String getSystemHealthStatus() {
-        try {
-            int suppliers = supplierDAO.getTotalSupplierCount();
-            int customers = customerDAO.getTotalCustomerCount();
-            int products = productDAO.getTotalProductCount();
-            
-            if (suppliers > 0 && customers > 0 && products > 0) {
-                return "System Operational";
-            } else {
-                return "System Setup Incomplete";
-            }
-        } catch (Exception e) {
-            return "System Status Unknown";
+    private String getSystemHealthStatus(int suppliers, int customers, int products) {
+        if (suppliers > 0 && customers > 0 && products > 0) {
+            return "System Operational";
+        } else {
+            return "System Setup Incomplete";
         }
     }
     
@@ -133,7 +150,7 @@ public class DashboardService {
             activity.put("activeCustomers", customerDAO.getCustomersByStatus("Active").size());
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("getRecentActivitySummary failed", e);
             activity.put("todaysSales", 0.0);
             activity.put("monthlyPurchases", 0.0);
             activity.put("activeSuppliers", 0);
@@ -0,0 +1,1083 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.CustomerLedgerDAO;
+import com.pradeepmill.dao.DataImportDAO;
+import com.pradeepmill.dao.ProductionYieldDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.Customer;
+import com.pradeepmill.models.CustomerLedgerEntry;
+import com.pradeepmill.models.Product;
+import com.pradeepmill.models.ProductionRecord;
+import com.pradeepmill.models.PurchaseItem;
+import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.models.SalesItem;
+import com.pradeepmill.models.SalesOrder;
+import com.pradeepmill.models.Supplier;
+import com.pradeepmill.utils.CsvReader;
+import com.pradeepmill.utils.CsvWriter;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Imports historical data from CSV files: customers, suppliers, products,
+ * sales and purchase orders with their items, and production records.
+ *
+ * Each file goes through the same stages:
+ *   parse     - the file is streamed and cut into chunks of rows that are
+ *               converted and checked on a small thread pool, in file order
+ *   validate  - names are resolved to ids through hash maps built once from
+ *               all master data rows, order lines are grouped by order number,
+ *               and keys already in the database are found with chunked
+ *               IN (...) lookups
+ *   write     - valid rows go out as multi-row INSERTs (BulkInsertWriter) in
+ *               one transaction per file, so a file is imported completely
+ *               or not at all
+ *
+ * A dry run stops before writing and reports what would happen. Files are
+ * imported in dependency order and a dry run treats the master data of the
+ * earlier files as present, so a whole migration can be checked in one go.
+ * Rows already in the database (same name or order number) are skipped, so
+ * an import can safely be run again. Files with errors are not written
+ * unless skipInvalid is set, in which case only the valid rows are.
+ *
+ * Sales are posted to the customer ledger like sales entered on screen.
+ * Stock levels are not changed: historical movements are already part of
+ * today's stock count.
+ *
+ * Tuning (system properties): pradeepmill.import.threads (processors),
+ * pradeepmill.import.chunkRows (2000 rows per parse task) and
+ * pradeepmill.import.writeBatch (5000 orders per insert round).
+ */
+public class DataImportService {
+
+    private static final Logger LOG = Logger.getLogger(DataImportService.class);
+
+    private static final int THREADS = Math.max(1, Integer.getInteger("pradeepmill.import.threads",
+        Runtime.getRuntime().availableProcessors()));
+    private static final int CHUNK_ROWS = Math.max(1, Integer.getInteger("pradeepmill.import.chunkRows", 2000));
+    private static final int WRITE_BATCH = Math.max(1, Integer.getInteger("pradeepmill.import.writeBatch", 5000));
+
+    // Parse chunks in flight before the reader waits; bounds memory on huge files
+    private static final int MAX_PENDING_CHUNKS = THREADS * 2;
+
+    // Id given to master data that a dry run would create
+    private static final int NOT_YET_CREATED = -1;
+
+    /**
+     * What can be imported, in the order files are processed, with the
+     * columns each file must have. Column names are matched ignoring case,
+     * spaces and underscores.
+     */
+    public enum Entity {
+        CUSTOMERS("customers", DataChangeNotifier.TOPIC_CUSTOMERS, "customer_name"),
+        SUPPLIERS("suppliers", DataChangeNotifier.TOPIC_SUPPLIERS, "supplier_name"),
+        PRODUCTS("products", DataChangeNotifier.TOPIC_PRODUCTS, "product_name", "product_type", "unit_price"),
+        SALES("sales", DataChangeNotifier.TOPIC_SALES,
+              "sale_number", "customer", "sale_date", "product", "quantity", "unit_price"),
+        PURCHASES("purchases", DataChangeNotifier.TOPIC_PURCHASES,
+                  "purchase_number", "supplier", "purchase_date", "product", "quantity", "unit_price"),
+        PRODUCTION("production", DataChangeNotifier.TOPIC_PRODUCTION,
+                   "production_number", "production_date", "raw_product", "finished_product",
+                   "input_quantity", "output_quantity", "machine", "operator");
+
+        private final String fileName;
+        private final String topic;
+        private final String[] requiredColumns;
+
+        Entity(String fileName, String topic, String... requiredColumns) {
+            this.fileName = fileName;
+            this.topic = topic;
+            this.requiredColumns = requiredColumns;
+        }
+
+        // Base name of the file in an export directory, e.g. sales.csv
+        public String getFileName() { return fileName + ".csv"; }
+        public String[] getRequiredColumns() { return requiredColumns.clone(); }
+    }
+
+    private final DataImportDAO importDAO;
+    private final CustomerLedgerDAO ledgerDAO;
+    private final ProductionYieldDAO yieldDAO;
+
+    public DataImportService() {
+        this.importDAO = new DataImportDAO();
+        this.ledgerDAO = new CustomerLedgerDAO();
+        this.yieldDAO = new ProductionYieldDAO();
+    }
+
+    /**
+     * Import the given files in Entity order and return one report per
+     * file. Nothing is written when dryRun is set.
+     */
+    public List<ImportReport> importFiles(Map<Entity, Path> files, boolean dryRun, boolean skipInvalid, String importedBy) {
+        Map<Entity, Path> ordered = new EnumMap<>(files);
+        List<ImportReport> reports = new ArrayList<>();
+        Lookups lookups;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            lookups = new Lookups(importDAO, conn);
+        } catch (SQLException e) {
+            LOG.error("Could not load master data for the import", e);
+            for (Map.Entry<Entity, Path> file : ordered.entrySet()) {
+                ImportReport report = new ImportReport(file.getKey(), file.getValue(), dryRun);
+                report.fail("Database error, nothing was written: " + e.getMessage());
+                reports.add(report);
+            }
+            return reports;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "data-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Map.Entry<Entity, Path> file : ordered.entrySet()) {
+                ImportReport report = new ImportReport(file.getKey(), file.getValue(), dryRun);
+                reports.add(report);
+                try {
+                    importFile(report, lookups, pool, skipInvalid, importedBy);
+                } catch (IOException e) {
+                    report.fail("Could not read the file: " + e.getMessage());
+                } catch (SQLException e) {
+                    LOG.error("Import of {} failed", file.getValue(), e);
+                    report.fail("Database error, nothing was written: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    report.fail("Import interrupted");
+                    break;
+                }
+                LOG.info("Import {}: {}", file.getValue().getFileName(), report.getSummary());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return reports;
+    }
+
+    private void importFile(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid, String importedBy)
+            throws IOException, SQLException, InterruptedException {
+        switch (report.entity) {
+            case CUSTOMERS:
+                importCustomers(report, lookups, pool, skipInvalid);
+                break;
+            case SUPPLIERS:
+                importSuppliers(report, lookups, pool, skipInvalid);
+                break;
+            case PRODUCTS:
+                importProducts(report, lookups, pool, skipInvalid);
+                break;
+            case SALES:
+                importSales(report, lookups, pool, skipInvalid, importedBy);
+                break;
+            case PURCHASES:
+                importPurchases(report, lookups, pool, skipInvalid, importedBy);
+                break;
+            case PRODUCTION:
+                importProduction(report, lookups, pool, skipInvalid);
+                break;
+        }
+    }
+
+    // ===== MASTER DATA =====
+
+    private void importCustomers(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<Customer>> records = parse(report, pool, row -> {
+            Customer customer = new Customer();
+            customer.setCustomerName(row.required("customer_name"));
+            customer.setContactPerson(row.optional("contact_person"));
+            customer.setPhone(row.optional("phone"));
+            customer.setAddress(row.optional("address"));
+            customer.setEmail(row.optional("email"));
+            customer.setCustomerType(row.choice("customer_type", Customer.TYPE_RETAIL,
+                Customer.TYPE_WHOLESALE, Customer.TYPE_RETAIL, Customer.TYPE_DIRECT));
+            customer.setCreditLimit(row.number("credit_limit", 0));
+            customer.setStatus(row.choice("status", "Active", "Active", "Inactive"));
+            return customer;
+        });
+
+        long started = System.currentTimeMillis();
+        records = unique(report, records, Customer::getCustomerName, "customer_name");
+        records = skipExisting(report, records, Customer::getCustomerName, "customers", "customer_name");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        List<Customer> customers = values(records);
+        if (write(report, skipInvalid, customers.size(), conn -> importDAO.insertCustomers(conn, customers))) {
+            customers.forEach(c -> lookups.customers.put(key(c.getCustomerName()), c.getCustomerId()));
+        } else if (report.dryRun) {
+            customers.forEach(c -> lookups.customers.putIfAbsent(key(c.getCustomerName()), NOT_YET_CREATED));
+        }
+    }
+
+    private void importSuppliers(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<Supplier>> records = parse(report, pool, row -> {
+            Supplier supplier = new Supplier();
+            supplier.setSupplierName(row.required("supplier_name"));
+            supplier.setContactPerson(row.optional("contact_person"));
+            supplier.setPhone(row.optional("phone"));
+            supplier.setAddress(row.optional("address"));
+            supplier.setEmail(row.optional("email"));
+            supplier.setCreditLimit(row.number("credit_limit", 0));
+            supplier.setStatus(row.choice("status", "Active", "Active", "Inactive"));
+            return supplier;
+        });
+
+        long started = System.currentTimeMillis();
+        records = unique(report, records, Supplier::getSupplierName, "supplier_name");
+        records = skipExisting(report, records, Supplier::getSupplierName, "suppliers", "supplier_name");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        List<Supplier> suppliers = values(records);
+        if (write(report, skipInvalid, suppliers.size(), conn -> importDAO.insertSuppliers(conn, suppliers))) {
+            suppliers.forEach(s -> lookups.suppliers.put(key(s.getSupplierName()), s.getSupplierId()));
+        } else if (report.dryRun) {
+            suppliers.forEach(s -> lookups.suppliers.putIfAbsent(key(s.getSupplierName()), NOT_YET_CREATED));
+        }
+    }
+
+    private void importProducts(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<Product>> records = parse(report, pool, row -> {
+            Product product = new Product();
+            product.setProductName(row.required("product_name"));
+            product.setProductType(row.choice("product_type", null,
+                Product.TYPE_RAW_PADDY, Product.TYPE_FINISHED_RICE, Product.TYPE_BY_PRODUCT));
+            product.setGrade(row.optional("grade"));
+            product.setUnitPrice(row.positive("unit_price"));
+            product.setUnit(row.choice("unit", Product.UNIT_KG, Product.UNIT_KG, Product.UNIT_BAG, Product.UNIT_TON));
+            product.setDescription(row.optional("description"));
+            product.setStatus(row.choice("status", "Active", "Active", "Inactive"));
+            return product;
+        });
+
+        long started = System.currentTimeMillis();
+        records = unique(report, records, Product::getProductName, "product_name");
+        records = skipExisting(report, records, Product::getProductName, "products", "product_name");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        List<Product> products = values(records);
+        if (write(report, skipInvalid, products.size(), conn -> importDAO.insertProducts(conn, products))) {
+            products.forEach(p -> lookups.products.put(key(p.getProductName()), p));
+        } else if (report.dryRun) {
+            products.forEach(p -> {
+                p.setProductId(NOT_YET_CREATED);
+                lookups.products.putIfAbsent(key(p.getProductName()), p);
+            });
+        }
+    }
+
+    // ===== ORDERS =====
+
+    private void importSales(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid, String importedBy)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<OrderLine>> lines = parse(report, pool,
+            row -> orderLine(row, "sale_number", "customer", "sale_date", lookups.customers, lookups, importedBy));
+
+        long started = System.currentTimeMillis();
+        List<Order> orders = skipExistingOrders(report, group(report, lines), "sales_orders", "sale_number");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        write(report, skipInvalid, orders.size(), conn -> {
+            Map<Integer, List<CustomerLedgerEntry>> ledger = new LinkedHashMap<>();
+            for (int from = 0; from < orders.size(); from += WRITE_BATCH) {
+                List<Order> batch = orders.subList(from, Math.min(from + WRITE_BATCH, orders.size()));
+                List<SalesOrder> sales = new ArrayList<>(batch.size());
+                for (Order order : batch) {
+                    SalesOrder sale = new SalesOrder(order.number, order.partyId, order.date);
+                    sale.setTotalQuantity(order.totalQuantity());
+                    sale.setTotalAmount(order.totalAmount());
+                    sale.setPaidAmount(order.paidAmount);
+                    sale.setNotes(order.notes);
+                    sale.setCreatedBy(order.createdBy);
+                    sales.add(sale);
+                }
+                importDAO.insertSalesOrders(conn, sales);
+
+                List<SalesItem> items = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    SalesOrder sale = sales.get(i);
+                    for (OrderLine line : batch.get(i).lines) {
+                        SalesItem item = new SalesItem(line.productId, line.quantity, line.unitPrice);
+                        item.setTotalPrice(round2(line.quantity * line.unitPrice));
+                        item.setSaleId(sale.getSaleId());
+                        items.add(item);
+                    }
+                    List<CustomerLedgerEntry> entries = ledger.computeIfAbsent(sale.getCustomerId(), id -> new ArrayList<>());
+                    entries.add(ledgerEntry(sale, CustomerLedgerEntry.TYPE_SALE, sale.getTotalAmount(), "Sale "));
+                    if (sale.getPaidAmount() > 0) {
+                        entries.add(ledgerEntry(sale, CustomerLedgerEntry.TYPE_PAYMENT, -sale.getPaidAmount(), "Paid on sale "));
+                    }
+                }
+                importDAO.insertSalesItems(conn, items);
+            }
+            for (Map.Entry<Integer, List<CustomerLedgerEntry>> customer : ledger.entrySet()) {
+                ledgerDAO.postEntries(conn, customer.getKey(), customer.getValue());
+            }
+        });
+    }
+
+    private void importPurchases(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid, String importedBy)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<OrderLine>> lines = parse(report, pool,
+            row -> orderLine(row, "purchase_number", "supplier", "purchase_date", lookups.suppliers, lookups, importedBy));
+
+        long started = System.currentTimeMillis();
+        List<Order> orders = skipExistingOrders(report, group(report, lines), "purchase_orders", "purchase_number");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        write(report, skipInvalid, orders.size(), conn -> {
+            for (int from = 0; from < orders.size(); from += WRITE_BATCH) {
+                List<Order> batch = orders.subList(from, Math.min(from + WRITE_BATCH, orders.size()));
+                List<PurchaseOrder> purchases = new ArrayList<>(batch.size());
+                for (Order order : batch) {
+                    PurchaseOrder purchase = new PurchaseOrder(order.number, order.partyId, order.date);
+                    purchase.setTotalQuantity(order.totalQuantity());
+                    purchase.setTotalAmount(order.totalAmount());
+                    purchase.setPaidAmount(order.paidAmount);
+                    purchase.setNotes(order.notes);
+                    purchase.setCreatedBy(order.createdBy);
+                    purchases.add(purchase);
+                }
+                importDAO.insertPurchaseOrders(conn, purchases);
+
+                List<PurchaseItem> items = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    for (OrderLine line : batch.get(i).lines) {
+                        PurchaseItem item = new PurchaseItem(line.productId, line.quantity, line.unitPrice);
+                        item.setTotalPrice(round2(line.quantity * line.unitPrice));
+                        item.setPurchaseId(purchases.get(i).getPurchaseId());
+                        items.add(item);
+                    }
+                }
+                importDAO.insertPurchaseItems(conn, items);
+            }
+        });
+    }
+
+    // One line of an order file; the order fields repeat on every line of the order
+    private OrderLine orderLine(Row row, String numberColumn, String partyColumn, String dateColumn,
+                                Map<String, Integer> parties, Lookups lookups, String importedBy) {
+        OrderLine line = new OrderLine();
+        line.number = row.required(numberColumn);
+        line.partyName = row.required(partyColumn);
+        line.partyId = row.lookup(partyColumn, parties, 0);
+        line.date = row.date(dateColumn);
+        Product product = row.lookup("product", lookups.products);
+        line.productId = product != null ? product.getProductId() : 0;
+        line.quantity = row.positive("quantity");
+        line.unitPrice = row.positive("unit_price");
+        line.paidAmount = row.optional("paid_amount") == null ? null : row.number("paid_amount", 0);
+        if (line.paidAmount != null && line.paidAmount < 0) {
+            row.error("paid_amount", "must not be negative");
+        }
+        line.notes = row.optional("notes");
+        line.createdBy = row.optional("created_by") != null ? row.optional("created_by") : importedBy;
+        return line;
+    }
+
+    /**
+     * Group order lines by order number. The order fields must agree on
+     * every line; paid_amount is the order's total payment and may be left
+     * blank after the first line. An order with a bad line is dropped whole.
+     */
+    private List<Order> group(ImportReport report, List<Record<OrderLine>> lines) {
+        Map<String, Order> orders = new LinkedHashMap<>();
+        for (Record<OrderLine> record : lines) {
+            OrderLine line = record.value;
+            Order order = orders.get(key(line.number));
+            if (order == null) {
+                order = new Order(record.line, line);
+                orders.put(key(line.number), order);
+                continue;
+            }
+            if (order.invalid) {
+                continue;
+            }
+            String mismatch = null;
+            if (!key(line.partyName).equals(key(order.partyName))) {
+                mismatch = "party '" + line.partyName + "'";
+            } else if (!line.date.equals(order.date)) {
+                mismatch = "date";
+            } else if (line.paidAmount != null && order.paidAmount != 0 && toCents(line.paidAmount) != toCents(order.paidAmount)) {
+                mismatch = "paid_amount";
+            }
+            if (mismatch != null) {
+                report.error(record.line, "", line.number, "The " + mismatch + " differs from line " + order.firstLine
+                    + " of the same order; the order was not imported");
+                order.invalid = true;
+                continue;
+            }
+            if (order.paidAmount == 0 && line.paidAmount != null) {
+                order.paidAmount = line.paidAmount;
+            }
+            order.lines.add(line);
+        }
+
+        List<Order> valid = new ArrayList<>(orders.size());
+        for (Order order : orders.values()) {
+            if (order.invalid) {
+                continue;
+            }
+            if (toCents(order.paidAmount) > toCents(order.totalAmount())) {
+                report.error(order.firstLine, "paid_amount", String.valueOf(order.paidAmount), String.format(
+                    "Paid Rs. %,.2f is more than the order total of Rs. %,.2f", order.paidAmount, order.totalAmount()));
+                continue;
+            }
+            valid.add(order);
+        }
+        return valid;
+    }
+
+    private List<Order> skipExistingOrders(ImportReport report, List<Order> orders, String table, String column) throws SQLException {
+        List<Record<Order>> records = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            records.add(new Record<>(order.firstLine, order));
+        }
+        return values(skipExisting(report, records, order -> order.number, table, column));
+    }
+
+    private CustomerLedgerEntry ledgerEntry(SalesOrder sale, String type, double amount, String notesPrefix) {
+        CustomerLedgerEntry entry = new CustomerLedgerEntry(sale.getCustomerId(), sale.getSaleId(), type, amount, sale.getSaleDate());
+        entry.setNotes(notesPrefix + sale.getSaleNumber());
+        entry.setCreatedBy(sale.getCreatedBy());
+        return entry;
+    }
+
+    // ===== PRODUCTION =====
+
+    private void importProduction(ImportReport report, Lookups lookups, ExecutorService pool, boolean skipInvalid)
+            throws IOException, SQLException, InterruptedException {
+        List<Record<ProductionRecord>> records = parse(report, pool, row -> {
+            ProductionRecord record = new ProductionRecord();
+            record.setProductionNumber(row.required("production_number"));
+            record.setProductionDate(row.date("production_date"));
+            Product raw = row.lookup("raw_product", lookups.products);
+            Product finished = row.lookup("finished_product", lookups.products);
+            if (raw != null && !raw.isRawPaddy()) {
+                row.error("raw_product", "is not a Raw_Paddy product");
+            }
+            if (finished != null && finished.isRawPaddy()) {
+                row.error("finished_product", "must not be a Raw_Paddy product");
+            }
+            record.setRawProductId(raw != null ? raw.getProductId() : 0);
+            record.setFinishedProductId(finished != null ? finished.getProductId() : 0);
+            double input = row.positive("input_quantity");
+            double output = row.number("output_quantity", 0);
+            double waste = row.number("waste_quantity", 0);
+            if (output < 0 || waste < 0) {
+                row.error(output < 0 ? "output_quantity" : "waste_quantity", "must not be negative");
+            } else if (input > 0 && output + waste > input) {
+                row.error("output_quantity", "output and waste are more than the input");
+            }
+            record.setInputQuantity(input);
+            record.setOutputQuantity(output);
+            record.setWasteQuantity(waste);
+            record.setConversionRate(input > 0 ? round2(output / input * 100) : 0);
+            record.setMachineId(row.lookup("machine", lookups.machines, 0));
+            record.setOperatorId(row.lookup("operator", lookups.staff, 0));
+            record.setNotes(row.optional("notes"));
+            return record;
+        });
+
+        long started = System.currentTimeMillis();
+        records = unique(report, records, ProductionRecord::getProductionNumber, "production_number");
+        records = skipExisting(report, records, ProductionRecord::getProductionNumber, "production_records", "production_number");
+        report.validateMillis = System.currentTimeMillis() - started;
+
+        List<ProductionRecord> production = values(records);
+        write(report, skipInvalid, production.size(), conn -> {
+            importDAO.insertProductionRecords(conn, production);
+            yieldDAO.recordRuns(conn, production);
+        });
+    }
+
+    // ===== PIPELINE =====
+
+    /**
+     * Stream the file and convert its rows on the pool, chunk by chunk.
+     * Results are collected in file order; rows with errors go to the
+     * report instead of the result.
+     */
+    private <T> List<Record<T>> parse(ImportReport report, ExecutorService pool, Function<Row, T> mapper)
+            throws IOException, InterruptedException {
+        long started = System.currentTimeMillis();
+        List<Record<T>> records = new ArrayList<>();
+        Deque<Future<Chunk<T>>> pending = new ArrayDeque<>();
+
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(report.file, StandardCharsets.UTF_8))) {
+            String[] header = csv.readRecord();
+            if (header == null) {
+                report.fail("The file is empty");
+                return records;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.putIfAbsent(columnKey(header[i]), i);
+            }
+            List<String> missing = new ArrayList<>();
+            for (String column : report.entity.requiredColumns) {
+                if (!columns.containsKey(columnKey(column))) {
+                    missing.add(column);
+                }
+            }
+            if (!missing.isEmpty()) {
+                report.fail("Missing column(s): " + String.join(", ", missing));
+                return records;
+            }
+
+            List<Row> chunk = new ArrayList<>(CHUNK_ROWS);
+            String[] fields;
+            while ((fields = csv.readRecord()) != null) {
+                chunk.add(new Row(csv.getLineNumber(), fields, columns));
+                if (chunk.size() == CHUNK_ROWS) {
+                    pending.add(submit(pool, chunk, mapper));
+                    chunk = new ArrayList<>(CHUNK_ROWS);
+                    while (pending.size() > MAX_PENDING_CHUNKS) {
+                        collect(pending.poll(), records, report);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(pool, chunk, mapper));
+            }
+            while (!pending.isEmpty()) {
+                collect(pending.poll(), records, report);
+            }
+        } finally {
+            for (Future<Chunk<T>> future : pending) {
+                future.cancel(true);
+            }
+            report.parseMillis = System.currentTimeMillis() - started;
+        }
+        return records;
+    }
+
+    private static <T> Future<Chunk<T>> submit(ExecutorService pool, List<Row> rows, Function<Row, T> mapper) {
+        return pool.submit(() -> {
+            Chunk<T> chunk = new Chunk<>(rows.size());
+            for (Row row : rows) {
+                T value = mapper.apply(row);
+                if (row.errors == null) {
+                    chunk.records.add(new Record<>(row.line, value));
+                } else {
+                    chunk.errors.addAll(row.errors);
+                }
+            }
+            return chunk;
+        });
+    }
+
+    private static <T> void collect(Future<Chunk<T>> future, List<Record<T>> records, ImportReport report)
+            throws InterruptedException {
+        try {
+            Chunk<T> chunk = future.get();
+            report.rowsRead += chunk.rowCount;
+            records.addAll(chunk.records);
+            for (ImportError error : chunk.errors) {
+                report.add(error);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import row conversion failed", e.getCause());
+        }
+    }
+
+    // Drop later rows whose key repeats an earlier row of the file
+    private static <T> List<Record<T>> unique(ImportReport report, List<Record<T>> records, Function<T, String> key, String column) {
+        Map<String, Long> seen = new HashMap<>();
+        List<Record<T>> unique = new ArrayList<>(records.size());
+        for (Record<T> record : records) {
+            String value = key.apply(record.value);
+            Long first = seen.putIfAbsent(key(value), record.line);
+            if (first == null) {
+                unique.add(record);
+            } else {
+                report.error(record.line, column, value, "Repeats line " + first);
+            }
+        }
+        return unique;
+    }
+
+    // Drop records whose key is already in the database; they were imported before
+    private <T> List<Record<T>> skipExisting(ImportReport report, List<Record<T>> records, Function<T, String> key,
+                                             String table, String column) throws SQLException {
+        if (records.isEmpty()) {
+            return records;
+        }
+        List<String> keys = new ArrayList<>(records.size());
+        for (Record<T> record : records) {
+            keys.add(key.apply(record.value));
+        }
+
+        Set<String> existing;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            existing = importDAO.findExisting(conn, table, column, keys);
+        }
+        if (existing.isEmpty()) {
+            return records;
+        }
+
+        List<Record<T>> fresh = new ArrayList<>(records.size() - existing.size());
+        for (Record<T> record : records) {
+            if (existing.contains(key(key.apply(record.value)))) {
+                report.skipped++;
+            } else {
+                fresh.add(record);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Write stage: one transaction for the whole file. Returns true if the
+     * rows were written.
+     */
+    private boolean write(ImportReport report, boolean skipInvalid, int count, FileWriter writer) throws SQLException {
+        report.valid = count;
+        if (report.failed) {
+            return false;
+        }
+        if (report.dryRun) {
+            report.message = "Dry run: " + count + " would be written";
+            return false;
+        }
+        if (report.errorCount > 0 && !skipInvalid) {
+            report.message = "Not written: fix the errors or import again skipping invalid rows";
+            return false;
+        }
+        if (count == 0) {
+            report.message = "Nothing new to write";
+            return false;
+        }
+
+        long started = System.currentTimeMillis();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            writer.write(conn);
+            conn.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            release(conn);
+            report.writeMillis = System.currentTimeMillis() - started;
+        }
+
+        report.written = count;
+        report.message = "Written";
+        DataChangeNotifier.fireDataChanged(report.entity.topic);
+        return true;
+    }
+
+    // The inserts for one file, run inside the import transaction
+    private interface FileWriter {
+        void write(Connection conn) throws SQLException;
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOG.error("Data import rollback failed", rollbackEx);
+            }
+        }
+    }
+
+    private void release(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close(); // Return connection to the pool
+            } catch (SQLException e) {
+                LOG.error("Could not release data import connection", e);
+            }
+        }
+    }
+
+    // ===== HELPERS =====
+
+    private static <T> List<T> values(List<Record<T>> records) {
+        List<T> values = new ArrayList<>(records.size());
+        for (Record<T> record : records) {
+            values.add(record.value);
+        }
+        return values;
+    }
+
+    // Lookup key for names and numbers: trimmed, upper case
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ENGLISH);
+    }
+
+    // "Sale Date", "sale_date" and "SALEDATE" are the same column
+    private static String columnKey(String header) {
+        return header.trim().toLowerCase(Locale.ENGLISH).replaceAll("[\\s_\\-]+", "");
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Master data by upper-case name, every row whatever its status, since
+     * historical records may name customers, products, machines or staff
+     * that are inactive now. Read by the parse threads; only changed
+     * between files.
+     */
+    private static final class Lookups {
+        final Map<String, Integer> customers = new HashMap<>();
+        final Map<String, Integer> suppliers = new HashMap<>();
+        final Map<String, Product> products = new HashMap<>();
+        final Map<String, Integer> machines = new HashMap<>();
+        final Map<String, Integer> staff = new HashMap<>();
+
+        Lookups(DataImportDAO importDAO, Connection conn) throws SQLException {
+            putByKey(customers, importDAO.findIdsByName(conn, "customers", "customer_id", "customer_name"));
+            putByKey(suppliers, importDAO.findIdsByName(conn, "suppliers", "supplier_id", "supplier_name"));
+            putByKey(machines, importDAO.findIdsByName(conn, "machines", "machine_id", "machine_name"));
+            putByKey(staff, importDAO.findIdsByName(conn, "staff", "staff_id", "employee_name"));
+            for (Product product : importDAO.findAllProducts(conn)) {
+                products.putIfAbsent(key(product.getProductName()), product);
+            }
+        }
+
+        private static void putByKey(Map<String, Integer> lookup, Map<String, Integer> idsByName) {
+            idsByName.forEach((name, id) -> lookup.putIfAbsent(key(name), id));
+        }
+    }
+
+    /**
+     * One CSV row being converted. Errors are collected rather than thrown
+     * so every problem in the row is reported at once.
+     */
+    private static final class Row {
+        final long line;
+        final String[] fields;
+        final Map<String, Integer> columns;
+        List<ImportError> errors;
+
+        Row(long line, String[] fields, Map<String, Integer> columns) {
+            this.line = line;
+            this.fields = fields;
+            this.columns = columns;
+        }
+
+        // Trimmed value, or null if the column is missing or blank
+        String optional(String column) {
+            Integer index = columns.get(columnKey(column));
+            if (index == null || index >= fields.length) {
+                return null;
+            }
+            String value = fields[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String required(String column) {
+            String value = optional(column);
+            if (value == null) {
+                error(column, "is required");
+                return "";
+            }
+            return value;
+        }
+
+        double number(String column, double defaultValue) {
+            String value = optional(column);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return BankStatementReader.parseAmount(value).doubleValue();
+            } catch (IllegalArgumentException e) {
+                error(column, "'" + value + "' is not a number");
+                return defaultValue;
+            }
+        }
+
+        double positive(String column) {
+            if (optional(column) == null) {
+                error(column, "is required");
+                return 0;
+            }
+            int errorsBefore = errors == null ? 0 : errors.size();
+            double value = number(column, 0);
+            if (value <= 0 && (errors == null ? 0 : errors.size()) == errorsBefore) {
+                error(column, "must be greater than zero");
+            }
+            return value;
+        }
+
+        Date date(String column) {
+            String value = required(column);
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return java.sql.Date.valueOf(BankStatementReader.parseDate(value));
+            } catch (IllegalArgumentException e) {
+                error(column, "'" + value + "' is not a date");
+                return null;
+            }
+        }
+
+        // One of the allowed values, matched ignoring case; defaultValue when blank (null makes it required)
+        String choice(String column, String defaultValue, String... allowed) {
+            String value = defaultValue == null ? required(column) : optional(column);
+            if (value == null) {
+                return defaultValue;
+            }
+            for (String option : allowed) {
+                if (option.equalsIgnoreCase(value) || option.equalsIgnoreCase(value.replace(' ', '_'))) {
+                    return option;
+                }
+            }
+            if (!value.isEmpty()) {
+                error(column, "'" + value + "' is not one of " + String.join(", ", allowed));
+            }
+            return defaultValue;
+        }
+
+        <V> V lookup(String column, Map<String, V> index) {
+            String value = required(column);
+            if (value.isEmpty()) {
+                return null;
+            }
+            V found = index.get(key(value));
+            if (found == null) {
+                error(column, "'" + value + "' was not found");
+            }
+            return found;
+        }
+
+        int lookup(String column, Map<String, Integer> index, int defaultValue) {
+            Integer id = lookup(column, index);
+            return id != null ? id : defaultValue;
+        }
+
+        void error(String column, String message) {
+            if (errors == null) {
+                errors = new ArrayList<>(2);
+            }
+            String value = optional(column);
+            errors.add(new ImportError(line, column, value, column.isEmpty() ? message : column + " " + message));
+        }
+    }
+
+    private static final class Record<T> {
+        final long line;
+        final T value;
+
+        Record(long line, T value) {
+            this.line = line;
+            this.value = value;
+        }
+    }
+
+    private static final class Chunk<T> {
+        final int rowCount;
+        final List<Record<T>> records;
+        final List<ImportError> errors = new ArrayList<>();
+
+        Chunk(int rowCount) {
+            this.rowCount = rowCount;
+            this.records = new ArrayList<>(rowCount);
+        }
+    }
+
+    private static final class OrderLine {
+        String number;
+        String partyName;
+        int partyId;
+        Date date;
+        int productId;
+        double quantity;
+        double unitPrice;
+        Double paidAmount;
+        String notes;
+        String createdBy;
+    }
+
+    private static final class Order {
+        final long firstLine;
+        final String number;
+        final String partyName;
+        final int partyId;
+        final Date date;
+        final String notes;
+        final String createdBy;
+        final List<OrderLine> lines = new ArrayList<>(4);
+        double paidAmount;
+        boolean invalid;
+
+        Order(long firstLine, OrderLine line) {
+            this.firstLine = firstLine;
+            this.number = line.number;
+            this.partyName = line.partyName;
+            this.partyId = line.partyId;
+            this.date = line.date;
+            this.notes = line.notes;
+            this.createdBy = line.createdBy;
+            this.paidAmount = line.paidAmount != null ? line.paidAmount : 0;
+            lines.add(line);
+        }
+
+        double totalQuantity() {
+            double total = 0;
+            for (OrderLine line : lines) {
+                total += line.quantity;
+            }
+            return total;
+        }
+
+        double totalAmount() {
+            long cents = 0;
+            for (OrderLine line : lines) {
+                cents += toCents(line.quantity * line.unitPrice);
+            }
+            return cents / 100.0;
+        }
+    }
+
+    // ===== RESULTS =====
+
+    /**
+     * A row that could not be imported
+     */
+    public static final class ImportError {
+        private final long line;
+        private final String column;
+        private final String value;
+        private final String message;
+
+        ImportError(long line, String column, String value, String message) {
+            this.line = line;
+            this.column = column;
+            this.value = value;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getColumn() { return column; }
+        public String getValue() { return value; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Outcome of importing one file
+     */
+    public static final class ImportReport {
+        // Errors kept for the report file; the rest are only counted
+        private static final int MAX_ERRORS = 10000;
+
+        private final Entity entity;
+        private final Path file;
+        private final boolean dryRun;
+        private final List<ImportError> errors = new ArrayList<>();
+        private long rowsRead;
+        private int valid;
+        private int skipped;
+        private int written;
+        private int errorCount;
+        private boolean failed;
+        private String message;
+        private long parseMillis;
+        private long validateMillis;
+        private long writeMillis;
+
+        private ImportReport(Entity entity, Path file, boolean dryRun) {
+            this.entity = entity;
+            this.file = file;
+            this.dryRun = dryRun;
+        }
+
+        private void add(ImportError error) {
+            errorCount++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void error(long line, String column, String value, String message) {
+            add(new ImportError(line, column, value, message));
+        }
+
+        private void fail(String message) {
+            this.failed = true;
+            this.message = message;
+        }
+
+        public Entity getEntity() { return entity; }
+        public Path getFile() { return file; }
+        public boolean isDryRun() { return dryRun; }
+        public List<ImportError> getErrors() { return errors; }
+        public long getRowsRead() { return rowsRead; }
+        public int getValid() { return valid; }
+        public int getSkipped() { return skipped; }
+        public int getWritten() { return written; }
+        public int getErrorCount() { return errorCount; }
+        public boolean isFailed() { return failed; }
+        public String getMessage() { return message; }
+
+        public boolean isClean() {
+            return !failed && errorCount == 0;
+        }
+
+        // Records are rows for master data and production, orders for sales and purchases
+        public String getSummary() {
+            return String.format("%,d rows read, %,d valid records, %,d already imported, %,d errors, %,d written"
+                + " (parse %d ms, validate %d ms, write %d ms)%s",
+                rowsRead, valid, skipped, errorCount, written, parseMillis, validateMillis, writeMillis,
+                message != null ? ". " + message : "");
+        }
+
+        /**
+         * Write the errors as CSV (line, column, value, message), in file
+         * order
+         */
+        public void writeErrorReport(Path target) throws IOException {
+            List<ImportError> sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Long.compare(a.line, b.line));
+            try (CsvWriter csv = new CsvWriter(Files.newBufferedWriter(target, StandardCharsets.UTF_8))) {
+                csv.writeRecord("file", "line", "column", "value", "message");
+                if (failed) {
+                    csv.writeRecord(file.getFileName(), "", "", "", message);
+                }
+                for (ImportError error : sorted) {
+                    csv.writeRecord(file.getFileName(), error.line, error.column, error.value, error.message);
+                }
+                if (errorCount > errors.size()) {
+                    csv.writeRecord(file.getFileName(), "", "", "", (errorCount - errors.size()) + " more errors not listed");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.ReportDAO;
+import com.pradeepmill.logging.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Writes payslips and customer statements as one HTML file per document.
+ *
+ * Rows are streamed from the database on the calling thread and each
+ * finished document is rendered and written on a shared fork-join pool.
+ * At most a fixed number of documents are in flight at once, so memory
+ * stays flat however many staff or customers there are. Files are written
+ * to a temporary name and moved into place when complete; a rerun into the
+ * same folder skips documents that already exist, so an interrupted batch
+ * resumes where it stopped.
+ *
+ * Parallelism defaults to the number of processors and can be set with
+ * -Dpradeepmill.documents.parallelism.
+ */
+public class DocumentBatchService {
+
+    private static final Logger LOG = Logger.getLogger(DocumentBatchService.class);
+
+    private static final int PARALLELISM = Math.max(1, Integer.getInteger("pradeepmill.documents.parallelism",
+        Runtime.getRuntime().availableProcessors()));
+
+    // Documents buffered or being rendered at any one time
+    private static final int MAX_IN_FLIGHT = PARALLELISM * 4;
+
+    private static final String TEMP_SUFFIX = ".part";
+
+    private static final ForkJoinPool RENDER_POOL = new ForkJoinPool(PARALLELISM,
+        pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("document-render-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+
+    private final ReportDAO reportDAO;
+
+    public DocumentBatchService() {
+        this.reportDAO = new ReportDAO();
+    }
+
+    /**
+     * Progress callback, called from worker threads after each document
+     */
+    public interface ProgressListener {
+        void progress(int completed, int total);
+    }
+
+    /**
+     * Outcome of one batch run
+     */
+    public static final class BatchResult {
+        public final int written;
+        public final int skipped;
+        public final int failed;
+        public final boolean cancelled;
+        public final boolean queryFailed;
+
+        BatchResult(int written, int skipped, int failed, boolean cancelled, boolean queryFailed) {
+            this.written = written;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.queryFailed = queryFailed;
+        }
+
+        public boolean isComplete() {
+            return failed == 0 && !cancelled && !queryFailed;
+        }
+    }
+
+    /**
+     * Write a payslip for every salary payment of the month (YYYY-MM)
+     */
+    public BatchResult generatePayslips(String month, File outputFolder,
+                                        ProgressListener listener, BooleanSupplier cancelled) throws IOException {
+        Batch batch = new Batch(outputFolder, reportDAO.countPayslips(month), listener, cancelled);
+        boolean queried = reportDAO.streamPayslips(month, row -> {
+            if (batch.isCancelled()) {
+                return;
+            }
+            String fileName = "payslip-" + month + "-" + row.get("staff_id") + ".html";
+            batch.submit(fileName, () -> DocumentTemplates.payslip(row));
+        });
+        return batch.finish(queried);
+    }
+
+    /**
+     * Write a statement for every active customer with sales in the period
+     * or a balance brought forward. Customers with neither are counted as
+     * skipped.
+     */
+    public BatchResult generateCustomerStatements(Date fromDate, Date toDate, File outputFolder,
+                                                  ProgressListener listener, BooleanSupplier cancelled) throws IOException {
+        Batch batch = new Batch(outputFolder, reportDAO.countStatementCustomers(), listener, cancelled);
+        String from = fromDate.toString();
+        String to = toDate.toString();
+
+        // Rows arrive ordered by customer; collect one customer at a time
+        List<Map<String, Object>> current = new ArrayList<>();
+        boolean queried = reportDAO.streamCustomerStatements(fromDate, toDate, row -> {
+            if (batch.isCancelled()) {
+                return;
+            }
+            if (!current.isEmpty() && !current.get(0).get("customer_id").equals(row.get("customer_id"))) {
+                submitStatement(batch, new ArrayList<>(current), from, to);
+                current.clear();
+            }
+            current.add(row);
+        });
+        if (queried && !current.isEmpty() && !batch.isCancelled()) {
+            submitStatement(batch, current, from, to);
+        }
+        return batch.finish(queried);
+    }
+
+    private void submitStatement(Batch batch, List<Map<String, Object>> rows, String from, String to) {
+        Map<String, Object> first = rows.get(0);
+        boolean hasSales = first.get("sale_id") != null;
+        double openingBalance = first.get("opening_balance") instanceof Number
+            ? ((Number) first.get("opening_balance")).doubleValue() : 0.0;
+        if (!hasSales && Math.abs(openingBalance) < 0.005) {
+            batch.skip();
+            return;
+        }
+
+        String fileName = "statement-" + from + "_" + to + "-" + first.get("customer_id") + ".html";
+        batch.submit(fileName, () -> DocumentTemplates.customerStatement(rows, from, to));
+    }
+
+    /**
+     * One run: throttles submissions, writes files and counts outcomes
+     */
+    private static final class Batch {
+        private final Path folder;
+        private final int total;
+        private final ProgressListener listener;
+        private final BooleanSupplier cancelled;
+        private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile boolean interrupted;
+
+        Batch(File outputFolder, int total, ProgressListener listener, BooleanSupplier cancelled) throws IOException {
+            this.folder = outputFolder.toPath();
+            this.total = total;
+            this.listener = listener;
+            this.cancelled = cancelled;
+            Files.createDirectories(folder);
+            removePartialFiles();
+        }
+
+        boolean isCancelled() {
+            return interrupted || cancelled.getAsBoolean();
+        }
+
+        void skip() {
+            skipped.incrementAndGet();
+            reportProgress();
+        }
+
+        // Render and write one document unless it already exists
+        void submit(String fileName, Supplier<String> render) {
+            Path target = folder.resolve(fileName);
+            if (Files.exists(target)) {
+                skip();
+                return;
+            }
+
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                return;
+            }
+
+            RENDER_POOL.execute(() -> {
+                try {
+                    write(target, render.get());
+                    written.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    LOG.error("Could not write document {}", target, e);
+                } finally {
+                    inFlight.release();
+                    reportProgress();
+                }
+            });
+        }
+
+        // Wait for the documents still rendering and report the outcome
+        BatchResult finish(boolean queried) {
+            try {
+                inFlight.acquire(MAX_IN_FLIGHT);
+                inFlight.release(MAX_IN_FLIGHT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+            }
+
+            BatchResult result = new BatchResult(written.get(), skipped.get(), failed.get(), isCancelled(), !queried);
+            LOG.info("Document batch: {} written, {} skipped, {} failed",
+                result.written, result.skipped, result.failed);
+            if (result.cancelled) {
+                LOG.info("Document batch to {} was cancelled; rerun into the same folder to resume", folder);
+            }
+            return result;
+        }
+
+        private void write(Path target, String html) throws IOException {
+            Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+            Files.write(temp, html.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        private void reportProgress() {
+            if (listener != null) {
+                listener.progress(written.get() + skipped.get() + failed.get(), total);
+            }
+        }
+
+        // Files left half-written by an interrupted run
+        private void removePartialFiles() throws IOException {
+            try (DirectoryStream<Path> partial = Files.newDirectoryStream(folder, "*" + TEMP_SUFFIX)) {
+                for (Path path : partial) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.pradeepmill.services;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTML layouts for payslips and customer statements. Each document is a
+ * single self-contained page (inline styles, no images) so it opens in any
+ * browser and prints to PDF from there.
+ */
+final class DocumentTemplates {
+
+    private static final String COMPANY_NAME = "Pradeep Rice Mill";
+
+    private static final String STYLE =
+        "body{font-family:Arial,sans-serif;font-size:12px;margin:32px;color:#222}" +
+        "h1{font-size:18px;margin:0}h2{font-size:14px;margin:4px 0 16px;color:#555}" +
+        "table{border-collapse:collapse;width:100%;margin-top:12px}" +
+        "th,td{border:1px solid #ccc;padding:6px 8px;text-align:left}" +
+        "td.amount,th.amount{text-align:right}" +
+        "tr.total td{font-weight:bold;border-top:2px solid #222}" +
+        ".details td{border:none;padding:2px 8px 2px 0}";
+
+    private DocumentTemplates() {
+    }
+
+    // Payslip for one salary_payments row joined with its staff member
+    static String payslip(Map<String, Object> row) {
+        double basic = number(row.get("basic_salary"));
+        double overtime = number(row.get("overtime_amount"));
+        double bonus = number(row.get("bonus"));
+        double deductions = number(row.get("deductions"));
+
+        StringBuilder html = new StringBuilder(2048);
+        open(html, "Payslip - " + text(row.get("employee_name")) + " - " + text(row.get("payment_month")));
+        html.append("<h1>").append(COMPANY_NAME).append("</h1>")
+            .append("<h2>Payslip for ").append(escape(text(row.get("payment_month")))).append("</h2>");
+
+        html.append("<table class=\"details\">");
+        detail(html, "Employee", text(row.get("employee_name")));
+        detail(html, "Staff ID", text(row.get("staff_id")));
+        detail(html, "Position", text(row.get("position")));
+        detail(html, "Payment Date", text(row.get("payment_date")));
+        detail(html, "Status", text(row.get("payment_status")));
+        html.append("</table>");
+
+        html.append("<table><tr><th>Description</th><th class=\"amount\">Earnings</th><th class=\"amount\">Deductions</th></tr>");
+        line(html, "Basic Salary", basic, 0);
+        line(html, "Overtime (" + quantity(row.get("overtime_hours")) + " hours)", overtime, 0);
+        line(html, "Bonus", bonus, 0);
+        line(html, "Deductions", 0, deductions);
+        html.append("<tr class=\"total\"><td>Net Salary</td><td class=\"amount\" colspan=\"2\">")
+            .append(currency(number(row.get("net_salary")))).append("</td></tr></table>");
+
+        close(html);
+        return html.toString();
+    }
+
+    /**
+     * Statement for one customer: the rows from
+     * ReportDAO.streamCustomerStatements for that customer, in sale order.
+     */
+    static String customerStatement(List<Map<String, Object>> rows, String fromDate, String toDate) {
+        Map<String, Object> customer = rows.get(0);
+        double balance = number(customer.get("opening_balance"));
+
+        StringBuilder html = new StringBuilder(2048 + rows.size() * 256);
+        open(html, "Statement - " + text(customer.get("customer_name")));
+        html.append("<h1>").append(COMPANY_NAME).append("</h1>")
+            .append("<h2>Customer Statement ").append(escape(fromDate)).append(" to ").append(escape(toDate)).append("</h2>");
+
+        html.append("<table class=\"details\">");
+        detail(html, "Customer", text(customer.get("customer_name")));
+        detail(html, "Customer ID", text(customer.get("customer_id")));
+        detail(html, "Contact", text(customer.get("contact_person")));
+        detail(html, "Phone", text(customer.get("phone")));
+        detail(html, "Address", text(customer.get("address")));
+        html.append("</table>");
+
+        html.append("<table><tr><th>Date</th><th>Sale No.</th><th class=\"amount\">Quantity</th>")
+            .append("<th class=\"amount\">Amount</th><th class=\"amount\">Paid</th>")
+            .append("<th class=\"amount\">Balance</th><th>Status</th></tr>");
+        html.append("<tr><td colspan=\"5\">Opening balance</td><td class=\"amount\">")
+            .append(currency(balance)).append("</td><td></td></tr>");
+
+        double totalAmount = 0;
+        double totalPaid = 0;
+        for (Map<String, Object> row : rows) {
+            if (row.get("sale_id") == null) {
+                continue;
+            }
+            double amount = number(row.get("total_amount"));
+            double paid = number(row.get("paid_amount"));
+            totalAmount += amount;
+            totalPaid += paid;
+            balance += amount - paid;
+
+            html.append("<tr><td>").append(escape(text(row.get("sale_date"))))
+                .append("</td><td>").append(escape(text(row.get("sale_number"))))
+                .append("</td><td class=\"amount\">").append(quantity(row.get("total_quantity")))
+                .append("</td><td class=\"amount\">").append(currency(amount))
+                .append("</td><td class=\"amount\">").append(currency(paid))
+                .append("</td><td class=\"amount\">").append(currency(balance))
+                .append("</td><td>").append(escape(text(row.get("payment_status"))))
+                .append("</td></tr>");
+        }
+
+        html.append("<tr class=\"total\"><td colspan=\"3\">Closing balance</td><td class=\"amount\">")
+            .append(currency(totalAmount)).append("</td><td class=\"amount\">").append(currency(totalPaid))
+            .append("</td><td class=\"amount\">").append(currency(balance)).append("</td><td></td></tr></table>");
+
+        close(html);
+        return html.toString();
+    }
+
+    private static void open(StringBuilder html, String title) {
+        html.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"><title>")
+            .append(escape(title)).append("</title><style>").append(STYLE).append("</style></head><body>");
+    }
+
+    private static void close(StringBuilder html) {
+        html.append("</body></html>\n");
+    }
+
+    private static void detail(StringBuilder html, String label, String value) {
+        html.append("<tr><td><b>").append(label).append(":</b></td><td>").append(escape(value)).append("</td></tr>");
+    }
+
+    private static void line(StringBuilder html, String description, double earning, double deduction) {
+        html.append("<tr><td>").append(escape(description)).append("</td><td class=\"amount\">")
+            .append(earning == 0 ? "" : currency(earning)).append("</td><td class=\"amount\">")
+            .append(deduction == 0 ? "" : currency(deduction)).append("</td></tr>");
+    }
+
+    private static String currency(double value) {
+        return String.format("Rs. %,.2f", value);
+    }
+
+    private static String quantity(Object value) {
+        return String.format("%,.2f", number(value));
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,331 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.ReportDAO;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.utils.CsvWriter;
+import com.pradeepmill.utils.XlsxWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Exports reports and tables to CSV or XLSX files.
+ *
+ * Rows go from the source to the file one at a time: report queries are
+ * read with a streaming cursor and each row is written before the next is
+ * read, so memory stays flat however long the export is. The file is
+ * written under a temporary name and moved into place when complete, so a
+ * cancelled or failed export never leaves a half-written file behind.
+ */
+public class ExportService {
+
+    private static final Logger LOG = Logger.getLogger(ExportService.class);
+
+    // Rows between progress callbacks
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private static final String TEMP_SUFFIX = ".part";
+
+    // UTF-8 byte order mark, so Excel opens CSV files with the right encoding
+    private static final char BOM = '\uFEFF';
+
+    public enum Format {
+        CSV("csv"),
+        XLSX("xlsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Progress callback, called on the exporting thread. total is -1 when
+     * the number of rows is not known up front.
+     */
+    public interface ProgressListener {
+        void progress(long written, long total);
+    }
+
+    /**
+     * Hands each row, in column order, to the consumer. Returns false if the
+     * rows could not be read.
+     */
+    public interface RowSource {
+        boolean stream(Consumer<Object[]> rows);
+    }
+
+    /**
+     * What to export: a name (used for the sheet and default file name),
+     * the column headers and where the rows come from.
+     */
+    public static final class Export {
+        private final String name;
+        private final String[] headers;
+        private final IntSupplier rowCount;
+        private final RowSource source;
+
+        // rowCount may be null when the number of rows is not known up front
+        public Export(String name, String[] headers, IntSupplier rowCount, RowSource source) {
+            this.name = name;
+            this.headers = headers.clone();
+            this.rowCount = rowCount;
+            this.source = source;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // File name without directory, e.g. "Sales History.xlsx"
+        public String getDefaultFileName(Format format) {
+            return name.replaceAll("[\\\\/:*?\"<>|]", "_") + "." + format.getExtension();
+        }
+    }
+
+    /**
+     * Outcome of one export
+     */
+    public static final class ExportResult {
+        public final long rows;
+        public final boolean cancelled;
+        public final boolean queryFailed;
+        public final File file;
+
+        ExportResult(long rows, boolean cancelled, boolean queryFailed, File file) {
+            this.rows = rows;
+            this.cancelled = cancelled;
+            this.queryFailed = queryFailed;
+            this.file = file;
+        }
+
+        public boolean isComplete() {
+            return !cancelled && !queryFailed;
+        }
+    }
+
+    // Report columns as {result column, header}
+    private static final String[][] CUSTOMER_DETAILS_COLUMNS = {
+        {"customer_id", "Customer ID"}, {"customer_name", "Customer Name"}, {"phone", "Phone"},
+        {"address", "Address"}, {"customer_type", "Type"}, {"total_orders", "Total Orders"},
+        {"total_purchases", "Total Purchases"}, {"outstanding_balance", "Outstanding Balance"},
+        {"last_purchase_date", "Last Purchase"}
+    };
+
+    private static final String[][] SUPPLIER_DETAILS_COLUMNS = {
+        {"supplier_id", "Supplier ID"}, {"supplier_name", "Supplier Name"}, {"phone", "Phone"},
+        {"address", "Address"}, {"total_orders", "Total Orders"}, {"total_purchases", "Total Purchases"},
+        {"outstanding_payments", "Outstanding Payments"}, {"last_purchase_date", "Last Purchase"}
+    };
+
+    private static final String[][] MONTHLY_SALARY_COLUMNS = {
+        {"staff_id", "Staff ID"}, {"employee_name", "Employee Name"}, {"position", "Position"},
+        {"monthly_salary", "Monthly Salary"}, {"basic_salary", "Basic Salary"}, {"overtime_hours", "Overtime Hours"},
+        {"overtime_amount", "Overtime Amount"}, {"bonus", "Bonus"}, {"deductions", "Deductions"},
+        {"net_salary", "Net Salary"}, {"payment_date", "Payment Date"}, {"payment_status", "Status"}
+    };
+
+    private static final String[][] STOCK_COLUMNS = {
+        {"product_id", "Product ID"}, {"product_name", "Product Name"}, {"product_type", "Type"},
+        {"grade", "Grade"}, {"unit_price", "Unit Price"}, {"unit", "Unit"}, {"current_quantity", "Current Quantity"},
+        {"minimum_level", "Min Level"}, {"maximum_level", "Max Level"}, {"stock_value", "Stock Value"},
+        {"stock_status", "Status"}
+    };
+
+    private static final String[][] PRODUCTION_COLUMNS = {
+        {"production_date", "Date"}, {"production_number", "Production #"}, {"raw_product", "Raw Product"},
+        {"finished_product", "Finished Product"}, {"input_quantity", "Input Quantity"},
+        {"output_quantity", "Output Quantity"}, {"conversion_rate", "Conversion Rate"},
+        {"waste_quantity", "Waste Quantity"}, {"machine_name", "Machine"}, {"operator_name", "Operator"}
+    };
+
+    private static final String[][] SALES_HISTORY_COLUMNS = {
+        {"sale_date", "Date"}, {"sale_number", "Sale #"}, {"customer_name", "Customer"},
+        {"product_name", "Product"}, {"product_type", "Product Type"}, {"quantity", "Quantity"},
+        {"unit_price", "Unit Price"}, {"total_price", "Line Total"}, {"order_total", "Order Total"},
+        {"order_paid", "Order Paid"}, {"payment_status", "Payment Status"}
+    };
+
+    private final ReportDAO reportDAO;
+
+    public ExportService() {
+        this.reportDAO = new ReportDAO();
+    }
+
+    // ===== REPORT EXPORTS =====
+
+    public Export customerDetails() {
+        return reportExport("Customer Details", CUSTOMER_DETAILS_COLUMNS, null, reportDAO::streamCustomerDetailsReport);
+    }
+
+    public Export supplierDetails() {
+        return reportExport("Supplier Details", SUPPLIER_DETAILS_COLUMNS, null, reportDAO::streamSupplierDetailsReport);
+    }
+
+    // month as YYYY-MM
+    public Export monthlySalary(String month) {
+        return reportExport("Salary " + month, MONTHLY_SALARY_COLUMNS, null,
+                            handler -> reportDAO.streamMonthlySalaryReport(month, handler));
+    }
+
+    public Export stock() {
+        return reportExport("Stock", STOCK_COLUMNS, null, reportDAO::streamStockReport);
+    }
+
+    public Export productionSummary(Date fromDate, Date toDate) {
+        return reportExport("Production " + fromDate + " to " + toDate, PRODUCTION_COLUMNS,
+                            () -> reportDAO.countProductionRecords(fromDate, toDate),
+                            handler -> reportDAO.streamProductionSummaryReport(fromDate, toDate, handler));
+    }
+
+    // Every sales line in the period; can be millions of rows
+    public Export salesHistory(Date fromDate, Date toDate) {
+        return reportExport("Sales " + fromDate + " to " + toDate, SALES_HISTORY_COLUMNS,
+                            () -> reportDAO.countSalesHistory(fromDate, toDate),
+                            handler -> reportDAO.streamSalesHistory(fromDate, toDate, handler));
+    }
+
+    // A streamed report query whose rows are picked out by column
+    private interface ReportQuery {
+        boolean stream(Consumer<Map<String, Object>> handler);
+    }
+
+    private static Export reportExport(String name, String[][] columns, IntSupplier rowCount, ReportQuery query) {
+        String[] headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            headers[i] = columns[i][1];
+        }
+        return new Export(name, headers, rowCount, rows -> query.stream(row -> {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = row.get(columns[i][0]);
+            }
+            rows.accept(values);
+        }));
+    }
+
+    // ===== WRITING =====
+
+    /**
+     * Write the export to the file in the given format. Cancelling stops
+     * after the current row and leaves no file; an existing file is only
+     * replaced once the export has completed.
+     */
+    public ExportResult export(Export export, Format format, File file,
+                               ProgressListener listener, BooleanSupplier cancelled) throws IOException {
+        long startTime = System.nanoTime();
+        long total = export.rowCount != null ? export.rowCount.getAsInt() : -1;
+        listener.progress(0, total);
+
+        Path target = file.toPath().toAbsolutePath();
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+
+        long[] written = {0};
+        boolean queried;
+        boolean stopped = false;
+        try (RowWriter writer = openWriter(format, temp, export)) {
+            writer.writeRow(export.headers, true);
+            queried = export.source.stream(row -> {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException();
+                }
+                try {
+                    writer.writeRow(row, false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % PROGRESS_INTERVAL == 0) {
+                    listener.progress(written[0], total);
+                }
+            });
+        } catch (CancellationException e) {
+            queried = true;
+            stopped = true;
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (stopped || !queried) {
+            Files.deleteIfExists(temp);
+            LOG.info("Export of {} to {} stopped after {} rows", export.name, target, written[0]);
+            return new ExportResult(written[0], stopped, !queried, target.toFile());
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        listener.progress(written[0], total);
+        LOG.info("Exported {} rows of {} in {} ms", written[0], export.name, (System.nanoTime() - startTime) / 1_000_000);
+        return new ExportResult(written[0], false, false, target.toFile());
+    }
+
+    // One output format; the header row is written first with header = true
+    private interface RowWriter extends Closeable {
+        void writeRow(Object[] values, boolean header) throws IOException;
+    }
+
+    private static RowWriter openWriter(Format format, Path file, Export export) throws IOException {
+        if (format == Format.XLSX) {
+            XlsxWriter xlsx = new XlsxWriter(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024), export.name);
+            return new RowWriter() {
+                @Override
+                public void writeRow(Object[] values, boolean header) throws IOException {
+                    if (header) {
+                        xlsx.writeHeader(values);
+                    } else {
+                        xlsx.writeRow(values);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    xlsx.close();
+                }
+            };
+        }
+
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 64 * 1024);
+        out.write(BOM);
+        CsvWriter csv = new CsvWriter(out);
+        return new RowWriter() {
+            @Override
+            public void writeRow(Object[] values, boolean header) throws IOException {
+                csv.writeRecord(values);
+            }
+
+            @Override
+            public void close() throws IOException {
+                csv.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.*;
+import com.pradeepmill.models.*;
+import com.pradeepmill.monitoring.MetricsRegistry;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shared cache of active master data (customers, suppliers, products, machines
+ * and staff) used to fill the selection lists in the order and production
+ * dialogs. Lists are loaded on first use (or during startup warm-up) and
+ * dropped when the DAOs report a change to the matching table. An empty list
+ * is not cached: the DAOs also return one when the query fails, so the next
+ * call tries again.
+ */
+public class MasterDataCache implements DataChangeNotifier.DataChangeListener {
+
+    private static final MasterDataCache INSTANCE = new MasterDataCache();
+
+    private static final MetricsRegistry.Counter HITS = MetricsRegistry.counter("cache.masterData.hits");
+    private static final MetricsRegistry.Counter MISSES = MetricsRegistry.counter("cache.masterData.misses");
+
+    static {
+        MetricsRegistry.hitRatio("cache.masterData.hitRatio", HITS, MISSES);
+    }
+
+    private final CustomerDAO customerDAO = new CustomerDAO();
+    private final SupplierDAO supplierDAO = new SupplierDAO();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final MachineDAO machineDAO = new MachineDAO();
+    private final StaffDAO staffDAO = new StaffDAO();
+
+    private volatile List<Customer> activeCustomers;
+    private volatile List<Supplier> activeSuppliers;
+    private volatile List<Product> activeProducts;
+    private volatile List<Machine> activeMachines;
+    private volatile List<Staff> activeStaff;
+
+    private MasterDataCache() {
+        DataChangeNotifier.addListener(this);
+    }
+
+    public static MasterDataCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load every list that is not cached yet
+     */
+    public void loadAll() {
+        getActiveCustomers();
+        getActiveSuppliers();
+        getActiveProducts();
+        getActiveMachines();
+        getActiveStaff();
+    }
+
+    public List<Customer> getActiveCustomers() {
+        List<Customer> customers = activeCustomers;
+        if (customers == null) {
+            MISSES.increment();
+            customers = Collections.unmodifiableList(customerDAO.getAllActiveCustomers());
+            if (!customers.isEmpty()) {
+                activeCustomers = customers;
+            }
+        } else {
+            HITS.increment();
+        }
+        return customers;
+    }
+
+    public List<Supplier> getActiveSuppliers() {
+        List<Supplier> suppliers = activeSuppliers;
+        if (suppliers == null) {
+            MISSES.increment();
+            suppliers = Collections.unmodifiableList(supplierDAO.getAllActiveSuppliers());
+            if (!suppliers.isEmpty()) {
+                activeSuppliers = suppliers;
+            }
+        } else {
+            HITS.increment();
+        }
+        return suppliers;
+    }
+
+    public List<Product> getActiveProducts() {
+        List<Product> products = activeProducts;
+        if (products == null) {
+            MISSES.increment();
+            products = Collections.unmodifiableList(productDAO.getAllActiveProducts());
+            if (!products.isEmpty()) {
+                activeProducts = products;
+            }
+        } else {
+            HITS.increment();
+        }
+        return products;
+    }
+
+    // Active products of one type (Raw_Paddy, Finished_Rice, By_Product)
+    public List<Product> getActiveProductsByType(String productType) {
+        return getActiveProducts().stream()
+            .filter(p -> productType.equalsIgnoreCase(p.getProductType()))
+            .collect(Collectors.toList());
+    }
+
+    public List<Machine> getActiveMachines() {
+        List<Machine> machines = activeMachines;
+        if (machines == null) {
+            MISSES.increment();
+            machines = Collections.unmodifiableList(machineDAO.getAllActiveMachines());
+            if (!machines.isEmpty()) {
+                activeMachines = machines;
+            }
+        } else {
+            HITS.increment();
+        }
+        return machines;
+    }
+
+    public List<Staff> getActiveStaff() {
+        List<Staff> staff = activeStaff;
+        if (staff == null) {
+            MISSES.increment();
+            staff = Collections.unmodifiableList(staffDAO.getAllActiveStaff());
+            if (!staff.isEmpty()) {
+                activeStaff = staff;
+            }
+        } else {
+            HITS.increment();
+        }
+        return staff;
+    }
+
+    @Override
+    public void dataChanged(String topic) {
+        switch (topic) {
+            case DataChangeNotifier.TOPIC_CUSTOMERS:
+                activeCustomers = null;
+                break;
+            case DataChangeNotifier.TOPIC_SUPPLIERS:
+                activeSuppliers = null;
+                break;
+            case DataChangeNotifier.TOPIC_PRODUCTS:
+                activeProducts = null;
+                break;
+            case DataChangeNotifier.TOPIC_MACHINES:
+                activeMachines = null;
+                break;
+            case DataChangeNotifier.TOPIC_STAFF:
+                activeStaff = null;
+                break;
+            default:
+                break;
+        }
+    }
+}
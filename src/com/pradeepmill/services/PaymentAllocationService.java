@@ -0,0 +1,481 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.CustomerLedgerDAO;
+import com.pradeepmill.dao.PaymentAllocationDAO;
+import com.pradeepmill.dao.PurchaseOrderDAO;
+import com.pradeepmill.dao.SalesOrderDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.CustomerLedgerEntry;
+import com.pradeepmill.models.PaymentAllocation;
+import com.pradeepmill.models.PaymentRecord;
+import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.models.SalesOrder;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Spreads one lump-sum payment over a customer's or supplier's outstanding
+ * orders.
+ *
+ * The party's outstanding orders are locked (SELECT ... FOR UPDATE) and the
+ * amount is applied in the order of the chosen strategy, oldest first by
+ * default. All order updates go out as one JDBC batch and the ledger entries
+ * or payment records as one multi-row insert, in the same transaction.
+ *
+ * A payment is identified by its reference number: saving the same
+ * reference for the same party again returns the first allocation instead
+ * of paying the orders twice. A customer's overpayment stays on the ledger
+ * as a credit; a supplier payment larger than what is owed is refused.
+ */
+public class PaymentAllocationService {
+
+    private static final Logger LOG = Logger.getLogger(PaymentAllocationService.class);
+
+    /**
+     * Order in which outstanding orders are paid
+     */
+    public enum Strategy {
+        OLDEST_FIRST("Oldest first (FIFO)"),
+        NEWEST_FIRST("Newest first"),
+        SMALLEST_FIRST("Smallest balance first"),
+        LARGEST_FIRST("Largest balance first");
+
+        private final String label;
+
+        Strategy(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public enum Status { APPLIED, DUPLICATE, FAILED }
+
+    private final SalesOrderDAO salesDAO;
+    private final PurchaseOrderDAO purchaseDAO;
+    private final CustomerLedgerDAO ledgerDAO;
+    private final PaymentAllocationDAO allocationDAO;
+
+    public PaymentAllocationService() {
+        this.salesDAO = new SalesOrderDAO();
+        this.purchaseDAO = new PurchaseOrderDAO();
+        this.ledgerDAO = new CustomerLedgerDAO();
+        this.allocationDAO = new PaymentAllocationDAO();
+    }
+
+    /**
+     * How a customer payment would be applied, from a snapshot of the
+     * outstanding sales. Nothing is locked or saved.
+     */
+    public Plan previewCustomerPayment(int customerId, double amount, Strategy strategy) {
+        return plan(salesLines(salesDAO.getOutstandingSalesByCustomer(customerId)), amount, strategy);
+    }
+
+    /**
+     * How a supplier payment would be applied, from a snapshot of the
+     * outstanding purchases. Nothing is locked or saved.
+     */
+    public Plan previewSupplierPayment(int supplierId, double amount, Strategy strategy) {
+        return plan(purchaseLines(purchaseDAO.getOutstandingPurchasesBySupplier(supplierId)), amount, strategy);
+    }
+
+    /**
+     * Apply a payment received from a customer. The request carries the
+     * customer, amount, reference number, method, date and user.
+     */
+    public Result allocateCustomerPayment(PaymentAllocation request, Strategy strategy) {
+        request.setPartyType(PaymentAllocation.PARTY_CUSTOMER);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Result.failed(invalid);
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            List<SalesOrder> sales = salesDAO.lockOutstandingSales(conn, request.getPartyId());
+            Plan plan = plan(salesLines(sales), request.getPaymentAmount(), strategy);
+
+            if (ledgerDAO.hasPaymentReference(conn, request.getPartyId(), request.getReferenceNumber())
+                    || !allocationDAO.claimReference(conn, describe(request, plan, strategy))) {
+                conn.rollback();
+                return duplicate(request);
+            }
+
+            if (plan.getUnallocated() > 0 && !CustomerLedgerDAO.isLedgerInstalled(conn)) {
+                conn.rollback();
+                return Result.failed(String.format(
+                    "The payment is Rs. %,.2f more than the customer owes and the ledger is not installed to hold the credit.",
+                    plan.getUnallocated()));
+            }
+
+            List<SalesOrder> changed = new ArrayList<>();
+            List<CustomerLedgerEntry> entries = new ArrayList<>();
+            for (Line line : plan.getLines()) {
+                if (line.getApplied() <= 0) {
+                    continue;
+                }
+                SalesOrder sale = findSale(sales, line.getOrderId());
+                sale.setPaidAmount(line.getPaidAfter());
+                sale.setPaymentStatus(line.getStatusAfter());
+                changed.add(sale);
+                entries.add(paymentEntry(request, line.getOrderId(), line.getApplied(),
+                    "Bulk payment on sale " + line.getOrderNumber()));
+            }
+            if (plan.getUnallocated() > 0) {
+                entries.add(paymentEntry(request, 0, plan.getUnallocated(), "Unallocated bulk payment (credit)"));
+            }
+
+            salesDAO.applyPayments(conn, changed);
+            ledgerDAO.postEntries(conn, request.getPartyId(), entries);
+
+            conn.commit();
+            LOG.info("Customer payment {} applied to {} sales", request.getReferenceNumber(), changed.size());
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES);
+            return new Result(Status.APPLIED, request, plan, null);
+
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            LOG.error("Error applying customer payment {}", request.getReferenceNumber(), e);
+            return Result.failed("Database error: " + e.getMessage());
+        } finally {
+            release(conn);
+        }
+    }
+
+    /**
+     * Apply a payment made to a supplier. The request carries the supplier,
+     * amount, reference number, method, date and user.
+     */
+    public Result allocateSupplierPayment(PaymentAllocation request, Strategy strategy) {
+        request.setPartyType(PaymentAllocation.PARTY_SUPPLIER);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Result.failed(invalid);
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            List<PurchaseOrder> purchases = purchaseDAO.lockOutstandingPurchases(conn, request.getPartyId());
+            Plan plan = plan(purchaseLines(purchases), request.getPaymentAmount(), strategy);
+
+            if (purchaseDAO.hasPaymentReference(conn, request.getPartyId(), request.getReferenceNumber())
+                    || !allocationDAO.claimReference(conn, describe(request, plan, strategy))) {
+                conn.rollback();
+                return duplicate(request);
+            }
+
+            if (plan.getUnallocated() > 0) {
+                conn.rollback();
+                return Result.failed(String.format(
+                    "The payment is Rs. %,.2f more than the Rs. %,.2f owed to the supplier.",
+                    plan.getUnallocated(), plan.getOutstanding()));
+            }
+
+            List<PurchaseOrder> changed = new ArrayList<>();
+            List<PaymentRecord> records = new ArrayList<>();
+            for (Line line : plan.getLines()) {
+                if (line.getApplied() <= 0) {
+                    continue;
+                }
+                PurchaseOrder purchase = findPurchase(purchases, line.getOrderId());
+                purchase.setPaidAmount(line.getPaidAfter());
+                purchase.setPaymentStatus(line.getStatusAfter());
+                changed.add(purchase);
+
+                PaymentRecord record = new PaymentRecord(line.getOrderId(), line.getApplied(),
+                    request.getPaymentMethod(), request.getPaymentDate());
+                record.setReferenceNumber(request.getReferenceNumber());
+                record.setNotes("Bulk payment on purchase " + line.getOrderNumber());
+                records.add(record);
+            }
+
+            purchaseDAO.applyPayments(conn, changed);
+            purchaseDAO.insertPaymentRecords(conn, records);
+
+            conn.commit();
+            LOG.info("Supplier payment {} applied to {} purchases", request.getReferenceNumber(), changed.size());
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES);
+            return new Result(Status.APPLIED, request, plan, null);
+
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            LOG.error("Error applying supplier payment {}", request.getReferenceNumber(), e);
+            return Result.failed("Database error: " + e.getMessage());
+        } finally {
+            release(conn);
+        }
+    }
+
+    // ===== PLANNING =====
+
+    /**
+     * Apply the amount to the open lines in strategy order, in whole cents
+     * so the parts always add up to the payment.
+     */
+    static Plan plan(List<Line> open, double amount, Strategy strategy) {
+        List<Line> ordered = new ArrayList<>(open);
+        Collections.sort(ordered, comparator(strategy));
+
+        long remaining = toCents(amount);
+        long outstanding = 0;
+        for (Line line : ordered) {
+            long due = Math.max(0, toCents(line.totalAmount) - toCents(line.paidBefore));
+            long applied = Math.min(due, remaining);
+            line.applied = applied / 100.0;
+            remaining -= applied;
+            outstanding += due;
+        }
+        return new Plan(ordered, toCents(amount) / 100.0, remaining / 100.0, outstanding / 100.0);
+    }
+
+    private static Comparator<Line> comparator(Strategy strategy) {
+        Comparator<Line> oldest = Comparator.comparing((Line line) -> line.orderDate,
+                Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(line -> line.orderId);
+        switch (strategy) {
+            case NEWEST_FIRST:
+                return oldest.reversed();
+            case SMALLEST_FIRST:
+                return Comparator.comparingDouble(Line::getOutstanding).thenComparing(oldest);
+            case LARGEST_FIRST:
+                return Comparator.comparingDouble(Line::getOutstanding).reversed().thenComparing(oldest);
+            default:
+                return oldest;
+        }
+    }
+
+    private static List<Line> salesLines(List<SalesOrder> sales) {
+        List<Line> lines = new ArrayList<>(sales.size());
+        for (SalesOrder sale : sales) {
+            lines.add(new Line(sale.getSaleId(), sale.getSaleNumber(), sale.getSaleDate(),
+                sale.getTotalAmount(), sale.getPaidAmount()));
+        }
+        return lines;
+    }
+
+    private static List<Line> purchaseLines(List<PurchaseOrder> purchases) {
+        List<Line> lines = new ArrayList<>(purchases.size());
+        for (PurchaseOrder purchase : purchases) {
+            lines.add(new Line(purchase.getPurchaseId(), purchase.getPurchaseNumber(), purchase.getPurchaseDate(),
+                purchase.getTotalAmount(), purchase.getPaidAmount()));
+        }
+        return lines;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // ===== HELPERS =====
+
+    private String validate(PaymentAllocation request) {
+        if (request.getPaymentAmount() <= 0) {
+            return "Payment amount must be greater than zero.";
+        }
+        String reference = request.getReferenceNumber();
+        if (reference == null || reference.trim().isEmpty()) {
+            return "A reference number is required so the payment cannot be applied twice.";
+        }
+        request.setReferenceNumber(reference.trim());
+        if (request.getPaymentDate() == null) {
+            request.setPaymentDate(new Date());
+        }
+        return null;
+    }
+
+    // Fill in the allocation totals from the plan
+    private PaymentAllocation describe(PaymentAllocation request, Plan plan, Strategy strategy) {
+        request.setAllocatedAmount(plan.getAllocated());
+        request.setUnallocatedAmount(plan.getUnallocated());
+        request.setOrderCount(plan.getOrderCount());
+        request.setStrategy(strategy.name());
+        return request;
+    }
+
+    private Result duplicate(PaymentAllocation request) {
+        PaymentAllocation existing = allocationDAO.findAllocation(
+            request.getPartyType(), request.getPartyId(), request.getReferenceNumber());
+        LOG.warn("Payment reference {} already used for {}",
+            request.getReferenceNumber(), request.getPartyType() + " " + request.getPartyId());
+        return new Result(Status.DUPLICATE, existing, null,
+            "Reference " + request.getReferenceNumber() + " has already been applied; nothing was changed.");
+    }
+
+    private CustomerLedgerEntry paymentEntry(PaymentAllocation request, int saleId, double amount, String notes) {
+        CustomerLedgerEntry entry = new CustomerLedgerEntry(request.getPartyId(), saleId,
+            CustomerLedgerEntry.TYPE_PAYMENT, -amount, request.getPaymentDate());
+        entry.setPaymentMethod(request.getPaymentMethod());
+        entry.setReferenceNumber(request.getReferenceNumber());
+        entry.setNotes(notes);
+        entry.setCreatedBy(request.getCreatedBy());
+        return entry;
+    }
+
+    private static SalesOrder findSale(List<SalesOrder> sales, int saleId) {
+        for (SalesOrder sale : sales) {
+            if (sale.getSaleId() == saleId) {
+                return sale;
+            }
+        }
+        throw new IllegalStateException("Sale " + saleId + " is not in the locked set");
+    }
+
+    private static PurchaseOrder findPurchase(List<PurchaseOrder> purchases, int purchaseId) {
+        for (PurchaseOrder purchase : purchases) {
+            if (purchase.getPurchaseId() == purchaseId) {
+                return purchase;
+            }
+        }
+        throw new IllegalStateException("Purchase " + purchaseId + " is not in the locked set");
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOG.error("Payment allocation rollback failed", rollbackEx);
+            }
+        }
+    }
+
+    private void release(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+                conn.close(); // Return connection to the pool
+            } catch (SQLException e) {
+                LOG.error("Could not release payment allocation connection", e);
+            }
+        }
+    }
+
+    /**
+     * One outstanding order and the part of the payment applied to it
+     */
+    public static final class Line {
+        private final int orderId;
+        private final String orderNumber;
+        private final Date orderDate;
+        private final double totalAmount;
+        private final double paidBefore;
+        private double applied;
+
+        Line(int orderId, String orderNumber, Date orderDate, double totalAmount, double paidBefore) {
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.orderDate = orderDate;
+            this.totalAmount = totalAmount;
+            this.paidBefore = paidBefore;
+        }
+
+        public int getOrderId() { return orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public Date getOrderDate() { return orderDate; }
+        public double getTotalAmount() { return totalAmount; }
+        public double getPaidBefore() { return paidBefore; }
+        public double getApplied() { return applied; }
+
+        public double getOutstanding() {
+            return Math.max(0, totalAmount - paidBefore);
+        }
+
+        public double getPaidAfter() {
+            return (toCents(paidBefore) + toCents(applied)) / 100.0;
+        }
+
+        public String getStatusAfter() {
+            double paidAfter = getPaidAfter();
+            if (paidAfter >= totalAmount - 0.005) {
+                return SalesOrder.PAYMENT_PAID;
+            }
+            return paidAfter > 0 ? SalesOrder.PAYMENT_PARTIAL : SalesOrder.PAYMENT_PENDING;
+        }
+    }
+
+    /**
+     * Outstanding orders in the order they are paid, with the amount
+     * applied to each
+     */
+    public static final class Plan {
+        private final List<Line> lines;
+        private final double amount;
+        private final double unallocated;
+        private final double outstanding;
+
+        Plan(List<Line> lines, double amount, double unallocated, double outstanding) {
+            this.lines = Collections.unmodifiableList(lines);
+            this.amount = amount;
+            this.unallocated = unallocated;
+            this.outstanding = outstanding;
+        }
+
+        public List<Line> getLines() { return lines; }
+        public double getAmount() { return amount; }
+        public double getUnallocated() { return unallocated; }
+        public double getOutstanding() { return outstanding; }
+
+        public double getAllocated() {
+            return (toCents(amount) - toCents(unallocated)) / 100.0;
+        }
+
+        // Number of orders that receive part of the payment
+        public int getOrderCount() {
+            int count = 0;
+            for (Line line : lines) {
+                if (line.applied > 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Outcome of saving a payment. For a duplicate the allocation is the one
+     * saved earlier (null if payment_allocations is not installed) and there
+     * is no plan.
+     */
+    public static final class Result {
+        private final Status status;
+        private final PaymentAllocation allocation;
+        private final Plan plan;
+        private final String message;
+
+        Result(Status status, PaymentAllocation allocation, Plan plan, String message) {
+            this.status = status;
+            this.allocation = allocation;
+            this.plan = plan;
+            this.message = message;
+        }
+
+        static Result failed(String message) {
+            return new Result(Status.FAILED, null, null, message);
+        }
+
+        public Status getStatus() { return status; }
+        public PaymentAllocation getAllocation() { return allocation; }
+        public Plan getPlan() { return plan; }
+        public String getMessage() { return message; }
+
+        public boolean isApplied() {
+            return status == Status.APPLIED;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.SalaryPaymentDAO;
+import com.pradeepmill.dao.StaffDAO;
+import com.pradeepmill.models.SalaryPayment;
+import com.pradeepmill.models.Staff;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calculates a month's payroll for all staff in one pass over primitive
+ * arrays. The rules are compiled once per run; the pass itself is plain
+ * arithmetic, so it is cheap enough to rerun after every edit. Call it off
+ * the EDT and save the results with calculateAndSave(), which writes the whole month
+ * through SalaryPaymentDAO.savePayrollRun in one transaction.
+ *
+ * For each row:
+ *   overtime   = basic * overtimeMultiplier / standardHours * overtimeHours
+ *   absence    = basic / workingDays * max(0, absentDays - paidLeaveDays)
+ *   deductions = absence + (basic - absence) * sum of deduction percentages
+ *   net        = basic + overtime + bonus - deductions
+ */
+public class PayrollEngine {
+
+    private final PayrollRules rules;
+    private final SalaryPaymentDAO salaryDAO;
+    private final StaffDAO staffDAO;
+
+    public PayrollEngine() {
+        this(PayrollRules.load());
+    }
+
+    public PayrollEngine(PayrollRules rules) {
+        this.rules = rules;
+        this.salaryDAO = new SalaryPaymentDAO();
+        this.staffDAO = new StaffDAO();
+    }
+
+    public PayrollRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Fill in the calculated columns of every row in the batch
+     */
+    public void calculate(Batch batch) {
+        int size = batch.size;
+        PayrollRules.Compiled compiled = rules.compile(batch.position, size);
+
+        double[] basic = batch.basicSalary;
+        double[] overtimeHours = batch.overtimeHours;
+        double[] absentDays = batch.absentDays;
+        double[] bonus = batch.bonus;
+        double[] overtimeFactor = compiled.overtimeFactor;
+        double dailyRateFactor = compiled.dailyRateFactor;
+        double paidLeaveDays = compiled.paidLeaveDays;
+        double deductionRate = compiled.deductionRate;
+        double contributionRate = compiled.contributionRate;
+
+        for (int i = 0; i < size; i++) {
+            double overtime = round2(basic[i] * overtimeFactor[i] * overtimeHours[i]);
+            double cutDays = Math.max(0, absentDays[i] - paidLeaveDays);
+            double absence = round2(Math.min(basic[i], basic[i] * dailyRateFactor * cutDays));
+            double earnedBasic = basic[i] - absence;
+            double deductions = round2(absence + earnedBasic * deductionRate);
+
+            batch.overtimeAmount[i] = overtime;
+            batch.deductions[i] = deductions;
+            batch.employerContributions[i] = round2(earnedBasic * contributionRate);
+            batch.netSalary[i] = round2(basic[i] + overtime + bonus[i] - deductions);
+        }
+    }
+
+    /**
+     * Payments for the calculated batch, ready for savePayrollRun
+     */
+    public List<SalaryPayment> toPayments(Batch batch, String paymentMonth) {
+        List<SalaryPayment> payments = new ArrayList<>(batch.size);
+        for (int i = 0; i < batch.size; i++) {
+            SalaryPayment payment = new SalaryPayment();
+            payment.setStaffId(batch.staffId[i]);
+            payment.setPaymentMonth(paymentMonth);
+            payment.setBasicSalary(batch.basicSalary[i]);
+            payment.setOvertimeHours(batch.overtimeHours[i]);
+            payment.setOvertimeAmount(batch.overtimeAmount[i]);
+            payment.setAbsentDays(batch.absentDays[i]);
+            payment.setBonus(batch.bonus[i]);
+            payment.setDeductions(batch.deductions[i]);
+            payment.setNetSalary(batch.netSalary[i]);
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    /**
+     * Calculate the batch and save it as the month's payroll in one
+     * transaction. Returns null if nothing was saved.
+     */
+    public SalaryPaymentDAO.PayrollRunCounts calculateAndSave(Batch batch, String paymentMonth) {
+        calculate(batch);
+        return salaryDAO.savePayrollRun(paymentMonth, toPayments(batch, paymentMonth));
+    }
+
+    /**
+     * Pay every active staff member who has no payment for the month yet at
+     * the monthly salary, with no overtime, absence or bonus but the
+     * configured deductions. Existing payments are left unchanged. Returns
+     * null if nothing was saved.
+     */
+    public SalaryPaymentDAO.PayrollRunCounts processMonthlyPayments(String paymentMonth) {
+        List<Staff> staff = staffDAO.getAllActiveStaff();
+        Batch batch = new Batch(staff.size());
+        for (int i = 0; i < staff.size(); i++) {
+            Staff member = staff.get(i);
+            batch.set(i, member.getStaffId(), member.getPosition(), member.getMonthlySalary(), 0, 0, 0);
+        }
+        calculate(batch);
+        return salaryDAO.saveNewPayments(paymentMonth, toPayments(batch, paymentMonth));
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Payroll inputs and results for a group of staff, one array slot per
+     * staff member. Fill the inputs with set(), then run calculate().
+     */
+    public static final class Batch {
+        final int size;
+
+        // Inputs
+        final int[] staffId;
+        final String[] position;
+        final double[] basicSalary;
+        final double[] overtimeHours;
+        final double[] absentDays;
+        final double[] bonus;
+
+        // Results
+        final double[] overtimeAmount;
+        final double[] deductions;
+        final double[] employerContributions;
+        final double[] netSalary;
+
+        public Batch(int size) {
+            this.size = size;
+            this.staffId = new int[size];
+            this.position = new String[size];
+            this.basicSalary = new double[size];
+            this.overtimeHours = new double[size];
+            this.absentDays = new double[size];
+            this.bonus = new double[size];
+            this.overtimeAmount = new double[size];
+            this.deductions = new double[size];
+            this.employerContributions = new double[size];
+            this.netSalary = new double[size];
+        }
+
+        public void set(int row, int staffId, String position, double basicSalary,
+                        double overtimeHours, double absentDays, double bonus) {
+            this.staffId[row] = staffId;
+            this.position[row] = position;
+            this.basicSalary[row] = basicSalary;
+            this.overtimeHours[row] = overtimeHours;
+            this.absentDays[row] = absentDays;
+            this.bonus[row] = bonus;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double getOvertimeAmount(int row) {
+            return overtimeAmount[row];
+        }
+
+        public double getDeductions(int row) {
+            return deductions[row];
+        }
+
+        public double getEmployerContributions(int row) {
+            return employerContributions[row];
+        }
+
+        public double getNetSalary(int row) {
+            return netSalary[row];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.logging.Logger;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Earning and deduction rules for the payroll engine.
+ *
+ * Read from payroll.properties in the working directory, overridable with
+ * system properties prefixed "pradeepmill.payroll.":
+ *   overtime.standardHours=208           monthly hours used to get the hourly rate
+ *   overtime.multiplier=1.5              overtime rate as a multiple of the hourly rate
+ *   overtime.multiplier.Supervisor=2.0   overtime multiplier for one position
+ *   attendance.workingDays=26            working days used for the daily rate
+ *   attendance.paidLeaveDays=0           absent days each month that are not cut
+ *   deduction.EPF=8                      employee deductions, percent of basic after attendance cuts
+ *   contribution.EPF=12                  employer contributions (not taken from net salary)
+ *   contribution.ETF=3
+ */
+public final class PayrollRules {
+
+    private static final Logger LOG = Logger.getLogger(PayrollRules.class);
+
+    private static final String CONFIG_FILE = "payroll.properties";
+    private static final String PROPERTY_PREFIX = "pradeepmill.payroll.";
+
+    private final double standardHours;
+    private final double overtimeMultiplier;
+    private final Map<String, Double> overtimeMultiplierByPosition;
+    private final double workingDays;
+    private final double paidLeaveDays;
+    private final Map<String, Double> deductionPercents;
+    private final Map<String, Double> contributionPercents;
+
+    PayrollRules(Properties config) {
+        this.standardHours = positive(config, "overtime.standardHours", 208);
+        this.overtimeMultiplier = number(config, "overtime.multiplier", 1.5);
+        this.workingDays = positive(config, "attendance.workingDays", 26);
+        this.paidLeaveDays = number(config, "attendance.paidLeaveDays", 0);
+
+        Map<String, Double> byPosition = new HashMap<>();
+        Map<String, Double> deductions = new LinkedHashMap<>();
+        Map<String, Double> contributions = new LinkedHashMap<>();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith("overtime.multiplier.")) {
+                byPosition.put(key.substring("overtime.multiplier.".length()).toLowerCase(), number(config, key, overtimeMultiplier));
+            } else if (key.startsWith("deduction.")) {
+                deductions.put(key.substring("deduction.".length()), number(config, key, 0));
+            } else if (key.startsWith("contribution.")) {
+                contributions.put(key.substring("contribution.".length()), number(config, key, 0));
+            }
+        }
+        this.overtimeMultiplierByPosition = byPosition;
+        this.deductionPercents = Collections.unmodifiableMap(deductions);
+        this.contributionPercents = Collections.unmodifiableMap(contributions);
+    }
+
+    /**
+     * Load the rules from payroll.properties and system properties
+     */
+    public static PayrollRules load() {
+        Properties config = new Properties();
+        File file = new File(CONFIG_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                config.load(in);
+            } catch (IOException e) {
+                LOG.warn("Could not read {}: {}", CONFIG_FILE, e.getMessage());
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(PROPERTY_PREFIX)) {
+                config.setProperty(key.substring(PROPERTY_PREFIX.length()), System.getProperty(key));
+            }
+        }
+        return new PayrollRules(config);
+    }
+
+    /**
+     * Resolve the rules for one run: the overtime multiplier of every row
+     * and the deduction and contribution percentages summed into factors,
+     * so the engine's pass over the staff is plain arithmetic.
+     */
+    Compiled compile(String[] positions, int size) {
+        double[] overtimeFactor = new double[size];
+        Map<String, Double> resolved = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String position = positions[i] == null ? "" : positions[i];
+            double multiplier = resolved.computeIfAbsent(position,
+                p -> overtimeMultiplierByPosition.getOrDefault(p.toLowerCase(), overtimeMultiplier));
+            overtimeFactor[i] = multiplier / standardHours;
+        }
+
+        double deductionRate = 0;
+        for (double percent : deductionPercents.values()) {
+            deductionRate += percent / 100.0;
+        }
+        double contributionRate = 0;
+        for (double percent : contributionPercents.values()) {
+            contributionRate += percent / 100.0;
+        }
+        return new Compiled(overtimeFactor, 1.0 / workingDays, paidLeaveDays, deductionRate, contributionRate);
+    }
+
+    public Map<String, Double> getDeductionPercents() {
+        return deductionPercents;
+    }
+
+    public Map<String, Double> getContributionPercents() {
+        return contributionPercents;
+    }
+
+    /**
+     * Rules resolved for one run
+     */
+    static final class Compiled {
+        // Overtime pay per hour as a fraction of basic salary, per row
+        final double[] overtimeFactor;
+        final double dailyRateFactor;
+        final double paidLeaveDays;
+        final double deductionRate;
+        final double contributionRate;
+
+        Compiled(double[] overtimeFactor, double dailyRateFactor, double paidLeaveDays,
+                 double deductionRate, double contributionRate) {
+            this.overtimeFactor = overtimeFactor;
+            this.dailyRateFactor = dailyRateFactor;
+            this.paidLeaveDays = paidLeaveDays;
+            this.deductionRate = deductionRate;
+            this.contributionRate = contributionRate;
+        }
+    }
+
+    private static double number(Properties config, String key, double defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("Ignoring payroll setting {}={}, not a number", key, value);
+            return defaultValue;
+        }
+    }
+
+    private static double positive(Properties config, String key, double defaultValue) {
+        double value = number(config, key, defaultValue);
+        return value > 0 ? value : defaultValue;
+    }
+}
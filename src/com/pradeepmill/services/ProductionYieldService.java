@@ -0,0 +1,161 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.dao.ProductionYieldDAO;
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.ProductionYieldStats;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion rate, waste and throughput of production runs per machine,
+ * raw -> finished product pair, operator and for the whole mill.
+ *
+ * Everything is read from production_yield_stats, which is kept up to date
+ * as runs are posted, so no query scans production_records. Lifetime and
+ * per week, day and shift figures are stored rows; a rolling window of the
+ * last n days is the stored day rows of the window merged together.
+ */
+public class ProductionYieldService {
+
+    private static final Logger LOG = Logger.getLogger(ProductionYieldService.class);
+
+    /**
+     * Period shown: the lifetime rows or a rolling window of days
+     */
+    public enum Window {
+        LIFETIME("Lifetime", 0),
+        LAST_7_DAYS("Last 7 days", 7),
+        LAST_30_DAYS("Last 30 days", 30),
+        LAST_12_WEEKS("Last 12 weeks", 84);
+
+        private final String label;
+        private final int days;
+
+        Window(String label, int days) {
+            this.label = label;
+            this.days = days;
+        }
+
+        // Length of the rolling window in days, 0 for lifetime
+        public int getDays() {
+            return days;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final ProductionYieldDAO yieldDAO;
+
+    public ProductionYieldService() {
+        this.yieldDAO = new ProductionYieldDAO();
+    }
+
+    // Whether db/production_yield.sql has been applied
+    public boolean isAvailable() {
+        return ProductionYieldDAO.isStatsInstalled();
+    }
+
+    /**
+     * Statistics of every machine, product pair or operator (or the whole
+     * mill) for the window, one row each
+     */
+    public List<ProductionYieldStats> getStats(String dimension, Window window) {
+        if (window == Window.LIFETIME) {
+            return yieldDAO.getStats(dimension, ProductionYieldStats.PERIOD_LIFETIME,
+                                     ProductionYieldDAO.LIFETIME_START, ProductionYieldDAO.LIFETIME_START);
+        }
+        return getRolling(dimension, window.getDays());
+    }
+
+    /**
+     * Statistics of the last days (today included), merged from the day
+     * rows of each machine, product pair or operator
+     */
+    public List<ProductionYieldStats> getRolling(String dimension, int days) {
+        LocalDate today = LocalDate.now();
+        List<ProductionYieldStats> dayRows = yieldDAO.getStats(dimension, ProductionYieldStats.PERIOD_DAY,
+                                                               Date.valueOf(today.minusDays(days - 1)), Date.valueOf(today));
+
+        Map<String, ProductionYieldStats> merged = new LinkedHashMap<>();
+        for (ProductionYieldStats day : dayRows) {
+            String key = day.getDimensionId() + ":" + day.getFinishedProductId();
+            ProductionYieldStats total = merged.get(key);
+            if (total == null) {
+                total = new ProductionYieldStats(day.getDimension(), day.getDimensionId(), day.getFinishedProductId());
+                total.setPeriod(ProductionYieldStats.PERIOD_DAY);
+                total.setPeriodStart(Date.valueOf(today.minusDays(days - 1)));
+                total.setName(day.getName());
+                total.setFinishedProductName(day.getFinishedProductName());
+                merged.put(key, total);
+            }
+            total.merge(day);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Shift, day or week rows of one machine, product pair or operator from
+     * the period holding fromDate up to today, oldest first
+     */
+    public List<ProductionYieldStats> getTrend(ProductionYieldStats of, String period, LocalDate fromDate) {
+        LocalDate from = ProductionYieldStats.PERIOD_WEEK.equals(period)
+            ? fromDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : fromDate;
+        return yieldDAO.getSeries(of.getDimension(), of.getDimensionId(), of.getFinishedProductId(),
+                                  period, Date.valueOf(from), Date.valueOf(LocalDate.now()));
+    }
+
+    /**
+     * Recompute all statistics from production_records, e.g. after the
+     * table is installed or records were changed outside the application.
+     * Returns false if the statistics are not installed or the rebuild failed.
+     */
+    public boolean rebuild() {
+        long started = System.currentTimeMillis();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            if (!yieldDAO.rebuild(conn)) {
+                conn.rollback();
+                return false;
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOG.error("Yield statistics rollback failed", rollbackEx);
+                }
+            }
+            LOG.error("Rebuilding the production yield statistics failed", e);
+            return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close(); // Return connection to the pool
+                } catch (SQLException e) {
+                    LOG.error("Could not release connection after the yield rebuild", e);
+                }
+            }
+        }
+
+        LOG.info("Rebuilt the production yield statistics in {} ms", System.currentTimeMillis() - started);
+        DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTION);
+        return true;
+    }
+}
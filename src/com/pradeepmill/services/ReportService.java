@@ -2,7 +2,13 @@ package com.pradeepmill.services;
 
 import com.pradeepmill.dao.ReportDAO;
 import com.pradeepmill.dao.StockInventoryDAO;
+import com.pradeepmill.database.SnapshotSession;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.monitoring.MetricsRegistry;
+import com.pradeepmill.monitoring.ReportGenerationEvent;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -11,16 +17,37 @@ import com.pradeepmill.models.*;
 
 public class ReportService {
     
+    private static final Logger LOG = Logger.getLogger(ReportService.class);
+    
+    private static final MetricsRegistry.Timer CUSTOMER_REPORT_TIMER = MetricsRegistry.timer("reports.customerDetails");
+    private static final MetricsRegistry.Timer SUPPLIER_REPORT_TIMER = MetricsRegistry.timer("reports.supplierDetails");
+    private static final MetricsRegistry.Timer SALARY_REPORT_TIMER = MetricsRegistry.timer("reports.monthlySalary");
+    private static final MetricsRegistry.Timer STOCK_REPORT_TIMER = MetricsRegistry.timer("reports.stock");
+    private static final MetricsRegistry.Timer SUMMARY_TIMER = MetricsRegistry.timer("reports.summaryStatistics");
+    private static final MetricsRegistry.Timer AGING_REPORT_TIMER = MetricsRegistry.timer("reports.aging");
+    
+    // Sides of the aging report
+    public static final String AGING_RECEIVABLES = "receivables";
+    public static final String AGING_PAYABLES = "payables";
+    
     private ReportDAO reportDAO;
     
     public ReportService() {
-        this.reportDAO = new ReportDAO();
+        this(new ReportDAO());
+    }
+    
+    // Used by the benchmarks to supply report rows without a database
+    ReportService(ReportDAO reportDAO) {
+        this.reportDAO = reportDAO;
     }
     
     /**
      * Generate Customer Details Report (Required Report #1)
      */
     public List<Map<String, Object>> generateCustomerDetailsReport() {
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         try {
             List<Map<String, Object>> customerData = reportDAO.getCustomerDetailsReport();
             
@@ -38,11 +65,14 @@ public class ReportService {
                 customer.put("payment_status", getCustomerPaymentStatus(outstanding));
             }
             
+            event.rows = customerData.size();
             return customerData;
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Customer details report failed", e);
             return List.of(); // Return empty list on error
+        } finally {
+            finishReport(CUSTOMER_REPORT_TIMER, startTime, event, "Customer Details");
         }
     }
     
@@ -50,6 +80,9 @@ public class ReportService {
      * Generate Supplier Details Report (Required Report #2)
      */
     public List<Map<String, Object>> generateSupplierDetailsReport() {
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         try {
             List<Map<String, Object>> supplierData = reportDAO.getSupplierDetailsReport();
             
@@ -67,11 +100,14 @@ public class ReportService {
                 supplier.put("payment_status", getSupplierPaymentStatus(outstanding));
             }
             
+            event.rows = supplierData.size();
             return supplierData;
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Supplier details report failed", e);
             return List.of();
+        } finally {
+            finishReport(SUPPLIER_REPORT_TIMER, startTime, event, "Supplier Details");
         }
     }
     
@@ -79,12 +115,15 @@ public class ReportService {
      * Generate Monthly Salary Report (Required Report #3) - SIMPLIFIED VERSION
      */
     public List<Map<String, Object>> generateMonthlySalaryReport(String month) {
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         try {
             List<Map<String, Object>> salaryData = reportDAO.getMonthlySalaryReport(month);
             
             // Process data for better presentation
             for (Map<String, Object> salary : salaryData) {
-                // Format currency values - handle BigDecimal (simplified - no OT/deductions)
+                // Format currency values - handle BigDecimal
                 Object monthlySalary = salary.get("monthly_salary");
                 Object basicSalary = salary.get("basic_salary");
                 Object bonus = salary.get("bonus");
@@ -96,17 +135,16 @@ public class ReportService {
                 salary.put("formatted_bonus", formatCurrency(bonus));
                 salary.put("formatted_net_salary", formatCurrency(netSalary));
                 
-                // Set simplified fields to 0 (not used in simplified system)
-                salary.put("overtime_hours", 0.0);
-                salary.put("overtime_amount", 0.0);
-                salary.put("deductions", 0.0);
-                salary.put("formatted_overtime_amount", "Rs. 0.00");
-                salary.put("formatted_deductions", "Rs. 0.00");
+                // Overtime and deductions as calculated by the payroll engine
+                salary.put("formatted_overtime_amount", formatCurrency(salary.get("overtime_amount")));
+                salary.put("formatted_deductions", formatCurrency(salary.get("deductions")));
                 
-                // Calculate actual payment amount (simplified)
+                // Calculate actual payment amount
                 double netValue = convertToDouble(netSalary);
                 double basicValue = convertToDouble(basicSalary);
                 double bonusValue = convertToDouble(bonus);
+                double overtimeValue = convertToDouble(salary.get("overtime_amount"));
+                double deductionValue = convertToDouble(salary.get("deductions"));
                 
                 // If no payment record exists, use monthly salary, otherwise use net salary
                 double actualPayment;
@@ -117,8 +155,8 @@ public class ReportService {
                     actualPayment = convertToDouble(monthlySalary);
                     salary.put("payment_status", "Pending");
                 } else if ("Paid".equals(paymentStatus)) {
-                    // Payment exists - use net salary (basic + bonus)
-                    actualPayment = netValue > 0 ? netValue : (basicValue + bonusValue);
+                    // Payment exists - use net salary (basic + overtime + bonus - deductions)
+                    actualPayment = netValue > 0 ? netValue : (basicValue + overtimeValue + bonusValue - deductionValue);
                 } else {
                     // Pending payment - use monthly salary
                     actualPayment = convertToDouble(monthlySalary);
@@ -128,11 +166,14 @@ public class ReportService {
                 salary.put("formatted_actual_payment", formatCurrency(actualPayment));
             }
             
+            event.rows = salaryData.size();
             return salaryData;
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Monthly salary report failed", e);
             return List.of();
+        } finally {
+            finishReport(SALARY_REPORT_TIMER, startTime, event, "Monthly Salary");
         }
     }
     
@@ -140,6 +181,9 @@ public class ReportService {
      * Generate Stock Report
      */
     public List<Map<String, Object>> generateStockReport() {
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         try {
             // Use StockInventoryDAO
             StockInventoryDAO stockDAO = new StockInventoryDAO();
@@ -189,11 +233,70 @@ public class ReportService {
                 stockData.add(stockMap);
             }
             
+            event.rows = stockData.size();
             return stockData;
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Stock report failed", e);
             return new ArrayList<>();
+        } finally {
+            finishReport(STOCK_REPORT_TIMER, startTime, event, "Stock");
+        }
+    }
+    
+    /**
+     * Generate the receivables (customers) or payables (suppliers) aging
+     * report as of today: outstanding amounts per party in 0-30, 31-60,
+     * 61-90 and 90+ day buckets. Cached until the end of the day or the
+     * next change to sales or purchases.
+     */
+    public List<Map<String, Object>> generateAgingReport(String side) {
+        LocalDate today = LocalDate.now();
+        return AgingReportCache.getInstance().get(side, today, () -> loadAgingReport(side, today));
+    }
+    
+    /**
+     * Open orders of one party in one aging bucket (index into
+     * ReportDAO.AGING_BUCKETS, or -1 for all), aged as of today like the
+     * report
+     */
+    public List<Map<String, Object>> getAgingOrders(String side, int partyId, int bucket) {
+        java.sql.Date asOf = java.sql.Date.valueOf(LocalDate.now());
+        try {
+            return AGING_RECEIVABLES.equals(side)
+                ? reportDAO.getReceivablesAgingOrders(partyId, bucket, asOf)
+                : reportDAO.getPayablesAgingOrders(partyId, bucket, asOf);
+        } catch (Exception e) {
+            LOG.error("Aging orders of party {} failed", partyId, e);
+            return new ArrayList<>();
+        }
+    }
+    
+    // Recompute the aging report instead of using today's cached rows
+    public List<Map<String, Object>> refreshAgingReport(String side) {
+        AgingReportCache.getInstance().clear();
+        return generateAgingReport(side);
+    }
+    
+    private List<Map<String, Object>> loadAgingReport(String side, LocalDate day) {
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        try {
+            java.sql.Date asOf = java.sql.Date.valueOf(day);
+            List<Map<String, Object>> rows = AGING_RECEIVABLES.equals(side)
+                ? reportDAO.getReceivablesAging(asOf)
+                : reportDAO.getPayablesAging(asOf);
+            
+            event.rows = rows.size();
+            return Collections.unmodifiableList(rows);
+            
+        } catch (Exception e) {
+            LOG.error("Aging report ({}) failed", side, e);
+            return List.of();
+        } finally {
+            finishReport(AGING_REPORT_TIMER, startTime, event,
+                AGING_RECEIVABLES.equals(side) ? "Receivables Aging" : "Payables Aging");
         }
     }
     
@@ -203,62 +306,84 @@ public class ReportService {
     public Map<String, Object> getReportSummaryStatistics() {
         Map<String, Object> summary = new HashMap<>();
         
+        long startTime = System.nanoTime();
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         try {
-            // Get dashboard statistics
-            Map<String, Object> dashboardStats = reportDAO.getDashboardStats();
-            
-            // Customer statistics
-            List<Map<String, Object>> customers = reportDAO.getCustomerDetailsReport();
-            summary.put("total_customers", customers.size());
-            
-            double totalCustomerPurchases = customers.stream()
-                .mapToDouble(c -> convertToDouble(c.get("total_purchases")))
-                .sum();
-            summary.put("total_customer_purchases", totalCustomerPurchases);
-            
-            // Supplier statistics
-            List<Map<String, Object>> suppliers = reportDAO.getSupplierDetailsReport();
-            summary.put("total_suppliers", suppliers.size());
-            
-            double totalSupplierPayments = suppliers.stream()
-                .mapToDouble(s -> convertToDouble(s.get("total_purchases")))
-                .sum();
-            summary.put("total_supplier_payments", totalSupplierPayments);
-            
-            // Stock statistics - handle BigDecimal
-            summary.put("total_stock_value", convertToDouble(dashboardStats.get("total_stock_value")));
-            summary.put("low_stock_items", dashboardStats.get("low_stock_items"));
-            
-            // Current month salary expense (simplified calculation)
-            String currentMonth = getCurrentMonth();
-            List<Map<String, Object>> salaries = reportDAO.getMonthlySalaryReport(currentMonth);
-            double totalSalaryExpense = salaries.stream()
-                .mapToDouble(s -> {
-                    // Simplified: basic salary + bonus (no OT or deductions)
-                    double basicSalary = convertToDouble(s.get("basic_salary"));
-                    double bonus = convertToDouble(s.get("bonus"));
-                    double monthlySalary = convertToDouble(s.get("monthly_salary"));
-                    
-                    // If payment exists, use basic + bonus, otherwise use monthly salary
-                    String paymentStatus = (String) s.get("payment_status");
-                    if ("Paid".equals(paymentStatus)) {
-                        return basicSalary + bonus;
-                    } else {
-                        return monthlySalary;
-                    }
-                })
-                .sum();
-            summary.put("monthly_salary_expense", totalSalaryExpense);
+            // One read-only snapshot, so the totals reconcile with each other
+            SnapshotSession.read(() -> collectSummaryStatistics(summary));
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Report summary statistics failed", e);
+        } finally {
+            finishReport(SUMMARY_TIMER, startTime, event, "Summary Statistics");
         }
         
         return summary;
     }
     
+    // Run the summary queries and fill in the figures
+    private Map<String, Object> collectSummaryStatistics(Map<String, Object> summary) {
+        // Get dashboard statistics
+        Map<String, Object> dashboardStats = reportDAO.getDashboardStats();
+        
+        // Customer statistics
+        List<Map<String, Object>> customers = reportDAO.getCustomerDetailsReport();
+        summary.put("total_customers", customers.size());
+        
+        double totalCustomerPurchases = customers.stream()
+            .mapToDouble(c -> convertToDouble(c.get("total_purchases")))
+            .sum();
+        summary.put("total_customer_purchases", totalCustomerPurchases);
+        
+        // Supplier statistics
+        List<Map<String, Object>> suppliers = reportDAO.getSupplierDetailsReport();
+        summary.put("total_suppliers", suppliers.size());
+        
+        double totalSupplierPayments = suppliers.stream()
+            .mapToDouble(s -> convertToDouble(s.get("total_purchases")))
+            .sum();
+        summary.put("total_supplier_payments", totalSupplierPayments);
+        
+        // Stock statistics - handle BigDecimal
+        summary.put("total_stock_value", convertToDouble(dashboardStats.get("total_stock_value")));
+        summary.put("low_stock_items", dashboardStats.get("low_stock_items"));
+        
+        // Current month salary expense (simplified calculation)
+        String currentMonth = getCurrentMonth();
+        List<Map<String, Object>> salaries = reportDAO.getMonthlySalaryReport(currentMonth);
+        double totalSalaryExpense = salaries.stream()
+            .mapToDouble(s -> {
+                double netSalary = convertToDouble(s.get("net_salary"));
+                double basicSalary = convertToDouble(s.get("basic_salary"));
+                double bonus = convertToDouble(s.get("bonus"));
+                double monthlySalary = convertToDouble(s.get("monthly_salary"));
+                
+                // If payment exists, use its net salary, otherwise use monthly salary
+                String paymentStatus = (String) s.get("payment_status");
+                if ("Paid".equals(paymentStatus)) {
+                    return netSalary > 0 ? netSalary : basicSalary + bonus;
+                } else {
+                    return monthlySalary;
+                }
+            })
+            .sum();
+        summary.put("monthly_salary_expense", totalSalaryExpense);
+        
+        return summary;
+    }
+    
+    // Record the report time and emit its flight recorder event
+    private static void finishReport(MetricsRegistry.Timer timer, long startTime, ReportGenerationEvent event, String report) {
+        timer.stop(startTime);
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.commit();
+        }
+    }
+    
     // Helper method to safely convert various numeric types to double
-    private double convertToDouble(Object value) {
+    double convertToDouble(Object value) {
         if (value == null) return 0.0;
         
         if (value instanceof BigDecimal) {
@@ -286,7 +411,7 @@ public class ReportService {
     }
     
     // Helper method to format currency values handling multiple types
-    private String formatCurrency(Object amount) {
+    String formatCurrency(Object amount) {
         if (amount == null) return "Rs. 0.00";
         
         double value = convertToDouble(amount);
@@ -0,0 +1,121 @@
+package com.pradeepmill.services;
+
+import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.utils.StartupTimeline;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Warms up the application in the background while the login form is open:
+ * loads the JDBC driver, opens the pooled connections, fills the master data
+ * cache and pre-computes the dashboard figures. Each step is recorded in the
+ * StartupTimeline.
+ */
+public class StartupService {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "startup-warmup-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile CompletableFuture<Void> databaseReady;
+    private static volatile CompletableFuture<Void> dataReady;
+    private static final AtomicReference<Map<String, Object>> preloadedDashboardMetrics = new AtomicReference<>();
+
+    /**
+     * Start the warm-up tasks. Returns a future that completes once the first
+     * database connection is open (or fails if the database cannot be reached).
+     */
+    public static synchronized CompletableFuture<Void> startWarmUp() {
+        if (databaseReady != null) {
+            return databaseReady;
+        }
+
+        // Driver and first connection are needed by everything else
+        databaseReady = CompletableFuture.runAsync(() -> {
+            timed("Load JDBC driver", () -> {
+                try {
+                    DatabaseConnection.loadDriver();
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("MySQL Driver not found: " + e.getMessage(), e);
+                }
+            });
+            timed("Open first connection", () -> warmUpPool(1));
+        }, executor);
+
+        // These run in parallel once a connection is available
+        CompletableFuture<Void> pool = databaseReady.thenRunAsync(() ->
+            timed("Connection pool warm-up", () -> warmUpPool(DatabaseConnection.getPoolSize())), executor);
+        CompletableFuture<Void> masterData = databaseReady.thenRunAsync(() ->
+            timed("Master data cache load", () -> MasterDataCache.getInstance().loadAll()), executor);
+        dataReady = CompletableFuture.allOf(pool, masterData);
+        databaseReady.thenRunAsync(() ->
+            timed("Dashboard pre-aggregation", () ->
+                preloadedDashboardMetrics.set(new DashboardService().getAllDashboardMetrics())), executor);
+
+        return databaseReady;
+    }
+
+    /**
+     * Future that completes once the connection pool is open and the master
+     * data cache is loaded; the dashboard figures may still be computing.
+     * Completes exceptionally if the database cannot be reached.
+     */
+    public static CompletableFuture<Void> whenDataReady() {
+        startWarmUp();
+        return dataReady;
+    }
+
+    /**
+     * Wait up to the given time for the warm-up connection. Returns false if the
+     * database could not be reached or warm-up was never started.
+     */
+    public static boolean awaitDatabase(long timeoutMillis) {
+        CompletableFuture<Void> ready = databaseReady;
+        if (ready == null) {
+            return false;
+        }
+        try {
+            ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Dashboard figures computed during warm-up. They are handed out once so
+     * that later refreshes always read current data; returns null if they are
+     * not ready yet.
+     */
+    public static Map<String, Object> takePreloadedDashboardMetrics() {
+        return preloadedDashboardMetrics.getAndSet(null);
+    }
+
+    private static void warmUpPool(int connections) {
+        try {
+            DatabaseConnection.warmUp(connections);
+        } catch (Exception e) {
+            throw new IllegalStateException("Database connection failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void timed(String phase, Runnable task) {
+        StartupTimeline.begin(phase);
+        try {
+            task.run();
+        } finally {
+            StartupTimeline.end(phase);
+        }
+    }
+}
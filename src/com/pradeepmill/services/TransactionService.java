@@ -2,21 +2,36 @@ package com.pradeepmill.services;
 
 import com.pradeepmill.dao.*;
 import com.pradeepmill.models.*;
-import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.database.TransactionScope;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.monitoring.ProductionTransactionEvent;
+import com.pradeepmill.monitoring.PurchaseTransactionEvent;
+import com.pradeepmill.monitoring.SalesTransactionEvent;
+import com.pradeepmill.monitoring.TransactionMetrics;
+import com.pradeepmill.utils.DataChangeNotifier;
 import java.util.List;
 import java.util.Date;
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 
 public class TransactionService {
     
+    private static final Logger LOG = Logger.getLogger(TransactionService.class);
+    private static final TransactionMetrics PURCHASE_METRICS = new TransactionMetrics("purchase");
+    private static final TransactionMetrics SALES_METRICS = new TransactionMetrics("sale");
+    private static final TransactionMetrics PRODUCTION_METRICS = new TransactionMetrics("production");
+    
+    // Post through the stored procedures in db/posting_procedures.sql
+    // (-Dpradeepmill.posting.procedures=true); turned off again if they are not installed
+    private static volatile boolean storedProcedurePosting = Boolean.getBoolean("pradeepmill.posting.procedures");
+    
     private StockInventoryDAO stockDAO;
     private SupplierDAO supplierDAO;
     private CustomerDAO customerDAO;
     private ProductDAO productDAO;
     private PurchaseOrderDAO purchaseOrderDAO;
     private SalesOrderDAO salesOrderDAO;
+    private PostingProcedureDAO postingDAO;
     
     public TransactionService() {
         this.stockDAO = new StockInventoryDAO();
@@ -25,6 +40,19 @@ public class TransactionService {
         this.productDAO = new ProductDAO();
         this.purchaseOrderDAO = new PurchaseOrderDAO();
         this.salesOrderDAO = new SalesOrderDAO();
+        this.postingDAO = new PostingProcedureDAO();
+    }
+    
+    /**
+     * Switch between posting in one stored procedure call and the
+     * client-side path below
+     */
+    public static void setStoredProcedurePosting(boolean enabled) {
+        storedProcedurePosting = enabled;
+    }
+    
+    public static boolean isStoredProcedurePosting() {
+        return storedProcedurePosting;
     }
     
     /**
@@ -32,11 +60,18 @@ public class TransactionService {
      * This involves creating the purchase order AND updating stock levels
      */
     public boolean processPurchaseTransaction(int supplierId, List<PurchaseItem> items, String notes, String createdBy) {
-        Connection conn = null;
+        if (storedProcedurePosting) {
+            return postPurchaseWithProcedure(supplierId, items, notes, createdBy);
+        }
+        
+        TransactionScope tx = null;
+        long startTime = System.nanoTime();
+        long phaseStart = startTime;
+        PurchaseTransactionEvent event = new PurchaseTransactionEvent();
+        event.begin();
         try {
-            // Start database transaction
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            // Start database transaction; the DAO calls below join it
+            tx = TransactionScope.begin();
             
             // Validate supplier exists and is active
             Supplier supplier = supplierDAO.findSupplierById(supplierId);
@@ -63,6 +98,8 @@ public class TransactionService {
                 totalAmount += item.getQuantity() * item.getUnitPrice();
             }
             
+            phaseStart = PURCHASE_METRICS.endPhase(TransactionMetrics.VALIDATE, phaseStart);
+            
             // Create purchase order
             PurchaseOrder purchase = new PurchaseOrder();
             purchase.setPurchaseNumber(generatePurchaseNumber());
@@ -81,12 +118,16 @@ public class TransactionService {
                 throw new Exception("Failed to create purchase order");
             }
             
+            phaseStart = PURCHASE_METRICS.endPhase(TransactionMetrics.INSERT_ORDER, phaseStart);
+            
             // Insert purchase items
             boolean itemsInserted = purchaseOrderDAO.insertPurchaseItems(purchase.getPurchaseId(), items);
             if (!itemsInserted) {
                 throw new Exception("Failed to insert purchase items");
             }
             
+            phaseStart = PURCHASE_METRICS.endPhase(TransactionMetrics.INSERT_ITEMS, phaseStart);
+            
             // CRITICAL FIX: Update stock quantities for each purchased item
             for (PurchaseItem item : items) {
                 boolean stockUpdated = stockDAO.updateStockQuantity(
@@ -98,35 +139,45 @@ public class TransactionService {
                     throw new Exception("Failed to update stock for product: " + item.getProductId());
                 }
                 
-                System.out.println("✓ Stock updated: Product " + item.getProductId() + 
-                                 " increased by " + item.getQuantity());
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Stock updated: product {} increased by {}", item.getProductId(), item.getQuantity());
+                }
             }
             
+            phaseStart = PURCHASE_METRICS.endPhase(TransactionMetrics.STOCK_UPDATE, phaseStart);
+            
             // Commit transaction
-            conn.commit();
-            System.out.println("✅ Purchase transaction completed successfully: " + purchase.getPurchaseNumber());
+            tx.commit();
+            PURCHASE_METRICS.endPhase(TransactionMetrics.COMMIT, phaseStart);
+            PURCHASE_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Purchase transaction completed: {}", purchase.getPurchaseNumber());
+            if (event.shouldCommit()) {
+                event.purchaseNumber = purchase.getPurchaseNumber();
+                event.supplierId = supplierId;
+                event.itemCount = items.size();
+                event.totalAmount = totalAmount;
+                event.committed = true;
+                event.commit();
+            }
             return true;
             
         } catch (Exception e) {
-            // Rollback transaction on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.out.println("❌ Transaction rolled back due to error: " + e.getMessage());
-                } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
-                }
+            PURCHASE_METRICS.rolledBack(startTime);
+            
+            if (event.shouldCommit()) {
+                event.supplierId = supplierId;
+                event.itemCount = items != null ? items.size() : 0;
+                event.failure = e.getMessage();
+                event.commit();
             }
-            e.printStackTrace();
+            
+            LOG.error("Purchase transaction rolled back", e);
             return false;
         } finally {
-            // Restore auto-commit
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+            // Roll back unless committed and return the connection to the pool
+            if (tx != null) {
+                tx.close();
             }
         }
     }
@@ -135,11 +186,18 @@ public class TransactionService {
      * FIXED: Process a complete sales transaction with proper stock reduction
      */
     public boolean processSalesTransaction(int customerId, List<SalesItem> items, String notes, String createdBy) {
-        Connection conn = null;
+        if (storedProcedurePosting) {
+            return postSaleWithProcedure(customerId, items, notes, createdBy);
+        }
+        
+        TransactionScope tx = null;
+        long startTime = System.nanoTime();
+        long phaseStart = startTime;
+        SalesTransactionEvent event = new SalesTransactionEvent();
+        event.begin();
         try {
-            // Start database transaction
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            // Start database transaction; the DAO calls below join it
+            tx = TransactionScope.begin();
             
             // Validate customer exists and is active
             Customer customer = customerDAO.findCustomerById(customerId);
@@ -177,6 +235,8 @@ public class TransactionService {
                 totalAmount += item.getQuantity() * item.getUnitPrice();
             }
             
+            phaseStart = SALES_METRICS.endPhase(TransactionMetrics.VALIDATE, phaseStart);
+            
             // Create sales order
             SalesOrder sale = new SalesOrder();
             sale.setSaleNumber(generateSaleNumber());
@@ -189,18 +249,23 @@ public class TransactionService {
             sale.setNotes(notes);
             sale.setCreatedBy(createdBy);
             
-            // Insert sales order
+            // Insert sales order; its ledger entries are posted in this transaction, so a
+            // failure in the items or stock below takes them back out of receivables
             boolean orderCreated = salesOrderDAO.insertSalesOrder(sale);
             if (!orderCreated) {
                 throw new Exception("Failed to create sales order");
             }
             
+            phaseStart = SALES_METRICS.endPhase(TransactionMetrics.INSERT_ORDER, phaseStart);
+            
             // Insert sales items
             boolean itemsInserted = salesOrderDAO.insertSalesItems(sale.getSaleId(), items);
             if (!itemsInserted) {
                 throw new Exception("Failed to insert sales items");
             }
             
+            phaseStart = SALES_METRICS.endPhase(TransactionMetrics.INSERT_ITEMS, phaseStart);
+            
             // CRITICAL FIX: Reduce stock quantities for each sold item
             for (SalesItem item : items) {
                 boolean stockReduced = stockDAO.updateStockQuantity(
@@ -212,57 +277,78 @@ public class TransactionService {
                     throw new Exception("Failed to reduce stock for product: " + item.getProductId());
                 }
                 
-                System.out.println("✓ Stock reduced: Product " + item.getProductId() + 
-                                 " decreased by " + item.getQuantity());
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Stock reduced: product {} decreased by {}", item.getProductId(), item.getQuantity());
+                }
             }
             
+            phaseStart = SALES_METRICS.endPhase(TransactionMetrics.STOCK_UPDATE, phaseStart);
+            
             // Commit transaction
-            conn.commit();
-            System.out.println("✅ Sales transaction completed successfully: " + sale.getSaleNumber());
+            tx.commit();
+            SALES_METRICS.endPhase(TransactionMetrics.COMMIT, phaseStart);
+            SALES_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Sales transaction completed: {}", sale.getSaleNumber());
+            if (event.shouldCommit()) {
+                event.saleNumber = sale.getSaleNumber();
+                event.customerId = customerId;
+                event.itemCount = items.size();
+                event.totalAmount = totalAmount;
+                event.committed = true;
+                event.commit();
+            }
             return true;
             
         } catch (Exception e) {
-            // Rollback transaction on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.out.println("❌ Transaction rolled back due to error: " + e.getMessage());
-                } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
-                }
+            SALES_METRICS.rolledBack(startTime);
+            
+            if (event.shouldCommit()) {
+                event.customerId = customerId;
+                event.itemCount = items != null ? items.size() : 0;
+                event.failure = e.getMessage();
+                event.commit();
             }
-            e.printStackTrace();
+            
+            LOG.error("Sales transaction rolled back", e);
             return false;
         } finally {
-            // Restore auto-commit
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+            // Roll back unless committed and return the connection to the pool
+            if (tx != null) {
+                tx.close();
             }
         }
     }
     
     /**
      * FIXED: Process production transaction (converts raw paddy to rice)
-     * This reduces raw paddy stock and increases finished rice stock
+     * This reduces raw paddy stock and increases finished rice stock.
+     * The waste quantity is recorded with the run for the yield statistics.
      */
     public boolean processProductionTransaction(int rawProductId, int finishedProductId, 
-                                              double inputQuantity, double outputQuantity, 
+                                              double inputQuantity, double outputQuantity, double wasteQuantity,
                                               int machineId, int operatorId, String notes) {
-        Connection conn = null;
+        if (storedProcedurePosting) {
+            return postProductionWithProcedure(rawProductId, finishedProductId, inputQuantity, outputQuantity,
+                                               wasteQuantity, machineId, operatorId, notes);
+        }
+        
+        TransactionScope tx = null;
+        long startTime = System.nanoTime();
+        long phaseStart = startTime;
+        ProductionTransactionEvent event = new ProductionTransactionEvent();
+        event.begin();
         try {
-            // Start database transaction
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            // Start database transaction; the DAO calls below join it
+            tx = TransactionScope.begin();
             
             // Validate raw material availability
             if (!stockDAO.isStockAvailable(rawProductId, inputQuantity)) {
                 throw new Exception("Insufficient raw material stock. Required: " + inputQuantity);
             }
             
+            phaseStart = PRODUCTION_METRICS.endPhase(TransactionMetrics.VALIDATE, phaseStart);
+            
             // Create production record
             ProductionRecord production = new ProductionRecord();
             production.setProductionNumber(generateProductionNumber());
@@ -271,6 +357,7 @@ public class TransactionService {
             production.setFinishedProductId(finishedProductId);
             production.setInputQuantity(inputQuantity);
             production.setOutputQuantity(outputQuantity);
+            production.setWasteQuantity(wasteQuantity);
             production.setMachineId(machineId);
             production.setOperatorId(operatorId);
             production.setNotes(notes);
@@ -287,6 +374,8 @@ public class TransactionService {
                 throw new Exception("Failed to create production record");
             }
             
+            phaseStart = PRODUCTION_METRICS.endPhase(TransactionMetrics.INSERT_ORDER, phaseStart);
+            
             // CRITICAL FIX: Update stock levels
             // Reduce raw material stock
             boolean rawStockReduced = stockDAO.updateStockQuantity(rawProductId, -inputQuantity);
@@ -300,39 +389,219 @@ public class TransactionService {
                 throw new Exception("Failed to increase finished product stock");
             }
             
+            phaseStart = PRODUCTION_METRICS.endPhase(TransactionMetrics.STOCK_UPDATE, phaseStart);
+            
             // Commit transaction
-            conn.commit();
-            System.out.println("✅ Production transaction completed: " + production.getProductionNumber());
+            tx.commit();
+            PRODUCTION_METRICS.endPhase(TransactionMetrics.COMMIT, phaseStart);
+            PRODUCTION_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTION, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Production transaction completed: {}", production.getProductionNumber());
+            if (event.shouldCommit()) {
+                event.productionNumber = production.getProductionNumber();
+                event.machineId = machineId;
+                event.inputQuantity = inputQuantity;
+                event.outputQuantity = outputQuantity;
+                event.committed = true;
+                event.commit();
+            }
             return true;
             
         } catch (Exception e) {
-            // Rollback transaction on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.out.println("❌ Production transaction rolled back: " + e.getMessage());
-                } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
-                }
+            PRODUCTION_METRICS.rolledBack(startTime);
+            
+            if (event.shouldCommit()) {
+                event.machineId = machineId;
+                event.inputQuantity = inputQuantity;
+                event.outputQuantity = outputQuantity;
+                event.failure = e.getMessage();
+                event.commit();
             }
-            e.printStackTrace();
+            
+            LOG.error("Production transaction rolled back", e);
             return false;
         } finally {
-            // Restore auto-commit
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+            // Roll back unless committed and return the connection to the pool
+            if (tx != null) {
+                tx.close();
             }
         }
     }
     
+    /**
+     * Post a purchase with one call to post_purchase. Falls back to the
+     * client-side path if the procedure is not installed.
+     */
+    private boolean postPurchaseWithProcedure(int supplierId, List<PurchaseItem> items, String notes, String createdBy) {
+        long startTime = System.nanoTime();
+        PurchaseTransactionEvent event = new PurchaseTransactionEvent();
+        event.begin();
+        
+        PurchaseOrder purchase = new PurchaseOrder();
+        purchase.setSupplierId(supplierId);
+        purchase.setNotes(notes);
+        purchase.setCreatedBy(createdBy);
+        try {
+            postingDAO.postPurchase(purchase, items);
+            
+            PURCHASE_METRICS.endPhase(TransactionMetrics.PROCEDURE, startTime);
+            PURCHASE_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PURCHASES, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Purchase transaction completed: {}", purchase.getPurchaseNumber());
+            if (event.shouldCommit()) {
+                event.purchaseNumber = purchase.getPurchaseNumber();
+                event.supplierId = supplierId;
+                event.itemCount = items.size();
+                event.totalAmount = purchase.getTotalAmount();
+                event.committed = true;
+                event.commit();
+            }
+            return true;
+            
+        } catch (SQLException e) {
+            if (PostingProcedureDAO.isProcedureMissing(e)) {
+                disableStoredProcedurePosting(e);
+                return processPurchaseTransaction(supplierId, items, notes, createdBy);
+            }
+            PURCHASE_METRICS.rolledBack(startTime);
+            if (event.shouldCommit()) {
+                event.supplierId = supplierId;
+                event.itemCount = items != null ? items.size() : 0;
+                event.failure = e.getMessage();
+                event.commit();
+            }
+            logProcedureFailure("Purchase", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Post a sale with one call to post_sale. Falls back to the client-side
+     * path if the procedure is not installed.
+     */
+    private boolean postSaleWithProcedure(int customerId, List<SalesItem> items, String notes, String createdBy) {
+        long startTime = System.nanoTime();
+        SalesTransactionEvent event = new SalesTransactionEvent();
+        event.begin();
+        
+        SalesOrder sale = new SalesOrder();
+        sale.setCustomerId(customerId);
+        sale.setNotes(notes);
+        sale.setCreatedBy(createdBy);
+        try {
+            postingDAO.postSale(sale, items);
+            
+            SALES_METRICS.endPhase(TransactionMetrics.PROCEDURE, startTime);
+            SALES_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_SALES, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Sales transaction completed: {}", sale.getSaleNumber());
+            if (event.shouldCommit()) {
+                event.saleNumber = sale.getSaleNumber();
+                event.customerId = customerId;
+                event.itemCount = items.size();
+                event.totalAmount = sale.getTotalAmount();
+                event.committed = true;
+                event.commit();
+            }
+            return true;
+            
+        } catch (SQLException e) {
+            if (PostingProcedureDAO.isProcedureMissing(e)) {
+                disableStoredProcedurePosting(e);
+                return processSalesTransaction(customerId, items, notes, createdBy);
+            }
+            SALES_METRICS.rolledBack(startTime);
+            if (event.shouldCommit()) {
+                event.customerId = customerId;
+                event.itemCount = items != null ? items.size() : 0;
+                event.failure = e.getMessage();
+                event.commit();
+            }
+            logProcedureFailure("Sales", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Post a production run with one call to post_production. Falls back to
+     * the client-side path if the procedure is not installed.
+     */
+    private boolean postProductionWithProcedure(int rawProductId, int finishedProductId,
+                                                double inputQuantity, double outputQuantity, double wasteQuantity,
+                                                int machineId, int operatorId, String notes) {
+        long startTime = System.nanoTime();
+        ProductionTransactionEvent event = new ProductionTransactionEvent();
+        event.begin();
+        
+        ProductionRecord production = new ProductionRecord();
+        production.setRawProductId(rawProductId);
+        production.setFinishedProductId(finishedProductId);
+        production.setInputQuantity(inputQuantity);
+        production.setOutputQuantity(outputQuantity);
+        production.setWasteQuantity(wasteQuantity);
+        production.setMachineId(machineId);
+        production.setOperatorId(operatorId);
+        production.setNotes(notes);
+        try {
+            postingDAO.postProduction(production);
+            
+            // post_production dates the run today; its yield statistics are added after the commit
+            if (production.getProductionDate() == null) {
+                production.setProductionDate(new Date());
+            }
+            new ProductionYieldDAO().recordRun(production);
+            
+            PRODUCTION_METRICS.endPhase(TransactionMetrics.PROCEDURE, startTime);
+            PRODUCTION_METRICS.committed(startTime);
+            DataChangeNotifier.fireDataChanged(DataChangeNotifier.TOPIC_PRODUCTION, DataChangeNotifier.TOPIC_STOCK);
+            LOG.info("Production transaction completed: {}", production.getProductionNumber());
+            if (event.shouldCommit()) {
+                event.productionNumber = production.getProductionNumber();
+                event.machineId = machineId;
+                event.inputQuantity = inputQuantity;
+                event.outputQuantity = outputQuantity;
+                event.committed = true;
+                event.commit();
+            }
+            return true;
+            
+        } catch (SQLException e) {
+            if (PostingProcedureDAO.isProcedureMissing(e)) {
+                disableStoredProcedurePosting(e);
+                return processProductionTransaction(rawProductId, finishedProductId, inputQuantity, outputQuantity,
+                                                    wasteQuantity, machineId, operatorId, notes);
+            }
+            PRODUCTION_METRICS.rolledBack(startTime);
+            if (event.shouldCommit()) {
+                event.machineId = machineId;
+                event.inputQuantity = inputQuantity;
+                event.outputQuantity = outputQuantity;
+                event.failure = e.getMessage();
+                event.commit();
+            }
+            logProcedureFailure("Production", e);
+            return false;
+        }
+    }
+    
+    private static void disableStoredProcedurePosting(SQLException e) {
+        storedProcedurePosting = false;
+        LOG.warn("Posting procedures are not installed ({}), using client-side posting", e.getMessage());
+    }
+    
+    // A rejected posting is expected (e.g. not enough stock), anything else is an error
+    private static void logProcedureFailure(String kind, SQLException e) {
+        if (PostingProcedureDAO.isValidationFailure(e)) {
+            LOG.warn("{} transaction rejected: {}", kind, e.getMessage());
+        } else {
+            LOG.error(kind + " transaction rolled back", e);
+        }
+    }
+    
     /**
      * Generate unique purchase number
      */
-    private String generatePurchaseNumber() {
+    String generatePurchaseNumber() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
         String dateStr = dateFormat.format(new Date());
         long timestamp = System.currentTimeMillis() % 10000; // Last 4 digits
@@ -342,7 +611,7 @@ public class TransactionService {
     /**
      * Generate unique sale number
      */
-    private String generateSaleNumber() {
+    String generateSaleNumber() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
         String dateStr = dateFormat.format(new Date());
         long timestamp = System.currentTimeMillis() % 10000; // Last 4 digits
@@ -352,7 +621,7 @@ public class TransactionService {
     /**
      * Generate unique production number
      */
-    private String generateProductionNumber() {
+    String generateProductionNumber() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd");
         String dateStr = dateFormat.format(new Date());
         long timestamp = System.currentTimeMillis() % 10000; // Last 4 digits
@@ -371,7 +640,7 @@ public class TransactionService {
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("validateStockForSale failed", e);
             return false;
         }
     }
@@ -383,7 +652,7 @@ public class TransactionService {
         try {
             return stockDAO.getStockByProductId(productId);
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("getProductStock failed for product {}", productId, e);
             return null;
         }
     }
@@ -5,6 +5,8 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import javax.swing.*;
 import com.pradeepmill.utils.ConfigManager;
+import com.pradeepmill.utils.StartupTimeline;
+import com.pradeepmill.services.StartupService;
 
 public class LoginForm extends javax.swing.JFrame {
 
@@ -180,9 +182,13 @@ public class LoginForm extends javax.swing.JFrame {
         }
         
         if (authenticated) {
-            if (DatabaseConnection.testConnection()) {
+            // Warm-up normally has the connection ready by now
+            if (StartupService.awaitDatabase(5000) || DatabaseConnection.testConnection()) {
                 this.dispose();
+                StartupTimeline.begin("Main dashboard");
                 new MainDashboard().setVisible(true);
+                StartupTimeline.end("Main dashboard");
+                StartupTimeline.printIfEnabled();
             } else {
                 JOptionPane.showMessageDialog(this,
                     "Could not connect to database. Please check your MySQL server.",
@@ -1,17 +1,24 @@
 package com.pradeepmill.ui;
 
 import com.pradeepmill.database.DatabaseConnection;
+import com.pradeepmill.logging.Logger;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import javax.swing.*;
 import com.pradeepmill.services.DashboardService;
+import com.pradeepmill.services.StartupService;
+import com.pradeepmill.monitoring.EdtWatchdog;
+import com.pradeepmill.monitoring.PanelLoadEvent;
+import com.pradeepmill.utils.DataChangeNotifier;
 import java.util.Map;
 import javax.swing.UIManager;
 
 public class MainDashboard extends javax.swing.JFrame {
 
+    private static final Logger LOG = Logger.getLogger(MainDashboard.class);
+
     private JPanel mainContentPanel;
     private JLabel statusLabel;
     private JLabel dateTimeLabel;
@@ -22,9 +29,13 @@ public class MainDashboard extends javax.swing.JFrame {
     private JPanel customersCard;
     private JPanel stockCard;
     private JPanel salesCard;
+    
+    // Screens are built on first use and reused between visits
+    private final PanelRegistry panelRegistry = new PanelRegistry();
 
     public MainDashboard() {
         initComponents();
+        registerPanels();
         initializeDashboard();
     }
 
@@ -86,10 +97,15 @@ public class MainDashboard extends javax.swing.JFrame {
         JMenuItem stockItem = new JMenuItem("Stock Management");
         stockItem.addActionListener(this::stockMenuActionPerformed);
         
+        JMenuItem bankReconciliationItem = new JMenuItem("Bank Reconciliation");
+        bankReconciliationItem.addActionListener(this::bankReconciliationMenuActionPerformed);
+        
         transactionsMenu.add(purchaseOrdersItem);
         transactionsMenu.add(salesOrdersItem);
         transactionsMenu.add(productionItem);
         transactionsMenu.add(stockItem);
+        transactionsMenu.addSeparator();
+        transactionsMenu.add(bankReconciliationItem);
         
         // Reports Menu
         JMenu reportsMenu = new JMenu("Reports");
@@ -107,10 +123,23 @@ public class MainDashboard extends javax.swing.JFrame {
         JMenuItem stockReportItem = new JMenuItem("Stock Report");
         stockReportItem.addActionListener(this::stockReportMenuActionPerformed);
         
+        JMenuItem agingReportItem = new JMenuItem("Aging Report");
+        agingReportItem.addActionListener(this::agingReportMenuActionPerformed);
+        
+        JMenuItem exportSalesItem = new JMenuItem("Export Sales History...");
+        exportSalesItem.addActionListener(this::exportSalesHistoryMenuActionPerformed);
+        
+        JMenuItem exportProductionItem = new JMenuItem("Export Production History...");
+        exportProductionItem.addActionListener(this::exportProductionHistoryMenuActionPerformed);
+        
         reportsMenu.add(customerReportItem);
         reportsMenu.add(supplierReportItem);
         reportsMenu.add(salaryReportItem);
         reportsMenu.add(stockReportItem);
+        reportsMenu.add(agingReportItem);
+        reportsMenu.addSeparator();
+        reportsMenu.add(exportSalesItem);
+        reportsMenu.add(exportProductionItem);
         
         // Settings Menu
         JMenu settingsMenu = new JMenu("Settings");
@@ -119,10 +148,14 @@ public class MainDashboard extends javax.swing.JFrame {
         JMenuItem aboutItem = new JMenuItem("About");
         aboutItem.addActionListener(this::aboutMenuActionPerformed);
         
+        JMenuItem sqlStatisticsItem = new JMenuItem("SQL Statistics");
+        sqlStatisticsItem.addActionListener(this::sqlStatisticsMenuActionPerformed);
+        
         JMenuItem exitItem = new JMenuItem("Exit");
         exitItem.addActionListener(this::exitMenuActionPerformed);
         
         settingsMenu.add(aboutItem);
+        settingsMenu.add(sqlStatisticsItem);
         settingsMenu.addSeparator();
         settingsMenu.add(exitItem);
         
@@ -239,7 +272,55 @@ public class MainDashboard extends javax.swing.JFrame {
         return card;
     }
     
+    private void registerPanels() {
+        panelRegistry.register("suppliers", "Supplier Management",
+            com.pradeepmill.ui.suppliers.SupplierManagementPanel::new,
+            DataChangeNotifier.TOPIC_SUPPLIERS);
+        panelRegistry.register("customers", "Customer Management",
+            com.pradeepmill.ui.customers.CustomerManagementPanel::new,
+            DataChangeNotifier.TOPIC_CUSTOMERS);
+        panelRegistry.register("products", "Product Management",
+            com.pradeepmill.ui.inventory.InventoryManagementPanel::new,
+            DataChangeNotifier.TOPIC_PRODUCTS, DataChangeNotifier.TOPIC_STOCK);
+        panelRegistry.register("staff", "Staff Management",
+            com.pradeepmill.ui.staff.StaffManagementPanel::new,
+            DataChangeNotifier.TOPIC_STAFF, DataChangeNotifier.TOPIC_SALARY);
+        panelRegistry.register("machines", "Machine Management",
+            com.pradeepmill.ui.machines.MachineManagementPanel::new,
+            DataChangeNotifier.TOPIC_MACHINES);
+        panelRegistry.register("purchaseOrders", "Purchase Orders",
+            com.pradeepmill.ui.inventory.PurchaseOrderPanel::new,
+            DataChangeNotifier.TOPIC_PURCHASES, DataChangeNotifier.TOPIC_SUPPLIERS);
+        panelRegistry.register("salesOrders", "Sales Orders",
+            com.pradeepmill.ui.inventory.SalesOrderPanel::new,
+            DataChangeNotifier.TOPIC_SALES, DataChangeNotifier.TOPIC_CUSTOMERS);
+        panelRegistry.register("production", "Production Management",
+            com.pradeepmill.ui.production.ProductionManagementPanel::new,
+            DataChangeNotifier.TOPIC_PRODUCTION, DataChangeNotifier.TOPIC_PRODUCTS,
+            DataChangeNotifier.TOPIC_MACHINES, DataChangeNotifier.TOPIC_STAFF);
+        panelRegistry.register("stock", "Stock Management",
+            com.pradeepmill.ui.inventory.StockViewPanel::new,
+            DataChangeNotifier.TOPIC_STOCK, DataChangeNotifier.TOPIC_PRODUCTS);
+        panelRegistry.register("customerReport", "Customer Details Report",
+            com.pradeepmill.ui.reports.CustomerReportPanel::new,
+            DataChangeNotifier.TOPIC_CUSTOMERS, DataChangeNotifier.TOPIC_SALES);
+        panelRegistry.register("supplierReport", "Supplier Details Report",
+            com.pradeepmill.ui.reports.SupplierReportPanel::new,
+            DataChangeNotifier.TOPIC_SUPPLIERS, DataChangeNotifier.TOPIC_PURCHASES);
+        panelRegistry.register("salaryReport", "Monthly Salary Report",
+            com.pradeepmill.ui.reports.SalaryReportPanel::new,
+            DataChangeNotifier.TOPIC_STAFF, DataChangeNotifier.TOPIC_SALARY);
+        panelRegistry.register("stockReport", "Stock Report",
+            com.pradeepmill.ui.reports.StockReportPanel::new,
+            DataChangeNotifier.TOPIC_STOCK, DataChangeNotifier.TOPIC_PRODUCTS);
+        panelRegistry.register("agingReport", "Aging Report",
+            com.pradeepmill.ui.reports.AgingReportPanel::new,
+            DataChangeNotifier.TOPIC_SALES, DataChangeNotifier.TOPIC_PURCHASES,
+            DataChangeNotifier.TOPIC_CUSTOMERS, DataChangeNotifier.TOPIC_SUPPLIERS);
+    }
+    
     private void initializeDashboard() {
+        EdtWatchdog.setCurrentScreen("MainDashboard/home");
         updateDateTime();
         updateStatusBar("Application started successfully");
         loadDashboardStats();
@@ -257,8 +338,11 @@ public class MainDashboard extends javax.swing.JFrame {
     
     private void loadDashboardStats() {
         try {
-            DashboardService dashboardService = new DashboardService();
-            Map<String, Object> stats = dashboardService.getAllDashboardMetrics();
+            // Use the figures computed during startup the first time, if ready
+            Map<String, Object> stats = StartupService.takePreloadedDashboardMetrics();
+            if (stats == null) {
+                stats = new DashboardService().getAllDashboardMetrics();
+            }
             
             // Update dashboard cards with real data
             updateStatCard(suppliersCard, stats.get("totalSuppliers").toString());
@@ -275,7 +359,7 @@ public class MainDashboard extends javax.swing.JFrame {
             updateStatusBar(systemHealth + " | " + stockStatus);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Error loading dashboard data", e);
             updateStatusBar("Error loading dashboard data: " + e.getMessage());
             
             // Set default values on error
@@ -318,117 +402,141 @@ public class MainDashboard extends javax.swing.JFrame {
         updateStatusBar("Showing " + title);
     }
     
-    // Menu Action Handlers
-    private void suppliersMenuActionPerformed(ActionEvent evt) {
+    // Show a registered screen, building it only on first use
+    private void showRegisteredPanel(String key, String errorMessage) {
         try {
-            showPanel(new com.pradeepmill.ui.suppliers.SupplierManagementPanel(), "Supplier Management");
+            EdtWatchdog.setCurrentScreen("MainDashboard/" + key);
+            boolean firstBuild = panelRegistry.needsBuild(key);
+            long startTime = System.nanoTime();
+            PanelLoadEvent event = new PanelLoadEvent();
+            event.begin();
+            
+            showPanel(panelRegistry.getPanel(key), panelRegistry.getTitle(key));
+            
+            // Queued behind the repaint, so this runs once the screen has been painted
+            SwingUtilities.invokeLater(() -> {
+                if (firstBuild) {
+                    long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+                    panelRegistry.recordFirstRender(key, elapsedMs);
+                    updateStatusBar("Showing " + panelRegistry.getTitle(key) + " (loaded in " + elapsedMs + " ms)");
+                }
+                if (event.shouldCommit()) {
+                    event.panel = key;
+                    event.title = panelRegistry.getTitle(key);
+                    event.firstBuild = firstBuild;
+                    event.commit();
+                }
+            });
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Supplier Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+            LOG.error("Could not show screen {}", key, e);
+            JOptionPane.showMessageDialog(this, errorMessage + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
     
-    private void customersMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.customers.CustomerManagementPanel(), "Customer Management");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Customer Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
+    // Menu Action Handlers
+    private void suppliersMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("suppliers", "Supplier Management module error: ");
     }
+    
+    private void customersMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("customers", "Customer Management module error: ");
     }
     
     private void productsMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.inventory.InventoryManagementPanel(), "Product Management");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Product Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
-    }
+        showRegisteredPanel("products", "Product Management module error: ");
     }
     
-private void staffMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.staff.StaffManagementPanel(), "Staff Management");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Staff Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
+    private void staffMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("staff", "Staff Management module error: ");
     }
-}
     
     private void machinesMenuActionPerformed(ActionEvent evt) {
-        try {
-            showPanel(new com.pradeepmill.ui.machines.MachineManagementPanel(), "Machine Management");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Machine Management module is not available yet.", "Info", JOptionPane.INFORMATION_MESSAGE);
-        }
+        showRegisteredPanel("machines", "Machine Management module error: ");
     }
     
-   private void purchaseOrdersMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.inventory.PurchaseOrderPanel(), "Purchase Orders");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Purchase Orders module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
+    private void purchaseOrdersMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("purchaseOrders", "Purchase Orders module error: ");
     }
-}
     
     private void salesOrdersMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.inventory.SalesOrderPanel(), "Sales Orders");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Sales Orders module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
-    }
+        showRegisteredPanel("salesOrders", "Sales Orders module error: ");
     }
     
     private void productionMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.production.ProductionManagementPanel(), "Production Management");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Production Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
+        showRegisteredPanel("production", "Production Management module error: ");
     }
-}
     
     private void stockMenuActionPerformed(ActionEvent evt) {
-    try {
-        showPanel(new com.pradeepmill.ui.inventory.StockViewPanel(), "Stock Management");
-    } catch (Exception e) {
-        JOptionPane.showMessageDialog(this, "Stock Management module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        e.printStackTrace();
+        showRegisteredPanel("stock", "Stock Management module error: ");
+    }
+    
+    private void bankReconciliationMenuActionPerformed(ActionEvent evt) {
+        new com.pradeepmill.ui.dialogs.BankReconciliationDialog(this).setVisible(true);
     }
-}
     
     private void customerReportMenuActionPerformed(ActionEvent evt) {
-        try {
-            showPanel(new com.pradeepmill.ui.reports.CustomerReportPanel(), "Customer Details Report");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Customer Report module error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        showRegisteredPanel("customerReport", "Customer Report module error: ");
     }
     
     private void supplierReportMenuActionPerformed(ActionEvent evt) {
-        try {
-            showPanel(new com.pradeepmill.ui.reports.SupplierReportPanel(), "Supplier Details Report");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Supplier Report module is not available yet.", "Info", JOptionPane.INFORMATION_MESSAGE);
-        }
+        showRegisteredPanel("supplierReport", "Supplier Report module error: ");
     }
     
     private void salaryReportMenuActionPerformed(ActionEvent evt) {
-        try {
-            showPanel(new com.pradeepmill.ui.reports.SalaryReportPanel(), "Monthly Salary Report");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Salary Report module is not available yet.", "Info", JOptionPane.INFORMATION_MESSAGE);
-        }
+        showRegisteredPanel("salaryReport", "Salary Report module error: ");
     }
     
     private void stockReportMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("stockReport", "Stock Report module error: ");
+    }
+    
+    private void agingReportMenuActionPerformed(ActionEvent evt) {
+        showRegisteredPanel("agingReport", "Aging Report module error: ");
+    }
+    
+    private void exportSalesHistoryMenuActionPerformed(ActionEvent evt) {
+        java.sql.Date[] period = askExportPeriod("Sales History Period");
+        if (period != null) {
+            com.pradeepmill.ui.reports.ExportDialog.open(this,
+                new com.pradeepmill.services.ExportService().salesHistory(period[0], period[1]));
+        }
+    }
+    
+    private void exportProductionHistoryMenuActionPerformed(ActionEvent evt) {
+        java.sql.Date[] period = askExportPeriod("Production History Period");
+        if (period != null) {
+            com.pradeepmill.ui.reports.ExportDialog.open(this,
+                new com.pradeepmill.services.ExportService().productionSummary(period[0], period[1]));
+        }
+    }
+    
+    // Ask for a from/to period, defaulting to the year so far; null if cancelled or invalid
+    private java.sql.Date[] askExportPeriod(String title) {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        JTextField fromField = new JTextField(today.withDayOfYear(1).toString(), 10);
+        JTextField toField = new JTextField(today.toString(), 10);
+        JPanel periodPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+        periodPanel.add(new JLabel("From (YYYY-MM-DD):"));
+        periodPanel.add(fromField);
+        periodPanel.add(new JLabel("To (YYYY-MM-DD):"));
+        periodPanel.add(toField);
+        
+        int option = JOptionPane.showConfirmDialog(this, periodPanel, title, JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return null;
+        }
+        
         try {
-            showPanel(new com.pradeepmill.ui.reports.StockReportPanel(), "Stock Report");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Stock Report module is not available yet.", "Info", JOptionPane.INFORMATION_MESSAGE);
+            java.sql.Date fromDate = java.sql.Date.valueOf(fromField.getText().trim());
+            java.sql.Date toDate = java.sql.Date.valueOf(toField.getText().trim());
+            if (fromDate.after(toDate)) {
+                JOptionPane.showMessageDialog(this, "The start date must not be after the end date", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+            return new java.sql.Date[] {fromDate, toDate};
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as YYYY-MM-DD", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return null;
         }
     }
     
@@ -442,6 +550,10 @@ private void staffMenuActionPerformed(ActionEvent evt) {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    private void sqlStatisticsMenuActionPerformed(ActionEvent evt) {
+        new com.pradeepmill.ui.dialogs.TopStatementsDialog(this).setVisible(true);
+    }
+    
     private void exitMenuActionPerformed(ActionEvent evt) {
         int option = JOptionPane.showConfirmDialog(this,
             "Are you sure you want to exit?",
@@ -449,6 +561,7 @@ private void staffMenuActionPerformed(ActionEvent evt) {
             JOptionPane.YES_NO_OPTION);
         
         if (option == JOptionPane.YES_OPTION) {
+            panelRegistry.dispose();
             DatabaseConnection.closeConnection();
             System.exit(0);
         }
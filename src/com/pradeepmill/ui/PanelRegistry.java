@@ -0,0 +1,144 @@
+package com.pradeepmill.ui;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.monitoring.MetricsRegistry;
+import com.pradeepmill.utils.DataChangeNotifier;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.swing.JPanel;
+
+/**
+ * Builds dashboard screens lazily on first use and keeps them between visits.
+ * Screens are held through soft references so they can be dropped under memory
+ * pressure. Each screen remembers the data version of its topics when it last
+ * loaded; it is refreshed (or rebuilt) when shown only if that version has
+ * changed since.
+ */
+public class PanelRegistry {
+
+    private static final Logger LOG = Logger.getLogger(PanelRegistry.class);
+
+    private static final MetricsRegistry.Counter HITS = MetricsRegistry.counter("cache.panels.hits");
+    private static final MetricsRegistry.Counter MISSES = MetricsRegistry.counter("cache.panels.misses");
+
+    static {
+        MetricsRegistry.hitRatio("cache.panels.hitRatio", HITS, MISSES);
+    }
+
+    private static class Entry {
+        final String title;
+        final Supplier<JPanel> factory;
+        final Set<String> topics;
+        SoftReference<JPanel> panelRef;
+        // Data version the screen was loaded at
+        long loadedVersion;
+        long firstRenderMillis = -1;
+
+        Entry(String title, Supplier<JPanel> factory, Set<String> topics) {
+            this.title = title;
+            this.factory = factory;
+            this.topics = topics;
+        }
+
+        // Sum of the topic versions; goes up whenever any of them changes
+        long dataVersion() {
+            long version = 0;
+            for (String topic : topics) {
+                version += DataChangeNotifier.getVersion(topic);
+            }
+            return version;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    // Register a screen with the data topics it depends on
+    public void register(String key, String title, Supplier<JPanel> factory, String... topics) {
+        entries.put(key, new Entry(title, factory, new HashSet<>(Arrays.asList(topics))));
+    }
+
+    public String getTitle(String key) {
+        Entry entry = getEntry(key);
+        return entry.title;
+    }
+
+    /**
+     * Get the screen for the given key, building it on first use. A cached screen
+     * whose data has changed is refreshed in place if it supports it, otherwise
+     * it is rebuilt.
+     */
+    public JPanel getPanel(String key) {
+        Entry entry = getEntry(key);
+        JPanel panel = entry.panelRef != null ? entry.panelRef.get() : null;
+
+        if (panel == null) {
+            MISSES.increment();
+            return buildPanel(entry);
+        }
+
+        HITS.increment();
+        long version = entry.dataVersion();
+        if (version != entry.loadedVersion) {
+            // Taken before reloading, so a change made during the reload is picked up next time
+            entry.loadedVersion = version;
+            if (panel instanceof RefreshablePanel) {
+                ((RefreshablePanel) panel).refreshData();
+            } else {
+                panel = buildPanel(entry);
+            }
+        }
+        return panel;
+    }
+
+    // True if the screen has never been built (or was reclaimed) and must be constructed
+    public boolean needsBuild(String key) {
+        Entry entry = getEntry(key);
+        return entry.panelRef == null || entry.panelRef.get() == null;
+    }
+
+    // Record the time from construction start until the screen was first painted
+    public void recordFirstRender(String key, long millis) {
+        Entry entry = getEntry(key);
+        if (entry.firstRenderMillis < 0) {
+            entry.firstRenderMillis = millis;
+            LOG.info("Screen '{}' first rendered in {} ms", entry.title, millis);
+        }
+    }
+
+    // Time-to-first-render per screen title (only screens that have been shown)
+    public Map<String, Long> getFirstRenderTimes() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (Entry entry : entries.values()) {
+            if (entry.firstRenderMillis >= 0) {
+                times.put(entry.title, entry.firstRenderMillis);
+            }
+        }
+        return Collections.unmodifiableMap(times);
+    }
+
+    // Drop all screens (called when the dashboard closes)
+    public void dispose() {
+        entries.clear();
+    }
+
+    private JPanel buildPanel(Entry entry) {
+        entry.loadedVersion = entry.dataVersion();
+        JPanel panel = entry.factory.get();
+        entry.panelRef = new SoftReference<>(panel);
+        return panel;
+    }
+
+    private Entry getEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown screen: " + key);
+        }
+        return entry;
+    }
+}
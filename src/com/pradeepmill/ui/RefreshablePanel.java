@@ -0,0 +1,10 @@
+package com.pradeepmill.ui;
+
+/**
+ * Implemented by screens that can reload their data in place when the
+ * dashboard shows them again after the underlying data has changed.
+ */
+public interface RefreshablePanel {
+
+    void refreshData();
+}
@@ -0,0 +1,54 @@
+package com.pradeepmill.ui;
+
+import java.awt.*;
+import javax.swing.*;
+
+public class SplashWindow extends JWindow {
+
+    private JLabel statusLabel;
+
+    public SplashWindow() {
+        initComponents();
+        setLocationRelativeTo(null);
+    }
+
+    private void initComponents() {
+        setSize(420, 220);
+
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBackground(new Color(70, 130, 180));
+        mainPanel.setBorder(BorderFactory.createLineBorder(new Color(25, 25, 112), 2));
+
+        JLabel titleLabel = new JLabel("Pradeep Rice Mill", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 26));
+        titleLabel.setForeground(Color.WHITE);
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(50, 20, 5, 20));
+
+        JLabel subtitleLabel = new JLabel("Management System", SwingConstants.CENTER);
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        subtitleLabel.setForeground(Color.WHITE);
+
+        statusLabel = new JLabel("Starting...", SwingConstants.CENTER);
+        statusLabel.setFont(new Font("Arial", Font.PLAIN, 11));
+        statusLabel.setForeground(new Color(230, 230, 250));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 15, 10));
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setOpaque(false);
+        bottomPanel.add(statusLabel, BorderLayout.CENTER);
+        bottomPanel.add(progressBar, BorderLayout.SOUTH);
+
+        mainPanel.add(titleLabel, BorderLayout.NORTH);
+        mainPanel.add(subtitleLabel, BorderLayout.CENTER);
+        mainPanel.add(bottomPanel, BorderLayout.SOUTH);
+
+        add(mainPanel);
+    }
+
+    public void setStatus(String message) {
+        statusLabel.setText(message);
+    }
+}
@@ -0,0 +1,128 @@
+package com.pradeepmill.ui.customers;
+
+import com.pradeepmill.dao.CustomerLedgerDAO;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.Customer;
+import com.pradeepmill.models.CustomerLedgerEntry;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+public class CustomerLedgerDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(CustomerLedgerDialog.class);
+
+    private CustomerLedgerDAO ledgerDAO;
+    private Customer customer;
+
+    private DefaultTableModel tableModel;
+    private JLabel balanceLabel;
+
+    public CustomerLedgerDialog(Frame parent, Customer customer) {
+        super(parent, "Customer Ledger - " + customer.getCustomerName(), true);
+        this.ledgerDAO = new CustomerLedgerDAO();
+        this.customer = customer;
+        initComponents();
+        loadLedger();
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+        setSize(850, 500);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        // Title panel
+        JPanel titlePanel = new JPanel();
+        titlePanel.setBackground(new Color(34, 139, 34));
+        titlePanel.setPreferredSize(new Dimension(0, 50));
+
+        JLabel titleLabel = new JLabel("Ledger - " + customer.getCustomerName(), SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        titleLabel.setForeground(Color.WHITE);
+        titlePanel.add(titleLabel);
+
+        // Balance panel
+        JPanel balancePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        balancePanel.setBackground(Color.WHITE);
+        balanceLabel = new JLabel("Balance: Rs. 0.00");
+        balanceLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        balancePanel.add(balanceLabel);
+
+        // Table setup
+        String[] columnNames = {"Entry", "Date", "Type", "Sale ID", "Method", "Reference", "Notes", "Amount", "Balance"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        JTable ledgerTable = new JTable(tableModel);
+        ledgerTable.setRowHeight(22);
+        ledgerTable.getColumnModel().getColumn(0).setPreferredWidth(50);
+        ledgerTable.getColumnModel().getColumn(1).setPreferredWidth(80);
+        ledgerTable.getColumnModel().getColumn(2).setPreferredWidth(80);
+        ledgerTable.getColumnModel().getColumn(3).setPreferredWidth(60);
+        ledgerTable.getColumnModel().getColumn(4).setPreferredWidth(80);
+        ledgerTable.getColumnModel().getColumn(5).setPreferredWidth(100);
+        ledgerTable.getColumnModel().getColumn(6).setPreferredWidth(200);
+        ledgerTable.getColumnModel().getColumn(7).setPreferredWidth(100);
+        ledgerTable.getColumnModel().getColumn(8).setPreferredWidth(100);
+
+        JScrollPane scrollPane = new JScrollPane(ledgerTable);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+        buttonPanel.add(closeButton);
+
+        JPanel contentPanel = new JPanel(new BorderLayout());
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        contentPanel.add(balancePanel, BorderLayout.NORTH);
+        contentPanel.add(scrollPane, BorderLayout.CENTER);
+
+        add(titlePanel, BorderLayout.NORTH);
+        add(contentPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void loadLedger() {
+        try {
+            tableModel.setRowCount(0);
+
+            List<CustomerLedgerEntry> entries = ledgerDAO.getLedger(customer.getCustomerId());
+            for (CustomerLedgerEntry entry : entries) {
+                Object[] row = {
+                    entry.getEntryId(),
+                    entry.getEntryDate(),
+                    entry.getEntryType(),
+                    entry.getSaleId() > 0 ? entry.getSaleId() : "",
+                    entry.getPaymentMethod(),
+                    entry.getReferenceNumber(),
+                    entry.getNotes(),
+                    String.format("Rs. %,.2f", entry.getAmount()),
+                    String.format("Rs. %,.2f", entry.getBalanceAfter())
+                };
+                tableModel.addRow(row);
+            }
+
+            double balance = ledgerDAO.getBalance(customer.getCustomerId());
+            balanceLabel.setText("Balance: Rs. " + String.format("%,.2f", balance));
+            balanceLabel.setForeground(balance > 0 ? Color.RED : new Color(76, 175, 80));
+
+            if (entries.isEmpty() && !CustomerLedgerDAO.isLedgerInstalled()) {
+                balanceLabel.setText(balanceLabel.getText() + " (ledger not installed)");
+            }
+
+        } catch (Exception e) {
+            LOG.error("Error loading ledger of customer {}", customer.getCustomerId(), e);
+            JOptionPane.showMessageDialog(this,
+                "Error loading ledger: " + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -2,13 +2,15 @@ package com.pradeepmill.ui.customers;
 
 import com.pradeepmill.dao.CustomerDAO;
 import com.pradeepmill.models.Customer;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class CustomerManagementPanel extends javax.swing.JPanel {
+public class CustomerManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private CustomerDAO customerDAO;
     private JTable customerTable;
@@ -41,17 +43,23 @@ public class CustomerManagementPanel extends javax.swing.JPanel {
         JButton addButton = new JButton("Add Customer");
         JButton editButton = new JButton("Edit Customer");
         JButton deleteButton = new JButton("Delete Customer");
+        JButton ledgerButton = new JButton("View Ledger");
         JButton refreshButton = new JButton("Refresh");
+        JButton exportButton = new JButton("Export...");
         
         addButton.addActionListener(this::addCustomerActionPerformed);
         editButton.addActionListener(this::editCustomerActionPerformed);
         deleteButton.addActionListener(this::deleteCustomerActionPerformed);
+        ledgerButton.addActionListener(this::viewLedgerActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Customers", customerTable)));
         
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
+        buttonPanel.add(ledgerButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"ID", "Customer Name", "Contact Person", "Phone", "Address", "Type", "Status", "Credit Limit"};
@@ -187,6 +195,26 @@ public class CustomerManagementPanel extends javax.swing.JPanel {
         }
     }
     
+    private void viewLedgerActionPerformed(ActionEvent evt) {
+        int selectedRow = customerTable.getSelectedRow();
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a customer to view the ledger.");
+            return;
+        }
+        
+        int customerId = (Integer) tableModel.getValueAt(selectedRow, 0);
+        Customer customer = customerDAO.findCustomerById(customerId);
+        if (customer != null) {
+            CustomerLedgerDialog dialog = new CustomerLedgerDialog((Frame) SwingUtilities.getWindowAncestor(this), customer);
+            dialog.setVisible(true);
+        }
+    }
+    
+    @Override
+    public void refreshData() {
+        loadCustomers();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadCustomers();
         JOptionPane.showMessageDialog(this, "Customer list refreshed!");
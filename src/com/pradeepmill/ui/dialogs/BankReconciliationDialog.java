@@ -0,0 +1,281 @@
+package com.pradeepmill.ui.dialogs;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.BankStatementLine;
+import com.pradeepmill.services.BankReconciliationService;
+import com.pradeepmill.services.BankReconciliationService.PostResult;
+import com.pradeepmill.services.BankReconciliationService.Reconciliation;
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Map;
+
+/**
+ * Imports a bank statement (CSV or OFX), shows how every line matched the
+ * books through BankReconciliationService, and posts the matched lines.
+ * Nothing is saved until Post Matched.
+ */
+public class BankReconciliationDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(BankReconciliationDialog.class);
+
+    private final BankReconciliationService reconciliationService;
+    private Reconciliation reconciliation;
+    private boolean updated = false;
+
+    // UI Components
+    private JTextField fileField;
+    private JButton browseButton;
+    private DefaultTableModel linesModel;
+    private JLabel summaryLabel;
+
+    private JButton postButton;
+    private JButton closeButton;
+
+    private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
+    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    public BankReconciliationDialog(Frame parent) {
+        super(parent, "Bank Reconciliation", true);
+        this.reconciliationService = new BankReconciliationService();
+
+        initComponents();
+        setupEventListeners();
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents() {
+        setSize(980, 620);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        // Title Panel
+        JPanel titlePanel = new JPanel();
+        titlePanel.setBackground(new Color(63, 81, 181));
+        titlePanel.setPreferredSize(new Dimension(0, 50));
+
+        JLabel titleLabel = new JLabel("Bank Statement Reconciliation", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        titleLabel.setForeground(Color.WHITE);
+        titlePanel.add(titleLabel);
+
+        JPanel contentPanel = new JPanel(new BorderLayout(10, 10));
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
+        contentPanel.add(createFilePanel(), BorderLayout.NORTH);
+        contentPanel.add(createLinesPanel(), BorderLayout.CENTER);
+
+        add(titlePanel, BorderLayout.NORTH);
+        add(contentPanel, BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createFilePanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 0));
+        panel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(Color.GRAY),
+            "Statement File"
+        ));
+        panel.setBackground(Color.WHITE);
+
+        fileField = new JTextField();
+        fileField.setEditable(false);
+        browseButton = new JButton("Open Statement...");
+
+        panel.add(fileField, BorderLayout.CENTER);
+        panel.add(browseButton, BorderLayout.EAST);
+        return panel;
+    }
+
+    private JPanel createLinesPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(Color.GRAY),
+            "Statement Lines"
+        ));
+        panel.setBackground(Color.WHITE);
+
+        String[] columnNames = {"Line", "Date", "Description", "Reference", "Amount", "Status", "Matched By", "Note"};
+        linesModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable linesTable = new JTable(linesModel);
+        linesTable.setRowHeight(22);
+        linesTable.setAutoCreateRowSorter(true);
+        linesTable.getColumnModel().getColumn(0).setPreferredWidth(40);
+        linesTable.getColumnModel().getColumn(2).setPreferredWidth(240);
+        linesTable.getColumnModel().getColumn(7).setPreferredWidth(240);
+
+        summaryLabel = new JLabel("Open a CSV or OFX statement exported from the bank.");
+        summaryLabel.setFont(new Font("Arial", Font.BOLD, 12));
+
+        panel.add(new JScrollPane(linesTable), BorderLayout.CENTER);
+        panel.add(summaryLabel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private JPanel createButtonPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        postButton = new JButton("Post Matched");
+        postButton.setBackground(new Color(76, 175, 80)); // Green
+        postButton.setForeground(Color.WHITE);
+        postButton.setPreferredSize(new Dimension(140, 35));
+        postButton.setEnabled(false);
+
+        closeButton = new JButton("Close");
+        closeButton.setBackground(new Color(158, 158, 158)); // Gray
+        closeButton.setForeground(Color.WHITE);
+        closeButton.setPreferredSize(new Dimension(100, 35));
+
+        panel.add(closeButton);
+        panel.add(postButton);
+        return panel;
+    }
+
+    private void setupEventListeners() {
+        browseButton.addActionListener(e -> chooseStatement());
+        postButton.addActionListener(e -> postMatched());
+        closeButton.addActionListener(e -> dispose());
+    }
+
+    private void chooseStatement() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Bank statements (CSV, OFX, QFX)", "csv", "ofx", "qfx"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        fileField.setText(file.getAbsolutePath());
+        analyze(file);
+    }
+
+    private void analyze(File file) {
+        browseButton.setEnabled(false);
+        postButton.setEnabled(false);
+        summaryLabel.setForeground(Color.BLACK);
+        summaryLabel.setText("Checking statement...");
+
+        new SwingWorker<Reconciliation, Void>() {
+            @Override
+            protected Reconciliation doInBackground() throws Exception {
+                return reconciliationService.analyze(file.toPath());
+            }
+
+            @Override
+            protected void done() {
+                browseButton.setEnabled(true);
+                try {
+                    reconciliation = get();
+                    showReconciliation();
+                    if (reconciliation.getErrorCount() > 0) {
+                        showReadErrors();
+                    }
+                } catch (Exception e) {
+                    LOG.error("Error reading bank statement", e);
+                    reconciliation = null;
+                    linesModel.setRowCount(0);
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    summaryLabel.setForeground(new Color(244, 67, 54));
+                    summaryLabel.setText("Could not read the statement: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void showReconciliation() {
+        linesModel.setRowCount(0);
+        for (BankStatementLine line : reconciliation.getLines()) {
+            Object[] row = {
+                line.getLineNumber(),
+                dateFormat.format(line.getTransactionDate()),
+                line.getDescription(),
+                line.getReferenceNumber(),
+                currencyFormat.format(line.getAmount()),
+                line.getStatus(),
+                line.getMatchMethod() != null ? line.getMatchMethod() : "",
+                line.getNote() != null ? line.getNote() : ""
+            };
+            linesModel.addRow(row);
+        }
+
+        StringBuilder summary = new StringBuilder(reconciliation.getLines().size() + " line(s):");
+        for (Map.Entry<String, Integer> count : reconciliation.getStatusCounts().entrySet()) {
+            summary.append("   ").append(count.getKey()).append(": ").append(count.getValue());
+        }
+        if (reconciliation.getErrorCount() > 0) {
+            summary.append("   Unreadable: ").append(reconciliation.getErrorCount());
+        }
+        summaryLabel.setText(summary.toString());
+        postButton.setEnabled(reconciliation.getMatchedCount() > 0);
+    }
+
+    private void showReadErrors() {
+        StringBuilder message = new StringBuilder(reconciliation.getErrorCount() + " line(s) could not be read and were skipped:\n");
+        for (String error : reconciliation.getErrors()) {
+            if (message.length() > 2000) {
+                message.append("...");
+                break;
+            }
+            message.append(error).append('\n');
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Statement Warnings", JOptionPane.WARNING_MESSAGE);
+    }
+
+    private void postMatched() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+            reconciliation.getMatchedCount() + " matched line(s) will be posted. Receipts are applied to their sales;\n"
+                + "payments are marked reconciled. The other lines are saved for review.\n\nContinue?",
+            "Confirm Posting", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        postButton.setEnabled(false);
+        browseButton.setEnabled(false);
+        new SwingWorker<PostResult, Void>() {
+            @Override
+            protected PostResult doInBackground() {
+                return reconciliationService.post(reconciliation, "Current User");
+            }
+
+            @Override
+            protected void done() {
+                browseButton.setEnabled(true);
+                try {
+                    PostResult result = get();
+                    updated = updated || result.getPosted() > 0;
+                    showReconciliation();
+                    if (result.isSuccessful()) {
+                        JOptionPane.showMessageDialog(BankReconciliationDialog.this,
+                            result.getPosted() + " receipt(s) posted and " + result.getReconciled()
+                                + " payment(s) reconciled.",
+                            "Statement Posted", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(BankReconciliationDialog.this,
+                            result.getMessage() + (result.getFailedLines() > 0
+                                ? "\n" + result.getFailedLines() + " line(s) were not saved." : ""),
+                            "Posting Incomplete", JOptionPane.ERROR_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    LOG.error("Error posting bank statement", e);
+                    JOptionPane.showMessageDialog(BankReconciliationDialog.this,
+                        "Error posting statement: " + e.getMessage(),
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    public boolean isUpdated() {
+        return updated;
+    }
+}
@@ -0,0 +1,398 @@
+package com.pradeepmill.ui.dialogs;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.Customer;
+import com.pradeepmill.models.PaymentAllocation;
+import com.pradeepmill.models.Supplier;
+import com.pradeepmill.services.MasterDataCache;
+import com.pradeepmill.services.PaymentAllocationService;
+import com.pradeepmill.services.PaymentAllocationService.Plan;
+import com.pradeepmill.services.PaymentAllocationService.Result;
+import com.pradeepmill.services.PaymentAllocationService.Strategy;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Applies one lump-sum payment from a customer or to a supplier across
+ * their outstanding orders through PaymentAllocationService. The table
+ * previews how the amount will be split; nothing is saved until Save.
+ */
+public class BulkPaymentDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(BulkPaymentDialog.class);
+
+    private final PaymentAllocationService allocationService;
+    private final String partyType;
+    private boolean updated = false;
+
+    // UI Components
+    private JComboBox<PartyItem> partyCombo;
+    private JTextField paymentAmountField;
+    private JComboBox<String> paymentMethodCombo;
+    private JTextField referenceNumberField;
+    private JComboBox<Strategy> strategyCombo;
+    private DefaultTableModel previewModel;
+    private JLabel summaryLabel;
+
+    private JButton previewButton;
+    private JButton saveButton;
+    private JButton cancelButton;
+
+    private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
+    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    /**
+     * @param partyType PaymentAllocation.PARTY_CUSTOMER or PARTY_SUPPLIER
+     * @param partyId party to select initially, or 0
+     */
+    public BulkPaymentDialog(Frame parent, String partyType, int partyId) {
+        super(parent, PaymentAllocation.PARTY_CUSTOMER.equals(partyType)
+            ? "Receive Customer Payment" : "Pay Supplier", true);
+        this.allocationService = new PaymentAllocationService();
+        this.partyType = partyType;
+
+        initComponents();
+        loadParties(partyId);
+        setupEventListeners();
+        refreshPreview();
+        setLocationRelativeTo(parent);
+    }
+
+    private boolean isCustomer() {
+        return PaymentAllocation.PARTY_CUSTOMER.equals(partyType);
+    }
+
+    private void initComponents() {
+        setSize(760, 560);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        // Title Panel
+        JPanel titlePanel = new JPanel();
+        titlePanel.setBackground(isCustomer() ? new Color(34, 139, 34) : new Color(0, 128, 128));
+        titlePanel.setPreferredSize(new Dimension(0, 50));
+
+        JLabel titleLabel = new JLabel(isCustomer() ? "Bulk Customer Payment" : "Bulk Supplier Payment",
+            SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        titleLabel.setForeground(Color.WHITE);
+        titlePanel.add(titleLabel);
+
+        JPanel contentPanel = new JPanel(new BorderLayout(10, 10));
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
+        contentPanel.add(createPaymentEntryPanel(), BorderLayout.NORTH);
+        contentPanel.add(createPreviewPanel(), BorderLayout.CENTER);
+
+        add(titlePanel, BorderLayout.NORTH);
+        add(contentPanel, BorderLayout.CENTER);
+        add(createButtonPanel(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createPaymentEntryPanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        panel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(Color.GRAY),
+            "Payment"
+        ));
+        panel.setBackground(Color.WHITE);
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 10, 5, 10);
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // Party
+        gbc.gridx = 0; gbc.gridy = 0;
+        panel.add(new JLabel(isCustomer() ? "Customer:" : "Supplier:"), gbc);
+        gbc.gridx = 1; gbc.weightx = 1.0;
+        partyCombo = new JComboBox<>();
+        panel.add(partyCombo, gbc);
+
+        // Payment Amount
+        gbc.gridx = 2; gbc.weightx = 0;
+        panel.add(new JLabel("Amount (Rs.):"), gbc);
+        gbc.gridx = 3; gbc.weightx = 1.0;
+        paymentAmountField = new JTextField(12);
+        panel.add(paymentAmountField, gbc);
+
+        // Payment Method
+        gbc.gridx = 0; gbc.gridy = 1; gbc.weightx = 0;
+        panel.add(new JLabel("Payment Method:"), gbc);
+        gbc.gridx = 1; gbc.weightx = 1.0;
+        paymentMethodCombo = new JComboBox<>(new String[]{
+            "Cash", "Bank Transfer", "Cheque", "Credit Card", "Other"
+        });
+        panel.add(paymentMethodCombo, gbc);
+
+        // Reference Number
+        gbc.gridx = 2; gbc.weightx = 0;
+        panel.add(new JLabel("Reference Number:"), gbc);
+        gbc.gridx = 3; gbc.weightx = 1.0;
+        referenceNumberField = new JTextField(12);
+        referenceNumberField.setToolTipText("Required. A payment is saved only once per reference number.");
+        panel.add(referenceNumberField, gbc);
+
+        // Strategy
+        gbc.gridx = 0; gbc.gridy = 2; gbc.weightx = 0;
+        panel.add(new JLabel("Apply To:"), gbc);
+        gbc.gridx = 1; gbc.weightx = 1.0;
+        strategyCombo = new JComboBox<>(Strategy.values());
+        panel.add(strategyCombo, gbc);
+
+        gbc.gridx = 3; gbc.weightx = 0; gbc.fill = GridBagConstraints.NONE; gbc.anchor = GridBagConstraints.EAST;
+        previewButton = new JButton("Preview");
+        panel.add(previewButton, gbc);
+
+        return panel;
+    }
+
+    private JPanel createPreviewPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(Color.GRAY),
+            "Outstanding Orders"
+        ));
+        panel.setBackground(Color.WHITE);
+
+        String[] columnNames = {"Order #", "Date", "Total", "Already Paid", "Outstanding", "Applied", "New Status"};
+        previewModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable previewTable = new JTable(previewModel);
+        previewTable.setRowHeight(22);
+
+        summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Arial", Font.BOLD, 12));
+
+        panel.add(new JScrollPane(previewTable), BorderLayout.CENTER);
+        panel.add(summaryLabel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private JPanel createButtonPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        panel.setBackground(Color.WHITE);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        saveButton = new JButton("Save Payment");
+        saveButton.setBackground(new Color(76, 175, 80)); // Green
+        saveButton.setForeground(Color.WHITE);
+        saveButton.setPreferredSize(new Dimension(130, 35));
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.setBackground(new Color(158, 158, 158)); // Gray
+        cancelButton.setForeground(Color.WHITE);
+        cancelButton.setPreferredSize(new Dimension(100, 35));
+
+        panel.add(cancelButton);
+        panel.add(saveButton);
+        return panel;
+    }
+
+    private void loadParties(int selectedPartyId) {
+        MasterDataCache cache = MasterDataCache.getInstance();
+        if (isCustomer()) {
+            for (Customer customer : cache.getActiveCustomers()) {
+                partyCombo.addItem(new PartyItem(customer.getCustomerId(), customer.getCustomerName()));
+            }
+        } else {
+            for (Supplier supplier : cache.getActiveSuppliers()) {
+                partyCombo.addItem(new PartyItem(supplier.getSupplierId(), supplier.getSupplierName()));
+            }
+        }
+
+        for (int i = 0; i < partyCombo.getItemCount(); i++) {
+            if (partyCombo.getItemAt(i).id == selectedPartyId) {
+                partyCombo.setSelectedIndex(i);
+                break;
+            }
+        }
+    }
+
+    private void setupEventListeners() {
+        previewButton.addActionListener(e -> refreshPreview());
+        partyCombo.addActionListener(e -> refreshPreview());
+        strategyCombo.addActionListener(e -> refreshPreview());
+        paymentAmountField.addActionListener(e -> refreshPreview());
+        saveButton.addActionListener(e -> savePayment());
+        cancelButton.addActionListener(e -> dispose());
+    }
+
+    // Amount entered, or 0 if it is blank; -1 if it is not a number
+    private double enteredAmount() {
+        String text = paymentAmountField.getText().trim().replace(",", "");
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void refreshPreview() {
+        PartyItem party = (PartyItem) partyCombo.getSelectedItem();
+        if (party == null) {
+            return;
+        }
+        double amount = Math.max(0, enteredAmount());
+        Strategy strategy = (Strategy) strategyCombo.getSelectedItem();
+
+        previewButton.setEnabled(false);
+        new SwingWorker<Plan, Void>() {
+            @Override
+            protected Plan doInBackground() {
+                return isCustomer()
+                    ? allocationService.previewCustomerPayment(party.id, amount, strategy)
+                    : allocationService.previewSupplierPayment(party.id, amount, strategy);
+            }
+
+            @Override
+            protected void done() {
+                previewButton.setEnabled(true);
+                try {
+                    showPlan(get());
+                } catch (Exception e) {
+                    LOG.error("Error previewing payment allocation", e);
+                    summaryLabel.setText("Could not load outstanding orders: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void showPlan(Plan plan) {
+        previewModel.setRowCount(0);
+        for (PaymentAllocationService.Line line : plan.getLines()) {
+            Object[] row = {
+                line.getOrderNumber(),
+                line.getOrderDate() != null ? dateFormat.format(line.getOrderDate()) : "",
+                currencyFormat.format(line.getTotalAmount()),
+                currencyFormat.format(line.getPaidBefore()),
+                currencyFormat.format(line.getOutstanding()),
+                line.getApplied() > 0 ? currencyFormat.format(line.getApplied()) : "",
+                line.getStatusAfter()
+            };
+            previewModel.addRow(row);
+        }
+
+        String summary = "Owed: Rs. " + currencyFormat.format(plan.getOutstanding())
+            + "   Applied: Rs. " + currencyFormat.format(plan.getAllocated())
+            + " to " + plan.getOrderCount() + " order(s)";
+        if (plan.getUnallocated() > 0) {
+            summary += isCustomer()
+                ? "   Credit: Rs. " + currencyFormat.format(plan.getUnallocated())
+                : "   Exceeds amount owed by Rs. " + currencyFormat.format(plan.getUnallocated());
+        }
+        summaryLabel.setText(summary);
+        summaryLabel.setForeground(plan.getUnallocated() > 0 && !isCustomer()
+            ? new Color(244, 67, 54) : Color.BLACK);
+    }
+
+    private void savePayment() {
+        PartyItem party = (PartyItem) partyCombo.getSelectedItem();
+        double amount = enteredAmount();
+        String reference = referenceNumberField.getText().trim();
+
+        if (party == null) {
+            JOptionPane.showMessageDialog(this, "Please select a " + partyType.toLowerCase() + ".",
+                "Validation Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (amount <= 0) {
+            JOptionPane.showMessageDialog(this,
+                "Please enter a valid payment amount greater than zero.",
+                "Invalid Amount", JOptionPane.WARNING_MESSAGE);
+            paymentAmountField.requestFocus();
+            return;
+        }
+        if (reference.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "Please enter the reference number (receipt, cheque or transfer number).",
+                "Validation Error", JOptionPane.WARNING_MESSAGE);
+            referenceNumberField.requestFocus();
+            return;
+        }
+
+        PaymentAllocation request = new PaymentAllocation(partyType, party.id, reference, amount);
+        request.setPaymentMethod((String) paymentMethodCombo.getSelectedItem());
+        request.setPaymentDate(new Date());
+        request.setCreatedBy("Current User");
+        Strategy strategy = (Strategy) strategyCombo.getSelectedItem();
+
+        saveButton.setEnabled(false);
+        new SwingWorker<Result, Void>() {
+            @Override
+            protected Result doInBackground() {
+                return isCustomer()
+                    ? allocationService.allocateCustomerPayment(request, strategy)
+                    : allocationService.allocateSupplierPayment(request, strategy);
+            }
+
+            @Override
+            protected void done() {
+                saveButton.setEnabled(true);
+                try {
+                    showResult(get());
+                } catch (Exception e) {
+                    LOG.error("Error saving payment allocation", e);
+                    JOptionPane.showMessageDialog(BulkPaymentDialog.this,
+                        "Error saving payment: " + e.getMessage(),
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void showResult(Result result) {
+        switch (result.getStatus()) {
+            case APPLIED:
+                updated = true;
+                showPlan(result.getPlan());
+                JOptionPane.showMessageDialog(this,
+                    "Payment of Rs. " + currencyFormat.format(result.getAllocation().getPaymentAmount())
+                        + " applied to " + result.getPlan().getOrderCount() + " order(s).",
+                    "Payment Saved", JOptionPane.INFORMATION_MESSAGE);
+                dispose();
+                break;
+            case DUPLICATE:
+                PaymentAllocation existing = result.getAllocation();
+                String detail = existing == null ? "" : "\nSaved on " + dateFormat.format(existing.getPaymentDate())
+                    + " for Rs. " + currencyFormat.format(existing.getPaymentAmount()) + ".";
+                JOptionPane.showMessageDialog(this, result.getMessage() + detail,
+                    "Duplicate Reference", JOptionPane.WARNING_MESSAGE);
+                break;
+            default:
+                JOptionPane.showMessageDialog(this, result.getMessage(),
+                    "Payment Not Saved", JOptionPane.ERROR_MESSAGE);
+                break;
+        }
+    }
+
+    public boolean isUpdated() {
+        return updated;
+    }
+
+    // Customer or supplier shown in the combo box
+    private static final class PartyItem {
+        final int id;
+        final String name;
+
+        PartyItem(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.pradeepmill.ui.dialogs;
+
+import com.pradeepmill.monitoring.LatencyHistogram;
+import com.pradeepmill.monitoring.QueryStats;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.util.List;
+
+/**
+ * Shows the SQL statements that have taken the most database time since the
+ * application started (or since the last reset), for use during incidents.
+ */
+public class TopStatementsDialog extends JDialog {
+
+    private static final int STATEMENT_LIMIT = 50;
+
+    private DefaultTableModel tableModel;
+    private JTable statementsTable;
+    private JTextArea explainArea;
+    private JLabel summaryLabel;
+    private List<QueryStats.StatementStats> shownStatements;
+
+    public TopStatementsDialog(Frame parent) {
+        super(parent, "Top SQL Statements", false);
+        initComponents();
+        loadStatistics();
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents() {
+        setSize(1100, 600);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        // Title panel
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.setBackground(new Color(25, 25, 112));
+        titlePanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
+
+        JLabel titleLabel = new JLabel("Top SQL Statements by Total Time");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        titleLabel.setForeground(Color.WHITE);
+
+        summaryLabel = new JLabel();
+        summaryLabel.setForeground(Color.WHITE);
+
+        titlePanel.add(titleLabel, BorderLayout.WEST);
+        titlePanel.add(summaryLabel, BorderLayout.EAST);
+
+        // Table setup
+        String[] columnNames = {"Calls", "Total ms", "Mean ms", "p95 ms", "p99 ms", "Max ms",
+                                "Rows", "Mapping ms", "Slow", "Errors", "Statement"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        statementsTable = new JTable(tableModel);
+        statementsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        statementsTable.getColumnModel().getColumn(10).setPreferredWidth(500);
+        statementsTable.getSelectionModel().addListSelectionListener(e -> showSelectedExplain());
+
+        explainArea = new JTextArea(6, 80);
+        explainArea.setEditable(false);
+        explainArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(statementsTable), new JScrollPane(explainArea));
+        splitPane.setResizeWeight(0.75);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+
+        JButton refreshButton = new JButton("Refresh");
+        JButton copyButton = new JButton("Copy as Text");
+        JButton resetButton = new JButton("Reset");
+        JButton closeButton = new JButton("Close");
+
+        refreshButton.addActionListener(e -> loadStatistics());
+        copyButton.addActionListener(this::copyActionPerformed);
+        resetButton.addActionListener(this::resetActionPerformed);
+        closeButton.addActionListener(e -> dispose());
+
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(copyButton);
+        buttonPanel.add(resetButton);
+        buttonPanel.add(closeButton);
+
+        add(titlePanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void loadStatistics() {
+        tableModel.setRowCount(0);
+        shownStatements = QueryStats.getTopStatements(STATEMENT_LIMIT);
+
+        for (QueryStats.StatementStats stats : shownStatements) {
+            LatencyHistogram exec = stats.getExecuteMicros();
+            tableModel.addRow(new Object[]{
+                stats.getCalls(),
+                String.format("%.1f", stats.getTotalMillis()),
+                String.format("%.2f", exec.getMean() / 1000.0),
+                String.format("%.2f", exec.getValueAtPercentile(95) / 1000.0),
+                String.format("%.2f", exec.getValueAtPercentile(99) / 1000.0),
+                String.format("%.2f", exec.getMax() / 1000.0),
+                stats.getRows(),
+                String.format("%.2f", stats.getMappingMicros().getMean() / 1000.0),
+                stats.getSlowCount(),
+                stats.getErrors(),
+                stats.getSql()
+            });
+        }
+
+        if (!QueryStats.isEnabled()) {
+            summaryLabel.setText("SQL statistics are off (start with -Dpradeepmill.sql.instrument=true to collect them)");
+        } else {
+            summaryLabel.setText(shownStatements.size() + " statements | slow query threshold "
+                + QueryStats.getSlowThresholdMillis() + " ms"
+                + (QueryStats.isExplainSlowQueries() ? " | EXPLAIN on" : ""));
+        }
+        explainArea.setText("");
+    }
+
+    private void showSelectedExplain() {
+        int row = statementsTable.getSelectedRow();
+        if (row < 0 || row >= shownStatements.size()) {
+            explainArea.setText("");
+            return;
+        }
+        QueryStats.StatementStats stats = shownStatements.get(row);
+        String plan = stats.getLastExplain();
+        explainArea.setText(stats.getSql() + "\n\n" + (plan != null ? plan
+            : "No EXPLAIN captured (start with -Dpradeepmill.sql.explain=true to capture plans for slow SELECTs)"));
+        explainArea.setCaretPosition(0);
+    }
+
+    private void copyActionPerformed(ActionEvent evt) {
+        Toolkit.getDefaultToolkit().getSystemClipboard()
+            .setContents(new StringSelection(QueryStats.formatTopStatements(STATEMENT_LIMIT)), null);
+    }
+
+    private void resetActionPerformed(ActionEvent evt) {
+        int option = JOptionPane.showConfirmDialog(this,
+            "Clear all collected SQL statistics?",
+            "Confirm Reset",
+            JOptionPane.YES_NO_OPTION);
+
+        if (option == JOptionPane.YES_OPTION) {
+            QueryStats.reset();
+            loadStatistics();
+        }
+    }
+}
@@ -271,14 +271,14 @@ public class AddPurchaseOrderDialog extends javax.swing.JDialog {
     private void loadComboBoxData() {
         try {
             // Load suppliers
-            List<Supplier> suppliers = supplierDAO.getAllActiveSuppliers();
+            List<Supplier> suppliers = MasterDataCache.getInstance().getActiveSuppliers();
             supplierCombo.removeAllItems();
             for (Supplier supplier : suppliers) {
                 supplierCombo.addItem(supplier);
             }
             
             // Load products
-            List<Product> products = productDAO.getAllActiveProducts();
+            List<Product> products = MasterDataCache.getInstance().getActiveProducts();
             productCombo.removeAllItems();
             for (Product product : products) {
                 productCombo.addItem(product);
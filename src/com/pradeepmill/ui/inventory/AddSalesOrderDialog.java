@@ -10,6 +10,7 @@ import java.awt.event.ActionEvent;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 import com.pradeepmill.services.TransactionService;
 
 
@@ -283,28 +284,35 @@ public class AddSalesOrderDialog extends javax.swing.JDialog {
         return panel;
     }
     
+    // Load customers and products at the same time, then fill the combos on the EDT
     private void loadComboBoxData() {
-        try {
+        MasterDataCache cache = MasterDataCache.getInstance();
+        CompletableFuture<List<Customer>> customers = AsyncDao.supply(cache::getActiveCustomers);
+        CompletableFuture<List<Product>> products = AsyncDao.supply(cache::getActiveProducts);
+        
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        AsyncDao.allOf(customers, products).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading data: " + AsyncDao.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
             // Load customers
-            List<Customer> customers = customerDAO.getAllActiveCustomers();
             customerCombo.removeAllItems();
-            for (Customer customer : customers) {
+            for (Customer customer : customers.join()) {
                 customerCombo.addItem(customer);
             }
             
             // Load products
-            List<Product> products = productDAO.getAllActiveProducts();
             productCombo.removeAllItems();
-            for (Product product : products) {
+            for (Product product : products.join()) {
                 productCombo.addItem(product);
             }
             
             // Initialize stock display
             updateAvailableStock();
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }));
     }
     
     private void updateAvailableStock() {
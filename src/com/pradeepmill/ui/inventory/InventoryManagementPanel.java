@@ -2,13 +2,15 @@ package com.pradeepmill.ui.inventory;
 
 import com.pradeepmill.dao.ProductDAO;
 import com.pradeepmill.models.Product;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class InventoryManagementPanel extends javax.swing.JPanel {
+public class InventoryManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private ProductDAO productDAO;
     private JTable productTable;
@@ -43,18 +45,21 @@ public class InventoryManagementPanel extends javax.swing.JPanel {
         JButton deleteButton = new JButton("Delete Product");
         JButton refreshButton = new JButton("Refresh");
         JButton viewStockButton = new JButton("View Stock Levels");
+        JButton exportButton = new JButton("Export...");
         
         addButton.addActionListener(this::addProductActionPerformed);
         editButton.addActionListener(this::editProductActionPerformed);
         deleteButton.addActionListener(this::deleteProductActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
         viewStockButton.addActionListener(this::viewStockActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Products", productTable)));
         
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(viewStockButton);
+        buttonPanel.add(exportButton);
         
         // Table setup - Rice Mill specific columns
         String[] columnNames = {"ID", "Product Name", "Category", "Grade", "Unit Price", "Description", "Status"};
@@ -281,6 +286,11 @@ public class InventoryManagementPanel extends javax.swing.JPanel {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    @Override
+    public void refreshData() {
+        loadProducts();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadProducts();
         JOptionPane.showMessageDialog(this, "Product list refreshed!");
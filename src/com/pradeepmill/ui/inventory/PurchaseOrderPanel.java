@@ -1,16 +1,20 @@
 package com.pradeepmill.ui.inventory;
 
 import com.pradeepmill.dao.PurchaseOrderDAO;
+import com.pradeepmill.models.PaymentAllocation;
 import com.pradeepmill.models.PurchaseOrder;
+import com.pradeepmill.ui.dialogs.BulkPaymentDialog;
 import com.pradeepmill.ui.dialogs.PaymentUpdateDialog;
 import com.pradeepmill.ui.inventory.AddPurchaseOrderDialog;  // FIXED: Import your existing dialog
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class PurchaseOrderPanel extends javax.swing.JPanel {
+public class PurchaseOrderPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private PurchaseOrderDAO purchaseOrderDAO;
     private JTable purchaseTable;
@@ -43,20 +47,26 @@ public class PurchaseOrderPanel extends javax.swing.JPanel {
         JButton newOrderButton = new JButton("New Purchase Order");
         JButton viewOrderButton = new JButton("View Details");
         JButton paymentButton = new JButton("Update Payment");
+        JButton bulkPaymentButton = new JButton("Bulk Payment");
         JButton refreshButton = new JButton("Refresh");
         JButton searchButton = new JButton("Search");
+        JButton exportButton = new JButton("Export...");
         
         newOrderButton.addActionListener(this::newOrderActionPerformed);
         viewOrderButton.addActionListener(this::viewOrderActionPerformed);
         paymentButton.addActionListener(this::paymentActionPerformed);
+        bulkPaymentButton.addActionListener(this::bulkPaymentActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
         searchButton.addActionListener(this::searchActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Purchase Orders", purchaseTable)));
         
         buttonPanel.add(newOrderButton);
         buttonPanel.add(viewOrderButton);
         buttonPanel.add(paymentButton);
+        buttonPanel.add(bulkPaymentButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(searchButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {
@@ -337,6 +347,29 @@ public class PurchaseOrderPanel extends javax.swing.JPanel {
         }
     }
     
+    // Pay a supplier one amount across their outstanding purchases
+    private void bulkPaymentActionPerformed(ActionEvent evt) {
+        int supplierId = 0;
+        int selectedRow = purchaseTable.getSelectedRow();
+        if (selectedRow != -1) {
+            PurchaseOrder order = purchaseOrderDAO.findPurchaseOrderByNumber((String) tableModel.getValueAt(selectedRow, 0));
+            if (order != null) {
+                supplierId = order.getSupplierId();
+            }
+        }
+        
+        BulkPaymentDialog dialog = new BulkPaymentDialog(
+            (Frame) SwingUtilities.getWindowAncestor(this),
+            PaymentAllocation.PARTY_SUPPLIER,
+            supplierId
+        );
+        dialog.setVisible(true);
+        
+        if (dialog.isUpdated()) {
+            loadPurchaseOrders();
+        }
+    }
+    
     private void searchActionPerformed(ActionEvent evt) {
         String keyword = JOptionPane.showInputDialog(this, 
             "Enter search keyword (Purchase #, Supplier name, or Notes):",
@@ -380,6 +413,11 @@ public class PurchaseOrderPanel extends javax.swing.JPanel {
         }
     }
     
+    @Override
+    public void refreshData() {
+        loadPurchaseOrders();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadPurchaseOrders();
         JOptionPane.showMessageDialog(this, 
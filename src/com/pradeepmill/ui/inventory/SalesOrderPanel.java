@@ -1,14 +1,18 @@
 package com.pradeepmill.ui.inventory;
 
 import com.pradeepmill.dao.SalesOrderDAO;
+import com.pradeepmill.models.PaymentAllocation;
 import com.pradeepmill.models.SalesOrder;
+import com.pradeepmill.ui.dialogs.BulkPaymentDialog;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class SalesOrderPanel extends javax.swing.JPanel {
+public class SalesOrderPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private SalesOrderDAO salesOrderDAO;
     private JTable salesTable;
@@ -43,18 +47,21 @@ public class SalesOrderPanel extends javax.swing.JPanel {
         JButton paymentButton = new JButton("Update Payment");
         JButton refreshButton = new JButton("Refresh");
         JButton searchButton = new JButton("Search");
+        JButton exportButton = new JButton("Export...");
         
         newOrderButton.addActionListener(this::newOrderActionPerformed);
         viewOrderButton.addActionListener(this::viewOrderActionPerformed);
         paymentButton.addActionListener(this::paymentActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
         searchButton.addActionListener(this::searchActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Sales Orders", salesTable)));
         
         buttonPanel.add(newOrderButton);
         buttonPanel.add(viewOrderButton);
         buttonPanel.add(paymentButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(searchButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"Sales #", "Date", "Customer", "Total Qty", "Total Amount", "Paid Amount", "Outstanding", "Payment Status"};
@@ -267,12 +274,26 @@ public class SalesOrderPanel extends javax.swing.JPanel {
             return;
         }
         
-        JOptionPane.showMessageDialog(this, 
-            "Update Payment for: " + saleNumber + "\n" +
-            "Current Status: " + currentStatus + "\n" +
-            "Payment update functionality will be implemented next.",
-            "Update Payment", 
-            JOptionPane.INFORMATION_MESSAGE);
+        SalesOrder order = salesOrderDAO.findSalesOrderByNumber(saleNumber);
+        if (order == null) {
+            JOptionPane.showMessageDialog(this,
+                "Sales order not found: " + saleNumber,
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // The customer's payment is spread over all their outstanding sales, oldest first
+        BulkPaymentDialog dialog = new BulkPaymentDialog(
+            (Frame) SwingUtilities.getWindowAncestor(this),
+            PaymentAllocation.PARTY_CUSTOMER,
+            order.getCustomerId()
+        );
+        dialog.setVisible(true);
+        
+        if (dialog.isUpdated()) {
+            loadSalesOrders();
+        }
     }
     
     private void searchActionPerformed(ActionEvent evt) {
@@ -318,6 +339,11 @@ public class SalesOrderPanel extends javax.swing.JPanel {
         }
     }
     
+    @Override
+    public void refreshData() {
+        loadSalesOrders();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadSalesOrders();
         JOptionPane.showMessageDialog(this, "Sales orders refreshed!");
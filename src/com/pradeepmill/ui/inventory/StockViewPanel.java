@@ -2,6 +2,8 @@ package com.pradeepmill.ui.inventory;
 
 import com.pradeepmill.dao.StockInventoryDAO;
 import com.pradeepmill.models.StockInventory;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -10,7 +12,7 @@ import java.awt.event.ActionEvent;
 import java.util.List;
 import java.util.Map;
 
-public class StockViewPanel extends javax.swing.JPanel {
+public class StockViewPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private StockInventoryDAO stockDAO;
     private JTable stockTable;
@@ -54,6 +56,7 @@ public class StockViewPanel extends javax.swing.JPanel {
         JButton searchButton = new JButton("Search");
         JButton adjustStockButton = new JButton("Adjust Stock Levels");
         JButton reorderButton = new JButton("Reorder Report");
+        JButton exportButton = new JButton("Export...");
         
         refreshButton.addActionListener(this::refreshActionPerformed);
         lowStockButton.addActionListener(this::lowStockActionPerformed);
@@ -61,6 +64,7 @@ public class StockViewPanel extends javax.swing.JPanel {
         searchButton.addActionListener(this::searchActionPerformed);
         adjustStockButton.addActionListener(this::adjustStockActionPerformed);
         reorderButton.addActionListener(this::reorderActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Stock Levels", stockTable)));
         
         buttonPanel.add(refreshButton);
         buttonPanel.add(lowStockButton);
@@ -68,6 +72,7 @@ public class StockViewPanel extends javax.swing.JPanel {
         buttonPanel.add(searchButton);
         buttonPanel.add(adjustStockButton);
         buttonPanel.add(reorderButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"Product Name", "Type", "Current Stock", "Min Level", "Max Level", "Unit Price", "Stock Value", "Status"};
@@ -271,6 +276,12 @@ public class StockViewPanel extends javax.swing.JPanel {
         }
     }
     
+    @Override
+    public void refreshData() {
+        loadStockData();
+        updateStatistics();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadStockData();
         updateStatistics();
@@ -2,13 +2,15 @@ package com.pradeepmill.ui.machines;
 
 import com.pradeepmill.dao.MachineDAO;
 import com.pradeepmill.models.Machine;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class MachineManagementPanel extends javax.swing.JPanel {
+public class MachineManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private MachineDAO machineDAO;
     private JTable machineTable;
@@ -44,6 +46,7 @@ public class MachineManagementPanel extends javax.swing.JPanel {
         JButton refreshButton = new JButton("Refresh");
         JButton usageButton = new JButton("Usage Records");
         JButton maintenanceButton = new JButton("Maintenance Log");
+        JButton exportButton = new JButton("Export...");
         
         addButton.addActionListener(this::addMachineActionPerformed);
         editButton.addActionListener(this::editMachineActionPerformed);
@@ -51,6 +54,7 @@ public class MachineManagementPanel extends javax.swing.JPanel {
         refreshButton.addActionListener(this::refreshActionPerformed);
         usageButton.addActionListener(this::usageRecordsActionPerformed);
         maintenanceButton.addActionListener(this::maintenanceLogActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Machines", machineTable)));
         
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
@@ -58,6 +62,7 @@ public class MachineManagementPanel extends javax.swing.JPanel {
         buttonPanel.add(refreshButton);
         buttonPanel.add(usageButton);
         buttonPanel.add(maintenanceButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"ID", "Machine Name", "Type", "Location", "Capacity/Hour", "Status", "Installation Date"};
@@ -287,6 +292,11 @@ public class MachineManagementPanel extends javax.swing.JPanel {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    @Override
+    public void refreshData() {
+        loadMachines();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadMachines();
         JOptionPane.showMessageDialog(this, "Machine list refreshed!");
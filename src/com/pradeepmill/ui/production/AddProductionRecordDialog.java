@@ -8,6 +8,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 public class AddProductionRecordDialog extends javax.swing.JDialog {
 
@@ -220,37 +221,47 @@ public class AddProductionRecordDialog extends javax.swing.JDialog {
         return panel;
     }
     
+    // Load products, machines and staff at the same time, then fill the combos on the EDT
     private void loadComboBoxData() {
-        try {
+        MasterDataCache cache = MasterDataCache.getInstance();
+        CompletableFuture<List<Product>> rawProducts = AsyncDao.supply(() -> cache.getActiveProductsByType("Raw_Paddy"));
+        CompletableFuture<List<Product>> finishedProducts = AsyncDao.supply(() -> cache.getActiveProductsByType("Finished_Rice"));
+        CompletableFuture<List<Machine>> machines = AsyncDao.supply(cache::getActiveMachines);
+        CompletableFuture<List<Staff>> staff = AsyncDao.supply(cache::getActiveStaff);
+        
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        AsyncDao.allOf(rawProducts, finishedProducts, machines, staff).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading data: " + AsyncDao.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
             // Load raw products (paddy)
-            List<Product> rawProducts = productDAO.getProductsByType("Raw_Paddy");
             rawProductCombo.removeAllItems();
             rawProductCombo.addItem(null); // Allow empty selection
-            for (Product product : rawProducts) {
+            for (Product product : rawProducts.join()) {
                 rawProductCombo.addItem(product);
             }
             
             // Load finished products (rice)
-            List<Product> finishedProducts = productDAO.getProductsByType("Finished_Rice");
             finishedProductCombo.removeAllItems();
             finishedProductCombo.addItem(null); // Allow empty selection
-            for (Product product : finishedProducts) {
+            for (Product product : finishedProducts.join()) {
                 finishedProductCombo.addItem(product);
             }
             
             // Load machines
-            List<Machine> machines = machineDAO.getAllActiveMachines();
             machineCombo.removeAllItems();
             machineCombo.addItem(null); // Allow manual processing
-            for (Machine machine : machines) {
+            for (Machine machine : machines.join()) {
                 machineCombo.addItem(machine);
             }
             
             // Load staff (operators)
-            List<Staff> staff = staffDAO.getAllActiveStaff();
             operatorCombo.removeAllItems();
             operatorCombo.addItem(null); // Allow empty selection
-            for (Staff employee : staff) {
+            for (Staff employee : staff.join()) {
                 operatorCombo.addItem(employee);
             }
             
@@ -260,10 +271,7 @@ public class AddProductionRecordDialog extends javax.swing.JDialog {
             // Initialize stock displays
             updateRawStockInfo();
             updateFinishedStockInfo();
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }));
     }
     
     private void setupComboBoxRenderers() {
@@ -1,7 +1,10 @@
 package com.pradeepmill.ui.production;
 
 import com.pradeepmill.dao.ProductionRecordDAO;
+import com.pradeepmill.dao.ProductionYieldDAO;
 import com.pradeepmill.models.ProductionRecord;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -9,7 +12,7 @@ import java.awt.event.ActionEvent;
 import java.util.List;
 import java.util.Map;
 
-public class ProductionManagementPanel extends javax.swing.JPanel {
+public class ProductionManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private ProductionRecordDAO productionRecordDAO;
     private JTable productionTable;
@@ -44,7 +47,8 @@ public class ProductionManagementPanel extends javax.swing.JPanel {
         JButton editProductionButton = new JButton("Edit Record");
         JButton refreshButton = new JButton("Refresh");
         JButton searchButton = new JButton("Search");
-        JButton efficiencyButton = new JButton("Machine Efficiency");
+        JButton efficiencyButton = new JButton("Yield Analytics");
+        JButton exportButton = new JButton("Export...");
         
         newProductionButton.addActionListener(this::newProductionActionPerformed);
         viewProductionButton.addActionListener(this::viewProductionActionPerformed);
@@ -52,6 +56,7 @@ public class ProductionManagementPanel extends javax.swing.JPanel {
         refreshButton.addActionListener(this::refreshActionPerformed);
         searchButton.addActionListener(this::searchActionPerformed);
         efficiencyButton.addActionListener(this::efficiencyActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Production Records", productionTable)));
         
         buttonPanel.add(newProductionButton);
         buttonPanel.add(viewProductionButton);
@@ -59,6 +64,7 @@ public class ProductionManagementPanel extends javax.swing.JPanel {
         buttonPanel.add(refreshButton);
         buttonPanel.add(searchButton);
         buttonPanel.add(efficiencyButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"Production #", "Date", "Raw Material", "Finished Product", "Input (kg)", "Output (kg)", "Waste (kg)", "Efficiency (%)", "Machine", "Operator"};
@@ -259,6 +265,13 @@ public class ProductionManagementPanel extends javax.swing.JPanel {
     }
     
     private void efficiencyActionPerformed(ActionEvent evt) {
+        // Full yield analytics once the running statistics are installed
+        if (ProductionYieldDAO.isStatsInstalled()) {
+            Window window = SwingUtilities.getWindowAncestor(this);
+            new YieldAnalyticsDialog(window instanceof Frame ? (Frame) window : null).setVisible(true);
+            return;
+        }
+        
         try {
             List<Map<String, Object>> efficiency = productionRecordDAO.getProductionEfficiencyByMachine();
             
@@ -328,6 +341,11 @@ public class ProductionManagementPanel extends javax.swing.JPanel {
         }
     }
     
+    @Override
+    public void refreshData() {
+        loadProductionRecords();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadProductionRecords();
         JOptionPane.showMessageDialog(this, "Production records refreshed!");
@@ -0,0 +1,255 @@
+package com.pradeepmill.ui.production;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.ProductionYieldStats;
+import com.pradeepmill.services.ProductionYieldService;
+import com.pradeepmill.ui.reports.ExportDialog;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversion rate, waste and throughput per machine, product pair, operator
+ * or for the whole mill, with the shift, day or week trend of the selected
+ * row. Figures come from the running yield statistics, so switching views
+ * does not rescan the production records.
+ */
+public class YieldAnalyticsDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(YieldAnalyticsDialog.class);
+
+    private static final String[] DIMENSIONS = {
+        ProductionYieldStats.DIMENSION_MACHINE, ProductionYieldStats.DIMENSION_PRODUCT,
+        ProductionYieldStats.DIMENSION_OPERATOR, ProductionYieldStats.DIMENSION_ALL
+    };
+
+    private static final String[] TREND_PERIODS = {
+        ProductionYieldStats.PERIOD_DAY, ProductionYieldStats.PERIOD_SHIFT, ProductionYieldStats.PERIOD_WEEK
+    };
+
+    // How far back the trend goes, in days, for the periods above
+    private static final int[] TREND_DAYS = {30, 14, 7 * 26};
+
+    private final ProductionYieldService yieldService = new ProductionYieldService();
+
+    private JComboBox<String> dimensionComboBox;
+    private JComboBox<ProductionYieldService.Window> windowComboBox;
+    private JComboBox<String> trendComboBox;
+    private JTable statsTable;
+    private DefaultTableModel statsModel;
+    private DefaultTableModel trendModel;
+    private JLabel statusLabel;
+    private JButton rebuildButton;
+
+    private List<ProductionYieldStats> rows = new ArrayList<>();
+
+    private DecimalFormat numberFormat = new DecimalFormat("#,##0.00");
+    private DecimalFormat percentFormat = new DecimalFormat("0.00");
+    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    public YieldAnalyticsDialog(Frame parent) {
+        super(parent, "Production Yield Analytics", true);
+        initComponents();
+        loadStats();
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+        setSize(1000, 620);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        // Selection panel
+        JPanel selectionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        selectionPanel.setBackground(Color.WHITE);
+
+        dimensionComboBox = new JComboBox<>(DIMENSIONS);
+        windowComboBox = new JComboBox<>(ProductionYieldService.Window.values());
+        trendComboBox = new JComboBox<>(TREND_PERIODS);
+        dimensionComboBox.addActionListener(e -> loadStats());
+        windowComboBox.addActionListener(e -> loadStats());
+        trendComboBox.addActionListener(e -> loadTrend());
+
+        selectionPanel.add(new JLabel("By:"));
+        selectionPanel.add(dimensionComboBox);
+        selectionPanel.add(new JLabel("Period:"));
+        selectionPanel.add(windowComboBox);
+        selectionPanel.add(new JLabel("Trend by:"));
+        selectionPanel.add(trendComboBox);
+
+        // Statistics table
+        String[] statsColumns = {"Name", "Runs", "Input (kg)", "Output (kg)", "Conversion (%)", "Std Dev (%)",
+                                 "Waste (%)", "Output / Run (kg)", "Output / Day (kg)"};
+        statsModel = new DefaultTableModel(statsColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        statsTable = new JTable(statsModel);
+        statsTable.setRowHeight(22);
+        statsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        statsTable.getTableHeader().setReorderingAllowed(false);
+        statsTable.getColumnModel().getColumn(0).setPreferredWidth(220);
+        statsTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadTrend();
+            }
+        });
+
+        // Trend table
+        String[] trendColumns = {"Period", "Shift", "Runs", "Output (kg)", "Conversion (%)", "Std Dev (%)", "Waste (%)"};
+        trendModel = new DefaultTableModel(trendColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable trendTable = new JTable(trendModel);
+        trendTable.setRowHeight(22);
+
+        JScrollPane trendScrollPane = new JScrollPane(trendTable);
+        trendScrollPane.setBorder(BorderFactory.createTitledBorder("Trend of the selected row"));
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(statsTable), trendScrollPane);
+        splitPane.setResizeWeight(0.55);
+
+        statusLabel = new JLabel(" ");
+
+        JPanel contentPanel = new JPanel(new BorderLayout(5, 5));
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        contentPanel.add(splitPane, BorderLayout.CENTER);
+        contentPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        rebuildButton = new JButton("Rebuild Statistics");
+        JButton exportButton = new JButton("Export...");
+        JButton closeButton = new JButton("Close");
+        rebuildButton.addActionListener(this::rebuildActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport(
+            "Yield by " + dimensionComboBox.getSelectedItem() + " - " + windowComboBox.getSelectedItem(), statsTable)));
+        closeButton.addActionListener(e -> dispose());
+        buttonPanel.add(rebuildButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(closeButton);
+
+        add(selectionPanel, BorderLayout.NORTH);
+        add(contentPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void loadStats() {
+        try {
+            long started = System.currentTimeMillis();
+            String dimension = (String) dimensionComboBox.getSelectedItem();
+            ProductionYieldService.Window window = (ProductionYieldService.Window) windowComboBox.getSelectedItem();
+
+            rows = yieldService.getStats(dimension, window);
+            rows.sort((a, b) -> Double.compare(b.getConversionMean(), a.getConversionMean()));
+
+            statsModel.setRowCount(0);
+            trendModel.setRowCount(0);
+            for (ProductionYieldStats stats : rows) {
+                Object[] row = {
+                    stats.getDisplayName(),
+                    stats.getRuns(),
+                    numberFormat.format(stats.getTotalInput()),
+                    numberFormat.format(stats.getTotalOutput()),
+                    percentFormat.format(stats.getConversionMean()),
+                    percentFormat.format(stats.getConversionStdDev()),
+                    percentFormat.format(stats.getWasteMean()),
+                    numberFormat.format(stats.getOutputMean()),
+                    window.getDays() > 0 ? numberFormat.format(stats.getTotalOutput() / window.getDays()) : "-"
+                };
+                statsModel.addRow(row);
+            }
+
+            statusLabel.setText(rows.size() + " row(s), loaded in " + (System.currentTimeMillis() - started) + " ms");
+
+        } catch (Exception e) {
+            LOG.error("Error loading yield statistics", e);
+            JOptionPane.showMessageDialog(this,
+                "Error loading yield statistics: " + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadTrend() {
+        trendModel.setRowCount(0);
+        int selectedRow = statsTable.getSelectedRow();
+        if (selectedRow < 0 || selectedRow >= rows.size()) {
+            return;
+        }
+
+        try {
+            int trendIndex = trendComboBox.getSelectedIndex();
+            String period = TREND_PERIODS[trendIndex];
+            List<ProductionYieldStats> series = yieldService.getTrend(rows.get(selectedRow), period,
+                                                                      LocalDate.now().minusDays(TREND_DAYS[trendIndex] - 1));
+            for (ProductionYieldStats stats : series) {
+                Object[] row = {
+                    dateFormat.format(stats.getPeriodStart()),
+                    stats.getShift() > 0 ? stats.getShift() : "",
+                    stats.getRuns(),
+                    numberFormat.format(stats.getTotalOutput()),
+                    percentFormat.format(stats.getConversionMean()),
+                    percentFormat.format(stats.getConversionStdDev()),
+                    percentFormat.format(stats.getWasteMean())
+                };
+                trendModel.addRow(row);
+            }
+
+        } catch (Exception e) {
+            LOG.error("Error loading yield trend", e);
+            JOptionPane.showMessageDialog(this,
+                "Error loading the trend: " + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void rebuildActionPerformed(ActionEvent evt) {
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Recompute all yield statistics from the production records?",
+            "Confirm Rebuild",
+            JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        rebuildButton.setEnabled(false);
+        statusLabel.setText("Rebuilding...");
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return yieldService.rebuild();
+            }
+
+            @Override
+            protected void done() {
+                rebuildButton.setEnabled(true);
+                try {
+                    if (get()) {
+                        loadStats();
+                    } else {
+                        statusLabel.setText("Rebuild failed.");
+                        JOptionPane.showMessageDialog(YieldAnalyticsDialog.this,
+                            "The yield statistics could not be rebuilt. See the log for details.",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    LOG.error("Error rebuilding yield statistics", e);
+                    statusLabel.setText("Rebuild failed.");
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,111 @@
+package com.pradeepmill.ui.reports;
+
+import com.pradeepmill.dao.ReportDAO;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.services.ReportService;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open orders of one customer or supplier behind an amount of the aging
+ * report.
+ */
+public class AgingOrdersDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(AgingOrdersDialog.class);
+
+    private final ReportService reportService;
+    private final String side;
+    private final int partyId;
+    private final int bucket;
+
+    private DefaultTableModel tableModel;
+    private JLabel totalLabel;
+
+    private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
+
+    public AgingOrdersDialog(Frame parent, ReportService reportService, String side,
+                             int partyId, String partyName, int bucket) {
+        super(parent, "Open Orders - " + partyName
+            + (bucket >= 0 ? " (" + ReportDAO.AGING_BUCKETS[bucket] + " days)" : ""), true);
+        this.reportService = reportService;
+        this.side = side;
+        this.partyId = partyId;
+        this.bucket = bucket;
+        initComponents();
+        loadOrders();
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+        setSize(750, 420);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        String[] columnNames = {"Order #", "Date", "Age (Days)", "Total", "Paid", "Outstanding", "Status"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable ordersTable = new JTable(tableModel);
+        ordersTable.setRowHeight(22);
+
+        totalLabel = new JLabel(" ");
+        totalLabel.setFont(new Font("Arial", Font.BOLD, 12));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+        buttonPanel.add(closeButton);
+
+        JPanel contentPanel = new JPanel(new BorderLayout(5, 5));
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        contentPanel.add(new JScrollPane(ordersTable), BorderLayout.CENTER);
+        contentPanel.add(totalLabel, BorderLayout.SOUTH);
+
+        add(contentPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void loadOrders() {
+        try {
+            tableModel.setRowCount(0);
+            double total = 0;
+
+            List<Map<String, Object>> orders = reportService.getAgingOrders(side, partyId, bucket);
+            for (Map<String, Object> order : orders) {
+                double outstanding = toDouble(order.get("outstanding"));
+                total += outstanding;
+                Object[] row = {
+                    order.get("order_number"),
+                    order.get("order_date"),
+                    order.get("age_days"),
+                    currencyFormat.format(toDouble(order.get("total_amount"))),
+                    currencyFormat.format(toDouble(order.get("paid_amount"))),
+                    currencyFormat.format(outstanding),
+                    order.get("payment_status")
+                };
+                tableModel.addRow(row);
+            }
+
+            totalLabel.setText(orders.size() + " order(s), outstanding Rs. " + currencyFormat.format(total));
+
+        } catch (Exception e) {
+            LOG.error("Error loading aging orders of party {}", partyId, e);
+            JOptionPane.showMessageDialog(this,
+                "Error loading orders: " + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.pradeepmill.ui.reports;
+
+import com.pradeepmill.dao.ReportDAO;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.services.ReportService;
+import com.pradeepmill.ui.RefreshablePanel;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+
+public class AgingReportPanel extends javax.swing.JPanel implements RefreshablePanel {
+
+    private static final Logger LOG = Logger.getLogger(AgingReportPanel.class);
+
+    // Table columns; the bucket columns are in ReportDAO.AGING_BUCKETS order
+    private static final int COL_PARTY_ID = 0;
+    private static final int COL_FIRST_BUCKET = 3;
+    private static final String[] BUCKET_KEYS = {"days_0_30", "days_31_60", "days_61_90", "days_over_90"};
+
+    private ReportService reportService;
+    private JComboBox<String> sideCombo;
+    private JTable reportTable;
+    private DefaultTableModel tableModel;
+    private JLabel totalsLabel;
+
+    private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
+
+    public AgingReportPanel() {
+        this.reportService = new ReportService();
+        initComponents();
+        loadReport(false);
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+        setBackground(Color.WHITE);
+
+        // Title panel
+        JPanel titlePanel = new JPanel();
+        titlePanel.setBackground(new Color(0, 128, 128));
+        titlePanel.setPreferredSize(new Dimension(0, 60));
+
+        JLabel titleLabel = new JLabel("Receivables and Payables Aging", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        titleLabel.setForeground(Color.WHITE);
+        titlePanel.add(titleLabel);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.setBackground(Color.WHITE);
+
+        sideCombo = new JComboBox<>(new String[]{"Receivables (Customers)", "Payables (Suppliers)"});
+        JButton refreshButton = new JButton("Refresh");
+        JButton ordersButton = new JButton("View Orders");
+        JButton exportButton = new JButton("Export...");
+
+        sideCombo.addActionListener(e -> loadReport(false));
+        refreshButton.addActionListener(e -> loadReport(true));
+        ordersButton.addActionListener(e -> showSelectedOrders());
+        exportButton.addActionListener(e -> ExportDialog.open(this,
+            ExportDialog.tableExport(sideCombo.getSelectedIndex() == 0 ? "Receivables Aging" : "Payables Aging", reportTable)));
+
+        buttonPanel.add(new JLabel("Show:"));
+        buttonPanel.add(sideCombo);
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(ordersButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(new JLabel("  Double-click an amount to see its orders."));
+
+        // Table setup
+        String[] columnNames = {"ID", "Name", "Open Orders", "0-30 Days", "31-60 Days", "61-90 Days",
+                               "Over 90 Days", "Total Outstanding", "Oldest Order"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        reportTable = new JTable(tableModel);
+        reportTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
+        reportTable.setCellSelectionEnabled(true);
+        reportTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    showSelectedOrders();
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(reportTable);
+        scrollPane.setPreferredSize(new Dimension(900, 500));
+
+        totalsLabel = new JLabel(" ");
+        totalsLabel.setFont(new Font("Arial", Font.BOLD, 12));
+        totalsLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+
+        // Main content panel
+        JPanel contentPanel = new JPanel(new BorderLayout());
+        contentPanel.setBackground(Color.WHITE);
+        contentPanel.add(buttonPanel, BorderLayout.NORTH);
+        contentPanel.add(scrollPane, BorderLayout.CENTER);
+        contentPanel.add(totalsLabel, BorderLayout.SOUTH);
+
+        add(titlePanel, BorderLayout.NORTH);
+        add(contentPanel, BorderLayout.CENTER);
+    }
+
+    @Override
+    public void refreshData() {
+        loadReport(false);
+    }
+
+    private String selectedSide() {
+        return sideCombo.getSelectedIndex() == 0 ? ReportService.AGING_RECEIVABLES : ReportService.AGING_PAYABLES;
+    }
+
+    // Load the report off the EDT; recompute skips today's cached rows
+    private void loadReport(boolean recompute) {
+        String side = selectedSide();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<List<Map<String, Object>>, Void>() {
+            @Override
+            protected List<Map<String, Object>> doInBackground() {
+                return recompute ? reportService.refreshAgingReport(side) : reportService.generateAgingReport(side);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    showReport(get());
+                } catch (Exception e) {
+                    LOG.error("Error generating aging report for {}", side, e);
+                    JOptionPane.showMessageDialog(AgingReportPanel.this,
+                        "Error generating aging report: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void showReport(List<Map<String, Object>> rows) {
+        tableModel.setRowCount(0);
+        double[] totals = new double[BUCKET_KEYS.length + 1];
+
+        for (Map<String, Object> party : rows) {
+            Object[] row = new Object[tableModel.getColumnCount()];
+            row[COL_PARTY_ID] = party.get("party_id");
+            row[1] = party.get("party_name");
+            row[2] = party.get("open_orders");
+            for (int i = 0; i < BUCKET_KEYS.length; i++) {
+                double amount = toDouble(party.get(BUCKET_KEYS[i]));
+                totals[i] += amount;
+                row[COL_FIRST_BUCKET + i] = currencyFormat.format(amount);
+            }
+            double outstanding = toDouble(party.get("total_outstanding"));
+            totals[BUCKET_KEYS.length] += outstanding;
+            row[COL_FIRST_BUCKET + BUCKET_KEYS.length] = currencyFormat.format(outstanding);
+            row[COL_FIRST_BUCKET + BUCKET_KEYS.length + 1] = party.get("oldest_date");
+            tableModel.addRow(row);
+        }
+
+        StringBuilder summary = new StringBuilder(rows.size() + " parties   ");
+        for (int i = 0; i < BUCKET_KEYS.length; i++) {
+            summary.append(ReportDAO.AGING_BUCKETS[i]).append(": Rs. ").append(currencyFormat.format(totals[i])).append("   ");
+        }
+        summary.append("Total: Rs. ").append(currencyFormat.format(totals[BUCKET_KEYS.length]));
+        totalsLabel.setText(summary.toString());
+    }
+
+    // Orders behind the selected cell: one bucket for a bucket column, all open orders otherwise
+    private void showSelectedOrders() {
+        int row = reportTable.getSelectedRow();
+        if (row == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a customer or supplier.");
+            return;
+        }
+        int column = reportTable.getSelectedColumn();
+        int bucket = column >= COL_FIRST_BUCKET && column < COL_FIRST_BUCKET + BUCKET_KEYS.length
+            ? column - COL_FIRST_BUCKET : -1;
+
+        int partyId = ((Number) tableModel.getValueAt(row, COL_PARTY_ID)).intValue();
+        String partyName = String.valueOf(tableModel.getValueAt(row, 1));
+
+        AgingOrdersDialog dialog = new AgingOrdersDialog(
+            (Frame) SwingUtilities.getWindowAncestor(this),
+            reportService, selectedSide(), partyId, partyName, bucket);
+        dialog.setVisible(true);
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+}
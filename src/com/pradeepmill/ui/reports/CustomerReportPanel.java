@@ -1,10 +1,15 @@
 package com.pradeepmill.ui.reports;
 
+import com.pradeepmill.services.DocumentBatchService;
+import com.pradeepmill.services.ExportService;
 import com.pradeepmill.services.ReportService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.sql.Date;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -39,12 +44,18 @@ public class CustomerReportPanel extends javax.swing.JPanel {
         
         JButton generateButton = new JButton("Generate Report");
         JButton refreshButton = new JButton("Refresh");
+        JButton statementsButton = new JButton("Generate Statements");
+        JButton exportButton = new JButton("Export...");
         
         generateButton.addActionListener(this::generateReportActionPerformed);
         refreshButton.addActionListener(this::generateReportActionPerformed);
+        statementsButton.addActionListener(this::generateStatementsActionPerformed);
+        exportButton.addActionListener(this::exportActionPerformed);
         
         buttonPanel.add(generateButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(statementsButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"Customer ID", "Customer Name", "Phone", "Address", "Type", 
@@ -79,6 +90,50 @@ public class CustomerReportPanel extends javax.swing.JPanel {
         generateReport();
     }
     
+    private void generateStatementsActionPerformed(ActionEvent evt) {
+        // Ask for the statement period, defaulting to the current month so far
+        LocalDate today = LocalDate.now();
+        JTextField fromField = new JTextField(today.withDayOfMonth(1).toString(), 10);
+        JTextField toField = new JTextField(today.toString(), 10);
+        JPanel periodPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+        periodPanel.add(new JLabel("From (YYYY-MM-DD):"));
+        periodPanel.add(fromField);
+        periodPanel.add(new JLabel("To (YYYY-MM-DD):"));
+        periodPanel.add(toField);
+        
+        int option = JOptionPane.showConfirmDialog(this, periodPanel, "Statement Period", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        Date fromDate;
+        Date toDate;
+        try {
+            fromDate = Date.valueOf(fromField.getText().trim());
+            toDate = Date.valueOf(toField.getText().trim());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as YYYY-MM-DD", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (fromDate.after(toDate)) {
+            JOptionPane.showMessageDialog(this, "The start date must not be after the end date", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        DocumentBatchService documentService = new DocumentBatchService();
+        DocumentBatchDialog dialog = new DocumentBatchDialog(
+            (Frame) SwingUtilities.getWindowAncestor(this),
+            "Generate Customer Statements",
+            "Write a statement file for every active customer for " + fromDate + " to " + toDate + ".",
+            new File("documents", "statements-" + fromDate + "_" + toDate),
+            (folder, listener, cancelled) -> documentService.generateCustomerStatements(fromDate, toDate, folder, listener, cancelled));
+        dialog.setVisible(true);
+    }
+    
+    private void exportActionPerformed(ActionEvent evt) {
+        ExportDialog.open(this, new ExportService().customerDetails());
+    }
+    
     private void generateReport() {
         try {
             tableModel.setRowCount(0); // Clear existing data
@@ -0,0 +1,215 @@
+package com.pradeepmill.ui.reports;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.services.DocumentBatchService;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs a document batch (payslips or statements) into a chosen folder with
+ * a progress bar. Cancelling stops after the documents already in progress;
+ * starting again into the same folder picks up where it stopped.
+ */
+public class DocumentBatchDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(DocumentBatchDialog.class);
+
+    // The batch to run, e.g. DocumentBatchService::generatePayslips for one month
+    public interface BatchTask {
+        DocumentBatchService.BatchResult run(File outputFolder, DocumentBatchService.ProgressListener listener,
+                                             BooleanSupplier cancelled) throws IOException;
+    }
+
+    private final BatchTask task;
+
+    private JTextField folderField;
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+    private JButton startButton;
+    private JButton cancelButton;
+
+    private SwingWorker<DocumentBatchService.BatchResult, int[]> worker;
+    private volatile boolean cancelRequested;
+
+    public DocumentBatchDialog(Frame parent, String title, String description, File defaultFolder, BatchTask task) {
+        super(parent, title, true);
+        this.task = task;
+        initComponents(description, defaultFolder);
+        setLocationRelativeTo(parent);
+    }
+
+    private void initComponents(String description, File defaultFolder) {
+        setLayout(new BorderLayout());
+        setSize(560, 240);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeActionPerformed(null);
+            }
+        });
+
+        JPanel contentPanel = new JPanel(new GridBagLayout());
+        contentPanel.setBackground(Color.WHITE);
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        gbc.gridx = 0; gbc.gridy = 0; gbc.gridwidth = 3;
+        contentPanel.add(new JLabel(description), gbc);
+
+        gbc.gridy = 1; gbc.gridwidth = 1; gbc.weightx = 0;
+        contentPanel.add(new JLabel("Output Folder:"), gbc);
+
+        folderField = new JTextField(defaultFolder.getAbsolutePath());
+        gbc.gridx = 1; gbc.weightx = 1;
+        contentPanel.add(folderField, gbc);
+
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(this::browseActionPerformed);
+        gbc.gridx = 2; gbc.weightx = 0;
+        contentPanel.add(browseButton, gbc);
+
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 3;
+        contentPanel.add(progressBar, gbc);
+
+        statusLabel = new JLabel("Ready. Documents already in the folder are skipped.");
+        gbc.gridy = 3;
+        contentPanel.add(statusLabel, gbc);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.setBackground(Color.WHITE);
+
+        startButton = new JButton("Start");
+        cancelButton = new JButton("Cancel");
+        JButton closeButton = new JButton("Close");
+
+        startButton.addActionListener(this::startActionPerformed);
+        cancelButton.addActionListener(this::cancelActionPerformed);
+        closeButton.addActionListener(this::closeActionPerformed);
+
+        startButton.setBackground(new Color(76, 175, 80));
+        startButton.setForeground(Color.WHITE);
+        cancelButton.setEnabled(false);
+
+        buttonPanel.add(startButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(closeButton);
+
+        add(contentPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private void browseActionPerformed(ActionEvent evt) {
+        JFileChooser chooser = new JFileChooser(folderField.getText());
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            folderField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void startActionPerformed(ActionEvent evt) {
+        String folder = folderField.getText().trim();
+        if (folder.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please choose an output folder", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        File outputFolder = new File(folder);
+        cancelRequested = false;
+        startButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(true);
+        statusLabel.setText("Generating documents...");
+
+        worker = new SwingWorker<DocumentBatchService.BatchResult, int[]>() {
+            @Override
+            protected DocumentBatchService.BatchResult doInBackground() throws Exception {
+                return task.run(outputFolder, (completed, total) -> publish(new int[] {completed, total}),
+                    () -> cancelRequested);
+            }
+
+            @Override
+            protected void process(List<int[]> chunks) {
+                int[] latest = chunks.get(chunks.size() - 1);
+                progressBar.setIndeterminate(false);
+                progressBar.setMaximum(Math.max(1, latest[1]));
+                progressBar.setValue(Math.min(latest[0], latest[1]));
+                statusLabel.setText(latest[0] + " of " + latest[1] + " processed");
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                startButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                try {
+                    showResult(get());
+                } catch (Exception e) {
+                    LOG.error("Error generating documents", e);
+                    statusLabel.setText("Failed.");
+                    JOptionPane.showMessageDialog(DocumentBatchDialog.this,
+                        "Error generating documents: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showResult(DocumentBatchService.BatchResult result) {
+        String summary = result.written + " written, " + result.skipped + " skipped, " + result.failed + " failed";
+        if (result.queryFailed) {
+            statusLabel.setText("Stopped: " + summary);
+            JOptionPane.showMessageDialog(this,
+                "The documents could not be read from the database.\n" + summary +
+                "\nStart again to continue from where it stopped.",
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        } else if (result.cancelled) {
+            statusLabel.setText("Cancelled: " + summary + ". Start again to resume.");
+        } else if (result.failed > 0) {
+            statusLabel.setText("Finished with errors: " + summary);
+            JOptionPane.showMessageDialog(this,
+                summary + "\nStart again to retry the failed documents.",
+                "Finished With Errors",
+                JOptionPane.WARNING_MESSAGE);
+        } else {
+            progressBar.setValue(progressBar.getMaximum());
+            statusLabel.setText("Completed: " + summary);
+        }
+    }
+
+    private void cancelActionPerformed(ActionEvent evt) {
+        cancelRequested = true;
+        cancelButton.setEnabled(false);
+        statusLabel.setText("Cancelling after the documents in progress...");
+    }
+
+    private void closeActionPerformed(ActionEvent evt) {
+        if (worker != null && !worker.isDone()) {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                "Documents are still being generated. Cancel and close?",
+                "Confirm Close",
+                JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+            cancelRequested = true;
+        }
+        dispose();
+    }
+}
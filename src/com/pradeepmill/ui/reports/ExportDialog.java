@@ -0,0 +1,272 @@
+package com.pradeepmill.ui.reports;
+
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.services.ExportService;
+import javax.swing.*;
+import javax.swing.table.TableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Exports a report or table to a CSV or XLSX file with a progress bar.
+ * The export runs on a background worker; cancelling stops after the
+ * current row and leaves no file behind.
+ */
+public class ExportDialog extends JDialog {
+
+    private static final Logger LOG = Logger.getLogger(ExportDialog.class);
+
+    private static final File DEFAULT_FOLDER = new File("exports");
+
+    private final ExportService exportService = new ExportService();
+    private final ExportService.Export export;
+
+    private JTextField fileField;
+    private JComboBox<ExportService.Format> formatComboBox;
+    private JProgressBar progressBar;
+    private JLabel statusLabel;
+    private JButton startButton;
+    private JButton cancelButton;
+
+    private SwingWorker<ExportService.ExportResult, long[]> worker;
+    private volatile boolean cancelRequested;
+
+    public ExportDialog(Frame parent, ExportService.Export export) {
+        super(parent, "Export " + export.getName(), true);
+        this.export = export;
+        initComponents();
+        setLocationRelativeTo(parent);
+    }
+
+    // Open the dialog for the report or table shown in the given component
+    public static void open(Component owner, ExportService.Export export) {
+        Window window = SwingUtilities.getWindowAncestor(owner);
+        new ExportDialog(window instanceof Frame ? (Frame) window : null, export).setVisible(true);
+    }
+
+    /**
+     * An export of the rows of a table as currently sorted and filtered.
+     * The cell values are copied on the calling (event) thread, so the
+     * table can keep refreshing while the file is written.
+     */
+    public static ExportService.Export tableExport(String name, JTable table) {
+        TableModel model = table.getModel();
+        String[] headers = new String[model.getColumnCount()];
+        for (int column = 0; column < headers.length; column++) {
+            headers[column] = model.getColumnName(column);
+        }
+        Object[][] rows = new Object[table.getRowCount()][];
+        for (int row = 0; row < rows.length; row++) {
+            int modelRow = table.convertRowIndexToModel(row);
+            rows[row] = new Object[headers.length];
+            for (int column = 0; column < headers.length; column++) {
+                rows[row][column] = model.getValueAt(modelRow, column);
+            }
+        }
+        return new ExportService.Export(name, headers, () -> rows.length, consumer -> {
+            for (Object[] row : rows) {
+                consumer.accept(row);
+            }
+            return true;
+        });
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout());
+        setSize(560, 260);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeActionPerformed(null);
+            }
+        });
+
+        JPanel contentPanel = new JPanel(new GridBagLayout());
+        contentPanel.setBackground(Color.WHITE);
+        contentPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        gbc.gridx = 0; gbc.gridy = 0; gbc.weightx = 0;
+        contentPanel.add(new JLabel("Format:"), gbc);
+
+        formatComboBox = new JComboBox<>(ExportService.Format.values());
+        formatComboBox.setSelectedItem(ExportService.Format.XLSX);
+        formatComboBox.addActionListener(this::formatSelectionChanged);
+        gbc.gridx = 1; gbc.gridwidth = 2;
+        contentPanel.add(formatComboBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 1; gbc.gridwidth = 1;
+        contentPanel.add(new JLabel("File:"), gbc);
+
+        fileField = new JTextField(new File(DEFAULT_FOLDER, export.getDefaultFileName(ExportService.Format.XLSX)).getAbsolutePath());
+        gbc.gridx = 1; gbc.weightx = 1;
+        contentPanel.add(fileField, gbc);
+
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(this::browseActionPerformed);
+        gbc.gridx = 2; gbc.weightx = 0;
+        contentPanel.add(browseButton, gbc);
+
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 3;
+        contentPanel.add(progressBar, gbc);
+
+        statusLabel = new JLabel("Ready.");
+        gbc.gridy = 3;
+        contentPanel.add(statusLabel, gbc);
+
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.setBackground(Color.WHITE);
+
+        startButton = new JButton("Export");
+        cancelButton = new JButton("Cancel");
+        JButton closeButton = new JButton("Close");
+
+        startButton.addActionListener(this::startActionPerformed);
+        cancelButton.addActionListener(this::cancelActionPerformed);
+        closeButton.addActionListener(this::closeActionPerformed);
+
+        startButton.setBackground(new Color(76, 175, 80));
+        startButton.setForeground(Color.WHITE);
+        cancelButton.setEnabled(false);
+
+        buttonPanel.add(startButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(closeButton);
+
+        add(contentPanel, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    // Keep the file extension in step with the chosen format
+    private void formatSelectionChanged(ActionEvent evt) {
+        ExportService.Format format = (ExportService.Format) formatComboBox.getSelectedItem();
+        String path = fileField.getText().trim();
+        for (ExportService.Format other : ExportService.Format.values()) {
+            String extension = "." + other.getExtension();
+            if (other != format && path.toLowerCase().endsWith(extension)) {
+                fileField.setText(path.substring(0, path.length() - extension.length()) + "." + format.getExtension());
+            }
+        }
+    }
+
+    private void browseActionPerformed(ActionEvent evt) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(fileField.getText().trim()));
+        if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(chooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    private void startActionPerformed(ActionEvent evt) {
+        String path = fileField.getText().trim();
+        if (path.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please choose a file to export to", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        File file = new File(path);
+        if (file.exists()) {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                file.getName() + " already exists. Replace it?",
+                "Confirm Replace",
+                JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+
+        ExportService.Format format = (ExportService.Format) formatComboBox.getSelectedItem();
+        cancelRequested = false;
+        startButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(true);
+        statusLabel.setText("Exporting...");
+
+        worker = new SwingWorker<ExportService.ExportResult, long[]>() {
+            @Override
+            protected ExportService.ExportResult doInBackground() throws Exception {
+                return exportService.export(export, format, file, (written, total) -> publish(new long[] {written, total}),
+                    () -> cancelRequested);
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                long[] latest = chunks.get(chunks.size() - 1);
+                long written = latest[0];
+                long total = latest[1];
+                if (total > 0) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue((int) Math.min(100, written * 100 / total));
+                    statusLabel.setText(String.format("%,d of %,d rows written", written, total));
+                } else {
+                    statusLabel.setText(String.format("%,d rows written", written));
+                }
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                startButton.setEnabled(true);
+                cancelButton.setEnabled(false);
+                try {
+                    showResult(get());
+                } catch (Exception e) {
+                    LOG.error("Error exporting", e);
+                    statusLabel.setText("Failed.");
+                    JOptionPane.showMessageDialog(ExportDialog.this,
+                        "Error exporting: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showResult(ExportService.ExportResult result) {
+        if (result.queryFailed) {
+            statusLabel.setText("Failed after " + String.format("%,d", result.rows) + " rows.");
+            JOptionPane.showMessageDialog(this,
+                "The rows could not be read from the database. No file was written.",
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+        } else if (result.cancelled) {
+            progressBar.setValue(0);
+            statusLabel.setText("Cancelled. No file was written.");
+        } else {
+            progressBar.setValue(100);
+            statusLabel.setText(String.format("Exported %,d rows to %s", result.rows, result.file.getName()));
+        }
+    }
+
+    private void cancelActionPerformed(ActionEvent evt) {
+        cancelRequested = true;
+        cancelButton.setEnabled(false);
+        statusLabel.setText("Cancelling...");
+    }
+
+    private void closeActionPerformed(ActionEvent evt) {
+        if (worker != null && !worker.isDone()) {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                "The export is still running. Cancel and close?",
+                "Confirm Close",
+                JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+            cancelRequested = true;
+        }
+        dispose();
+    }
+}
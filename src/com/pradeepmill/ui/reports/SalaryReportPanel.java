@@ -1,11 +1,14 @@
 package com.pradeepmill.ui.reports;
 
+import com.pradeepmill.services.DocumentBatchService;
+import com.pradeepmill.services.ExportService;
 import com.pradeepmill.services.ReportService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDate;
@@ -59,14 +62,20 @@ public class SalaryReportPanel extends javax.swing.JPanel {
         
         JButton generateButton = new JButton("Generate Report");
         JButton refreshButton = new JButton("Refresh");
+        JButton payslipsButton = new JButton("Generate Payslips");
+        JButton exportButton = new JButton("Export...");
         
         generateButton.addActionListener(this::generateReportActionPerformed);
         refreshButton.addActionListener(this::generateReportActionPerformed);
+        payslipsButton.addActionListener(this::generatePayslipsActionPerformed);
+        exportButton.addActionListener(this::exportActionPerformed);
         
         monthPanel.add(monthLabel);
         monthPanel.add(monthComboBox);
         monthPanel.add(generateButton);
         monthPanel.add(refreshButton);
+        monthPanel.add(payslipsButton);
+        monthPanel.add(exportButton);
         
         // Summary panel
         JPanel summaryPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -175,6 +184,22 @@ public class SalaryReportPanel extends javax.swing.JPanel {
         generateReport();
     }
     
+    private void exportActionPerformed(ActionEvent evt) {
+        ExportDialog.open(this, new ExportService().monthlySalary(getSelectedMonth()));
+    }
+    
+    private void generatePayslipsActionPerformed(ActionEvent evt) {
+        String month = getSelectedMonth();
+        DocumentBatchService documentService = new DocumentBatchService();
+        DocumentBatchDialog dialog = new DocumentBatchDialog(
+            (Frame) SwingUtilities.getWindowAncestor(this),
+            "Generate Payslips - " + month,
+            "Write a payslip file for every salary payment recorded for " + month + ".",
+            new File("documents", "payslips-" + month),
+            (folder, listener, cancelled) -> documentService.generatePayslips(month, folder, listener, cancelled));
+        dialog.setVisible(true);
+    }
+    
     private void generateReport() {
         try {
             tableModel.setRowCount(0); // Clear existing data
@@ -1,5 +1,6 @@
 package com.pradeepmill.ui.reports;
 
+import com.pradeepmill.services.ExportService;
 import com.pradeepmill.services.ReportService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -47,12 +48,12 @@ public class StockReportPanel extends javax.swing.JPanel {
         JButton generateButton = new JButton("Generate Report");
         JButton refreshButton = new JButton("Refresh");
         JButton lowStockButton = new JButton("Low Stock Alert");
-        JButton exportButton = new JButton("Export to PDF");
+        JButton exportButton = new JButton("Export...");
         
         generateButton.addActionListener(this::generateReportActionPerformed);
         refreshButton.addActionListener(this::generateReportActionPerformed);
         lowStockButton.addActionListener(this::showLowStockAlert);
-        exportButton.addActionListener(this::exportToPDF);
+        exportButton.addActionListener(this::exportActionPerformed);
         
         buttonPanel.add(generateButton);
         buttonPanel.add(refreshButton);
@@ -205,11 +206,8 @@ public class StockReportPanel extends javax.swing.JPanel {
         }
     }
     
-    private void exportToPDF(ActionEvent evt) {
-        JOptionPane.showMessageDialog(this, 
-            "PDF Export functionality will be implemented in future version.", 
-            "Export to PDF", 
-            JOptionPane.INFORMATION_MESSAGE);
+    private void exportActionPerformed(ActionEvent evt) {
+        ExportDialog.open(this, new ExportService().stock());
     }
     
     // Custom cell renderer for status column
@@ -1,5 +1,6 @@
 package com.pradeepmill.ui.reports;
 
+import com.pradeepmill.services.ExportService;
 import com.pradeepmill.services.ReportService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -39,12 +40,15 @@ public class SupplierReportPanel extends javax.swing.JPanel {
         
         JButton generateButton = new JButton("Generate Report");
         JButton refreshButton = new JButton("Refresh");
+        JButton exportButton = new JButton("Export...");
         
         generateButton.addActionListener(this::generateReportActionPerformed);
         refreshButton.addActionListener(this::generateReportActionPerformed);
+        exportButton.addActionListener(this::exportActionPerformed);
         
         buttonPanel.add(generateButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"Supplier ID", "Supplier Name", "Phone", "Address", 
@@ -79,6 +83,10 @@ public class SupplierReportPanel extends javax.swing.JPanel {
         generateReport();
     }
     
+    private void exportActionPerformed(ActionEvent evt) {
+        ExportDialog.open(this, new ExportService().supplierDetails());
+    }
+    
     private void generateReport() {
         try {
             tableModel.setRowCount(0); // Clear existing data
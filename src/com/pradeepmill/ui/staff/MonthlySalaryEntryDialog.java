@@ -2,20 +2,40 @@ package com.pradeepmill.ui.staff;
 
 import com.pradeepmill.dao.StaffDAO;
 import com.pradeepmill.dao.SalaryPaymentDAO;
+import com.pradeepmill.logging.Logger;
+import com.pradeepmill.models.SalaryPayment;
 import com.pradeepmill.models.Staff;
+import com.pradeepmill.services.PayrollEngine;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableColumn;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MonthlySalaryEntryDialog extends JDialog {
     
+    private static final Logger LOG = Logger.getLogger(MonthlySalaryEntryDialog.class);
+    
+    // Table columns
+    private static final int COL_NAME = 0;
+    private static final int COL_POSITION = 1;
+    private static final int COL_BASIC = 2;
+    private static final int COL_OT_HOURS = 3;
+    private static final int COL_ABSENT_DAYS = 4;
+    private static final int COL_BONUS = 5;
+    private static final int COL_OT_AMOUNT = 6;
+    private static final int COL_DEDUCTIONS = 7;
+    private static final int COL_NET = 8;
+    private static final int COL_STATUS = 9;
+    
+    private static final String STATUS_ALREADY_PAID = "Already Paid";
+    
     private StaffDAO staffDAO;
     private SalaryPaymentDAO salaryDAO;
+    private PayrollEngine payrollEngine;
     private String paymentMonth;
     private boolean processed = false;
     
@@ -24,11 +44,21 @@ public class MonthlySalaryEntryDialog extends JDialog {
     private JLabel totalSalaryLabel;
     private JLabel employeeCountLabel;
     
+    // Staff id of each table row, in model order
+    private final List<Integer> rowStaffIds = new ArrayList<>();
+    
+    // Stored unpaid payments by staff id; saved again only if changed
+    private final java.util.Map<Integer, SalaryPayment> storedUnpaid = new java.util.HashMap<>();
+    
+    // Latest recalculation request; older results are dropped
+    private int recalculationGeneration;
+    
     public MonthlySalaryEntryDialog(Frame parent, String paymentMonth) {
         super(parent, "Monthly Salary Entry - " + paymentMonth, true);
         this.paymentMonth = paymentMonth;
         this.staffDAO = new StaffDAO();
         this.salaryDAO = new SalaryPaymentDAO();
+        this.payrollEngine = new PayrollEngine();
         initComponents();
         loadEmployeeData();
         setLocationRelativeTo(parent);
@@ -36,7 +66,7 @@ public class MonthlySalaryEntryDialog extends JDialog {
     
     private void initComponents() {
         setLayout(new BorderLayout());
-        setSize(900, 500);
+        setSize(1150, 500);
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         
         // Title panel
@@ -58,7 +88,8 @@ public class MonthlySalaryEntryDialog extends JDialog {
         JPanel instructionsPanel = new JPanel();
         instructionsPanel.setBackground(Color.WHITE);
         JLabel instructionsLabel = new JLabel("<html><b>Instructions:</b> Basic salary is pre-filled. " +
-            "Add bonus amounts if applicable. Net salary calculates automatically.</html>");
+            "Enter overtime hours, absent days and bonus amounts. Overtime, deductions and net salary " +
+            "are calculated from the payroll rules.</html>");
         instructionsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
         instructionsPanel.add(instructionsLabel);
         
@@ -80,26 +111,25 @@ public class MonthlySalaryEntryDialog extends JDialog {
         infoPanel.add(instructionsPanel, BorderLayout.WEST);
         infoPanel.add(summaryPanel, BorderLayout.EAST);
         
-        // Table setup - SIMPLIFIED COLUMNS
-        String[] columnNames = {"Employee Name", "Position", "Basic Salary", "Bonus", "Net Salary", "Status"};
+        // Table setup
+        String[] columnNames = {"Employee Name", "Position", "Basic Salary", "OT Hours", "Absent Days",
+                                "Bonus", "OT Amount", "Deductions", "Net Salary", "Status"};
         
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public Class<?> getColumnClass(int column) {
-                switch (column) {
-                    case 2: case 3: case 4: // Basic Salary, Bonus, Net Salary
-                        return Double.class;
-                    default:
-                        return String.class;
+                if (column == COL_NAME || column == COL_POSITION || column == COL_STATUS) {
+                    return String.class;
                 }
+                return Double.class;
             }
             
             @Override
             public boolean isCellEditable(int row, int column) {
-                // Only allow editing of Bonus column (index 3) and only if not already paid
-                if (column == 3) {
-                    String status = (String) getValueAt(row, 5);
-                    return !"Already Paid".equals(status);
+                // Only the payroll inputs are editable, and only if not already paid
+                if (isInputColumn(column)) {
+                    String status = (String) getValueAt(row, COL_STATUS);
+                    return !STATUS_ALREADY_PAID.equals(status);
                 }
                 return false;
             }
@@ -110,57 +140,27 @@ public class MonthlySalaryEntryDialog extends JDialog {
         salaryTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
         // Set column widths
-        salaryTable.getColumnModel().getColumn(0).setPreferredWidth(180); // Employee Name
-        salaryTable.getColumnModel().getColumn(1).setPreferredWidth(150); // Position
-        salaryTable.getColumnModel().getColumn(2).setPreferredWidth(120); // Basic Salary
-        salaryTable.getColumnModel().getColumn(3).setPreferredWidth(100); // Bonus
-        salaryTable.getColumnModel().getColumn(4).setPreferredWidth(120); // Net Salary
-        salaryTable.getColumnModel().getColumn(5).setPreferredWidth(100); // Status
+        salaryTable.getColumnModel().getColumn(COL_NAME).setPreferredWidth(170);
+        salaryTable.getColumnModel().getColumn(COL_POSITION).setPreferredWidth(130);
+        salaryTable.getColumnModel().getColumn(COL_BASIC).setPreferredWidth(110);
+        salaryTable.getColumnModel().getColumn(COL_OT_HOURS).setPreferredWidth(80);
+        salaryTable.getColumnModel().getColumn(COL_ABSENT_DAYS).setPreferredWidth(90);
+        salaryTable.getColumnModel().getColumn(COL_BONUS).setPreferredWidth(90);
+        salaryTable.getColumnModel().getColumn(COL_OT_AMOUNT).setPreferredWidth(100);
+        salaryTable.getColumnModel().getColumn(COL_DEDUCTIONS).setPreferredWidth(100);
+        salaryTable.getColumnModel().getColumn(COL_NET).setPreferredWidth(110);
+        salaryTable.getColumnModel().getColumn(COL_STATUS).setPreferredWidth(100);
         
-        // FIXED: Custom cell editor for bonus column with proper validation
-        JTextField bonusField = new JTextField();
-        bonusField.setHorizontalAlignment(JTextField.RIGHT);
-        
-        DefaultCellEditor bonusEditor = new DefaultCellEditor(bonusField) {
-            @Override
-            public boolean stopCellEditing() {
-                String value = (String) getCellEditorValue();
-                try {
-                    if (value == null || value.trim().isEmpty()) {
-                        // Set to 0 if empty
-                        super.getCellEditorValue();
-                        return true;
-                    }
-                    double bonusAmount = Double.parseDouble(value.trim());
-                    if (bonusAmount < 0) {
-                        JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
-                            "Bonus amount cannot be negative",
-                            "Invalid Input",
-                            JOptionPane.ERROR_MESSAGE);
-                        return false;
-                    }
-                } catch (NumberFormatException e) {
-                    JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
-                        "Please enter a valid numeric bonus amount",
-                        "Invalid Input",
-                        JOptionPane.ERROR_MESSAGE);
-                    return false;
-                }
-                return super.stopCellEditing();
-            }
-        };
-        salaryTable.getColumnModel().getColumn(3).setCellEditor(bonusEditor);
+        salaryTable.getColumnModel().getColumn(COL_OT_HOURS).setCellEditor(nonNegativeEditor("overtime hours"));
+        salaryTable.getColumnModel().getColumn(COL_ABSENT_DAYS).setCellEditor(nonNegativeEditor("absent days"));
+        salaryTable.getColumnModel().getColumn(COL_BONUS).setCellEditor(nonNegativeEditor("bonus amount"));
         
-        // FIXED: Add proper table model listener
+        // Recalculate whenever a payroll input changes
         tableModel.addTableModelListener(new TableModelListener() {
             @Override
             public void tableChanged(TableModelEvent e) {
-                if (e.getType() == TableModelEvent.UPDATE && e.getColumn() == 3) {
-                    // Bonus column was updated
-                    SwingUtilities.invokeLater(() -> {
-                        calculateRowNetSalary(e.getFirstRow());
-                        updateTotalSalary();
-                    });
+                if (e.getType() == TableModelEvent.UPDATE && isInputColumn(e.getColumn())) {
+                    recalculate(null);
                 }
             }
         });
@@ -201,12 +201,49 @@ public class MonthlySalaryEntryDialog extends JDialog {
         add(buttonPanel, BorderLayout.SOUTH);
     }
     
+    private static boolean isInputColumn(int column) {
+        return column == COL_OT_HOURS || column == COL_ABSENT_DAYS || column == COL_BONUS;
+    }
+    
+    // Cell editor that only accepts empty or non-negative numbers
+    private DefaultCellEditor nonNegativeEditor(String fieldName) {
+        JTextField field = new JTextField();
+        field.setHorizontalAlignment(JTextField.RIGHT);
+        return new DefaultCellEditor(field) {
+            @Override
+            public boolean stopCellEditing() {
+                String value = (String) getCellEditorValue();
+                try {
+                    if (value == null || value.trim().isEmpty()) {
+                        return super.stopCellEditing();
+                    }
+                    if (Double.parseDouble(value.trim()) < 0) {
+                        JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                            "The " + fieldName + " cannot be negative",
+                            "Invalid Input",
+                            JOptionPane.ERROR_MESSAGE);
+                        return false;
+                    }
+                } catch (NumberFormatException e) {
+                    JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                        "Please enter a valid numeric " + fieldName,
+                        "Invalid Input",
+                        JOptionPane.ERROR_MESSAGE);
+                    return false;
+                }
+                return super.stopCellEditing();
+            }
+        };
+    }
+    
     private void loadEmployeeData() {
         try {
             tableModel.setRowCount(0);
+            rowStaffIds.clear();
+            storedUnpaid.clear();
             
             List<Staff> activeStaff = staffDAO.getAllActiveStaff();
-            System.out.println("DEBUG: Loading " + activeStaff.size() + " active staff members");
+            LOG.debug("Loading {} active staff members", activeStaff.size());
             
             // Get existing salary payments for this month
             java.util.Map<Integer, java.util.Map<String, Object>> existingPayments = new java.util.HashMap<>();
@@ -220,43 +257,66 @@ public class MonthlySalaryEntryDialog extends JDialog {
             
             for (Staff staff : activeStaff) {
                 double basicSalary = staff.getMonthlySalary();
+                double overtimeHours = 0.0;
+                Double absentDays = 0.0;
                 double bonus = 0.0;
+                double overtimeAmount = 0.0;
+                double deductions = 0.0;
                 double netSalary = basicSalary;
                 String status = "Pending";
                 
-                // Check if payment already exists and load actual values
+                // Saved payments show their stored values; only paid ones are read-only
                 if (existingPayments.containsKey(staff.getStaffId())) {
                     java.util.Map<String, Object> payment = existingPayments.get(staff.getStaffId());
                     
-                    // Use actual saved values
                     basicSalary = ((Number) payment.getOrDefault("basic_salary", staff.getMonthlySalary())).doubleValue();
+                    overtimeHours = ((Number) payment.getOrDefault("overtime_hours", 0.0)).doubleValue();
+                    // Blank for paid rows saved before absent days were stored
+                    absentDays = (Double) payment.get("absent_days");
+                    overtimeAmount = ((Number) payment.getOrDefault("overtime_amount", 0.0)).doubleValue();
                     bonus = ((Number) payment.getOrDefault("bonus", 0.0)).doubleValue();
-                    netSalary = ((Number) payment.getOrDefault("net_salary", basicSalary + bonus)).doubleValue();
-                    status = "Already Paid";
-                    
-                    System.out.println("DEBUG: Loaded existing payment for " + staff.getEmployeeName() + 
-                                     " - Basic: " + basicSalary + ", Bonus: " + bonus + ", Net: " + netSalary);
-                } else {
-                    System.out.println("DEBUG: No existing payment for " + staff.getEmployeeName() + 
-                                     " - Using defaults");
+                    deductions = ((Number) payment.getOrDefault("deductions", 0.0)).doubleValue();
+                    netSalary = ((Number) payment.getOrDefault("net_salary", basicSalary + overtimeAmount + bonus - deductions)).doubleValue();
+                    if (SalaryPayment.STATUS_PAID.equals(payment.get("payment_status"))) {
+                        status = STATUS_ALREADY_PAID;
+                    } else {
+                        if (absentDays == null) {
+                            absentDays = 0.0;
+                        }
+                        SalaryPayment stored = new SalaryPayment();
+                        stored.setAbsentDays(absentDays);
+                        stored.setBasicSalary(basicSalary);
+                        stored.setOvertimeHours(overtimeHours);
+                        stored.setOvertimeAmount(overtimeAmount);
+                        stored.setBonus(bonus);
+                        stored.setDeductions(deductions);
+                        stored.setNetSalary(netSalary);
+                        storedUnpaid.put(staff.getStaffId(), stored);
+                    }
                 }
                 
                 Object[] row = {
                     staff.getEmployeeName(),
                     staff.getPosition(),
-                    basicSalary,   // Basic Salary (from DB if exists, else monthly salary)
-                    bonus,         // Bonus (from DB if exists, else 0)
-                    netSalary,     // Net Salary (from DB if exists, else basic salary)
+                    basicSalary,
+                    overtimeHours,
+                    absentDays,
+                    bonus,
+                    overtimeAmount,
+                    deductions,
+                    netSalary,
                     status
                 };
                 tableModel.addRow(row);
+                rowStaffIds.add(staff.getStaffId());
             }
             
             updateEmployeeCount();
             updateTotalSalary();
+            recalculate(null);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Error loading employee data for {}", paymentMonth, e);
             JOptionPane.showMessageDialog(this,
                 "Error loading employee data: " + e.getMessage(),
                 "Database Error",
@@ -264,32 +324,77 @@ public class MonthlySalaryEntryDialog extends JDialog {
         }
     }
     
-    private void calculateRowNetSalary(int row) {
-        try {
-            System.out.println("DEBUG: Calculating net salary for row " + row);
-            
-            Object basicSalaryObj = tableModel.getValueAt(row, 2);
-            Object bonusObj = tableModel.getValueAt(row, 3);
-            
-            double basicSalary = parseDouble(basicSalaryObj);
-            double bonus = parseDouble(bonusObj);
-            
-            System.out.println("DEBUG: Basic salary: " + basicSalary + ", Bonus: " + bonus);
-            
-            // Simple calculation: Net Salary = Basic Salary + Bonus
-            double netSalary = basicSalary + bonus;
-            
-            System.out.println("DEBUG: Calculated net salary: " + netSalary);
-            
-            // Update table - IMPORTANT: Use fireTableCellUpdated to prevent infinite loop
-            tableModel.removeTableModelListener(tableModel.getTableModelListeners()[0]);
-            tableModel.setValueAt(netSalary, row, 4); // Net Salary column
-            tableModel.addTableModelListener(tableModel.getTableModelListeners()[0]);
-            
-        } catch (Exception e) {
-            System.err.println("Error calculating net salary for row " + row + ": " + e.getMessage());
-            e.printStackTrace();
+    // Model rows that still need to be paid
+    private int[] pendingRows() {
+        int[] rows = new int[tableModel.getRowCount()];
+        int count = 0;
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (!STATUS_ALREADY_PAID.equals(tableModel.getValueAt(row, COL_STATUS))) {
+                rows[count++] = row;
+            }
         }
+        return java.util.Arrays.copyOf(rows, count);
+    }
+    
+    // Copy the inputs of the given rows into a payroll batch (on the EDT)
+    private PayrollEngine.Batch toBatch(int[] rows) {
+        PayrollEngine.Batch batch = new PayrollEngine.Batch(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            batch.set(i,
+                rowStaffIds.get(row),
+                (String) tableModel.getValueAt(row, COL_POSITION),
+                parseDouble(tableModel.getValueAt(row, COL_BASIC)),
+                parseDouble(tableModel.getValueAt(row, COL_OT_HOURS)),
+                parseDouble(tableModel.getValueAt(row, COL_ABSENT_DAYS)),
+                parseDouble(tableModel.getValueAt(row, COL_BONUS)));
+        }
+        return batch;
+    }
+    
+    /**
+     * Recalculate the pending rows off the EDT. Only the latest request is
+     * applied, so rapid edits never show stale figures.
+     */
+    private void recalculate(Runnable onDone) {
+        int[] rows = pendingRows();
+        PayrollEngine.Batch batch = toBatch(rows);
+        int generation = ++recalculationGeneration;
+        
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                payrollEngine.calculate(batch);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (Exception e) {
+                    LOG.error("Error calculating salaries for {}", paymentMonth, e);
+                    JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                        "Error calculating salaries: " + e.getMessage(),
+                        "Calculation Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                if (generation != recalculationGeneration || rows.length > tableModel.getRowCount()) {
+                    return;
+                }
+                
+                for (int i = 0; i < rows.length; i++) {
+                    tableModel.setValueAt(batch.getOvertimeAmount(i), rows[i], COL_OT_AMOUNT);
+                    tableModel.setValueAt(batch.getDeductions(i), rows[i], COL_DEDUCTIONS);
+                    tableModel.setValueAt(batch.getNetSalary(i), rows[i], COL_NET);
+                }
+                updateTotalSalary();
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        }.execute();
     }
     
     private double parseDouble(Object value) {
@@ -305,7 +410,7 @@ public class MonthlySalaryEntryDialog extends JDialog {
             }
             return Double.parseDouble(value.toString().trim());
         } catch (NumberFormatException e) {
-            System.err.println("Error parsing double from: " + value + " (" + (value != null ? value.getClass().getSimpleName() : "null") + ")");
+            LOG.warn("Error parsing double from: {} ({})", value, value.getClass().getSimpleName());
             return 0.0;
         }
     }
@@ -319,17 +424,10 @@ public class MonthlySalaryEntryDialog extends JDialog {
     private void recalculateAllActionPerformed(ActionEvent evt) {
         commitTableEdits();
         
-        System.out.println("DEBUG: Recalculating all rows");
-        
-        for (int row = 0; row < tableModel.getRowCount(); row++) {
-            calculateRowNetSalary(row);
-        }
-        updateTotalSalary();
-        
-        JOptionPane.showMessageDialog(this, 
+        recalculate(() -> JOptionPane.showMessageDialog(this, 
             "All salary calculations updated!", 
             "Recalculated", 
-            JOptionPane.INFORMATION_MESSAGE);
+            JOptionPane.INFORMATION_MESSAGE));
     }
     
     private void saveAllActionPerformed(ActionEvent evt) {
@@ -340,91 +438,70 @@ public class MonthlySalaryEntryDialog extends JDialog {
             "Confirm Save",
             JOptionPane.YES_NO_OPTION);
         
-        if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                int savedCount = 0;
-                int updatedCount = 0;
-                int skippedCount = 0;
-                List<Staff> activeStaff = staffDAO.getAllActiveStaff();
-                
-                // Get existing payments for quick lookup
-                java.util.Map<Integer, java.util.Map<String, Object>> existingPayments = new java.util.HashMap<>();
-                List<java.util.Map<String, Object>> paymentsList = salaryDAO.getSalaryPaymentsByMonth(paymentMonth);
-                for (java.util.Map<String, Object> payment : paymentsList) {
-                    Integer staffId = (Integer) payment.get("staff_id");
-                    existingPayments.put(staffId, payment);
-                }
-                
-                for (int row = 0; row < tableModel.getRowCount(); row++) {
-                    String status = (String) tableModel.getValueAt(row, 5);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        // Snapshot the pending rows on the EDT; paid rows are read-only and not sent
+        PayrollEngine.Batch batch = toBatch(pendingRows());
+        java.util.Map<Integer, SalaryPayment> stored = new java.util.HashMap<>(storedUnpaid);
+        
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<SalaryPaymentDAO.PayrollRunCounts, Void>() {
+            @Override
+            protected SalaryPaymentDAO.PayrollRunCounts doInBackground() {
+                // Calculate and save the new and changed payments in one transaction
+                payrollEngine.calculate(batch);
+                List<SalaryPayment> payments = payrollEngine.toPayments(batch, paymentMonth);
+                payments.removeIf(payment -> sameFigures(payment, stored.get(payment.getStaffId())));
+                return salaryDAO.savePayrollRun(paymentMonth, payments);
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    SalaryPaymentDAO.PayrollRunCounts counts = get();
+                    if (counts == null) {
+                        JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                            "Salary payments could not be saved. No changes were made.",
+                            "Save Error",
+                            JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
                     
-                    // Get employee data
-                    String employeeName = (String) tableModel.getValueAt(row, 0);
-                    Staff employee = activeStaff.stream()
-                        .filter(s -> s.getEmployeeName().equals(employeeName))
-                        .findFirst()
-                        .orElse(null);
+                    processed = true;
+                    JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                        "Salary processing completed!\n" +
+                        "New payments saved: " + counts.inserted + "\n" +
+                        "Existing payments updated: " + counts.updated +
+                        (counts.skipped > 0 ? "\nAlready paid, left unchanged: " + counts.skipped : ""),
+                        "Save Complete",
+                        JOptionPane.INFORMATION_MESSAGE);
                     
-                    if (employee != null) {
-                        double basicSalary = parseDouble(tableModel.getValueAt(row, 2));
-                        double bonus = parseDouble(tableModel.getValueAt(row, 3));
-                        
-                        System.out.println("DEBUG: Processing " + employeeName + 
-                                         " (ID: " + employee.getStaffId() + 
-                                         ") - Basic: " + basicSalary + 
-                                         ", Bonus: " + bonus +
-                                         ", Status: " + status);
-                        
-                        boolean success = false;
-                        
-                        if ("Already Paid".equals(status)) {
-                            // Update existing payment
-                            success = salaryDAO.updateSalaryPaymentByStaffAndMonth(
-                                employee.getStaffId(), paymentMonth, basicSalary, bonus);
-                            if (success) {
-                                updatedCount++;
-                                tableModel.setValueAt("Updated", row, 5);
-                            }
-                        } else {
-                            // Create new payment
-                            success = salaryDAO.insertSimpleSalaryPayment(
-                                employee.getStaffId(), paymentMonth, basicSalary, bonus);
-                            if (success) {
-                                savedCount++;
-                                tableModel.setValueAt("Saved", row, 5);
-                            }
-                        }
-                        
-                        if (!success) {
-                            System.err.println("Failed to save/update payment for " + employeeName);
-                            skippedCount++;
-                        }
-                        
-                    } else {
-                        System.err.println("Employee not found: " + employeeName);
-                        skippedCount++;
-                    }
+                    dispose();
+                    
+                } catch (Exception e) {
+                    LOG.error("Error saving salary payments for {}", paymentMonth, e);
+                    JOptionPane.showMessageDialog(MonthlySalaryEntryDialog.this,
+                        "Error saving salary payments: " + e.getMessage(),
+                        "Save Error",
+                        JOptionPane.ERROR_MESSAGE);
                 }
-                
-                processed = true;
-                JOptionPane.showMessageDialog(this,
-                    "Salary processing completed!\n" +
-                    "New payments saved: " + savedCount + "\n" +
-                    "Existing payments updated: " + updatedCount + "\n" +
-                    "Skipped: " + skippedCount,
-                    "Save Complete",
-                    JOptionPane.INFORMATION_MESSAGE);
-                
-                dispose();
-                
-            } catch (Exception e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this,
-                    "Error saving salary payments: " + e.getMessage(),
-                    "Save Error",
-                    JOptionPane.ERROR_MESSAGE);
             }
-        }
+        }.execute();
+    }
+    
+    // Whether a calculated payment matches the stored one, so saving it would change nothing
+    private static boolean sameFigures(SalaryPayment payment, SalaryPayment stored) {
+        return stored != null
+            && payment.getBasicSalary() == stored.getBasicSalary()
+            && payment.getOvertimeHours() == stored.getOvertimeHours()
+            && payment.getAbsentDays() == stored.getAbsentDays()
+            && payment.getOvertimeAmount() == stored.getOvertimeAmount()
+            && payment.getBonus() == stored.getBonus()
+            && payment.getDeductions() == stored.getDeductions()
+            && payment.getNetSalary() == stored.getNetSalary();
     }
     
     private void cancelActionPerformed(ActionEvent evt) {
@@ -438,10 +515,9 @@ public class MonthlySalaryEntryDialog extends JDialog {
     private void updateTotalSalary() {
         double total = 0.0;
         for (int row = 0; row < tableModel.getRowCount(); row++) {
-            total += parseDouble(tableModel.getValueAt(row, 4)); // Net Salary column
+            total += parseDouble(tableModel.getValueAt(row, COL_NET));
         }
         totalSalaryLabel.setText("Total: Rs. " + String.format("%,.2f", total));
-        System.out.println("DEBUG: Updated total salary to: Rs. " + String.format("%,.2f", total));
     }
     
     public boolean isProcessed() {
@@ -2,7 +2,9 @@ package com.pradeepmill.ui.staff;
 
 import com.pradeepmill.dao.StaffDAO;
 import com.pradeepmill.dao.SalaryPaymentDAO;
+import com.pradeepmill.logging.Logger;
 import com.pradeepmill.models.Staff;
+import com.pradeepmill.services.PayrollEngine;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -10,8 +12,10 @@ import java.util.List;
 
 public class SalaryManagementDialog extends JDialog {
     
+    private static final Logger LOG = Logger.getLogger(SalaryManagementDialog.class);
+    
     private StaffDAO staffDAO;
-    private SalaryPaymentDAO salaryDAO;
+    private PayrollEngine payrollEngine;
     private String paymentMonth;
     private boolean processed = false;
     
@@ -19,7 +23,7 @@ public class SalaryManagementDialog extends JDialog {
         super(parent, "Process Monthly Salary - " + paymentMonth, true);
         this.paymentMonth = paymentMonth;
         this.staffDAO = new StaffDAO();
-        this.salaryDAO = new SalaryPaymentDAO();
+        this.payrollEngine = new PayrollEngine();
         initComponents();
         setLocationRelativeTo(parent);
     }
@@ -102,8 +106,16 @@ public class SalaryManagementDialog extends JDialog {
         
         if (confirm == JOptionPane.YES_OPTION) {
             try {
-                int processedCount = salaryDAO.processMonthlyPayments(paymentMonth);
+                SalaryPaymentDAO.PayrollRunCounts counts = payrollEngine.processMonthlyPayments(paymentMonth);
+                if (counts == null) {
+                    JOptionPane.showMessageDialog(this,
+                        "Salary payments could not be saved. No changes were made.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
                 
+                int processedCount = counts.inserted;
                 if (processedCount > 0) {
                     processed = true;
                     JOptionPane.showMessageDialog(this,
@@ -121,7 +133,7 @@ public class SalaryManagementDialog extends JDialog {
                 }
                 
             } catch (Exception e) {
-                e.printStackTrace();
+                LOG.error("Error processing salary payments for {}", paymentMonth, e);
                 JOptionPane.showMessageDialog(this,
                     "Error processing payments: " + e.getMessage(),
                     "Error",
@@ -9,9 +9,11 @@ import java.awt.event.ActionEvent;
 import java.util.List;
 import com.pradeepmill.ui.staff.SalaryManagementDialog;
 import com.pradeepmill.ui.staff.MonthlySalaryEntryDialog;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 
 
-public class StaffManagementPanel extends javax.swing.JPanel {
+public class StaffManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private StaffDAO staffDAO;
     private JTable staffTable;
@@ -46,18 +48,21 @@ public class StaffManagementPanel extends javax.swing.JPanel {
         JButton deleteButton = new JButton("Delete Employee");
         JButton refreshButton = new JButton("Refresh");
         JButton salaryButton = new JButton("Salary Management");
+        JButton exportButton = new JButton("Export...");
         
         addButton.addActionListener(this::addStaffActionPerformed);
         editButton.addActionListener(this::editStaffActionPerformed);
         deleteButton.addActionListener(this::deleteStaffActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
         salaryButton.addActionListener(this::salaryManagementActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Staff", staffTable)));
         
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(salaryButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"ID", "Employee Name", "Position", "Phone", "Address", "Monthly Salary", "Status"};
@@ -272,6 +277,11 @@ public class StaffManagementPanel extends javax.swing.JPanel {
     }
     
     
+    @Override
+    public void refreshData() {
+        loadStaff();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadStaff();
         JOptionPane.showMessageDialog(this, "Staff list refreshed!");
@@ -3,13 +3,15 @@ package com.pradeepmill.ui.suppliers;
 import com.pradeepmill.services.DashboardService;
 import com.pradeepmill.dao.SupplierDAO;
 import com.pradeepmill.models.Supplier;
+import com.pradeepmill.ui.RefreshablePanel;
+import com.pradeepmill.ui.reports.ExportDialog;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
 
-public class SupplierManagementPanel extends javax.swing.JPanel {
+public class SupplierManagementPanel extends javax.swing.JPanel implements RefreshablePanel {
 
     private SupplierDAO supplierDAO;
     private JTable supplierTable;
@@ -43,16 +45,19 @@ public class SupplierManagementPanel extends javax.swing.JPanel {
         JButton editButton = new JButton("Edit Supplier");
         JButton deleteButton = new JButton("Delete Supplier");
         JButton refreshButton = new JButton("Refresh");
+        JButton exportButton = new JButton("Export...");
         
         addButton.addActionListener(this::addSupplierActionPerformed);
         editButton.addActionListener(this::editSupplierActionPerformed);
         deleteButton.addActionListener(this::deleteSupplierActionPerformed);
         refreshButton.addActionListener(this::refreshActionPerformed);
+        exportButton.addActionListener(e -> ExportDialog.open(this, ExportDialog.tableExport("Suppliers", supplierTable)));
         
         buttonPanel.add(addButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(exportButton);
         
         // Table setup
         String[] columnNames = {"ID", "Supplier Name", "Contact Person", "Phone", "Address", "Status", "Credit Limit"};
@@ -186,6 +191,11 @@ public class SupplierManagementPanel extends javax.swing.JPanel {
         }
     }
     
+    @Override
+    public void refreshData() {
+        loadSuppliers();
+    }
+    
     private void refreshActionPerformed(ActionEvent evt) {
         loadSuppliers();
         JOptionPane.showMessageDialog(this, "Supplier list refreshed!");
@@ -0,0 +1,72 @@
+package com.pradeepmill.utils;
+
+import com.pradeepmill.logging.Logger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DataChangeNotifier {
+
+    private static final Logger LOG = Logger.getLogger(DataChangeNotifier.class);
+
+    // Data topics (one per area of the database a screen can depend on)
+    public static final String TOPIC_SUPPLIERS = "suppliers";
+    public static final String TOPIC_CUSTOMERS = "customers";
+    public static final String TOPIC_PRODUCTS = "products";
+    public static final String TOPIC_STAFF = "staff";
+    public static final String TOPIC_MACHINES = "machines";
+    public static final String TOPIC_STOCK = "stock";
+    public static final String TOPIC_PURCHASES = "purchases";
+    public static final String TOPIC_SALES = "sales";
+    public static final String TOPIC_PRODUCTION = "production";
+    public static final String TOPIC_SALARY = "salary";
+
+    // Listener interface for screens and caches interested in data changes
+    public interface DataChangeListener {
+        void dataChanged(String topic);
+    }
+
+    private static final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Number of changes fired per topic
+    private static final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Register a listener
+    public static void addListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Remove a listener
+    public static void removeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Data version of the topic: goes up by one with every change fired, so
+     * a screen can tell whether anything changed since it loaded its data.
+     */
+    public static long getVersion(String topic) {
+        AtomicLong version = versions.get(topic);
+        return version != null ? version.get() : 0;
+    }
+    
+    /**
+     * Notify all listeners that data for the given topics has changed.
+     * Listeners are called on the caller's thread and should only record the
+     * change (e.g. mark a screen stale), not reload data themselves.
+     */
+    public static void fireDataChanged(String... topics) {
+        for (String topic : topics) {
+            versions.computeIfAbsent(topic, t -> new AtomicLong()).incrementAndGet();
+            for (DataChangeListener listener : listeners) {
+                try {
+                    listener.dataChanged(topic);
+                } catch (Exception e) {
+                    LOG.error("Data change listener error on " + topic, e);
+                }
+            }
+        }
+    }
+}
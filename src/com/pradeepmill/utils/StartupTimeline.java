@@ -0,0 +1,88 @@
+package com.pradeepmill.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each startup phase takes, relative to the start of main().
+ * Print it with the --timeline argument or -Dpradeepmill.startupTimeline=true.
+ */
+public class StartupTimeline {
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static volatile boolean enabled = Boolean.getBoolean("pradeepmill.startupTimeline");
+    private static final List<Phase> phases = new ArrayList<>();
+
+    private static class Phase {
+        final String name;
+        final String thread;
+        final long startNanos;
+        long endNanos = -1;
+
+        Phase(String name, long startNanos) {
+            this.name = name;
+            this.thread = Thread.currentThread().getName();
+            this.startNanos = startNanos;
+        }
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Mark the start of a phase
+    public static void begin(String name) {
+        synchronized (phases) {
+            phases.add(new Phase(name, System.nanoTime()));
+        }
+    }
+
+    // Mark the end of the most recent phase with this name
+    public static void end(String name) {
+        long now = System.nanoTime();
+        synchronized (phases) {
+            for (int i = phases.size() - 1; i >= 0; i--) {
+                Phase phase = phases.get(i);
+                if (phase.name.equals(name) && phase.endNanos < 0) {
+                    phase.endNanos = now;
+                    return;
+                }
+            }
+        }
+    }
+
+    // Record a point in time (a phase with no duration)
+    public static void mark(String name) {
+        long now = System.nanoTime();
+        synchronized (phases) {
+            Phase phase = new Phase(name, now);
+            phase.endNanos = now;
+            phases.add(phase);
+        }
+    }
+
+    // Format the timeline as a table of start offset, duration and thread per phase
+    public static String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-36s %10s %10s  %s%n", "Startup phase", "start ms", "took ms", "thread"));
+        synchronized (phases) {
+            for (Phase phase : phases) {
+                long start = (phase.startNanos - ORIGIN_NANOS) / 1_000_000;
+                String took = phase.endNanos < 0 ? "running" : String.valueOf((phase.endNanos - phase.startNanos) / 1_000_000);
+                sb.append(String.format("%-36s %10d %10s  %s%n", phase.name, start, took, phase.thread));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Print the timeline if it was requested on the command line
+    public static void printIfEnabled() {
+        if (enabled) {
+            System.out.print(format());
+        }
+    }
+}
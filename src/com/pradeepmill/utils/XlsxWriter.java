@@ -0,0 +1,332 @@
+package com.pradeepmill.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an Excel workbook (.xlsx) one row at a time. Each worksheet is
+ * written straight into the zip as rows arrive, so only the row being
+ * written is held in memory. When a sheet reaches the Excel row limit the
+ * rest continues on a new sheet, with the header repeated.
+ *
+ * Numbers are written as numbers, dates and timestamps as Excel dates,
+ * everything else as text. Nulls are left as empty cells.
+ *
+ * Not thread-safe. Closing the writer finishes the workbook and closes
+ * the underlying stream.
+ */
+public class XlsxWriter implements Closeable, Flushable {
+
+    // Rows per sheet in Excel, including the header
+    public static final int MAX_ROWS = 1_048_576;
+
+    private static final int MAX_CELL_TEXT = 32_767;
+    private static final int MAX_SHEET_NAME = 31;
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    // Cell styles from styles.xml: 1 = date, 2 = date and time, 3 = bold header
+    private static final int STYLE_DATE = 1;
+    private static final int STYLE_TIMESTAMP = 2;
+    private static final int STYLE_HEADER = 3;
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final String sheetName;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<String> columnNames = new ArrayList<>();
+
+    private Object[] header;
+    private boolean sheetOpen;
+    private int sheetRows;
+
+    public XlsxWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(out);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        this.sheetName = safeSheetName(sheetName);
+        writeStaticParts();
+    }
+
+    // Header row, written in bold at the top of every sheet; call before the first row
+    public void writeHeader(Object... headers) throws IOException {
+        if (sheetOpen) {
+            throw new IllegalStateException("The header must be written before any rows");
+        }
+        this.header = headers.clone();
+    }
+
+    public void writeRow(Object... cells) throws IOException {
+        if (!sheetOpen || sheetRows == MAX_ROWS) {
+            if (sheetOpen) {
+                closeSheet();
+            }
+            openSheet();
+        }
+        writeRowXml(cells, 0);
+    }
+
+    private void openSheet() throws IOException {
+        int number = sheetNames.size() + 1;
+        String name = number == 1 ? sheetName : numberedSheetName(number);
+        sheetNames.add(name);
+
+        xml.flush();
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + number + ".xml"));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        xml.write("<worksheet xmlns=\"" + MAIN_NS + "\">");
+        if (header != null) {
+            // Keep the header in view while scrolling
+            xml.write("<sheetViews><sheetView workbookViewId=\"0\">"
+                + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                + "</sheetView></sheetViews>");
+        }
+        xml.write("<sheetData>");
+        sheetOpen = true;
+        sheetRows = 0;
+        if (header != null) {
+            writeRowXml(header, STYLE_HEADER);
+        }
+    }
+
+    private void closeSheet() throws IOException {
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+        sheetOpen = false;
+    }
+
+    // style 0 picks a style per value; any other style is applied to every cell
+    private void writeRowXml(Object[] cells, int style) throws IOException {
+        sheetRows++;
+        xml.write("<row r=\"");
+        xml.write(Integer.toString(sheetRows));
+        xml.write("\">");
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) {
+                writeCell(columnName(i) + sheetRows, cells[i], style);
+            }
+        }
+        xml.write("</row>");
+    }
+
+    private void writeCell(String ref, Object value, int style) throws IOException {
+        if (style == 0) {
+            if (value instanceof Number && isFinite((Number) value)) {
+                xml.write("<c r=\"" + ref + "\"><v>" + numberText((Number) value) + "</v></c>");
+                return;
+            }
+            if (value instanceof Boolean) {
+                xml.write("<c r=\"" + ref + "\" t=\"b\"><v>" + (((Boolean) value) ? 1 : 0) + "</v></c>");
+                return;
+            }
+            LocalDate date = asDate(value);
+            if (date != null) {
+                xml.write("<c r=\"" + ref + "\" s=\"" + STYLE_DATE + "\"><v>" + ChronoUnit.DAYS.between(EXCEL_EPOCH, date) + "</v></c>");
+                return;
+            }
+            LocalDateTime timestamp = asTimestamp(value);
+            if (timestamp != null) {
+                double serial = ChronoUnit.DAYS.between(EXCEL_EPOCH, timestamp.toLocalDate())
+                    + timestamp.toLocalTime().toNanoOfDay() / 86_400_000_000_000d;
+                xml.write("<c r=\"" + ref + "\" s=\"" + STYLE_TIMESTAMP + "\"><v>" + serial + "</v></c>");
+                return;
+            }
+        }
+
+        String text = value.toString();
+        if (text.length() > MAX_CELL_TEXT) {
+            text = text.substring(0, MAX_CELL_TEXT);
+        }
+        xml.write("<c r=\"" + ref + "\" t=\"inlineStr\"" + (style != 0 ? " s=\"" + style + "\"" : "") + "><is><t");
+        if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+            xml.write(" xml:space=\"preserve\"");
+        }
+        xml.write('>');
+        writeEscaped(text);
+        xml.write("</t></is></c>");
+    }
+
+    private static boolean isFinite(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = value.doubleValue();
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        }
+        return true;
+    }
+
+    private static String numberText(Number value) {
+        return value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+    }
+
+    private static LocalDate asDate(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return value instanceof LocalDate ? (LocalDate) value : null;
+    }
+
+    private static LocalDateTime asTimestamp(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof java.util.Date && !(value instanceof java.sql.Time)) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((java.util.Date) value).getTime()), ZoneId.systemDefault());
+        }
+        return null;
+    }
+
+    // Escape markup and drop characters XML 1.0 cannot carry
+    private void writeEscaped(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': xml.write("&lt;"); break;
+                case '>': xml.write("&gt;"); break;
+                case '&': xml.write("&amp;"); break;
+                case '"': xml.write("&quot;"); break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        if (c != 0xFFFE && c != 0xFFFF) {
+                            xml.write(c);
+                        }
+                    }
+            }
+        }
+    }
+
+    // A, B, ..., Z, AA, AB, ...; cached since every row uses the same columns
+    private String columnName(int index) {
+        while (columnNames.size() <= index) {
+            int n = columnNames.size() + 1;
+            StringBuilder name = new StringBuilder();
+            while (n > 0) {
+                int remainder = (n - 1) % 26;
+                name.insert(0, (char) ('A' + remainder));
+                n = (n - 1) / 26;
+            }
+            columnNames.add(name.toString());
+        }
+        return columnNames.get(index);
+    }
+
+    private String numberedSheetName(int number) {
+        String suffix = " (" + number + ")";
+        String base = sheetName.length() + suffix.length() > MAX_SHEET_NAME
+            ? sheetName.substring(0, MAX_SHEET_NAME - suffix.length()) : sheetName;
+        return base + suffix;
+    }
+
+    private static String safeSheetName(String name) {
+        String safe = name == null ? "" : name.replaceAll("[\\[\\]:*?/\\\\]", " ").trim();
+        if (safe.isEmpty()) {
+            safe = "Sheet";
+        }
+        return safe.length() > MAX_SHEET_NAME ? safe.substring(0, MAX_SHEET_NAME) : safe;
+    }
+
+    private static String escapeAttribute(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    // Parts that do not depend on the number of sheets; worksheets use the default xml content type
+    private void writeStaticParts() throws IOException {
+        writeEntry("[Content_Types].xml",
+            "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+            + "</Types>");
+        writeEntry("_rels/.rels",
+            "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>");
+        writeEntry("xl/styles.xml",
+            "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"4\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"22\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+            + "</cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>");
+    }
+
+    // The workbook and its relationships list the sheets, so they are written last
+    private void writeWorkbook() throws IOException {
+        StringBuilder sheets = new StringBuilder();
+        StringBuilder rels = new StringBuilder();
+        for (int i = 0; i < sheetNames.size(); i++) {
+            int number = i + 1;
+            sheets.append("<sheet name=\"").append(escapeAttribute(sheetNames.get(i)))
+                  .append("\" sheetId=\"").append(number).append("\" r:id=\"rId").append(number).append("\"/>");
+            rels.append("<Relationship Id=\"rId").append(number).append("\" Type=\"").append(REL_NS)
+                .append("/worksheet\" Target=\"worksheets/sheet").append(number).append(".xml\"/>");
+        }
+        rels.append("<Relationship Id=\"rId").append(sheetNames.size() + 1).append("\" Type=\"").append(REL_NS)
+            .append("/styles\" Target=\"styles.xml\"/>");
+
+        writeEntry("xl/workbook.xml",
+            "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>" + sheets + "</sheets></workbook>");
+        writeEntry("xl/_rels/workbook.xml.rels",
+            "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" + rels + "</Relationships>");
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        xml.flush();
+        zip.putNextEntry(new ZipEntry(name));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        xml.write(content);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        xml.flush();
+    }
+
+    // Finish the current sheet (an empty workbook still gets one sheet) and the workbook
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!sheetOpen && sheetNames.isEmpty()) {
+                openSheet();
+            }
+            if (sheetOpen) {
+                closeSheet();
+            }
+            writeWorkbook();
+        } finally {
+            xml.close();
+        }
+    }
+}